@@ -0,0 +1,76 @@
+package frc.robot;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.networktables.NetworkTable;
+
+/**
+ * Benchmarks the limelight getters we call every loop while targeting
+ * <p>The limelight is mocked by publishing a target to the limelight table on the local network table instance.
+ * Snapshot mode is a parameter, so we can compare reading the cached frame against reading the table on every call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LimelightReaderBenchmark {
+    //whether the getters read the frame from update() or go to the table
+    @Param({"true", "false"})
+    public boolean m_snapshotMode;
+
+    //the angle of the camera from horizontal, as passed in from the robot map
+    private double m_cameraDegreesFromGround = RobotMap.CAMERA_DEGREES_FROM_GROUND;
+
+    private LimelightReader m_limelight;
+
+    /**
+     * Publishes a target we can hit the inner port on, and reads it into the frame
+     */
+    @Setup
+    public void setup() {
+        //update() stamps the frame with the FPGA time, which comes from the HAL
+        HAL.initialize(500, 0);
+
+        m_limelight = new LimelightReader();
+        m_limelight.setSnapshotMode(m_snapshotMode);
+
+        NetworkTable table = m_limelight.getTable();
+        table.getEntry("tv").setDouble(1);
+        table.getEntry("tx").setDouble(4.5);
+        table.getEntry("ty").setDouble(12.0);
+        table.getEntry("ts").setDouble(-3.0);
+        table.getEntry("ta").setDouble(1.2);
+        table.getEntry("tl").setDouble(22);
+
+        m_limelight.update();
+    }
+
+    @Benchmark
+    public double getModifiedDegreesToTarget() {
+        return m_limelight.getModifiedDegreesToTarget();
+    }
+
+    @Benchmark
+    public double getDistance() {
+        return m_limelight.getDistance(m_cameraDegreesFromGround);
+    }
+
+    /**
+     * Reads the table into the frame, which snapshot mode does once a loop
+     * @return The frame, so the reads aren't optimized out
+     */
+    @Benchmark
+    public LimelightReader.Frame update() {
+        m_limelight.update();
+        return m_limelight.getFrame();
+    }
+}
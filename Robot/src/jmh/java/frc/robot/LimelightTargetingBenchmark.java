@@ -0,0 +1,72 @@
+package frc.robot;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.networktables.NetworkTable;
+import frc.robot.LimelightTargeting.TargetingMode;
+
+/**
+ * Benchmarks one loop of targeting in each targeting mode
+ * <p>The hardware is mocked the same way the desktop simulator does it: the drivetrain and NavX run on the {@link DrivetrainSim},
+ * and the limelight is a target published to the limelight table. Each call reads the frame like the robot loop does,
+ * records the heading, and targets.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LimelightTargetingBenchmark {
+    //the targeting mode, by name
+    @Param({"kRaw", "kLatencyCompensated", "kGyroLatched"})
+    public String m_targetingMode;
+
+    private LimelightReader m_limelight;
+    private LimelightTargeting m_targeting;
+
+    /**
+     * Builds the simulated drivetrain and a limelight that sees a target
+     */
+    @Setup
+    public void setup() {
+        HAL.initialize(500, 0);
+
+        m_limelight = new LimelightReader();
+        m_limelight.setSnapshotMode(true);
+
+        NetworkTable table = m_limelight.getTable();
+        table.getEntry("tv").setDouble(1);
+        table.getEntry("tx").setDouble(4.5);
+        table.getEntry("ty").setDouble(12.0);
+        table.getEntry("ts").setDouble(-3.0);
+        table.getEntry("ta").setDouble(1.2);
+        table.getEntry("tl").setDouble(22);
+
+        m_targeting = new LimelightTargeting(new Drivetrain(RobotMap.DRIVETRAIN_HAS_TWO_SOLENOIDS), m_limelight);
+        m_targeting.setTargetingMode(TargetingMode.valueOf(m_targetingMode));
+    }
+
+    @Benchmark
+    public boolean target() {
+        m_limelight.update();
+        m_targeting.recordHeading();
+        return m_targeting.target();
+    }
+
+    /**
+     * Stops the aim loop so it doesn't keep driving once we are done
+     */
+    @TearDown
+    public void tearDown() {
+        m_targeting.stopTargeting();
+    }
+}
@@ -0,0 +1,39 @@
+package frc.robot;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import edu.wpi.first.hal.HAL;
+
+/**
+ * Benchmarks counting the balls in the magazine, which reads both sensors every loop
+ * <p>The sensors and motor are the simulation HAL's, so this includes the cost of the JNI calls into the HAL
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MagazineBenchmark {
+    private Magazine m_magazine;
+
+    /**
+     * Builds the magazine on its robot map ports against the simulation HAL
+     */
+    @Setup
+    public void setup() {
+        HAL.initialize(500, 0);
+        m_magazine = new Magazine();
+    }
+
+    @Benchmark
+    public int manageStoredBalls() {
+        m_magazine.manageStoredBalls();
+        return m_magazine.getStoredBalls();
+    }
+}
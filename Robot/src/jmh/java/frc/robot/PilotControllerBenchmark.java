@@ -0,0 +1,45 @@
+package frc.robot;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import edu.wpi.first.hal.HAL;
+import frc.robot.PilotController.DriveType;
+
+/**
+ * Benchmarks the deadband we apply to every stick input, twice a loop
+ * <p>The stick input is a parameter so we time both the early exit inside the deadband and the scaling outside of it
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PilotControllerBenchmark {
+    //the stick input, inside and outside of the deadband
+    @Param({"0.05", "-0.6"})
+    public double m_stickInput;
+
+    private PilotController m_pilotController;
+
+    /**
+     * Builds a pilot controller against the simulation HAL
+     */
+    @Setup
+    public void setup() {
+        //the pilot controller builds the drivetrain, so the HAL has to be running
+        HAL.initialize(500, 0);
+        m_pilotController = new PilotController(DriveType.kArcade, new LimelightReader());
+    }
+
+    @Benchmark
+    public double adjustForDeadband() {
+        return m_pilotController.adjustForDeadband(m_stickInput);
+    }
+}
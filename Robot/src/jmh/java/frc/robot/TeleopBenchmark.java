@@ -0,0 +1,43 @@
+package frc.robot;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import edu.wpi.first.hal.HAL;
+
+/**
+ * Benchmarks a whole teleop loop of the robot against the simulation HAL
+ * <p>Each call is what the TimedRobot loop runs in teleop: teleopPeriodic(), then robotPeriodic(), which logs telemetry.
+ * The joysticks read as centered since no driver station is connected,
+ * so this times the loop the robot runs while sitting still in teleop.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TeleopBenchmark {
+    private Robot m_robot;
+
+    /**
+     * Builds the robot and enters teleop, as the robot loop would
+     */
+    @Setup
+    public void setup() {
+        HAL.initialize(500, 0);
+        m_robot = new Robot();
+        m_robot.robotInit();
+        m_robot.teleopInit();
+    }
+
+    @Benchmark
+    public void teleopTick() {
+        m_robot.teleopPeriodic();
+        m_robot.robotPeriodic();
+    }
+}
@@ -0,0 +1,95 @@
+package frc.robot;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Reads how many bytes the current thread has allocated over its lifetime, from the JVM's per-thread allocation counter
+ * <p>The counter is part of the HotSpot specific com.sun.management.ThreadMXBean, which a trimmed down JVM may not include.
+ * {@link #create()} returns null when the counter isn't available, so the caller can run without allocation tracking.
+ * <p>Reading the counter allocates a few small arrays of its own, so that overhead is measured once up front
+ * and subtracted from every reading
+ */
+public class AllocationCounter {
+    //the number of back to back reads we measure the read overhead over, keeping the smallest
+    private static final int CALIBRATION_READS = 20;
+
+    private final com.sun.management.ThreadMXBean m_threadBean;
+
+    //the bytes a single read of the counter allocates
+    private final long m_readOverheadBytes;
+
+    /**
+     * Constructor for AllocationCounter objects
+     * @param threadBean The thread bean, which must support allocated memory measurement
+     */
+    private AllocationCounter(com.sun.management.ThreadMXBean threadBean) {
+        m_threadBean = threadBean;
+
+        //reading the counter twice in a row shows how much one read allocates
+        //the smallest difference is the one the JIT or a stray allocation didn't skew
+        long overhead = Long.MAX_VALUE;
+        for (int read = 0; read < CALIBRATION_READS; read++) {
+            long first = readRaw();
+            long second = readRaw();
+            overhead = Math.min(overhead, second - first);
+        }
+        m_readOverheadBytes = Math.max(0, overhead);
+    }
+
+    /**
+     * Creates an allocation counter, if this JVM supports one
+     * @return The counter, or null if this JVM can't measure per thread allocation
+     */
+    public static AllocationCounter create() {
+        try {
+            java.lang.management.ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+            if (!(threadBean instanceof com.sun.management.ThreadMXBean)) {
+                return null;
+            }
+
+            com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+            if (!allocationBean.isThreadAllocatedMemorySupported()) {
+                return null;
+            }
+            allocationBean.setThreadAllocatedMemoryEnabled(true);
+            return new AllocationCounter(allocationBean);
+        }
+        //a JVM without the jdk.management module fails to link com.sun.management
+        catch (LinkageError | UnsupportedOperationException | SecurityException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return The bytes the current thread has allocated, including the overhead of this read
+     */
+    private long readRaw() {
+        return m_threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Reads the bytes the current thread has allocated
+     * <p>Only the difference between two readings is meaningful. Each difference includes the overhead of one read,
+     * so use {@link #getBytesSince(long)} for the end of a measurement
+     * @return The bytes the current thread has allocated since it started
+     */
+    public long getAllocatedBytes() {
+        return readRaw();
+    }
+
+    /**
+     * Reads the bytes the current thread has allocated since an earlier reading, without the overhead of reading
+     * @param startBytes The value returned by {@link #getAllocatedBytes()} at the start of the measurement
+     * @return The bytes allocated since that reading
+     */
+    public long getBytesSince(long startBytes) {
+        return Math.max(0, readRaw() - startBytes - m_readOverheadBytes);
+    }
+
+    /**
+     * @return The bytes each read of the counter allocates, which is subtracted from every measurement
+     */
+    public long getReadOverheadBytes() {
+        return m_readOverheadBytes;
+    }
+}
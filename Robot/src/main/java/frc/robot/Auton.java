@@ -1,6 +1,6 @@
 package frc.robot;
 
-import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.DriverStation;
 import frc.robot.Drivetrain.Gear;
 
 /**
@@ -8,7 +8,7 @@ import frc.robot.Drivetrain.Gear;
  * @author Josh Overbeek
  * @version 3/9/2020
  */
-public class Auton implements AutonBase {
+public class Auton implements AutonBase, AutonActions {
 
     /**
      * This enum stores the possible states for auton in order
@@ -23,36 +23,38 @@ public class Auton implements AutonBase {
         /**
          * The initial reverse where we back away from the starting line
          */
-        kInitialReverse(0), 
+        kInitialReverse("Initial Reverse"), 
         /**
          * The targeting phase where we lock onto the target
          */
-        kTarget(1), 
+        kTarget("Target"), 
         /**
-         * The phase where we rev the launcher to launch velocity
+         * The phase where we rev the launcher to launch velocity. The parallel routine revs during the earlier states instead
          */
-        kRevToVelocity(2), 
+        kRevToVelocity("Rev To Velocity"), 
         /**
          * The phase where we feed the balls through the launcher
          */
-        kRunBalls(3), 
+        kRunBalls("Run Balls"), 
         /**
          * The end phase. This should always be the last case that we run
          */
-        kEnd(4);
+        kEnd("End");
 
-        private int stateNumber;
+        private String stateName;
 
-        private AutonState(int stateNumber) {
-            this.stateNumber = stateNumber;
-        }
-
-        public int getStateNumber() {
-            return stateNumber;
+        /**
+         * @param stateName The name of the state as displayed on the shuffleboard
+         */
+        AutonState(String stateName) {
+            this.stateName = stateName;
         }
 
-        public boolean equals(AutonState autonState) {
-            return (this.stateNumber == autonState.getStateNumber());
+        /**
+         * Returns the state represented as a string
+         */
+        public String toString() {
+            return this.stateName;
         }
     }
 
@@ -61,22 +63,121 @@ public class Auton implements AutonBase {
     private LimelightTargeting m_targeting;
     private Magazine m_magazine;
     private Launcher m_launcher;
-    private AutonState m_state;
-    private double m_tempTime = 0;
 
-    //the launch speed of the launcher in encoder units per 100ms
-    private double m_launchSpeed = 4800;
+    //runs our routine, and records how long we spend in each state
+    private StateMachine<AutonState> m_stateMachine;
+
+    //the launch speed of the launcher in RPM
+    private double m_launchSpeed = RobotMap.AUTON_LAUNCH_RPM;
+
+    //the name of the path we back up along, in the trajectory file
+    public static final String BACK_UP_PATH_NAME = "Back Up";
+
+    //drives our paths, and the path we back up along, which is loaded from the trajectory file when the robot boots
+    private PathFollower m_pathFollower;
+    private Trajectory m_backUpPath;
 
     /**
      * Constructor for auton objects
      * <p>We pass in all the objects to avoid creating multiple drivetrains, etc.
      */
-    public Auton(LimelightTargeting targeting, Magazine magazine, Launcher launcher, Drivetrain drivetrain) {
+    public Auton(LimelightTargeting targeting, Magazine magazine, Launcher launcher, Drivetrain drivetrain, PoseEstimator poseEstimator) {
         m_magazine = magazine;
         m_launcher = launcher;
         m_drivetrain = drivetrain;
         m_targeting = targeting;
-        m_state = AutonState.kInitialReverse;
+
+        //our paths are generated at build time, so booting only has to map the trajectory file
+        //a path missing from the file, such as when it wasn't deployed, is generated now instead, which takes a while and allocates
+        m_pathFollower = new PathFollower(drivetrain, poseEstimator, DriveCharacterization.create());
+        TrajectoryFile paths = TrajectoryFile.loadFromDeploy(RobotMap.TRAJECTORY_FILE);
+        m_backUpPath = paths.get(BACK_UP_PATH_NAME);
+        if (m_backUpPath == null) {
+            DriverStation.reportWarning("Auton path " + BACK_UP_PATH_NAME + " is not in " + RobotMap.TRAJECTORY_FILE + ", generating it", false);
+            m_backUpPath = createBackUpPath();
+        }
+        System.out.println("Auton path " + m_backUpPath);
+
+        m_stateMachine = createStateMachine(this, true);
+    }
+
+    /**
+     * Makes the state machine for our routine, sequential or parallel as set by AUTON_PARALLEL
+     * <p>This is shared with the log replay, which runs the same table on logged timestamps with actions answered from the log
+     * @param actions The actions run in each state
+     * @param report Whether the machine publishes to the shuffleboard and prints its timings
+     * @return The state machine, which still has to be started
+     */
+    public static StateMachine<AutonState> createStateMachine(AutonActions actions, boolean report) {
+        StateMachine<AutonState> stateMachine = new StateMachine<AutonState>("Auton", AutonState.values(), report);
+        if (RobotMap.AUTON_PARALLEL) {
+            configParallelRoutine(stateMachine, actions);
+        }
+        else {
+            configSequentialRoutine(stateMachine, actions);
+        }
+        return stateMachine;
+    }
+
+    /**
+     * Declares our routine as a table of states
+     * <p>Each row is the state, the action run every loop in that state, the state we go to when the action finishes,
+     * and how long we give the action before moving on anyway. A timeout moves on rather than stopping, since launching
+     * slightly off target still scores more than sitting still.
+     * @param stateMachine The machine to fill in
+     * @param actions The actions run in each state
+     */
+    private static void configSequentialRoutine(StateMachine<AutonState> stateMachine, AutonActions actions) {
+        //back up a short amount
+        stateMachine.addState(AutonState.kInitialReverse, actions::backUp,
+                                AutonState.kTarget, RobotMap.AUTON_REVERSE_TIMEOUT_S, AutonState.kTarget);
+
+        //lock on to the target and rev the launcher to holding speed
+        stateMachine.addState(AutonState.kTarget, actions::targetAndHold,
+                                AutonState.kRevToVelocity, RobotMap.AUTON_TARGET_TIMEOUT_S, AutonState.kRevToVelocity);
+
+        //revs the launcher up to launch speed while staying on target
+        stateMachine.addState(AutonState.kRevToVelocity, actions::targetAndRev,
+                                AutonState.kRunBalls, RobotMap.AUTON_REV_TIMEOUT_S, AutonState.kRunBalls);
+
+        //drives the magazine for launching, until we have run it long enough to empty it
+        stateMachine.addState(AutonState.kRunBalls, actions::runBalls,
+                                AutonState.kEnd, RobotMap.AUTON_LAUNCH_TIME_S, AutonState.kEnd);
+
+        //kill all motors as the final state
+        stateMachine.addState(AutonState.kEnd, actions::end, null);
+    }
+
+    /**
+     * Declares our routine as a table of states, spinning the launcher up while we back up and target
+     * <p>The launcher and the drivetrain don't share any motors, so the launcher can rev to launch speed from the moment auton starts.
+     * Each branch's finish time is recorded, so the printout at the end shows how much time this saves over the sequential routine.
+     * @param stateMachine The machine to fill in
+     * @param actions The actions run in each state
+     */
+    private static void configParallelRoutine(StateMachine<AutonState> stateMachine, AutonActions actions) {
+        //spinning up runs through backing up and targeting, so the launcher never drops back to holding speed
+        //each state gets its own branch, so each records when spin up finished in that state
+
+        //back up, with the launcher revving alongside. Backing up alone decides when we move on,
+        //since targeting can finish revving the launcher
+        stateMachine.addParallelState(AutonState.kInitialReverse, StateMachine.Join.kDeadline,
+                                      AutonState.kTarget, RobotMap.AUTON_REVERSE_TIMEOUT_S, AutonState.kTarget,
+                                      new StateMachine.Branch("Reverse", actions::backUp),
+                                      new StateMachine.Branch("Spin Up", actions::spinUp));
+
+        //lock on to the target while the launcher finishes revving, and launch once both are ready in the same loop
+        stateMachine.addParallelState(AutonState.kTarget, StateMachine.Join.kAll,
+                                      AutonState.kRunBalls, RobotMap.AUTON_TARGET_TIMEOUT_S, AutonState.kRunBalls,
+                                      new StateMachine.Branch("Target", actions::target),
+                                      new StateMachine.Branch("Spin Up", actions::spinUp));
+
+        //drives the magazine for launching, until we have run it long enough to empty it
+        stateMachine.addState(AutonState.kRunBalls, actions::runBalls,
+                                AutonState.kEnd, RobotMap.AUTON_LAUNCH_TIME_S, AutonState.kEnd);
+
+        //kill all motors as the final state
+        stateMachine.addState(AutonState.kEnd, actions::end, null);
     }
 
     /**
@@ -92,85 +193,124 @@ public class Auton implements AutonBase {
         m_magazine.runBelt(0);                  //ensure the magazine is not moving
         m_targeting.resetPID();                 //reset the PID constants to their RobotMap values
         m_targeting.resetError();               //reset the PID on the targeting to clear any accumulated error
-        m_state = AutonState.kInitialReverse;   //set the auton to its initial state
         m_drivetrain.zeroEncoders();            //zero drivetrain encoders to ensure consistency
+        m_pathFollower.start(m_backUpPath);             //start the clock on the back up path, which only drives while we are backing up
+        m_stateMachine.start(AutonState.kInitialReverse);   //set the auton to its initial state and start its timers
+    }
+
+    /**
+     * Makes every path auton drives, for the trajectory file that is written at build time
+     * <p>Add new paths here, so they are generated ahead of time rather than when the robot boots
+     * @return Every auton path
+     */
+    public static Trajectory[] createPaths() {
+        return new Trajectory[] {createBackUpPath()};
+    }
+
+    /**
+     * Makes the path we back up from the starting line along
+     * <p>This is shared with the log replay, so both time the back up the same way
+     * @return A path straight backwards from our starting pose by AUTON_BACK_UP_DISTANCE_M
+     */
+    public static Trajectory createBackUpPath() {
+        FieldPose start = new FieldPose(RobotMap.ODOMETRY_START_X_M, RobotMap.ODOMETRY_START_Y_M, RobotMap.ODOMETRY_START_HEADING_RAD);
+        FieldPose end = new FieldPose(start.getX() - (RobotMap.AUTON_BACK_UP_DISTANCE_M * Math.cos(start.getHeading())),
+                                      start.getY() - (RobotMap.AUTON_BACK_UP_DISTANCE_M * Math.sin(start.getHeading())),
+                                      start.getHeading());
+        return TrajectoryGenerator.generate(BACK_UP_PATH_NAME, new FieldPose[] {start, end}, true);
+    }
+
+    /**
+     * Backs away from the starting line, along our back up path or open loop to an encoder count
+     * @return Whether we have finished backing up
+     */
+    @Override
+    public boolean backUp() {
+        if (RobotMap.AUTON_FOLLOW_PATH) {
+            return m_pathFollower.follow();
+        }
+        return reverse(RobotMap.AUTON_REVERSE_SPEED, RobotMap.AUTON_REVERSE_TARGET);
     }
 
     /**
      * To be run in auton periodic.
-     * This runs through our auton sequence
+     * This runs the current state of our routine, and moves on when it finishes or times out
      */
-    //This method follows this structure: 
-    //Check state in enclosing if statement
-    //Run method which returns whether it is finished
-    //If the method is complete, change the state, otherwise return out
     public void periodic() {
-        //back up a short amount at a low speed
-        if (m_state.equals(AutonState.kInitialReverse)) {
-            //commented out, uncomment for debugging auton
-            //System.out.println("Move back");
-            
-            if (reverse(-0.15, -30000)) { //TODO: these values should not be hardcoded in a final version
-                m_state = AutonState.kTarget;
-            }
-            else {
-                return;
-            }
-        }
-        //lock on to the target and rev the launcher to holding speed
-        else if (m_state.equals(AutonState.kTarget)) {
-            //commented out, uncomment for debugging auton
-            //System.out.println("target");
-
-            //rev the launcher to the holding speed in open loop control to avoid(?) brownouts
-            m_launcher.setMotor(RobotMap.LAUNCHER_HOLDING_SPEED);
-
-            //if we are on target and our launcher is up to speed, progress the state
-            if (m_targeting.target() && 
-               (m_launcher.getMasterMotor().getMotorOutputPercent() > RobotMap.LAUNCHER_HOLDING_SPEED - 0.03)) {
-                m_state = AutonState.kRevToVelocity;
-            }
-            else {
-                return;
-            }
-        }
-        //revs the launcher up to launch speed
-        else if (m_state.equals(AutonState.kRevToVelocity)) {
-            //run the limelight targeting method to lock onto the high target
-            m_targeting.target();
-
-            //commented out, uncomment for debugging auton
-            //System.out.println("rev");
-
-            //if we are at speed. exit out
-            if (revToVelocity(m_launchSpeed)) {
-                m_state = AutonState.kRunBalls;
-                m_tempTime = Timer.getFPGATimestamp();
-            }
-        }
-        //drives the magazine for launching
-        else if (m_state.equals(AutonState.kRunBalls)) {
-            //zero drivetrain
-            m_drivetrain.arcadeDrive(0, 0);
+        m_stateMachine.periodic();
+    }
 
-            //commented out, uncomment for debugging auton
-            //System.out.println("mag");
+    /**
+     * Revs the launcher to launch speed, alongside backing up or targeting
+     * @return Whether the launcher has settled at launch speed
+     */
+    @Override
+    public boolean spinUp() {
+        return revToVelocity(m_launchSpeed);
+    }
 
-            //run our magazine to launch balls
-            m_magazine.runBelt(RobotMap.MAGAZINE_LAUNCH_SPEED);
+    /**
+     * Locks on to the target, alongside spinning up
+     * @return Whether we are on target
+     */
+    @Override
+    public boolean target() {
+        return m_targeting.target();
+    }
 
-            //progress state after three seconds
-            if (m_tempTime + 3 < Timer.getFPGATimestamp()) {
-                m_state = AutonState.kEnd;
-            }
-        }
-        //kill all motors as the final state
-        else if (m_state.equals(AutonState.kEnd)) {
-            System.out.println("end");
-            m_drivetrain.arcadeDrive(0, 0);
-            m_launcher.setMotor(0);
-            m_magazine.runBelt(0);
-        }
+    /**
+     * Locks on to the target while revving the launcher to holding speed
+     * @return Whether we are on target and the launcher is up to holding speed
+     */
+    @Override
+    public boolean targetAndHold() {
+        //rev the launcher to the holding speed in open loop control to avoid(?) brownouts
+        m_launcher.setMotor(RobotMap.LAUNCHER_HOLDING_SPEED);
+
+        //we are finished when we are on target and our launcher is up to speed
+        return m_targeting.target() && 
+               (m_launcher.getMotorOutputPercent() > RobotMap.LAUNCHER_HOLDING_SPEED - RobotMap.LAUNCHER_HOLDING_TOLERANCE);
+    }
+
+    /**
+     * Stays locked on to the target while revving the launcher to launch speed
+     * @return Whether the launcher has settled at launch speed
+     */
+    @Override
+    public boolean targetAndRev() {
+        //run the limelight targeting method to lock onto the high target
+        m_targeting.target();
+
+        return revToVelocity(m_launchSpeed);
+    }
+
+    /**
+     * Runs the magazine to launch our balls
+     * <p>We can't count balls out reliably yet, so this never finishes on its own and the state's timeout ends it
+     * @return false
+     */
+    @Override
+    public boolean runBalls() {
+        //stop the aim loop from turning, then zero drivetrain
+        m_targeting.stopTargeting();
+        m_drivetrain.arcadeDrive(0, 0);
+
+        //run our magazine to launch balls
+        m_magazine.runBelt(RobotMap.MAGAZINE_LAUNCH_SPEED);
+        return false;
+    }
+
+    /**
+     * Stops every motor
+     * @return true, though the final state never leaves
+     */
+    @Override
+    public boolean end() {
+        m_targeting.stopTargeting();
+        m_drivetrain.arcadeDrive(0, 0);
+        m_launcher.setMotor(0);
+        m_magazine.runBelt(0);
+        return true;
     }
 
     /**
@@ -186,7 +326,7 @@ public class Auton implements AutonBase {
         target = -Math.abs(target);
 
         //if we have moved further back than our target on either side, stop moving and return true
-        if (m_drivetrain.getLeftDriveEncoderPosition() < target || m_drivetrain.getRightDriveEncoderPosition() < target) {
+        if (hasReversed(m_drivetrain.getLeftDriveEncoderPosition(), m_drivetrain.getRightDriveEncoderPosition(), target)) {
             m_drivetrain.arcadeDrive(0, 0);
             return true;
         }
@@ -197,6 +337,19 @@ public class Auton implements AutonBase {
         }
     }
 
+    /**
+     * Checks whether we have backed up past our target
+     * <p>This is shared with the log replay, so both decide the same way
+     * @param leftPosition The left drive encoder position in encoder ticks
+     * @param rightPosition The right drive encoder position in encoder ticks
+     * @param target The target in encoder ticks, which is made negative
+     * @return Whether either side has moved further back than the target
+     */
+    public static boolean hasReversed(int leftPosition, int rightPosition, double target) {
+        target = -Math.abs(target);
+        return (leftPosition < target || rightPosition < target);
+    }
+
     /**
      * Revs the launcher up to a holding speed to prevent or limit brownouts
      * with open loop, fixed acceleration control
@@ -207,21 +360,31 @@ public class Auton implements AutonBase {
         m_launcher.setMotor(holdingSpeed);
     }
 
+    /**
+     * @return The state auton is currently in, or null before auton has started
+     */
+    public AutonState getState() {
+        return m_stateMachine.getState();
+    }
+
+    /**
+     * @return The state machine running our routine, which has the time spent in each state
+     */
+    public StateMachine<AutonState> getStateMachine() {
+        return m_stateMachine;
+    }
+
     /**
      * Revs the launcher to its launch speed with closed loop velocity control
      * 
      * @param velocity The launch speed of the launcher in RPM
+     * @return Whether the launcher has settled at the launch speed
      */
     public boolean revToVelocity(double velocity) {
         //convert the speed in RPM to units per 100ms and set the launcher velocity with that
         m_launcher.setVelocity(velocity * RobotMap.RPM_TO_UNITS_PER_100MS);
 
-        //if our current speed is close enough to our target, return that we have reached it
-        if ((m_launcher.getMasterMotor().getSelectedSensorVelocity() / RobotMap.RPM_TO_UNITS_PER_100MS) > (velocity - 50)) {
-            return true;
-        }
-        else {
-            return false;
-        }
+        //return whether our speed has settled close enough to our target
+        return m_launcher.isAtTargetVelocity();
     }
 }
\ No newline at end of file
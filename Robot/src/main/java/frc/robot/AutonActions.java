@@ -0,0 +1,50 @@
+package frc.robot;
+
+/**
+ * The actions our auton routine runs in each state, each returning whether it has finished
+ * <p>{@link Auton} drives the robot with these, and the log replay answers them from the logged sensors,
+ * so both run the same table from {@link Auton#createStateMachine}
+ */
+public interface AutonActions {
+    /**
+     * Backs away from the starting line
+     * @return Whether we have finished backing up
+     */
+    public boolean backUp();
+
+    /**
+     * Revs the launcher to launch speed, alongside another action
+     * @return Whether the launcher has settled at launch speed
+     */
+    public boolean spinUp();
+
+    /**
+     * Locks on to the target, alongside another action
+     * @return Whether we are on target
+     */
+    public boolean target();
+
+    /**
+     * Locks on to the target while revving the launcher to holding speed
+     * @return Whether we are on target and the launcher is up to holding speed
+     */
+    public boolean targetAndHold();
+
+    /**
+     * Stays locked on to the target while revving the launcher to launch speed
+     * @return Whether the launcher has settled at launch speed
+     */
+    public boolean targetAndRev();
+
+    /**
+     * Runs the magazine to launch our balls
+     * @return Whether we have launched every ball
+     */
+    public boolean runBalls();
+
+    /**
+     * Stops every motor
+     * @return Whether we have stopped
+     */
+    public boolean end();
+}
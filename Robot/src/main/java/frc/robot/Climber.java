@@ -1,14 +1,16 @@
 package frc.robot;
 
+import java.util.ArrayList;
+
 import com.ctre.phoenix.motorcontrol.ControlMode;
 import com.ctre.phoenix.motorcontrol.FeedbackDevice;
 import com.ctre.phoenix.motorcontrol.SensorCollection;
-import com.ctre.phoenix.motorcontrol.StatusFrame;
 import com.ctre.phoenix.motorcontrol.can.BaseMotorController;
 import com.ctre.phoenix.motorcontrol.can.TalonSRX;
 
 import edu.wpi.first.wpilibj.PWMSparkMax;
 import edu.wpi.first.wpilibj.SpeedController;
+import frc.robot.MotorConfigurator.DeviceConfig;
 
 /**
  * Climber with two motors
@@ -27,6 +29,9 @@ public class Climber {
     private TalonSRX m_extensionMotor;
     private SpeedController m_liftMotor;
 
+    //the output cache for the extension motor, so we don't resend the same output every loop
+    private MotorOutputCache m_extensionOutput;
+
     // encoders for the extension and lift motors
     private SensorCollection m_extensionEncoder;
   
@@ -50,6 +55,7 @@ public class Climber {
         //instantiate instance variables
         m_extensionMotor = extensionMotor;
         m_liftMotor = liftMotor;
+        m_extensionOutput = new MotorOutputCache(m_extensionMotor);
 
         //sets our encoders to the encoders plugged into the talons
         m_extensionEncoder = new SensorCollection(m_extensionMotor);
@@ -58,8 +64,7 @@ public class Climber {
         //object construction should occur in RobotInit or in Robot contructor
         m_startingPosition = m_extensionEncoder.getQuadraturePosition();
 
-        //config the extension talon to run via motion magic
-        configExtensionMotionMagic();
+        //the extension talon is configured for motion magic on robot startup by the MotorConfigurator, see getMotorConfigs()
     }
 
     /**
@@ -69,6 +74,7 @@ public class Climber {
         //instantiate instance variables
         m_extensionMotor = new TalonSRX(RobotMap.EXTENSION_MOTOR_ID);
         m_liftMotor = new PWMSparkMax(RobotMap.LIFT_MOTOR_PORT);
+        m_extensionOutput = new MotorOutputCache(m_extensionMotor);
 
         //sets our encoders to the encoders plugged into the talons
         m_extensionEncoder = new SensorCollection(m_extensionMotor);
@@ -77,8 +83,7 @@ public class Climber {
         //object construction should occur in RobotInit or in Robot contructor
         m_startingPosition = m_extensionEncoder.getQuadraturePosition();
 
-        //config the extension talon to run via motion magic
-        configExtensionMotionMagic();
+        //the extension talon is configured for motion magic on robot startup by the MotorConfigurator, see getMotorConfigs()
     }
 
     /**
@@ -86,7 +91,7 @@ public class Climber {
      * @param motorSpeed A value between -1.0 and 1.0 where 1.0 is full speed forward
      */
     public void setExtensionSpeed(double motorSpeed) {
-        m_extensionMotor.set(ControlMode.PercentOutput, motorSpeed);
+        m_extensionOutput.set(ControlMode.PercentOutput, motorSpeed);
     }
     
     /**
@@ -102,7 +107,7 @@ public class Climber {
      * @param targetPos The position in encoder ticks we are attempting to drive to
      */
     public void controlClimberExtension(int targetPos) {
-        m_extensionMotor.set(ControlMode.MotionMagic, targetPos);
+        m_extensionOutput.set(ControlMode.MotionMagic, targetPos);
     }
 
     /**
@@ -161,69 +166,74 @@ public class Climber {
     }
 
     /**
-     * Configures the motion magic PID control for the extension motor
+     * Builds the motion magic PID configuration for the extension motor, to be run by the MotorConfigurator on robot startup
+     * @return The config for the extension motor
      */
-    public void configExtensionMotionMagic() {
-        //zero our motors and reset the encoders
-        // zeroMotors();
-        encoderReset();
-
-        //set our feedback sensor to the encoder plugged into the motor controller
-        m_extensionMotor.configSelectedFeedbackSensor(FeedbackDevice.QuadEncoder);
-
-        //sets whether our motor is inverted
-        //this is currently false but can be switched based on testing
-        m_extensionMotor.setInverted(false);
-        m_extensionMotor.setSensorPhase(false);
-
-        //this sets how often we pull data from our sensor
-        //as it is currently set, the motor controller will read from the encoder every 10 miliseconds
-        m_extensionMotor.setStatusFramePeriod(StatusFrame.Status_2_Feedback0, RobotMap.CLIMBER_FEEDBACK_PERIOD_MS, RobotMap.CLIMBER_CONFIG_TIMEOUT_MS);
-
-        //this configs the deadband for the PID output. Any output with an absolute value less than this will be treated as zero
-        //curently, this is the factory default (0.04), but should be tuned on testing
-        m_extensionMotor.configNeutralDeadband(RobotMap.CLIMBER_NEUTRAL_DEADBAND, RobotMap.CLIMBER_CONFIG_TIMEOUT_MS);
-
-        //this sets the peak output for our PID. The PID cannot output a value higher than this
-        //this is currently set to 1.0, so the PID can output as much as it wants
-        m_extensionMotor.configPeakOutputForward(RobotMap.CLIMBER_PID_PEAK_OUTPUT, RobotMap.CLIMBER_CONFIG_TIMEOUT_MS);
-        //this does the same thing but for the reverse direction
-        m_extensionMotor.configPeakOutputReverse(-RobotMap.CLIMBER_PID_PEAK_OUTPUT, RobotMap.CLIMBER_CONFIG_TIMEOUT_MS);
-
-        //configs the acceleration of the extension in sensor units per hundered miliseconds per second
-        //this is currently set to 1000u/100ms/s, which is half the value of last year's elevator
-        m_extensionMotor.configMotionAcceleration(RobotMap.CLIMBER_MOTION_MAGIC_ACCEL, RobotMap.CLIMBER_CONFIG_TIMEOUT_MS);
-        m_extensionMotor.configMotionSCurveStrength(1);
-        //configs the cruise velocity of the extension in sensor units per hundred miliseconds
-        //this is currently set to 1000u/100ms, which is half the value of last year's elevator
-        m_extensionMotor.configMotionCruiseVelocity(RobotMap.CLIMBER_MOTION_MAGIC_CRUISE_VELOCITY, RobotMap.CLIMBER_CONFIG_TIMEOUT_MS);
-
-        //this sets the PIDF values for the motion magic PID controller
-        //the zero is the PID slot, in this case it is zero for the primary PID. The climber has no aux PID (Which would be for turning)
-        //that zero repeats in much of the PID config methods called here, and always does that
-        m_extensionMotor.config_kP(0, RobotMap.CLIMBER_EXTENSION_P, RobotMap.CLIMBER_CONFIG_TIMEOUT_MS);
-        m_extensionMotor.config_kI(0, RobotMap.CLIMBER_EXTENSION_I, RobotMap.CLIMBER_CONFIG_TIMEOUT_MS);
-        m_extensionMotor.config_kD(0, RobotMap.CLIMBER_EXTENSION_D, RobotMap.CLIMBER_CONFIG_TIMEOUT_MS);
-        m_extensionMotor.config_kF(0, RobotMap.CLIMBER_EXTENSION_F, RobotMap.CLIMBER_CONFIG_TIMEOUT_MS);
-
-        //this sets the acceptable amount of Integral error, where if the absolute accumulated error exceeds this ammount, it resets to zero
-        //this is designed to prevent the PID from going crazy if we move too far from our target
-        m_extensionMotor.config_IntegralZone(0, RobotMap.CLIMBER_EXTENSION_I_ZONE, RobotMap.CLIMBER_CONFIG_TIMEOUT_MS);
-
-        //sets the max output of the motor specifically within closed loop control
-        //this is likely redundant, but the values can be set to seperate if needed in testing
-        m_extensionMotor.configClosedLoopPeakOutput(0, RobotMap.CLIMBER_PID_PEAK_OUTPUT, RobotMap.CLIMBER_CONFIG_TIMEOUT_MS);
-
-        //this configures an allowable error in closed loop control
-        //any error less than this is treated as zero. We currently set this to zero, but we can increase it if need be
-        m_extensionMotor.configAllowableClosedloopError(0, RobotMap.CLIMBER_EXTENSION_ACCEPTABLE_ERROR, RobotMap.CLIMBER_CONFIG_TIMEOUT_MS);
-
-        //configures the period for closed loop calculations in MS 
-        //Currently set to 10, but should be increased if the can bus is haveing issues
-        m_extensionMotor.configClosedLoopPeriod(0, RobotMap.CLIMBER_EXTENSION_CLOSED_LOOP_PERIOD_MS, RobotMap.CLIMBER_CONFIG_TIMEOUT_MS);
-
-        //sets our closed loop control to use our primary PID slot
-        m_extensionMotor.selectProfileSlot(0, 0);
+    public ArrayList<DeviceConfig> getMotorConfigs() {
+        ArrayList<DeviceConfig> configs = new ArrayList<DeviceConfig>();
+
+        DeviceConfig extension = new DeviceConfig("Climber Extension", m_extensionMotor, RobotMap.CLIMBER_CONFIG_TIMEOUT_MS)
+            //the motor may have been running before a reset, so make sure our next output is sent
+            .addSetting(m_extensionOutput::invalidate)
+
+            //reset the encoders on startup, but not behind the main loop after a reset
+            .addStartup((timeoutMs) -> m_extensionEncoder.setQuadraturePosition(0, timeoutMs))
+
+            //set our feedback sensor to the encoder plugged into the motor controller
+            .addConfig((timeoutMs) -> m_extensionMotor.configSelectedFeedbackSensor(FeedbackDevice.QuadEncoder, RobotMap.PID_PRIMARY_SLOT, timeoutMs), FeedbackDevice.QuadEncoder, RobotMap.PID_PRIMARY_SLOT)
+
+            //sets whether our motor is inverted
+            //this is currently false but can be switched based on testing
+            .addSetting(() -> m_extensionMotor.setInverted(false))
+            .addSetting(() -> m_extensionMotor.setSensorPhase(false))
+
+            //this configs the deadband for the PID output. Any output with an absolute value less than this will be treated as zero
+            //curently, this is the factory default (0.04), but should be tuned on testing
+            .addConfig((timeoutMs) -> m_extensionMotor.configNeutralDeadband(RobotMap.CLIMBER_NEUTRAL_DEADBAND, timeoutMs), RobotMap.CLIMBER_NEUTRAL_DEADBAND)
+
+            //this sets the peak output for our PID. The PID cannot output a value higher than this
+            //this is currently set to 1.0, so the PID can output as much as it wants
+            .addConfig((timeoutMs) -> m_extensionMotor.configPeakOutputForward(RobotMap.CLIMBER_PID_PEAK_OUTPUT, timeoutMs), RobotMap.CLIMBER_PID_PEAK_OUTPUT)
+            //this does the same thing but for the reverse direction
+            .addConfig((timeoutMs) -> m_extensionMotor.configPeakOutputReverse(-RobotMap.CLIMBER_PID_PEAK_OUTPUT, timeoutMs), -RobotMap.CLIMBER_PID_PEAK_OUTPUT)
+
+            //configs the acceleration of the extension in sensor units per hundered miliseconds per second
+            //this is currently set to 1000u/100ms/s, which is half the value of last year's elevator
+            .addConfig((timeoutMs) -> m_extensionMotor.configMotionAcceleration(RobotMap.CLIMBER_MOTION_MAGIC_ACCEL, timeoutMs), RobotMap.CLIMBER_MOTION_MAGIC_ACCEL)
+            .addConfig((timeoutMs) -> m_extensionMotor.configMotionSCurveStrength(1, timeoutMs), 1)
+            //configs the cruise velocity of the extension in sensor units per hundred miliseconds
+            //this is currently set to 1000u/100ms, which is half the value of last year's elevator
+            .addConfig((timeoutMs) -> m_extensionMotor.configMotionCruiseVelocity(RobotMap.CLIMBER_MOTION_MAGIC_CRUISE_VELOCITY, timeoutMs), RobotMap.CLIMBER_MOTION_MAGIC_CRUISE_VELOCITY)
+
+            //this sets the PIDF values for the motion magic PID controller
+            //the zero is the PID slot, in this case it is zero for the primary PID. The climber has no aux PID (Which would be for turning)
+            //that zero repeats in much of the PID config methods called here, and always does that
+            .addConfig((timeoutMs) -> m_extensionMotor.config_kP(0, RobotMap.CLIMBER_EXTENSION_P, timeoutMs), 0, RobotMap.CLIMBER_EXTENSION_P)
+            .addConfig((timeoutMs) -> m_extensionMotor.config_kI(0, RobotMap.CLIMBER_EXTENSION_I, timeoutMs), 0, RobotMap.CLIMBER_EXTENSION_I)
+            .addConfig((timeoutMs) -> m_extensionMotor.config_kD(0, RobotMap.CLIMBER_EXTENSION_D, timeoutMs), 0, RobotMap.CLIMBER_EXTENSION_D)
+            .addConfig((timeoutMs) -> m_extensionMotor.config_kF(0, RobotMap.CLIMBER_EXTENSION_F, timeoutMs), 0, RobotMap.CLIMBER_EXTENSION_F)
+
+            //this sets the acceptable amount of Integral error, where if the absolute accumulated error exceeds this ammount, it resets to zero
+            //this is designed to prevent the PID from going crazy if we move too far from our target
+            .addConfig((timeoutMs) -> m_extensionMotor.config_IntegralZone(0, RobotMap.CLIMBER_EXTENSION_I_ZONE, timeoutMs), 0, RobotMap.CLIMBER_EXTENSION_I_ZONE)
+
+            //sets the max output of the motor specifically within closed loop control
+            //this is likely redundant, but the values can be set to seperate if needed in testing
+            .addConfig((timeoutMs) -> m_extensionMotor.configClosedLoopPeakOutput(0, RobotMap.CLIMBER_PID_PEAK_OUTPUT, timeoutMs), 0, RobotMap.CLIMBER_PID_PEAK_OUTPUT)
+
+            //this configures an allowable error in closed loop control
+            //any error less than this is treated as zero. We currently set this to zero, but we can increase it if need be
+            .addConfig((timeoutMs) -> m_extensionMotor.configAllowableClosedloopError(0, RobotMap.CLIMBER_EXTENSION_ACCEPTABLE_ERROR, timeoutMs), 0, RobotMap.CLIMBER_EXTENSION_ACCEPTABLE_ERROR)
+
+            //configures the period for closed loop calculations in MS 
+            //Currently set to 10, but should be increased if the can bus is haveing issues
+            .addConfig((timeoutMs) -> m_extensionMotor.configClosedLoopPeriod(0, RobotMap.CLIMBER_EXTENSION_CLOSED_LOOP_PERIOD_MS, timeoutMs), 0, RobotMap.CLIMBER_EXTENSION_CLOSED_LOOP_PERIOD_MS)
+
+            //sets our closed loop control to use our primary PID slot
+            .addSetting(() -> m_extensionMotor.selectProfileSlot(0, 0));
+        configs.add(extension);
+
+        return configs;
     }
 
     /**
@@ -24,6 +24,9 @@ public class CopilotController{
     //declare Targeting enum to keep track of current targeting state
     private TargetingStage m_targetingStage = TargetingStage.kRevAndTarget;
 
+    //the launch speed in RPM for our current shot, which is looked up from our distance once we are on target
+    private double m_targetRpm = RobotMap.SHOT_TABLE_DEFAULT_RPM;
+
     //Declares the gamePad for the use of the buttons from the GamePad class
     private GamePad m_gamePad;
 
@@ -48,14 +51,18 @@ public class CopilotController{
     //Declare the targeting object used to lock-on to the vision target and then lining up with the target
     private LimelightTargeting m_limelightTargeting;
 
+    //estimates our distance to the target from odometry and vision, which holds up through target dropouts
+    private PoseEstimator m_poseEstimator;
+
     /**
      * Creates the objects to allow the copilot controller/gamepad to control the intake, launcher,
      *  and shifting Gears
      * <p> We pass in the drivetrain to keep the same object as used in the PilotController.
      * All other objects are instantiated here for encapsulation
      * @param limelightReader The robot LimelightReader used to give the target to the LimelightTargeting
+     * @param poseEstimator The pose estimator we pick our shot distance from
      */
-    public CopilotController(LimelightReader limelight, LimelightTargeting limelightTargeting, Drivetrain drivetrain){
+    public CopilotController(LimelightReader limelight, LimelightTargeting limelightTargeting, Drivetrain drivetrain, PoseEstimator poseEstimator){
         m_gamePad = new GamePad(RobotMap.GAMEPAD_PORT);
         m_intake = new Intake();
         m_launcher = new Launcher();
@@ -66,6 +73,7 @@ public class CopilotController{
         m_drivetrain = drivetrain;
 
         m_limelightTargeting = limelightTargeting;
+        m_poseEstimator = poseEstimator;
     }
 
     /**
@@ -139,6 +147,9 @@ public class CopilotController{
             //set our stage to the first one
             m_targetingStage = TargetingStage.kRevAndTarget;
 
+            //clear any error and target heading left over from the last time we targeted
+            m_limelightTargeting.resetError();
+
             m_drivetrain.arcadeDrive(0, 0);
 
             //set our vision pipeline to targeting
@@ -154,7 +165,20 @@ public class CopilotController{
                 m_launcher.setMotor(RobotMap.LAUNCHER_HOLDING_SPEED);
 
                 //if we are on target and our launcher is up to speed, progress the state
-                if (m_limelightTargeting.target() && (m_launcher.getMasterMotor().getMotorOutputPercent() > (RobotMap.LAUNCHER_HOLDING_SPEED - 0.03))) {
+                if (m_limelightTargeting.target() && (m_launcher.getMotorOutputPercent() > (RobotMap.LAUNCHER_HOLDING_SPEED - RobotMap.LAUNCHER_HOLDING_TOLERANCE))) {
+                    //we are lined up and stopped, so latch our launch speed from our distance to the target
+                    //use this frame's distance while we can see the target, and our estimated distance if the target dropped out
+                    //and we still trust it. If we have neither, fall back to the speed we used before we had a shot table
+                    if (m_limelightReader.hasTargets()) {
+                        m_targetRpm = m_launcher.getTargetRpm(m_limelightReader.getDistance(RobotMap.CAMERA_DEGREES_FROM_GROUND));
+                    }
+                    else if (m_poseEstimator.hasConfidentDistance()) {
+                        m_targetRpm = m_launcher.getTargetRpm(m_poseEstimator.getDistanceToTarget());
+                    }
+                    else {
+                        m_targetRpm = RobotMap.SHOT_TABLE_DEFAULT_RPM;
+                    }
+
                     m_targetingStage = TargetingStage.kRevToVelocity;
                 }
             }
@@ -163,21 +187,18 @@ public class CopilotController{
                 //continue running the targeting method
                 m_limelightTargeting.target();
 
-                //assigns the targetVelocity
-                //ideally this would be a function of distance to target, currently it is set from testing
-                double targetVelocity = 4800; //TODO: Grab launch speed as a function of distance
-
-                //set the velocity to a launch speed
-                m_launcher.setVelocity(targetVelocity *RobotMap.RPM_TO_UNITS_PER_100MS);
+                //set the velocity to the launch speed for our distance
+                m_launcher.setVelocity(m_targetRpm * RobotMap.RPM_TO_UNITS_PER_100MS);
 
-                //if we are at speed. exit out
-                if (m_launcher.getMasterMotor().getSelectedSensorVelocity() > targetVelocity * RobotMap.RPM_TO_UNITS_PER_100MS) {
+                //if we have settled at speed, exit out
+                if (m_launcher.isAtTargetVelocity()) {
                     m_targetingStage = TargetingStage.kRunMagazine;
                 }
             }
             //drives the magazine for launching
             else if (m_targetingStage == TargetingStage.kRunMagazine) {
-                //zero drivetrain
+                //stop the aim loop from turning, then zero drivetrain
+                m_limelightTargeting.stopTargeting();
                 m_drivetrain.arcadeDrive(0, 0);
 
                 //run our magazine to launch balls
@@ -188,6 +209,7 @@ public class CopilotController{
         else if (m_gamePad.getLauncherAndMagazineReleased()) {
             m_launcher.setMotor(0);
             m_magazine.runBelt(0);
+            m_limelightTargeting.stopTargeting();
             m_drivetrain.arcadeDrive(0, 0);
             m_limelightReader.setPipeline(Pipeline.kDriver);
             PilotController.is_currently_targeting = false;
@@ -261,6 +283,13 @@ public class CopilotController{
         }
     }
 
+    /**
+     * @return the stage of the targeting and launching sequence we are in
+     */
+    public TargetingStage getTargetingStage() {
+        return m_targetingStage;
+    }
+
     /**
      * @return the targeting object that rotates based on limelight
      */
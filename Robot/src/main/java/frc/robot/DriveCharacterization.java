@@ -0,0 +1,260 @@
+package frc.robot;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+
+import edu.wpi.first.wpilibj.Filesystem;
+import edu.wpi.first.wpilibj.RobotBase;
+
+/**
+ * The feedforward constants of one side of the drivetrain, fit from a frc-characterization data file
+ * <p>Each side is modeled as a {@link Feedforward}, with velocity in motor rotations per second.
+ * The fit is an ordinary least squares over the quasistatic and dynamic tests of both sides, the same as the characterization tool does.
+ * <p>The track width test gives an effective track width in motor rotations, which includes wheel scrub
+ * <p>These values are for the gear the data was taken in, see {@link #forGear(double)} for the other gear
+ */
+public class DriveCharacterization {
+    //the names of the tests in the data file, and the track width test
+    private static final String[] FEEDFORWARD_TESTS = {"slow-forward", "slow-backward", "fast-forward", "fast-backward"};
+    private static final String TRACK_WIDTH_TEST = "track-width";
+
+    //the columns of each row in the data file
+    private static final int COLUMN_TIME = 0;
+    private static final int COLUMN_LEFT_VOLTS = 3;
+    private static final int COLUMN_RIGHT_VOLTS = 4;
+    private static final int COLUMN_LEFT_POSITION = 5;
+    private static final int COLUMN_RIGHT_POSITION = 6;
+    private static final int COLUMN_LEFT_RATE = 7;
+    private static final int COLUMN_RIGHT_RATE = 8;
+    private static final int COLUMN_GYRO_RADIANS = 9;
+    private static final int COLUMN_COUNT = 10;
+
+    //the feedforward of one side, in volts per motor rotation per second (squared)
+    private final Feedforward m_feedforward;
+
+    //the difference between the sides' travel in motor rotations for each radian the robot turns
+    private final double m_trackWidthRotations;
+
+    //the coefficient of determination of the feedforward fit, or NaN if these weren't fit
+    private final double m_rSquared;
+
+    /**
+     * Constructor for DriveCharacterization objects
+     * @param feedforward The feedforward of one side, in volts per motor rotation per second (squared)
+     * @param trackWidthRotations The effective track width in motor rotations per radian of robot rotation
+     * @param rSquared How well the feedforward fit the data, or NaN if it wasn't fit
+     */
+    public DriveCharacterization(Feedforward feedforward, double trackWidthRotations, double rSquared) {
+        m_feedforward = feedforward;
+        m_trackWidthRotations = trackWidthRotations;
+        m_rSquared = rSquared;
+    }
+
+    /**
+     * Makes the characterization our path following drives with
+     * <p>The data file lives outside of the robot project and is never deployed, so the robot uses the robot map constants
+     * directly, and only the simulator tries to fit the data file
+     * @return The characterization
+     */
+    public static DriveCharacterization create() {
+        return RobotBase.isSimulation() ? loadOrDefault() : fromRobotMap();
+    }
+
+    /**
+     * @return The characterization from the robot map constants
+     */
+    public static DriveCharacterization fromRobotMap() {
+        return new DriveCharacterization(new Feedforward(RobotMap.DRIVE_KS, RobotMap.DRIVE_KV, RobotMap.DRIVE_KA),
+                                         RobotMap.DRIVE_TRACK_WIDTH_ROTATIONS, Double.NaN);
+    }
+
+    /**
+     * Fits the characterization data in the file named in the robot map, falling back to the robot map constants
+     * <p>The data file lives outside of the robot project, so this only finds it when run from the project such as in the simulator
+     * @return The characterization
+     */
+    public static DriveCharacterization loadOrDefault() {
+        File file = new File(Filesystem.getLaunchDirectory(), RobotMap.SIM_CHARACTERIZATION_FILE);
+        try {
+            DriveCharacterization characterization = fit(file);
+            System.out.println("Fit drive characterization from " + file + ": " + characterization);
+            return characterization;
+        }
+        //NumberFormatException is an IllegalArgumentException, so this also catches bad numbers
+        catch (IOException | IllegalArgumentException e) {
+            System.out.println("Using default drive characterization, could not fit " + file + ": " + e.getMessage());
+            return fromRobotMap();
+        }
+    }
+
+    /**
+     * Fits the feedforward constants and track width from a frc-characterization data file
+     * @param file The data file
+     * @return The fit characterization
+     * @throws IOException If the file can't be read or is missing a test
+     */
+    public static DriveCharacterization fit(File file) throws IOException {
+        String json = new String(Files.readAllBytes(file.toPath()));
+
+        Feedforward.Fit fit = new Feedforward.Fit();
+
+        for (String test : FEEDFORWARD_TESTS) {
+            double[][] rows = readTest(json, test);
+            //the characterization project didn't invert the right side, so negate it to make forward positive
+            for (int side = 0; side < 2; side++) {
+                int voltsColumn = (side == 0) ? COLUMN_LEFT_VOLTS : COLUMN_RIGHT_VOLTS;
+                int rateColumn = (side == 0) ? COLUMN_LEFT_RATE : COLUMN_RIGHT_RATE;
+                double direction = (side == 0) ? 1 : -1;
+
+                //the acceleration is the central difference of the velocity, so skip the first and last rows
+                for (int index = 1; index < rows.length - 1; index++) {
+                    double volts = direction * rows[index][voltsColumn];
+                    double velocity = direction * toRotations(rows[index][rateColumn]);
+
+                    //skip rows where we weren't driving or hadn't started moving yet, as they only show static friction
+                    if (volts == 0 || Math.abs(velocity) < RobotMap.SIM_CHARACTERIZATION_MIN_VELOCITY) {
+                        continue;
+                    }
+
+                    double elapsed = rows[index + 1][COLUMN_TIME] - rows[index - 1][COLUMN_TIME];
+                    if (elapsed <= 0) {
+                        continue;
+                    }
+                    double acceleration = direction * toRotations(rows[index + 1][rateColumn] - rows[index - 1][rateColumn]) / elapsed;
+
+                    fit.add(velocity, acceleration, volts);
+                }
+            }
+        }
+
+        Feedforward feedforward = fit.solve();
+        if (feedforward == null) {
+            throw new IOException("The characterization data can't be fit");
+        }
+
+        //the track width is how much further one side went than the other, for each radian we turned
+        double[][] rows = readTest(json, TRACK_WIDTH_TEST);
+        double[] first = rows[0];
+        double[] last = rows[rows.length - 1];
+        double leftTravel = toRotations(last[COLUMN_LEFT_POSITION] - first[COLUMN_LEFT_POSITION]);
+        double rightTravel = -toRotations(last[COLUMN_RIGHT_POSITION] - first[COLUMN_RIGHT_POSITION]);
+        double turned = last[COLUMN_GYRO_RADIANS] - first[COLUMN_GYRO_RADIANS];
+        if (turned == 0) {
+            throw new IOException("The track width test didn't turn");
+        }
+        double trackWidthRotations = Math.abs((rightTravel - leftTravel) / turned);
+
+        return new DriveCharacterization(feedforward, trackWidthRotations, fit.getRSquared(feedforward));
+    }
+
+    /**
+     * Converts a position or rate from the data file to motor rotations
+     * <p>The characterization project used the wheel diameter with the motor's encoder resolution,
+     * so its distances are one wheel circumference per motor rotation
+     * @param value The value in data file units
+     * @return The value in motor rotations
+     */
+    private static double toRotations(double value) {
+        return value * RobotMap.DRIVE_TICS_PER_INCH / RobotMap.DRIVE_TICS_PER_MOTOR_ROTATION;
+    }
+
+    /**
+     * Reads one test out of the data file, which is a JSON object of test names to lists of rows
+     * @param json The data file
+     * @param test The name of the test
+     * @return The rows of the test
+     * @throws IOException If the test is missing or empty
+     */
+    private static double[][] readTest(String json, String test) throws IOException {
+        int start = json.indexOf("\"" + test + "\"");
+        int open = (start < 0) ? -1 : json.indexOf('[', start);
+        if (open < 0) {
+            throw new IOException("The characterization data has no " + test + " test");
+        }
+
+        //find the bracket closing this test's list of rows
+        int depth = 0;
+        int close = open;
+        do {
+            char character = json.charAt(close);
+            if (character == '[') {
+                depth++;
+            }
+            else if (character == ']') {
+                depth--;
+            }
+            close++;
+        } while (depth > 0);
+
+        //each row ends at its closing bracket
+        ArrayList<double[]> rows = new ArrayList<double[]>();
+        for (String row : json.substring(open + 1, close - 1).split("\\]")) {
+            String values = row.replace('[', ' ').trim();
+            if (values.startsWith(",")) {
+                values = values.substring(1).trim();
+            }
+            if (values.isEmpty()) {
+                continue;
+            }
+
+            String[] columns = values.split(",");
+            if (columns.length < COLUMN_COUNT) {
+                throw new IOException("A " + test + " row has " + columns.length + " columns instead of " + COLUMN_COUNT);
+            }
+            double[] parsed = new double[COLUMN_COUNT];
+            for (int column = 0; column < COLUMN_COUNT; column++) {
+                parsed[column] = Double.parseDouble(columns[column].trim());
+            }
+            rows.add(parsed);
+        }
+
+        if (rows.size() < 3) {
+            throw new IOException("The " + test + " test has too few rows");
+        }
+        return rows.toArray(new double[rows.size()][]);
+    }
+
+    /**
+     * Scales this characterization to a different gear
+     * <p>In motor units, the back EMF that kV models doesn't depend on the gear, so kV and kS are kept.
+     * The robot's inertia seen by the motor scales with the square of the reduction, and each radian of rotation
+     * takes more motor rotations in a bigger reduction.
+     * @param reductionRatio The reduction of the new gear divided by the reduction of the characterized gear
+     * @return The characterization in the new gear
+     */
+    public DriveCharacterization forGear(double reductionRatio) {
+        Feedforward scaled = new Feedforward(m_feedforward.getKS(), m_feedforward.getKV(), m_feedforward.getKA() / (reductionRatio * reductionRatio));
+        return new DriveCharacterization(scaled, m_trackWidthRotations * reductionRatio, m_rSquared);
+    }
+
+    /**
+     * @return The feedforward of one side, in volts per motor rotation per second (squared)
+     */
+    public Feedforward getFeedforward() {
+        return m_feedforward;
+    }
+
+    /**
+     * @return The effective track width in motor rotations per radian of robot rotation
+     */
+    public double getTrackWidthRotations() {
+        return m_trackWidthRotations;
+    }
+
+    /**
+     * @return The coefficient of determination of the fit, or NaN if these weren't fit
+     */
+    public double getRSquared() {
+        return m_rSquared;
+    }
+
+    /**
+     * @return the characterization as a string
+     */
+    public String toString() {
+        return String.format("kS %.4f | kV %.4f | kA %.4f | Track width %.3f rotations | R^2 %.4f",
+                             m_feedforward.getKS(), m_feedforward.getKV(), m_feedforward.getKA(), m_trackWidthRotations, m_rSquared);
+    }
+}
@@ -1,7 +1,11 @@
 package frc.robot;
 
 // imports Motor Controllers, Controller group functions, Basic differenctial drive code, solenoid functions, and functions for getting the joystick values
+import java.util.ArrayList;
+
 import edu.wpi.first.wpilibj.DoubleSolenoid;
+import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.RobotController;
 import edu.wpi.first.wpilibj.SerialPort;
 import edu.wpi.first.wpilibj.controller.PIDController;
 import edu.wpi.first.wpilibj.DoubleSolenoid.Value;
@@ -14,6 +18,8 @@ import com.ctre.phoenix.motorcontrol.SensorCollection;
 import com.ctre.phoenix.motorcontrol.TalonFXFeedbackDevice;
 import com.ctre.phoenix.motorcontrol.InvertType;
 
+import frc.robot.MotorConfigurator.DeviceConfig;
+
 /**
  * The four motor, two speed drivetrain for our robot
  * @author Hannah Strimpel
@@ -70,6 +76,12 @@ public class Drivetrain {
     private TalonFX m_slaveLeftMotor;
     private TalonFX m_slaveRightMotor;
 
+    //output caches for the drive motors, so we don't resend identical output or follow() every loop
+    private MotorOutputCache m_masterLeftOutput;
+    private MotorOutputCache m_masterRightOutput;
+    private MotorOutputCache m_slaveLeftOutput;
+    private MotorOutputCache m_slaveRightOutput;
+
     //Declares the encoder used for the master left motor
     private SensorCollection m_leftDriveEncoder;
     //Declares the encoder used for the master right motor
@@ -79,8 +91,19 @@ public class Drivetrain {
     private DoubleSolenoid m_leftSolenoid;
     private DoubleSolenoid m_rightSolenoid;
     
-    //Declares a Gear object to store the gear that we are in
-    private Gear m_gear;
+    //Declares a Gear object to store the gear that we are in. Odometry reads this from its own thread, so it is volatile
+    private volatile Gear m_gear;
+
+    //the last forward and turn we were told to drive at, for telemetry. The aim loop drives from its own thread, so these are volatile
+    private volatile double m_lastForward = 0;
+    private volatile double m_lastTurn = 0;
+
+    //the physics simulation our sensors read from in the desktop simulator, or null on the robot
+    private DrivetrainSim m_simulation = null;
+
+    //the targeting whose aim loop can drive us from its own thread, or null if there isn't one
+    //it is stopped whenever anything else drives us, so the two never drive at the same time
+    private LimelightTargeting m_aimLoopTargeting = null;
 
     /**
      * Constructor for the drivetrain that uses double solenoids to shift speeds/gears
@@ -101,14 +124,19 @@ public class Drivetrain {
         m_leftDriveEncoder = new SensorCollection(m_masterLeftMotor);
         m_rightDriveEncoder = new SensorCollection(m_masterRightMotor);
 
+        //wraps the motors in caches to skip repeated output
+        configOutputCaches();
+
         //Instatiates the NavX----make sure this is the right port
         m_gyro = new NavX(SerialPort.Port.kMXP);
 
         //Initializes rotate PID controller with the PIDF constants ----------See if there is a way to add the m_gyro
         configRotatePID();
 
-        //configures the drivetrain
-        configDriveTrain();
+        //swaps our sensors for a physics simulation when we aren't on the robot
+        configSimulation();
+
+        //the motors are configured on robot startup by the MotorConfigurator, see getMotorConfigs()
 
         //set our initital gear to unkwown, this allows for gear switching to either gear initially
         m_gear = Gear.kUnknown; 
@@ -136,14 +164,19 @@ public class Drivetrain {
         m_leftDriveEncoder = new SensorCollection(m_masterLeftMotor);
         m_rightDriveEncoder = new SensorCollection(m_masterRightMotor);
 
+        //wraps the motors in caches to skip repeated output
+        configOutputCaches();
+
         //instantiate the gyro for rotation control
         m_gyro = new NavX(SerialPort.Port.kMXP);
 
         //Initializes rotate PID controller with the PIDF constants
         configRotatePID();
 
-        //configures the drivetrain
-        configDriveTrain();
+        //swaps our sensors for a physics simulation when we aren't on the robot
+        configSimulation();
+
+        //the motors are configured on robot startup by the MotorConfigurator, see getMotorConfigs()
 
         //instantiates our gear tracking to a neutral value
         m_gear = Gear.kUnknown; 
@@ -153,6 +186,9 @@ public class Drivetrain {
      * Zeros the drive encoders
      */
     public void zeroEncoders() {
+        if (m_simulation != null) {
+            m_simulation.zeroPositions();
+        }
         m_leftDriveEncoder.setQuadraturePosition(0, RobotMap.TIMEOUT_MS);
         m_rightDriveEncoder.setQuadraturePosition(0, RobotMap.TIMEOUT_MS);
     }
@@ -180,6 +216,9 @@ public class Drivetrain {
 
         //sets our current gear to the inputted gear
         m_gear = gear;
+        if (m_simulation != null) {
+            m_simulation.setGear(gear);
+        }
 
         //sets our pistons based on what gear we request
         if (m_gear == Gear.kLowGear) {
@@ -190,6 +229,25 @@ public class Drivetrain {
         }
     }
 
+    /**
+     * Sets the targeting whose aim loop drives us from its own thread
+     * <p>Every drive method stops that aim loop before writing, and it won't drive again until it is told to target
+     * @param targeting The targeting that owns the aim loop
+     */
+    public void setAimLoopTargeting(LimelightTargeting targeting) {
+        m_aimLoopTargeting = targeting;
+    }
+
+    /**
+     * Stops the aim loop from driving, if we have one
+     * <p>This waits for an aim loop output that is already being sent, so nothing it sends can land after ours
+     */
+    private void stopAimLoop() {
+        if (m_aimLoopTargeting != null) {
+            m_aimLoopTargeting.stopTargeting();
+        }
+    }
+
     /**
      * Drives the drivetrain as a tank, controlling the sides individually
      * <p>Speeds are double values betweem -1.0 and 1.0, where 1.0 is full speed forwards
@@ -197,13 +255,23 @@ public class Drivetrain {
      * @param rightSpeed The speed for the right half of the drivetrain
      */
     public void tankDrive (double leftSpeed, double rightSpeed) {
+        //take the drivetrain back from the aim loop before we write to it
+        stopAimLoop();
+
+        //record the equivalent arcade input for telemetry
+        m_lastForward = (leftSpeed + rightSpeed) / 2;
+        m_lastTurn = (leftSpeed - rightSpeed) / 2;
+        if (m_simulation != null) {
+            m_simulation.setOutputs(leftSpeed, rightSpeed);
+        }
+
         //Sets power to the motors based on input
-        m_masterLeftMotor.set(ControlMode.PercentOutput, leftSpeed);
-        m_masterRightMotor.set(ControlMode.PercentOutput, rightSpeed);
+        m_masterLeftOutput.set(ControlMode.PercentOutput, leftSpeed);
+        m_masterRightOutput.set(ControlMode.PercentOutput, rightSpeed);
 
-        //Sets the slave motors to copy the masters
-        m_slaveLeftMotor.follow(m_masterLeftMotor);
-        m_slaveRightMotor.follow(m_masterRightMotor);
+        //Sets the slave motors to copy the masters, which is only sent if they aren't following already
+        m_slaveLeftOutput.follow(m_masterLeftMotor);
+        m_slaveRightOutput.follow(m_masterRightMotor);
     }
 
     /**
@@ -213,10 +281,93 @@ public class Drivetrain {
      * @param setter If this is true, use speed setters to adjust a speed and conserve battery. If false, use raw input
      */
     public void arcadeDrive (double forward, double turn) {
-        m_masterLeftMotor.set(ControlMode.PercentOutput, forward, DemandType.ArbitraryFeedForward, +turn);
-        m_masterRightMotor.set(ControlMode.PercentOutput, forward, DemandType.ArbitraryFeedForward, -turn);
-        m_slaveLeftMotor.follow(m_masterLeftMotor);
-        m_slaveRightMotor.follow(m_masterRightMotor);
+        //take the drivetrain back from the aim loop before we write to it
+        stopAimLoop();
+        writeArcade(forward, turn);
+    }
+
+    /**
+     * Turns the drivetrain in place for the aim loop, without stopping it
+     * <p>This should only be called by the aim loop of the targeting passed to {@link #setAimLoopTargeting(LimelightTargeting)}
+     * @param turn -1.0 to 1.0, the rate of rotation
+     */
+    void aimLoopDrive(double turn) {
+        writeArcade(0, turn);
+    }
+
+    /**
+     * Sends an arcade drive to the masters and makes the slaves follow
+     * @param forward -1.0 to 1.0, the speed at which you want the robot to move forward
+     * @param turn -1.0 to 1.0, the rate of rotation
+     */
+    private void writeArcade(double forward, double turn) {
+        m_lastForward = forward;
+        m_lastTurn = turn;
+        if (m_simulation != null) {
+            m_simulation.setOutputs(forward + turn, forward - turn);
+        }
+
+        m_masterLeftOutput.set(ControlMode.PercentOutput, forward, DemandType.ArbitraryFeedForward, +turn);
+        m_masterRightOutput.set(ControlMode.PercentOutput, forward, DemandType.ArbitraryFeedForward, -turn);
+        m_slaveLeftOutput.follow(m_masterLeftMotor);
+        m_slaveRightOutput.follow(m_masterRightMotor);
+    }
+
+    /**
+     * Drives each side at a velocity with the talons' closed loop velocity control, on top of a feedforward
+     * <p>The feedforward does most of the work, and the closed loop only corrects what the feedforward gets wrong
+     * @param leftVelocity The left velocity in motor rotations per second
+     * @param rightVelocity The right velocity in motor rotations per second
+     * @param leftVolts The left feedforward in volts
+     * @param rightVolts The right feedforward in volts
+     */
+    public void tankDriveVelocity(double leftVelocity, double rightVelocity, double leftVolts, double rightVolts) {
+        //take the drivetrain back from the aim loop before we write to it
+        stopAimLoop();
+
+        //the talons take the feedforward as a percent of the battery
+        double batteryVoltage = RobotController.getBatteryVoltage();
+        double leftFeedforward = leftVolts / batteryVoltage;
+        double rightFeedforward = rightVolts / batteryVoltage;
+
+        //record the equivalent arcade input for telemetry
+        m_lastForward = (leftFeedforward + rightFeedforward) / 2;
+        m_lastTurn = (leftFeedforward - rightFeedforward) / 2;
+        if (m_simulation != null) {
+            m_simulation.setVelocities(leftVelocity, rightVelocity, leftFeedforward, rightFeedforward);
+        }
+
+        //convert rotations per second to sensor units per 100ms
+        double unitsPerRotationPer100Ms = RobotMap.DRIVE_TICS_PER_MOTOR_ROTATION / 10;
+        m_masterLeftOutput.set(ControlMode.Velocity, leftVelocity * unitsPerRotationPer100Ms, DemandType.ArbitraryFeedForward, leftFeedforward);
+        m_masterRightOutput.set(ControlMode.Velocity, rightVelocity * unitsPerRotationPer100Ms, DemandType.ArbitraryFeedForward, rightFeedforward);
+        m_slaveLeftOutput.follow(m_masterLeftMotor);
+        m_slaveRightOutput.follow(m_masterRightMotor);
+    }
+
+    /**
+     * @return The forward speed last sent to the drivetrain, from -1.0 to 1.0
+     */
+    public double getLastForward() {
+        return m_lastForward;
+    }
+
+    /**
+     * @return The turn last sent to the drivetrain, from -1.0 to 1.0
+     */
+    public double getLastTurn() {
+        return m_lastTurn;
+    }
+
+    /**
+     * Instantiates the output caches around our drive motors
+     * <p> to be run on construction, after the motors are instantiated
+     */
+    private void configOutputCaches() {
+        m_masterLeftOutput = new MotorOutputCache(m_masterLeftMotor);
+        m_masterRightOutput = new MotorOutputCache(m_masterRightMotor);
+        m_slaveLeftOutput = new MotorOutputCache(m_slaveLeftMotor);
+        m_slaveRightOutput = new MotorOutputCache(m_slaveRightMotor);
     }
 
     /**
@@ -307,6 +458,9 @@ public class Drivetrain {
      * @return The position of the left side encoder
      */
     public int getLeftDriveEncoderPosition(){
+        if (m_simulation != null) {
+            return m_simulation.getLeftPosition();
+        }
         return m_masterLeftMotor.getSelectedSensorPosition();
     }
 
@@ -315,6 +469,9 @@ public class Drivetrain {
      * @return The position of the right side encoder
      */
     public int getRightDriveEncoderPosition() {
+        if (m_simulation != null) {
+            return m_simulation.getRightPosition();
+        }
         return m_masterRightMotor.getSelectedSensorPosition();
     }
 
@@ -323,6 +480,9 @@ public class Drivetrain {
      * @return The velocity of the left side encoder
      */
     public int getLeftDriveEncoderVelocity(){
+        if (m_simulation != null) {
+            return m_simulation.getLeftVelocity();
+        }
         return m_masterLeftMotor.getSelectedSensorVelocity();
     }
 
@@ -331,6 +491,9 @@ public class Drivetrain {
      * @return The velocity of the right side encoder
      */
     public int getRightDriveEncoderVelocity(){
+        if (m_simulation != null) {
+            return m_simulation.getRightVelocity();
+        }
         return m_masterRightMotor.getSelectedSensorVelocity();
     }
 
@@ -348,6 +511,34 @@ public class Drivetrain {
         return m_gear;
     }
 
+    /**
+     * @return the master motor on the left side
+     */
+    public TalonFX getMasterLeftMotor() {
+        return m_masterLeftMotor;
+    }
+
+    /**
+     * @return the master motor on the right side
+     */
+    public TalonFX getMasterRightMotor() {
+        return m_masterRightMotor;
+    }
+
+    /**
+     * @return the slave motor on the left side
+     */
+    public TalonFX getSlaveLeftMotor() {
+        return m_slaveLeftMotor;
+    }
+
+    /**
+     * @return the slave motor on the right side
+     */
+    public TalonFX getSlaveRightMotor() {
+        return m_slaveRightMotor;
+    }
+
     /**
      * @return the gyro that we use for heading
      */
@@ -355,6 +546,25 @@ public class Drivetrain {
         return m_gyro;
     }
 
+    /**
+     * @return the physics simulation our sensors read from, or null if we are on the robot
+     */
+    public DrivetrainSim getSimulation() {
+        return m_simulation;
+    }
+
+    /**
+     * Creates a physics simulation from our characterization when running in the desktop simulator,
+     * and points our encoder getters and the gyro at it
+     * <p> to be run on construction, after the gyro is instantiated
+     */
+    private void configSimulation() {
+        if (RobotBase.isSimulation()) {
+            m_simulation = new DrivetrainSim(DriveCharacterization.loadOrDefault());
+            m_gyro.attachSimulation(m_simulation);
+        }
+    }
+
     /**
      * this method instantiates and configures the rotational PID controller
      * <p> to be run on construction
@@ -375,63 +585,91 @@ public class Drivetrain {
     }
 
     /**
-     * This should be run in robo init in order to configure the falcons/talons. This method should be called there.
+     * Builds the configuration for each of the falcons/talons, to be run by the MotorConfigurator on robot startup.
      * Sets up and configs everything on the talons for arcade drive via velcity PID.
      * The PID has to be tuned to make sure they work for this year
+     * <p>Each motor's calls are run in order, but the four motors are configured at the same time
+     * @return One config for each drive motor
      */
-    public void configDriveTrain(){
-        //Sets all motor conrollers to zero to kill movement
-        m_masterLeftMotor.set(ControlMode.PercentOutput, 0);
-        m_masterRightMotor.set(ControlMode.PercentOutput, 0);
-        m_slaveLeftMotor.follow(m_masterLeftMotor);
-        m_masterRightMotor.follow(m_masterRightMotor);
-
+    public ArrayList<DeviceConfig> getMotorConfigs() {
+        ArrayList<DeviceConfig> configs = new ArrayList<DeviceConfig>();
+
+        //Sets the masters to zero to kill movement, and sets the slaves to follow them, but only on startup
+        //a reconfigure after a reset runs alongside the main loop, which owns the output by then. The reset motor is already neutral,
+        //and clearing its cache means the main loop's next output and follow are sent
+        //these go through the output caches so the caches match what the motors were sent
+        //the encoders are only zeroed on startup too, since odometry is reading them by the time a motor resets
         //Configure output direction. TalonFX automatically ensures that sensor phase is correct
-        //TODO: RobotMap
-        m_masterLeftMotor.setInverted(false);
-        m_slaveLeftMotor.setInverted(InvertType.FollowMaster);
-        m_masterRightMotor.setInverted(true);
-        m_slaveRightMotor.setInverted(InvertType.FollowMaster);
-        
         //configs the drive train to have an acceleration based on the RobotMap constant
-        m_masterLeftMotor.configOpenloopRamp(RobotMap.DRIVE_RAMP_TIME);
-        m_masterRightMotor.configOpenloopRamp(RobotMap.DRIVE_RAMP_TIME);
-        m_slaveLeftMotor.configOpenloopRamp(RobotMap.DRIVE_RAMP_TIME);
-        m_slaveRightMotor.configOpenloopRamp(RobotMap.DRIVE_RAMP_TIME);
-
         //sets all motors to brake
-        m_masterLeftMotor.setNeutralMode(NeutralMode.Brake);
-        m_masterRightMotor.setNeutralMode(NeutralMode.Brake);
-        m_slaveLeftMotor.setNeutralMode(NeutralMode.Brake);
-        m_slaveRightMotor.setNeutralMode(NeutralMode.Brake);
-        
-        /** Feedback Sensor Configuration */
-
-        //Configure the left Talon's selected sensor to a Quad encoder
-        m_masterLeftMotor.configSelectedFeedbackSensor(TalonFXFeedbackDevice.IntegratedSensor, RobotMap.PID_PRIMARY_SLOT, RobotMap.TIMEOUT_MS);
-
-        m_masterRightMotor.setSelectedSensorPosition(0, 0, RobotMap.TIMEOUT_MS);
-        m_masterRightMotor.setSelectedSensorPosition(0, 1, RobotMap.TIMEOUT_MS);
-        m_masterLeftMotor.setSelectedSensorPosition(0);
-
-        //Configure neutral deadband
-        m_masterRightMotor.configNeutralDeadband(RobotMap.PERCENT_DEADBAND, RobotMap.TIMEOUT_MS);
-        m_masterLeftMotor.configNeutralDeadband(RobotMap.PERCENT_DEADBAND, RobotMap.TIMEOUT_MS);
-
-        /**
-         * Max out the peak output (for all modes).
-         * However you can limit the output of a given PID object with
-         * configClosedLoopPeakOutput().
-         */
-        m_masterLeftMotor.configPeakOutputForward(+RobotMap.PEAK_OUTPUT, RobotMap.TIMEOUT_MS);
-        m_masterLeftMotor.configPeakOutputReverse(-RobotMap.PEAK_OUTPUT, RobotMap.TIMEOUT_MS);
-        m_masterRightMotor.configPeakOutputForward(+RobotMap.PEAK_OUTPUT, RobotMap.TIMEOUT_MS);
-        m_masterRightMotor.configPeakOutputReverse(-RobotMap.PEAK_OUTPUT, RobotMap.TIMEOUT_MS);
-
-        m_masterRightMotor.configClosedLoopPeriod(0, RobotMap.LOOP_TIME_MS, RobotMap.TIMEOUT_MS);
-
-        //sets profile slot for PID
-        m_masterRightMotor.selectProfileSlot(0, 0);
+        //TODO: RobotMap for inversions
+        DeviceConfig masterLeft = new DeviceConfig("Drive Master Left", m_masterLeftMotor, RobotMap.TIMEOUT_MS)
+            .addSetting(m_masterLeftOutput::invalidate)
+            .addStartupSetting(() -> m_masterLeftOutput.set(ControlMode.PercentOutput, 0))
+            .addSetting(() -> m_masterLeftMotor.setInverted(false))
+            .addConfig((timeoutMs) -> m_masterLeftMotor.configOpenloopRamp(RobotMap.DRIVE_RAMP_TIME, timeoutMs), RobotMap.DRIVE_RAMP_TIME)
+            .addSetting(() -> m_masterLeftMotor.setNeutralMode(NeutralMode.Brake))
+
+            //Configure the left Talon's selected sensor to the integrated sensor
+            .addConfig((timeoutMs) -> m_masterLeftMotor.configSelectedFeedbackSensor(TalonFXFeedbackDevice.IntegratedSensor, RobotMap.PID_PRIMARY_SLOT, timeoutMs), TalonFXFeedbackDevice.IntegratedSensor, RobotMap.PID_PRIMARY_SLOT)
+            .addStartup((timeoutMs) -> m_masterLeftMotor.setSelectedSensorPosition(0, RobotMap.PID_PRIMARY_SLOT, timeoutMs))
+
+            //Configure neutral deadband
+            .addConfig((timeoutMs) -> m_masterLeftMotor.configNeutralDeadband(RobotMap.PERCENT_DEADBAND, timeoutMs), RobotMap.PERCENT_DEADBAND)
+
+            //Max out the peak output (for all modes).
+            //However you can limit the output of a given PID object with configClosedLoopPeakOutput().
+            .addConfig((timeoutMs) -> m_masterLeftMotor.configPeakOutputForward(+RobotMap.PEAK_OUTPUT, timeoutMs), +RobotMap.PEAK_OUTPUT)
+            .addConfig((timeoutMs) -> m_masterLeftMotor.configPeakOutputReverse(-RobotMap.PEAK_OUTPUT, timeoutMs), -RobotMap.PEAK_OUTPUT)
+
+            //the velocity gains for path following, which correct on top of our feedforward
+            .addConfig((timeoutMs) -> m_masterLeftMotor.config_kP(RobotMap.PID_PRIMARY_SLOT, RobotMap.GAINS_VELOCITY.kP, timeoutMs), RobotMap.GAINS_VELOCITY.kP)
+            .addConfig((timeoutMs) -> m_masterLeftMotor.config_kI(RobotMap.PID_PRIMARY_SLOT, RobotMap.GAINS_VELOCITY.kI, timeoutMs), RobotMap.GAINS_VELOCITY.kI)
+            .addConfig((timeoutMs) -> m_masterLeftMotor.config_kD(RobotMap.PID_PRIMARY_SLOT, RobotMap.GAINS_VELOCITY.kD, timeoutMs), RobotMap.GAINS_VELOCITY.kD)
+            .addConfig((timeoutMs) -> m_masterLeftMotor.config_kF(RobotMap.PID_PRIMARY_SLOT, RobotMap.GAINS_VELOCITY.kF, timeoutMs), RobotMap.GAINS_VELOCITY.kF)
+            .addConfig((timeoutMs) -> m_masterLeftMotor.config_IntegralZone(RobotMap.PID_PRIMARY_SLOT, RobotMap.GAINS_VELOCITY.kIzone, timeoutMs), RobotMap.GAINS_VELOCITY.kIzone)
+            .addSetting(() -> m_masterLeftMotor.selectProfileSlot(0, 0));
+        configs.add(masterLeft);
+
+        DeviceConfig masterRight = new DeviceConfig("Drive Master Right", m_masterRightMotor, RobotMap.TIMEOUT_MS)
+            .addSetting(m_masterRightOutput::invalidate)
+            .addStartupSetting(() -> m_masterRightOutput.set(ControlMode.PercentOutput, 0))
+            .addSetting(() -> m_masterRightMotor.setInverted(true))
+            .addConfig((timeoutMs) -> m_masterRightMotor.configOpenloopRamp(RobotMap.DRIVE_RAMP_TIME, timeoutMs), RobotMap.DRIVE_RAMP_TIME)
+            .addSetting(() -> m_masterRightMotor.setNeutralMode(NeutralMode.Brake))
+            .addStartup((timeoutMs) -> m_masterRightMotor.setSelectedSensorPosition(0, RobotMap.PID_PRIMARY_SLOT, timeoutMs))
+            .addStartup((timeoutMs) -> m_masterRightMotor.setSelectedSensorPosition(0, RobotMap.PID_AUXILLARY_SLOT, timeoutMs))
+            .addConfig((timeoutMs) -> m_masterRightMotor.configNeutralDeadband(RobotMap.PERCENT_DEADBAND, timeoutMs), RobotMap.PERCENT_DEADBAND)
+            .addConfig((timeoutMs) -> m_masterRightMotor.configPeakOutputForward(+RobotMap.PEAK_OUTPUT, timeoutMs), +RobotMap.PEAK_OUTPUT)
+            .addConfig((timeoutMs) -> m_masterRightMotor.configPeakOutputReverse(-RobotMap.PEAK_OUTPUT, timeoutMs), -RobotMap.PEAK_OUTPUT)
+            .addConfig((timeoutMs) -> m_masterRightMotor.configClosedLoopPeriod(0, RobotMap.LOOP_TIME_MS, timeoutMs), 0, RobotMap.LOOP_TIME_MS)
+            .addConfig((timeoutMs) -> m_masterRightMotor.config_kP(RobotMap.PID_PRIMARY_SLOT, RobotMap.GAINS_VELOCITY.kP, timeoutMs), RobotMap.GAINS_VELOCITY.kP)
+            .addConfig((timeoutMs) -> m_masterRightMotor.config_kI(RobotMap.PID_PRIMARY_SLOT, RobotMap.GAINS_VELOCITY.kI, timeoutMs), RobotMap.GAINS_VELOCITY.kI)
+            .addConfig((timeoutMs) -> m_masterRightMotor.config_kD(RobotMap.PID_PRIMARY_SLOT, RobotMap.GAINS_VELOCITY.kD, timeoutMs), RobotMap.GAINS_VELOCITY.kD)
+            .addConfig((timeoutMs) -> m_masterRightMotor.config_kF(RobotMap.PID_PRIMARY_SLOT, RobotMap.GAINS_VELOCITY.kF, timeoutMs), RobotMap.GAINS_VELOCITY.kF)
+            .addConfig((timeoutMs) -> m_masterRightMotor.config_IntegralZone(RobotMap.PID_PRIMARY_SLOT, RobotMap.GAINS_VELOCITY.kIzone, timeoutMs), RobotMap.GAINS_VELOCITY.kIzone)
+
+            //sets profile slot for PID
+            .addSetting(() -> m_masterRightMotor.selectProfileSlot(0, 0));
+        configs.add(masterRight);
+
+        DeviceConfig slaveLeft = new DeviceConfig("Drive Slave Left", m_slaveLeftMotor, RobotMap.TIMEOUT_MS)
+            .addSetting(m_slaveLeftOutput::invalidate)
+            .addStartupSetting(() -> m_slaveLeftOutput.follow(m_masterLeftMotor))
+            .addSetting(() -> m_slaveLeftMotor.setInverted(InvertType.FollowMaster))
+            .addConfig((timeoutMs) -> m_slaveLeftMotor.configOpenloopRamp(RobotMap.DRIVE_RAMP_TIME, timeoutMs), RobotMap.DRIVE_RAMP_TIME)
+            .addSetting(() -> m_slaveLeftMotor.setNeutralMode(NeutralMode.Brake));
+        configs.add(slaveLeft);
+
+        DeviceConfig slaveRight = new DeviceConfig("Drive Slave Right", m_slaveRightMotor, RobotMap.TIMEOUT_MS)
+            .addSetting(m_slaveRightOutput::invalidate)
+            .addStartupSetting(() -> m_slaveRightOutput.follow(m_masterRightMotor))
+            .addSetting(() -> m_slaveRightMotor.setInverted(InvertType.FollowMaster))
+            .addConfig((timeoutMs) -> m_slaveRightMotor.configOpenloopRamp(RobotMap.DRIVE_RAMP_TIME, timeoutMs), RobotMap.DRIVE_RAMP_TIME)
+            .addSetting(() -> m_slaveRightMotor.setNeutralMode(NeutralMode.Brake));
+        configs.add(slaveRight);
+
+        return configs;
     }
 
     public void setNeutralMode(NeutralMode neutralMode) {
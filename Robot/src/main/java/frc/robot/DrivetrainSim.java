@@ -0,0 +1,237 @@
+package frc.robot;
+
+import edu.wpi.first.wpilibj.Timer;
+import frc.robot.Drivetrain.Gear;
+
+/**
+ * A physics simulation of the drivetrain for the desktop simulator
+ * <p>Each side is driven by the characterized {@link Feedforward}, solved exactly over each step.
+ * The heading comes from the difference in the sides' travel over the effective track width.
+ * The open loop ramp and neutral deadband the talons are configured with are applied to the output,
+ * and with no output the motors slow down like they do in brake mode. Velocity control runs the talons' proportional loop on top of the feedforward.
+ * <p>The simulation is advanced to the current time whenever it's read or driven, so it stays correct no matter which
+ * thread drives it or how often. The {@link Drivetrain} and {@link NavX} return its encoder counts and yaw from their usual getters.
+ */
+public class DrivetrainSim {
+    /**
+     * The simulated state of one side of the drivetrain
+     */
+    private static class Side {
+        //the output we were last told to drive at, and the output after the open loop ramp, from -1.0 to 1.0
+        double commandedOutput = 0;
+        double appliedOutput = 0;
+
+        //whether the side is in closed loop velocity control, with its target in rotations per second and its feedforward from -1.0 to 1.0
+        boolean velocityControl = false;
+        double targetVelocity = 0;
+        double feedforward = 0;
+
+        //the motor velocity in rotations per second and position in rotations
+        double velocity = 0;
+        double position = 0;
+    }
+
+    //the characterization for the gear the data was taken in, and for the gear we are in
+    private final DriveCharacterization m_characterized;
+    private DriveCharacterization m_current;
+    private Gear m_gear;
+
+    private final Side m_left = new Side();
+    private final Side m_right = new Side();
+
+    //the heading in degrees, clockwise positive like the NavX, and the heading that was last zeroed
+    private double m_heading = 0;
+    private double m_headingOffset = 0;
+
+    //the FPGA time the simulation has been advanced to, or NaN before the first advance
+    private double m_lastTime = Double.NaN;
+
+    /**
+     * Constructor for DrivetrainSim objects
+     * @param characterization The characterization of the gear in {@link RobotMap#DRIVE_CHARACTERIZED_GEAR}
+     */
+    public DrivetrainSim(DriveCharacterization characterization) {
+        m_characterized = characterization;
+        m_current = characterization;
+        m_gear = RobotMap.DRIVE_CHARACTERIZED_GEAR;
+    }
+
+    /**
+     * @param gear A gear, where kUnknown is treated as the characterized gear
+     * @return The reduction of that gear from motor to wheels
+     */
+    private static double getReduction(Gear gear) {
+        if (gear == Gear.kUnknown) {
+            gear = RobotMap.DRIVE_CHARACTERIZED_GEAR;
+        }
+        return (gear == Gear.kLowGear) ? RobotMap.DRIVE_LOW_GEAR_REDUCTION : RobotMap.DRIVE_HIGH_GEAR_REDUCTION;
+    }
+
+    /**
+     * Sets the output of each side, as the talons would be set in percent output
+     * @param leftOutput The left output from -1.0 to 1.0
+     * @param rightOutput The right output from -1.0 to 1.0
+     */
+    public synchronized void setOutputs(double leftOutput, double rightOutput) {
+        advance();
+        m_left.velocityControl = false;
+        m_right.velocityControl = false;
+        m_left.commandedOutput = Math.max(-RobotMap.PEAK_OUTPUT, Math.min(RobotMap.PEAK_OUTPUT, leftOutput));
+        m_right.commandedOutput = Math.max(-RobotMap.PEAK_OUTPUT, Math.min(RobotMap.PEAK_OUTPUT, rightOutput));
+    }
+
+    /**
+     * Sets the velocity of each side, as the talons would be set in velocity control with an arbitrary feedforward
+     * @param leftVelocity The left velocity in motor rotations per second
+     * @param rightVelocity The right velocity in motor rotations per second
+     * @param leftFeedforward The left feedforward from -1.0 to 1.0
+     * @param rightFeedforward The right feedforward from -1.0 to 1.0
+     */
+    public synchronized void setVelocities(double leftVelocity, double rightVelocity, double leftFeedforward, double rightFeedforward) {
+        advance();
+        m_left.velocityControl = true;
+        m_left.targetVelocity = leftVelocity;
+        m_left.feedforward = leftFeedforward;
+        m_right.velocityControl = true;
+        m_right.targetVelocity = rightVelocity;
+        m_right.feedforward = rightFeedforward;
+    }
+
+    /**
+     * Shifts the simulated gearbox
+     * <p>The wheels keep their speed through the shift, so the motors change speed by the change in reduction
+     * @param gear The gear to shift to
+     */
+    public synchronized void setGear(Gear gear) {
+        advance();
+        double ratio = getReduction(gear) / getReduction(m_gear);
+        m_left.velocity *= ratio;
+        m_right.velocity *= ratio;
+
+        m_gear = gear;
+        m_current = m_characterized.forGear(getReduction(gear) / getReduction(RobotMap.DRIVE_CHARACTERIZED_GEAR));
+    }
+
+    /**
+     * Advances the simulation to the current time
+     */
+    private void advance() {
+        double now = Timer.getFPGATimestamp();
+        if (Double.isNaN(m_lastTime)) {
+            m_lastTime = now;
+            return;
+        }
+
+        //step in small pieces so the ramp and heading stay accurate over long gaps
+        while (m_lastTime < now) {
+            double step = Math.min(RobotMap.SIM_STEP_S, now - m_lastTime);
+            double leftTravel = step(m_left, step);
+            double rightTravel = step(m_right, step);
+            m_heading += Math.toDegrees((leftTravel - rightTravel) / m_current.getTrackWidthRotations());
+            m_lastTime += step;
+        }
+    }
+
+    /**
+     * Steps one side of the drivetrain
+     * @param side The side to step
+     * @param seconds The length of the step
+     * @return The distance the side travelled in motor rotations
+     */
+    private double step(Side side, double seconds) {
+        if (side.velocityControl) {
+            //the talons' velocity loop adds the proportional output, where 1023 is full output, to the feedforward
+            //the open loop ramp doesn't apply to closed loop control
+            double errorUnits = (side.targetVelocity - side.velocity) * RobotMap.DRIVE_TICS_PER_MOTOR_ROTATION / 10;
+            double output = side.feedforward + (RobotMap.GAINS_VELOCITY.kP * errorUnits / 1023);
+            side.appliedOutput = Math.max(-RobotMap.PEAK_OUTPUT, Math.min(RobotMap.PEAK_OUTPUT, output));
+        }
+        else {
+            //the talons ramp from neutral to full output over the ramp time
+            double maxChange = seconds / RobotMap.DRIVE_RAMP_TIME;
+            side.appliedOutput += Math.max(-maxChange, Math.min(maxChange, side.commandedOutput - side.appliedOutput));
+        }
+
+        //outputs inside the deadband are neutral, which shorts the motors in brake mode
+        double volts = (Math.abs(side.appliedOutput) < RobotMap.PERCENT_DEADBAND) ? 0 : side.appliedOutput * RobotMap.SIM_BATTERY_VOLTAGE;
+
+        double startVelocity = side.velocity;
+        double endVelocity = m_current.getFeedforward().stepVelocity(volts, startVelocity, seconds);
+
+        double travel = (startVelocity + endVelocity) / 2 * seconds;
+        side.velocity = endVelocity;
+        side.position += travel;
+        return travel;
+    }
+
+    /**
+     * Zeros the simulated encoder positions
+     */
+    public synchronized void zeroPositions() {
+        advance();
+        m_left.position = 0;
+        m_right.position = 0;
+    }
+
+    /**
+     * Zeros the simulated yaw at the current heading
+     */
+    public synchronized void zeroYaw() {
+        advance();
+        m_headingOffset = m_heading;
+    }
+
+    /**
+     * @return The left encoder position in sensor units
+     */
+    public synchronized int getLeftPosition() {
+        advance();
+        return (int) (m_left.position * RobotMap.DRIVE_TICS_PER_MOTOR_ROTATION);
+    }
+
+    /**
+     * @return The right encoder position in sensor units
+     */
+    public synchronized int getRightPosition() {
+        advance();
+        return (int) (m_right.position * RobotMap.DRIVE_TICS_PER_MOTOR_ROTATION);
+    }
+
+    /**
+     * @return The left encoder velocity in sensor units per 100ms
+     */
+    public synchronized int getLeftVelocity() {
+        advance();
+        return (int) (m_left.velocity * RobotMap.DRIVE_TICS_PER_MOTOR_ROTATION / 10);
+    }
+
+    /**
+     * @return The right encoder velocity in sensor units per 100ms
+     */
+    public synchronized int getRightVelocity() {
+        advance();
+        return (int) (m_right.velocity * RobotMap.DRIVE_TICS_PER_MOTOR_ROTATION / 10);
+    }
+
+    /**
+     * @return The heading since the yaw was last zeroed in degrees, without wrapping, like the NavX's getAngle()
+     */
+    public synchronized double getAngle() {
+        advance();
+        return m_heading - m_headingOffset;
+    }
+
+    /**
+     * @return The heading since the yaw was last zeroed from -180 to 180 degrees, like the NavX's getYaw()
+     */
+    public synchronized float getYaw() {
+        return (float) HeadingHistory.wrapDegrees(getAngle());
+    }
+
+    /**
+     * @return The gear the simulation is in
+     */
+    public synchronized Gear getGear() {
+        return m_gear;
+    }
+}
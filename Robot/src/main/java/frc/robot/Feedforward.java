@@ -0,0 +1,174 @@
+package frc.robot;
+
+/**
+ * A permanent magnet motor model, volts = kS * sign(velocity) + kV * velocity + kA * acceleration
+ * <p>The units of velocity are up to the user, such as motor rotations per second for the drivetrain
+ * or sensor units per 100ms for the launcher. Acceleration is in velocity units per second.
+ * <p>This is used both to fit the constants from logged data, with a {@link Fit}, and to simulate the motor with {@link #stepVelocity}
+ */
+public class Feedforward {
+    /**
+     * Accumulates samples of volts, velocity and acceleration for an ordinary least squares fit of a {@link Feedforward}
+     * <p>Only running sums are kept, so samples can be added one at a time without storing them
+     */
+    public static class Fit {
+        //sums for the normal equations of the least squares fit, with the regressors sign(v), v and a
+        private final double[][] m_xtx = new double[3][3];
+        private final double[] m_xty = new double[3];
+
+        //sums of the volts, for the coefficient of determination
+        private double m_sumY = 0;
+        private double m_sumYSquared = 0;
+        private int m_samples = 0;
+
+        /**
+         * Adds one sample to the fit
+         * @param velocity The velocity
+         * @param acceleration The acceleration
+         * @param volts The volts applied to the motor
+         */
+        public void add(double velocity, double acceleration, double volts) {
+            double[] x = {Math.signum(velocity), velocity, acceleration};
+            for (int row = 0; row < 3; row++) {
+                for (int column = 0; column < 3; column++) {
+                    m_xtx[row][column] += x[row] * x[column];
+                }
+                m_xty[row] += x[row] * volts;
+            }
+            m_sumY += volts;
+            m_sumYSquared += volts * volts;
+            m_samples++;
+        }
+
+        /**
+         * @return The number of samples added
+         */
+        public int getSamples() {
+            return m_samples;
+        }
+
+        /**
+         * Solves for the constants that best fit the samples
+         * @return The fit model, or null if the samples don't determine a single fit
+         */
+        public Feedforward solve() {
+            double determinant = determinant(m_xtx);
+            if (m_samples < 3 || Math.abs(determinant) < 1e-12) {
+                return null;
+            }
+
+            //Cramer's rule, replacing each column with the constants in turn
+            double[] gains = new double[3];
+            for (int column = 0; column < 3; column++) {
+                double[][] replaced = new double[3][];
+                for (int row = 0; row < 3; row++) {
+                    replaced[row] = m_xtx[row].clone();
+                    replaced[row][column] = m_xty[row];
+                }
+                gains[column] = determinant(replaced) / determinant;
+            }
+            return new Feedforward(gains[0], gains[1], gains[2]);
+        }
+
+        /**
+         * @param model A model, normally the one returned by {@link #solve()}
+         * @return The coefficient of determination of the model over the samples, where 1.0 is a perfect fit
+         */
+        public double getRSquared(Feedforward model) {
+            double[] gains = {model.m_kS, model.m_kV, model.m_kA};
+
+            //the residual sum of squares expanded in terms of the sums we already have
+            double residual = m_sumYSquared;
+            for (int row = 0; row < 3; row++) {
+                residual -= 2 * gains[row] * m_xty[row];
+                for (int column = 0; column < 3; column++) {
+                    residual += gains[row] * gains[column] * m_xtx[row][column];
+                }
+            }
+            double total = m_sumYSquared - (m_sumY * m_sumY / m_samples);
+            return 1 - (residual / total);
+        }
+
+        /**
+         * @param a A 3x3 matrix
+         * @return The determinant of the matrix
+         */
+        private static double determinant(double[][] a) {
+            return a[0][0] * (a[1][1] * a[2][2] - a[1][2] * a[2][1])
+                 - a[0][1] * (a[1][0] * a[2][2] - a[1][2] * a[2][0])
+                 + a[0][2] * (a[1][0] * a[2][1] - a[1][1] * a[2][0]);
+        }
+    }
+
+    //volts to overcome static friction, volts per unit of velocity, and volts per unit of acceleration
+    private final double m_kS;
+    private final double m_kV;
+    private final double m_kA;
+
+    /**
+     * Constructor for Feedforward objects
+     * @param kS Volts to overcome static friction
+     * @param kV Volts per unit of velocity
+     * @param kA Volts per unit of acceleration
+     */
+    public Feedforward(double kS, double kV, double kA) {
+        m_kS = kS;
+        m_kV = kV;
+        m_kA = kA;
+    }
+
+    /**
+     * @param velocity The velocity
+     * @param acceleration The acceleration
+     * @return The volts needed to hold that velocity and acceleration
+     */
+    public double calculate(double velocity, double acceleration) {
+        return m_kS * Math.signum(velocity) + m_kV * velocity + m_kA * acceleration;
+    }
+
+    /**
+     * Simulates the motor for one step with a constant voltage
+     * <p>With friction constant over the step, the velocity decays exponentially toward the steady state velocity,
+     * so this is exact for any step length. Static friction holds a stopped motor still, and stops a slowing motor
+     * rather than pushing it backwards.
+     * @param volts The volts applied over the step
+     * @param velocity The velocity at the start of the step
+     * @param seconds The length of the step
+     * @return The velocity at the end of the step
+     */
+    public double stepVelocity(double volts, double velocity, double seconds) {
+        if (velocity == 0 && Math.abs(volts) <= m_kS) {
+            return 0;
+        }
+
+        double friction = m_kS * Math.signum((velocity != 0) ? velocity : volts);
+        double steadyVelocity = (volts - friction) / m_kV;
+        double endVelocity = steadyVelocity + (velocity - steadyVelocity) * Math.exp(-m_kV * seconds / m_kA);
+
+        if (velocity != 0 && Math.signum(endVelocity) != Math.signum(velocity)) {
+            return 0;
+        }
+        return endVelocity;
+    }
+
+    /**
+     * @return Volts to overcome static friction
+     */
+    public double getKS() {
+        return m_kS;
+    }
+
+    /**
+     * @return Volts per unit of velocity
+     */
+    public double getKV() {
+        return m_kV;
+    }
+
+    /**
+     * @return Volts per unit of acceleration
+     */
+    public double getKA() {
+        return m_kA;
+    }
+}
@@ -0,0 +1,86 @@
+package frc.robot;
+
+/**
+ * Where the robot is on the field, in meters, and which way it is facing, in radians counterclockwise
+ * <p>Poses are filled in place rather than created each loop, so reading our position never allocates
+ */
+public class FieldPose {
+    private double m_x;
+    private double m_y;
+    private double m_heading;
+
+    /**
+     * Constructor for a pose at the origin, facing along the x axis
+     */
+    public FieldPose() {
+        this(0, 0, 0);
+    }
+
+    /**
+     * Constructor for FieldPose objects
+     * @param x The distance along the field in meters
+     * @param y The distance across the field in meters
+     * @param heading The heading in radians counterclockwise from the x axis
+     */
+    public FieldPose(double x, double y, double heading) {
+        set(x, y, heading);
+    }
+
+    /**
+     * Sets this pose
+     * @param x The distance along the field in meters
+     * @param y The distance across the field in meters
+     * @param heading The heading in radians counterclockwise from the x axis, which is wrapped to -pi to pi
+     */
+    public void set(double x, double y, double heading) {
+        m_x = x;
+        m_y = y;
+        m_heading = Math.IEEEremainder(heading, 2 * Math.PI);
+    }
+
+    /**
+     * Copies another pose into this one
+     * @param other The pose to copy
+     */
+    public void set(FieldPose other) {
+        m_x = other.m_x;
+        m_y = other.m_y;
+        m_heading = other.m_heading;
+    }
+
+    /**
+     * @return The distance along the field in meters
+     */
+    public double getX() {
+        return m_x;
+    }
+
+    /**
+     * @return The distance across the field in meters
+     */
+    public double getY() {
+        return m_y;
+    }
+
+    /**
+     * @return The heading in radians counterclockwise from the x axis, from -pi to pi
+     */
+    public double getHeading() {
+        return m_heading;
+    }
+
+    /**
+     * @param other Another pose
+     * @return The straight line distance between the two poses in meters
+     */
+    public double getDistance(FieldPose other) {
+        return Math.hypot(other.m_x - m_x, other.m_y - m_y);
+    }
+
+    /**
+     * Returns the pose represented as a string
+     */
+    public String toString() {
+        return String.format("(%.3fm, %.3fm, %.1fdeg)", m_x, m_y, Math.toDegrees(m_heading));
+    }
+}
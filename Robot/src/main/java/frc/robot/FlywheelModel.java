@@ -0,0 +1,169 @@
+package frc.robot;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * A model of the launcher flywheel, fit from a telemetry log
+ * <p>The four motors are modeled together as a {@link Feedforward} in volts per sensor unit per 100ms, where kA stands in for
+ * the flywheel's inertia. Each ball that leaves takes a fraction of the flywheel's speed with it, and balls leave at a steady
+ * interval while the magazine runs.
+ * <p>Logged velocities are in sensor units rather than RPM, so the model matches what the talon sees
+ * no matter how sensor units convert to RPM
+ */
+public class FlywheelModel {
+    //the feedforward of all four motors together, in volts per sensor unit per 100ms (per second)
+    private final Feedforward m_feedforward;
+
+    //the fraction of our speed each ball takes, and the time between balls with the magazine running
+    private final double m_ballSpeedDrop;
+    private final double m_ballIntervalS;
+
+    //how well the feedforward fit the log, or NaN if it wasn't fit
+    private final double m_rSquared;
+
+    /**
+     * Constructor for FlywheelModel objects
+     * @param feedforward The feedforward in volts per sensor unit per 100ms (per second)
+     * @param ballSpeedDrop The fraction of the flywheel's speed each ball takes, from 0.0 to 1.0
+     * @param ballIntervalS The time between balls with the magazine running
+     * @param rSquared How well the feedforward fit the log, or NaN if it wasn't fit
+     */
+    public FlywheelModel(Feedforward feedforward, double ballSpeedDrop, double ballIntervalS, double rSquared) {
+        m_feedforward = feedforward;
+        m_ballSpeedDrop = ballSpeedDrop;
+        m_ballIntervalS = ballIntervalS;
+        m_rSquared = rSquared;
+    }
+
+    /**
+     * @return The model from the robot map constants
+     */
+    public static FlywheelModel getDefault() {
+        return new FlywheelModel(new Feedforward(RobotMap.SIM_LAUNCHER_KS, RobotMap.SIM_LAUNCHER_KV, RobotMap.SIM_LAUNCHER_KA),
+                                 RobotMap.SIM_LAUNCHER_BALL_SPEED_DROP, RobotMap.SIM_LAUNCHER_BALL_INTERVAL_S, Double.NaN);
+    }
+
+    /**
+     * Fits the model from a telemetry log, falling back to the robot map constants
+     * @param logPath The log file, or null to use the robot map constants
+     * @return The model
+     */
+    public static FlywheelModel loadOrDefault(String logPath) {
+        if (logPath == null) {
+            return getDefault();
+        }
+
+        try {
+            FlywheelModel model = fit(TelemetryLogReader.read(new File(logPath)));
+            System.out.println("Fit launcher model from " + logPath + ": " + model);
+            return model;
+        }
+        catch (IOException | IllegalArgumentException e) {
+            System.out.println("Using default launcher model, could not fit " + logPath + ": " + e.getMessage());
+            return getDefault();
+        }
+    }
+
+    /**
+     * Fits the model from logged records
+     * <p>The feedforward is fit from every loop where the launcher was driven and the magazine was stopped, so no balls were leaving.
+     * Balls are found as sudden drops in speed while the magazine runs, and the speed lost is measured down to the bottom of each dip.
+     * If no balls are found, the robot map ball constants are kept.
+     * @param records The logged records, oldest first
+     * @return The fit model
+     * @throws IllegalArgumentException If the log doesn't have enough launcher samples to fit
+     */
+    public static FlywheelModel fit(TelemetrySnapshot[] records) {
+        Feedforward.Fit fit = new Feedforward.Fit();
+
+        //the acceleration is the central difference of the velocity, so skip the first and last records
+        for (int index = 1; index < records.length - 1; index++) {
+            TelemetrySnapshot record = records[index];
+            if (record.launcherOutput == 0 || record.magazineOutput != 0 || Math.abs(record.launcherVelocity) < RobotMap.SIM_LAUNCHER_FIT_MIN_VELOCITY) {
+                continue;
+            }
+
+            //skip across gaps, such as between robot runs
+            double elapsed = records[index + 1].timestamp - records[index - 1].timestamp;
+            if (elapsed <= 0 || elapsed > RobotMap.SIM_LAUNCHER_FIT_MAX_GAP_S) {
+                continue;
+            }
+
+            double acceleration = (records[index + 1].launcherVelocity - records[index - 1].launcherVelocity) / elapsed;
+            fit.add(record.launcherVelocity, acceleration, record.launcherOutput * record.batteryVoltage);
+        }
+
+        if (fit.getSamples() < RobotMap.SIM_LAUNCHER_FIT_MIN_SAMPLES) {
+            throw new IllegalArgumentException("Only " + fit.getSamples() + " launcher samples to fit from");
+        }
+        Feedforward feedforward = fit.solve();
+        if (feedforward == null || feedforward.getKV() <= 0 || feedforward.getKA() <= 0) {
+            throw new IllegalArgumentException("The launcher samples don't fit a flywheel");
+        }
+
+        //find each ball as a sudden drop in speed while the magazine is running
+        double dropSum = 0;
+        int drops = 0;
+        double intervalSum = 0;
+        int intervals = 0;
+        double lastBallTime = Double.NaN;
+        for (int index = 1; index < records.length; index++) {
+            double before = records[index - 1].launcherVelocity;
+            if (records[index].magazineOutput <= 0 || before < RobotMap.SIM_LAUNCHER_FIT_MIN_VELOCITY
+                || records[index].launcherVelocity > before * (1 - RobotMap.SIM_LAUNCHER_BALL_DETECT_DROP)) {
+                continue;
+            }
+
+            //follow the dip down to its bottom, which is where we continue looking for the next ball
+            int bottom = index;
+            while (bottom + 1 < records.length && records[bottom + 1].launcherVelocity < records[bottom].launcherVelocity) {
+                bottom++;
+            }
+            dropSum += (before - records[bottom].launcherVelocity) / before;
+            drops++;
+
+            double ballTime = records[index].timestamp;
+            if (!Double.isNaN(lastBallTime) && ballTime - lastBallTime < RobotMap.SIM_LAUNCHER_MAX_BALL_INTERVAL_S) {
+                intervalSum += ballTime - lastBallTime;
+                intervals++;
+            }
+            lastBallTime = ballTime;
+            index = bottom;
+        }
+
+        double ballSpeedDrop = (drops == 0) ? RobotMap.SIM_LAUNCHER_BALL_SPEED_DROP : dropSum / drops;
+        double ballIntervalS = (intervals == 0) ? RobotMap.SIM_LAUNCHER_BALL_INTERVAL_S : intervalSum / intervals;
+        return new FlywheelModel(feedforward, ballSpeedDrop, ballIntervalS, fit.getRSquared(feedforward));
+    }
+
+    /**
+     * @return The feedforward in volts per sensor unit per 100ms (per second)
+     */
+    public Feedforward getFeedforward() {
+        return m_feedforward;
+    }
+
+    /**
+     * @return The fraction of the flywheel's speed each ball takes, from 0.0 to 1.0
+     */
+    public double getBallSpeedDrop() {
+        return m_ballSpeedDrop;
+    }
+
+    /**
+     * @return The time between balls with the magazine running, in seconds
+     */
+    public double getBallIntervalS() {
+        return m_ballIntervalS;
+    }
+
+    /**
+     * @return the model as a string
+     */
+    public String toString() {
+        return String.format("kS %.4f | kV %.3e | kA %.3e | Ball drop %.1f%% | Ball interval %.3fs | R^2 %.4f",
+                             m_feedforward.getKS(), m_feedforward.getKV(), m_feedforward.getKA(),
+                             m_ballSpeedDrop * 100, m_ballIntervalS, m_rSquared);
+    }
+}
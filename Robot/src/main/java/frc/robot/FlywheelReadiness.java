@@ -0,0 +1,132 @@
+package frc.robot;
+
+/**
+ * Decides when a flywheel has settled at its target speed, so that every shot leaves at the same speed
+ * <p>Velocity samples are kept in a preallocated ring buffer. A sample counts as steady when its error is inside our band
+ * and the slope of a least squares line through the buffer is inside our slope tolerance.
+ * The flywheel is ready once enough steady samples come in a row.
+ * <p>This ignores a flywheel passing through the target while overshooting, since its slope is still large,
+ * and it accepts a flywheel that settles just under the target, since that is inside the band
+ */
+public class FlywheelReadiness {
+    //parallel arrays of the timestamp in seconds and velocity in RPM of each sample
+    private final double[] m_timestamps;
+    private final double[] m_velocities;
+
+    //the index the next sample will be written to, and the number of valid samples
+    private int m_nextIndex = 0;
+    private int m_size = 0;
+
+    //how far from the target and how steep a sample can be while still counting as steady
+    private final double m_errorBand;
+    private final double m_slopeTolerance;
+
+    //the number of steady samples in a row we need before we are ready
+    private final int m_requiredSamples;
+
+    //the target the samples are being compared to, and the number of steady samples in a row we have seen
+    private double m_target = 0;
+    private int m_steadySamples = 0;
+
+    /**
+     * Constructor for FlywheelReadiness objects
+     * @param windowSize The number of samples the slope is fit over, at least two
+     * @param errorBand The largest distance from the target in RPM that counts as steady
+     * @param slopeTolerance The largest slope in RPM per second that counts as steady
+     * @param requiredSamples The number of steady samples in a row before we are ready
+     */
+    public FlywheelReadiness(int windowSize, double errorBand, double slopeTolerance, int requiredSamples) {
+        m_timestamps = new double[Math.max(2, windowSize)];
+        m_velocities = new double[Math.max(2, windowSize)];
+        m_errorBand = errorBand;
+        m_slopeTolerance = slopeTolerance;
+        m_requiredSamples = requiredSamples;
+    }
+
+    /**
+     * Adds a velocity sample and updates whether the flywheel is steady
+     * <p>Changing the target starts the count of steady samples over
+     * @param timestamp The time of the sample in seconds
+     * @param velocity The measured velocity in RPM
+     * @param target The target velocity in RPM
+     */
+    public void addSample(double timestamp, double velocity, double target) {
+        if (target != m_target) {
+            m_target = target;
+            m_steadySamples = 0;
+        }
+
+        m_timestamps[m_nextIndex] = timestamp;
+        m_velocities[m_nextIndex] = velocity;
+        m_nextIndex = (m_nextIndex + 1) % m_timestamps.length;
+        if (m_size < m_timestamps.length) {
+            m_size++;
+        }
+
+        //we can't trust the slope until the window is full
+        boolean steady = (m_size == m_timestamps.length)
+                         && (Math.abs(velocity - m_target) <= m_errorBand)
+                         && (Math.abs(getSlope()) <= m_slopeTolerance);
+
+        if (steady) {
+            m_steadySamples++;
+        }
+        else {
+            m_steadySamples = 0;
+        }
+    }
+
+    /**
+     * @return Whether the flywheel has been steady at its target for enough samples in a row
+     */
+    public boolean isReady() {
+        return m_steadySamples >= m_requiredSamples;
+    }
+
+    /**
+     * Fits a least squares line through every sample in the window
+     * @return The slope of the line in RPM per second, or zero with fewer than two samples
+     */
+    public double getSlope() {
+        if (m_size < 2) {
+            return 0;
+        }
+
+        //subtract the first timestamp to keep the sums small, since FPGA timestamps can be large
+        double startTime = m_timestamps[0];
+        double sumTime = 0;
+        double sumVelocity = 0;
+        double sumTimeVelocity = 0;
+        double sumTimeSquared = 0;
+        for (int index = 0; index < m_size; index++) {
+            double time = m_timestamps[index] - startTime;
+            sumTime += time;
+            sumVelocity += m_velocities[index];
+            sumTimeVelocity += time * m_velocities[index];
+            sumTimeSquared += time * time;
+        }
+
+        double denominator = (m_size * sumTimeSquared) - (sumTime * sumTime);
+        if (denominator == 0) {
+            return 0;
+        }
+        return ((m_size * sumTimeVelocity) - (sumTime * sumVelocity)) / denominator;
+    }
+
+    /**
+     * @return The number of steady samples in a row we have seen
+     */
+    public int getSteadySamples() {
+        return m_steadySamples;
+    }
+
+    /**
+     * Removes every sample, so the flywheel isn't ready until it settles again
+     * <p>This should be called whenever the flywheel leaves velocity control
+     */
+    public void reset() {
+        m_nextIndex = 0;
+        m_size = 0;
+        m_steadySamples = 0;
+    }
+}
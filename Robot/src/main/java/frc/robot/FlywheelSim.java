@@ -0,0 +1,215 @@
+package frc.robot;
+
+/**
+ * A simulation of the launcher flywheel and the master talon driving it
+ * <p>The flywheel follows a {@link FlywheelModel}. The talon is simulated the way we configure it in
+ * {@link Launcher#getMotorConfigs()}: percent output ramps over the open loop ramp time, and velocity control runs our PIDF
+ * every closed loop period in the talon's units, against a velocity measured over the same period and rolling window
+ * the talon uses. This lets the benchmark see the lag and overshoot the real loop has.
+ * <p>The simulation is stepped in 1ms steps, either by {@link #step(double)} or by {@link #advanceTo(double)} from a timestamp
+ */
+public class FlywheelSim {
+    //the length of one step, which is the resolution of the talon's timing
+    private static final double STEP_S = 0.001;
+
+    private final FlywheelModel m_model;
+
+    //whether we are in velocity control, and the percent output or velocity we were last set to
+    private boolean m_velocityControl = false;
+    private double m_demand = 0;
+
+    //the output the talon is applying, from -1.0 to 1.0
+    private double m_appliedOutput = 0;
+
+    //the true velocity in sensor units per 100ms and position in sensor units
+    private double m_velocity = 0;
+    private double m_position = 0;
+
+    //the positions over the last measurement period, one per step, for measuring velocity like the talon
+    private final double[] m_positionHistory;
+    //the last few measurements, which the talon averages
+    private final double[] m_measurementWindow;
+    private double m_measuredVelocity = 0;
+    private int m_steps = 0;
+
+    //the PIDF gains in talon units, and the closed loop state
+    private double m_p = RobotMap.LAUNCHER_P;
+    private double m_i = RobotMap.LAUNCHER_I;
+    private double m_d = RobotMap.LAUNCHER_D;
+    private double m_f = RobotMap.LAUNCHER_F;
+    private double m_integral = 0;
+    private double m_lastError = 0;
+
+    //the time the simulation has been advanced to by advanceTo(), or NaN before the first advance
+    private double m_lastTime = Double.NaN;
+
+    /**
+     * Constructor for FlywheelSim objects
+     * @param model The flywheel model
+     */
+    public FlywheelSim(FlywheelModel model) {
+        m_model = model;
+        m_positionHistory = new double[RobotMap.VELOCITY_MEASUREMENT_PERIOD.value + 1];
+        m_measurementWindow = new double[RobotMap.LAUNCHER_VELOCITY_MEASUREMENT_WINDOW];
+    }
+
+    /**
+     * Sets the talon to percent output
+     * @param output The output from -1.0 to 1.0
+     */
+    public void setPercentOutput(double output) {
+        //the peak outputs are configured for every mode, with no reverse output
+        m_velocityControl = false;
+        m_demand = Math.max(0, Math.min(RobotMap.LAUNCHER_PID_PEAK_OUTPUT, output));
+    }
+
+    /**
+     * Sets the talon to velocity control
+     * @param velocity The target velocity in sensor units per 100ms
+     */
+    public void setVelocity(double velocity) {
+        //entering velocity control starts the closed loop fresh
+        if (!m_velocityControl) {
+            m_integral = 0;
+            m_lastError = 0;
+        }
+        m_velocityControl = true;
+        m_demand = velocity;
+    }
+
+    /**
+     * Sets the gains of the simulated velocity control, as {@link Launcher#configPIDF} does on the talon
+     * @param p Proportionality Constant
+     * @param i Integral Constant
+     * @param d Derivative Constant
+     * @param f Feed-Forward Constant
+     */
+    public void setGains(double p, double i, double d, double f) {
+        m_p = p;
+        m_i = i;
+        m_d = d;
+        m_f = f;
+    }
+
+    /**
+     * Takes the speed one ball carries away from the flywheel
+     */
+    public void launchBall() {
+        m_velocity *= 1 - m_model.getBallSpeedDrop();
+    }
+
+    /**
+     * Advances the simulation to a timestamp
+     * <p>The first call only starts the clock
+     * @param timestamp The time in seconds, such as the FPGA timestamp
+     */
+    public void advanceTo(double timestamp) {
+        if (!Double.isNaN(m_lastTime) && timestamp > m_lastTime) {
+            step(timestamp - m_lastTime);
+        }
+        if (Double.isNaN(m_lastTime) || timestamp > m_lastTime) {
+            m_lastTime = timestamp;
+        }
+    }
+
+    /**
+     * Advances the simulation
+     * @param seconds The time to advance, which is rounded to the nearest millisecond
+     */
+    public void step(double seconds) {
+        long steps = Math.round(seconds / STEP_S);
+        for (long step = 0; step < steps; step++) {
+            stepOnce();
+        }
+    }
+
+    /**
+     * Advances the simulation by one millisecond
+     */
+    private void stepOnce() {
+        m_steps++;
+
+        //velocity control runs every closed loop period, and percent output ramps
+        if (m_velocityControl) {
+            if (m_steps % RobotMap.LAUNCHER_CLOSED_LOOP_PERIOD_MS == 0) {
+                m_appliedOutput = runClosedLoop();
+            }
+        }
+        else {
+            double maxChange = (RobotMap.LAUNCHER_OPEN_LOOP_RAMP_TIME_S > 0) ? STEP_S / RobotMap.LAUNCHER_OPEN_LOOP_RAMP_TIME_S : Double.MAX_VALUE;
+            m_appliedOutput += Math.max(-maxChange, Math.min(maxChange, m_demand - m_appliedOutput));
+        }
+
+        //sensor units per 100ms are a tenth of sensor units per second
+        double startVelocity = m_velocity;
+        m_velocity = m_model.getFeedforward().stepVelocity(m_appliedOutput * RobotMap.SIM_BATTERY_VOLTAGE, startVelocity, STEP_S);
+        m_position += (startVelocity + m_velocity) / 2 * STEP_S * 10;
+
+        //the talon measures the change in position over the measurement period, and averages the last few measurements
+        int period = m_positionHistory.length - 1;
+        m_positionHistory[m_steps % m_positionHistory.length] = m_position;
+        double periodStart = m_positionHistory[(m_steps + 1) % m_positionHistory.length];
+        m_measurementWindow[m_steps % m_measurementWindow.length] = (m_position - periodStart) * 100 / period;
+
+        double sum = 0;
+        for (double measurement : m_measurementWindow) {
+            sum += measurement;
+        }
+        m_measuredVelocity = sum / m_measurementWindow.length;
+    }
+
+    /**
+     * Runs one period of the talon's velocity PIDF, where an output of 1023 is full output
+     * @return The output from -1.0 to 1.0
+     */
+    private double runClosedLoop() {
+        double error = m_demand - m_measuredVelocity;
+
+        //errors inside the acceptable error are treated as zero
+        if (Math.abs(error) <= RobotMap.LAUNCHER_ACCEPTABLE_ERROR) {
+            error = 0;
+        }
+
+        //the integral is reset when we are outside of the integral zone
+        if (RobotMap.LAUNCHER_I_ZONE != 0 && Math.abs(error) > RobotMap.LAUNCHER_I_ZONE) {
+            m_integral = 0;
+        }
+        else {
+            m_integral += error;
+        }
+
+        double output = m_f * m_demand + m_p * error + m_i * m_integral + m_d * (error - m_lastError);
+        m_lastError = error;
+
+        //we never drive the launcher in reverse, and the closed loop is capped at its peak output
+        return Math.max(0, Math.min(RobotMap.LAUNCHER_PID_PEAK_OUTPUT, output / 1023));
+    }
+
+    /**
+     * @return The velocity the talon measures, in sensor units per 100ms
+     */
+    public int getMeasuredVelocity() {
+        return (int) m_measuredVelocity;
+    }
+
+    /**
+     * @return The true velocity of the flywheel, in sensor units per 100ms
+     */
+    public double getVelocity() {
+        return m_velocity;
+    }
+
+    /**
+     * @return The output the talon is applying, from -1.0 to 1.0
+     */
+    public double getAppliedOutput() {
+        return m_appliedOutput;
+    }
+
+    /**
+     * @return The model this simulation follows
+     */
+    public FlywheelModel getModel() {
+        return m_model;
+    }
+}
@@ -0,0 +1,377 @@
+package frc.robot;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.sun.management.GcInfo;
+
+import edu.wpi.first.networktables.NetworkTableEntry;
+import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
+import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardTab;
+
+/**
+ * Matches garbage collection pauses against our loops, so we can tell how much of our loop jitter came from the JVM
+ * and how much came from our own code
+ * <p>The JVM sends a notification after each collection on one of its own threads. We copy each pause into a preallocated
+ * {@link SnapshotRing}, and the main loop drains the ring at the end of every loop and adds up how much of each pause
+ * fell inside the loop. When a loop overruns our loop budget, the pause time inside it is counted as JVM jitter,
+ * up to the size of the overrun, and the rest of the overrun is counted as our own.
+ * <p>Notifications can arrive a little after the loop the pause hit, so a loop is only added to the match totals
+ * once the next loop has drained the ring. The per loop values in the telemetry log are what we knew when the loop was logged.
+ * <p>Pause times come from the JVM in whole milliseconds on its own clock, which starts at a slightly different time than
+ * any clock we can read. Every notification arrives after its pause ended, so the smallest gap we have seen between a pause's end
+ * and its notification arriving tells us how the two clocks line up. The overlap with a loop is accurate to about a millisecond.
+ */
+public class GcMonitor implements ShuffleboardEnabled {
+    /**
+     * One collection, in System.nanoTime() time
+     */
+    private static class Pause {
+        long startNanos;
+        long endNanos;
+    }
+
+    /**
+     * One loop and the pause time we have found inside it so far
+     */
+    private static class LoopWindow {
+        long startNanos;
+        long endNanos;
+        long pauseNanos;
+        //false once the loop has been added to the totals, or if there is no loop here yet
+        boolean open = false;
+    }
+
+    //the pauses the notification thread hands to the main loop
+    private final SnapshotRing<Pause> m_pauses;
+
+    //the System.nanoTime() value at zero on the JVM's collection clock, as best we can tell so far. Only the notification thread uses it
+    private long m_gcClockOffsetNanos = Long.MAX_VALUE;
+
+    //whether any collector is sending us notifications
+    private final boolean m_listening;
+
+    //the start of the loop in progress, or zero if no loop has started
+    private long m_loopStartNanos = 0;
+
+    //the last loop, which can still get pauses from late notifications, and the loop that just ended
+    private LoopWindow m_previousLoop = new LoopWindow();
+    private LoopWindow m_currentLoop = new LoopWindow();
+
+    //the length of the last loop and the pause time inside it, as known when the loop ended
+    private long m_lastLoopNanos = 0;
+    private long m_lastLoopPauseNanos = 0;
+
+    //the totals since the last reset, which should be once a match
+    private int m_loops = 0;
+    private int m_pauseCount = 0;
+    private long m_totalPauseNanos = 0;
+    private long m_pauseNanosInLoops = 0;
+    private int m_overrunLoops = 0;
+    private int m_overrunLoopsWithPauses = 0;
+    private long m_jvmJitterNanos = 0;
+    private long m_codeJitterNanos = 0;
+
+    //counts loops so that we only publish every PROFILER_PUBLISH_PERIOD_CYCLES
+    private int m_cycleCount = 0;
+
+    //declare private variables for creating a tab, and setting widgets
+    private ShuffleboardTab m_profilerTab;
+    /**Network table entries for publishing the totals since the last reset */
+    private NetworkTableEntry m_pauseCountEntry;
+    private NetworkTableEntry m_totalPauseEntry;
+    private NetworkTableEntry m_overrunLoopsEntry;
+    private NetworkTableEntry m_overrunLoopsWithPausesEntry;
+    private NetworkTableEntry m_jvmJitterEntry;
+    private NetworkTableEntry m_codeJitterEntry;
+
+    /**
+     * Constructor for GcMonitor objects
+     * <p>This subscribes to every garbage collector that stops the world, so it should be run once on startup
+     */
+    public GcMonitor() {
+        m_pauses = new SnapshotRing<Pause>(RobotMap.GC_PAUSE_RING_SIZE, Pause::new);
+
+        m_listening = subscribe();
+        if (!m_listening) {
+            System.out.println("Garbage collection notifications are not supported by this JVM, GC pauses will not be tracked");
+        }
+
+        shuffleboardConfig();
+    }
+
+    /**
+     * Adds our listener to every garbage collector that stops the world
+     * @return Whether we are listening to any collector
+     */
+    private boolean subscribe() {
+        boolean listening = false;
+        try {
+            for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+                //concurrent collectors report whole cycles that mostly run alongside our code, not pauses
+                if (Arrays.asList(RobotMap.GC_CONCURRENT_COLLECTORS).contains(collector.getName())) {
+                    continue;
+                }
+                if (collector instanceof NotificationEmitter) {
+                    ((NotificationEmitter) collector).addNotificationListener(this::handleNotification, null, null);
+                    listening = true;
+                }
+            }
+        }
+        //a JVM without the jdk.management module fails to link com.sun.management
+        catch (LinkageError | SecurityException e) {
+            return false;
+        }
+        return listening;
+    }
+
+    /**
+     * Runs on the JVM's notification thread after each collection, and hands the pause to the main loop
+     * @param notification The notification
+     * @param handback Unused
+     */
+    private void handleNotification(Notification notification, Object handback) {
+        if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+            return;
+        }
+        long receivedNanos = System.nanoTime();
+        GcInfo gcInfo = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData()).getGcInfo();
+
+        //the ring takes one producer, and each collector could notify us from a different thread
+        synchronized (m_pauses) {
+            //the pause ended before we heard about it, so the quickest notification lines the clocks up the closest
+            m_gcClockOffsetNanos = Math.min(m_gcClockOffsetNanos, receivedNanos - (gcInfo.getEndTime() * 1000000));
+
+            Pause pause = m_pauses.claim();
+
+            //the main loop hasn't drained the ring in a while, the ring has counted the drop
+            if (pause == null) {
+                return;
+            }
+
+            pause.startNanos = m_gcClockOffsetNanos + (gcInfo.getStartTime() * 1000000);
+            pause.endNanos = m_gcClockOffsetNanos + (gcInfo.getEndTime() * 1000000);
+            m_pauses.publish();
+        }
+    }
+
+    /**
+     * Marks the start of a loop
+     * <p>This should be the first thing each mode's periodic method does
+     */
+    public void startLoop() {
+        m_loopStartNanos = System.nanoTime();
+    }
+
+    /**
+     * Marks the end of a loop and matches every pause we have been told about since the last loop against it
+     * <p>This should be called once at the end of every loop, before the telemetry is logged. It never allocates
+     */
+    public void endLoop() {
+        //the loop didn't go through a periodic method that we mark, such as test periodic
+        if (m_loopStartNanos == 0) {
+            return;
+        }
+
+        //reuse the window of the loop before last for this loop
+        LoopWindow window = m_previousLoop;
+        m_previousLoop = m_currentLoop;
+        m_currentLoop = window;
+        m_currentLoop.startNanos = m_loopStartNanos;
+        m_currentLoop.endNanos = System.nanoTime();
+        m_currentLoop.pauseNanos = 0;
+        m_currentLoop.open = true;
+        m_loopStartNanos = 0;
+
+        //late notifications can still land in the last loop, so match each pause against both
+        Pause pause = m_pauses.poll();
+        while (pause != null) {
+            m_pauseCount++;
+            m_totalPauseNanos += pause.endNanos - pause.startNanos;
+            addOverlap(m_previousLoop, pause);
+            addOverlap(m_currentLoop, pause);
+
+            m_pauses.release();
+            pause = m_pauses.poll();
+        }
+
+        //nothing else can land in the last loop now, so add it to our totals
+        closeLoop(m_previousLoop);
+
+        m_lastLoopNanos = m_currentLoop.endNanos - m_currentLoop.startNanos;
+        m_lastLoopPauseNanos = m_currentLoop.pauseNanos;
+
+        m_cycleCount++;
+        if (m_cycleCount >= RobotMap.PROFILER_PUBLISH_PERIOD_CYCLES) {
+            m_cycleCount = 0;
+            publish();
+        }
+    }
+
+    /**
+     * Adds the part of a pause that fell inside a loop to that loop
+     * @param window The loop
+     * @param pause The pause
+     */
+    private static void addOverlap(LoopWindow window, Pause pause) {
+        if (!window.open) {
+            return;
+        }
+        long overlap = Math.min(window.endNanos, pause.endNanos) - Math.max(window.startNanos, pause.startNanos);
+        if (overlap > 0) {
+            window.pauseNanos += overlap;
+        }
+    }
+
+    /**
+     * Adds a loop to our totals, splitting any overrun between the JVM and our code
+     * @param window The loop, which is skipped if it was already added
+     */
+    private void closeLoop(LoopWindow window) {
+        if (!window.open) {
+            return;
+        }
+        window.open = false;
+
+        m_loops++;
+        m_pauseNanosInLoops += window.pauseNanos;
+
+        long overrunNanos = (window.endNanos - window.startNanos) - RobotMap.PROFILER_LOOP_BUDGET_NS;
+        if (overrunNanos > 0) {
+            //a pause only made us overrun by as much as the overrun itself, the rest of the pause fit in our budget
+            long jvmNanos = Math.min(overrunNanos, window.pauseNanos);
+            m_overrunLoops++;
+            if (window.pauseNanos > 0) {
+                m_overrunLoopsWithPauses++;
+            }
+            m_jvmJitterNanos += jvmNanos;
+            m_codeJitterNanos += overrunNanos - jvmNanos;
+        }
+    }
+
+    /**
+     * Clears every total, and forgets the loops in progress
+     * <p>This should be called at the start of each match, so the summary covers one match
+     */
+    public void reset() {
+        m_loopStartNanos = 0;
+        m_previousLoop.open = false;
+        m_currentLoop.open = false;
+        m_lastLoopNanos = 0;
+        m_lastLoopPauseNanos = 0;
+
+        m_loops = 0;
+        m_pauseCount = 0;
+        m_totalPauseNanos = 0;
+        m_pauseNanosInLoops = 0;
+        m_overrunLoops = 0;
+        m_overrunLoopsWithPauses = 0;
+        m_jvmJitterNanos = 0;
+        m_codeJitterNanos = 0;
+        m_cycleCount = 0;
+
+        //pauses from before the reset don't belong to this match
+        while (m_pauses.poll() != null) {
+            m_pauses.release();
+        }
+    }
+
+    /**
+     * Prints the totals since the last reset to the console
+     * <p>This allocates, so it should only be called while disabled, such as right after a match
+     */
+    public void printSummary() {
+        //the last loop is done, so count it
+        closeLoop(m_currentLoop);
+        if (m_loops == 0) {
+            return;
+        }
+
+        System.out.printf("JVM summary over %d loops: %d GC pauses, %.1fms total and %.1fms inside loops%n",
+                          m_loops, m_pauseCount, nanosToMillis(m_totalPauseNanos), nanosToMillis(m_pauseNanosInLoops));
+        System.out.printf("%d loops overran, %d of them during a GC pause. Jitter: %.1fms from the JVM, %.1fms from our code%n",
+                          m_overrunLoops, m_overrunLoopsWithPauses, nanosToMillis(m_jvmJitterNanos), nanosToMillis(m_codeJitterNanos));
+        publish();
+    }
+
+    /**
+     * Pushes the totals since the last reset to the shuffleboard, with all times in milliseconds
+     */
+    public void publish() {
+        m_pauseCountEntry.setDouble(m_pauseCount);
+        m_totalPauseEntry.setDouble(nanosToMillis(m_totalPauseNanos));
+        m_overrunLoopsEntry.setDouble(m_overrunLoops);
+        m_overrunLoopsWithPausesEntry.setDouble(m_overrunLoopsWithPauses);
+        m_jvmJitterEntry.setDouble(nanosToMillis(m_jvmJitterNanos));
+        m_codeJitterEntry.setDouble(nanosToMillis(m_codeJitterNanos));
+    }
+
+    /**
+     * @return The length of the last loop in nanoseconds, from the start of its periodic method to the end of robot periodic
+     */
+    public long getLastLoopNanos() {
+        return m_lastLoopNanos;
+    }
+
+    /**
+     * @return The GC pause time inside the last loop in nanoseconds, as far as we knew when it ended
+     */
+    public long getLastLoopPauseNanos() {
+        return m_lastLoopPauseNanos;
+    }
+
+    /**
+     * @return The overrun time since the last reset that came from GC pauses, in nanoseconds
+     */
+    public long getJvmJitterNanos() {
+        return m_jvmJitterNanos;
+    }
+
+    /**
+     * @return The overrun time since the last reset that came from our code, in nanoseconds
+     */
+    public long getCodeJitterNanos() {
+        return m_codeJitterNanos;
+    }
+
+    /**
+     * @return Whether any garbage collector is sending us notifications
+     */
+    public boolean isListening() {
+        return m_listening;
+    }
+
+    /**
+     * @return The number of pauses we missed because the main loop didn't drain them in time
+     */
+    public long getDroppedPauses() {
+        return m_pauses.getDropped();
+    }
+
+    /**
+     * @param nanos A duration in nanoseconds
+     * @return The same duration in milliseconds
+     */
+    private static double nanosToMillis(long nanos) {
+        return nanos / 1.0e6;
+    }
+
+    /**
+     * instantiates all of our network table entries and displays them under the profiler tab
+     */
+    public void shuffleboardConfig() {
+        m_profilerTab = Shuffleboard.getTab("Profiler");
+        m_pauseCountEntry = m_profilerTab.add("GC Pauses", 0.0).getEntry();
+        m_totalPauseEntry = m_profilerTab.add("GC Pause Total (ms)", 0.0).getEntry();
+        m_overrunLoopsEntry = m_profilerTab.add("Overrun Loops", 0.0).getEntry();
+        m_overrunLoopsWithPausesEntry = m_profilerTab.add("Overruns During GC", 0.0).getEntry();
+        m_jvmJitterEntry = m_profilerTab.add("JVM Jitter (ms)", 0.0).getEntry();
+        m_codeJitterEntry = m_profilerTab.add("Code Jitter (ms)", 0.0).getEntry();
+    }
+}
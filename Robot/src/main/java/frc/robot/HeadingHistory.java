@@ -0,0 +1,129 @@
+package frc.robot;
+
+/**
+ * A time-indexed ring buffer of gyro headings
+ * <p>This lets us look up where the robot was pointing when a camera frame was captured,
+ * rather than where it is pointing by the time we read that frame
+ * <p>The buffer is preallocated and overwrites its oldest sample once full
+ */
+public class HeadingHistory {
+    //parallel arrays storing the timestamp in seconds and the heading in degrees for each sample
+    private final double[] m_timestamps;
+    private final double[] m_headings;
+
+    //the index the next sample will be written to
+    private int m_nextIndex = 0;
+
+    //the number of valid samples currently stored, which caps at our capacity
+    private int m_size = 0;
+
+    /**
+     * Constructor for HeadingHistory objects
+     * @param capacity The number of samples to keep before overwriting the oldest
+     */
+    public HeadingHistory(int capacity) {
+        m_timestamps = new double[capacity];
+        m_headings = new double[capacity];
+    }
+
+    /**
+     * Adds a heading sample to the buffer
+     * <p>Samples must be added in increasing timestamp order
+     * @param timestamp The FPGA timestamp of the sample in seconds
+     * @param heading The heading in degrees from -180 to 180
+     */
+    public synchronized void addSample(double timestamp, double heading) {
+        m_timestamps[m_nextIndex] = timestamp;
+        m_headings[m_nextIndex] = heading;
+
+        //move our write index forward, wrapping around to the start of the array
+        m_nextIndex = (m_nextIndex + 1) % m_timestamps.length;
+        if (m_size < m_timestamps.length) {
+            m_size++;
+        }
+    }
+
+    /**
+     * Looks up the heading at a past time, interpolating between the two samples around it
+     * <p>Times older than our oldest sample return the oldest sample,
+     * and times newer than our newest sample return the newest sample
+     * @param timestamp The FPGA timestamp in seconds to look up
+     * @return The heading at that time in degrees from -180 to 180, or zero if there are no samples
+     */
+    public synchronized double getHeadingAt(double timestamp) {
+        if (m_size == 0) {
+            return 0;
+        }
+
+        //walk backwards from the newest sample, since we almost always look up recent times
+        int newer = previousIndex(m_nextIndex);
+        if (timestamp >= m_timestamps[newer]) {
+            return m_headings[newer];
+        }
+
+        for (int count = 1; count < m_size; count++) {
+            int older = previousIndex(newer);
+
+            //once we find the first sample older than our time, interpolate between it and the one after it
+            if (m_timestamps[older] <= timestamp) {
+                double span = m_timestamps[newer] - m_timestamps[older];
+                double fraction = (span > 0) ? (timestamp - m_timestamps[older]) / span : 1.0;
+                return interpolateHeading(m_headings[older], m_headings[newer], fraction);
+            }
+            newer = older;
+        }
+
+        //our time is older than anything we have, so return the oldest sample
+        return m_headings[newer];
+    }
+
+    /**
+     * @return The number of samples currently stored
+     */
+    public synchronized int size() {
+        return m_size;
+    }
+
+    /**
+     * Removes every sample from the buffer
+     */
+    public synchronized void clear() {
+        m_nextIndex = 0;
+        m_size = 0;
+    }
+
+    /**
+     * @param index An index into our arrays
+     * @return The index before it, wrapping around to the end of the array
+     */
+    private int previousIndex(int index) {
+        return (index == 0) ? m_timestamps.length - 1 : index - 1;
+    }
+
+    /**
+     * Interpolates between two headings across the shortest path, so that 179 and -179 are two degrees apart
+     * @param from The starting heading in degrees
+     * @param to The ending heading in degrees
+     * @param fraction How far from the start to the end we want, from 0.0 to 1.0
+     * @return The interpolated heading in degrees from -180 to 180
+     */
+    public static double interpolateHeading(double from, double to, double fraction) {
+        return wrapDegrees(from + wrapDegrees(to - from) * fraction);
+    }
+
+    /**
+     * Wraps an angle into the range -180 to 180
+     * @param degrees Any angle in degrees
+     * @return The same angle from -180 to 180
+     */
+    public static double wrapDegrees(double degrees) {
+        degrees %= 360.0;
+        if (degrees > 180.0) {
+            degrees -= 360.0;
+        }
+        else if (degrees < -180.0) {
+            degrees += 360.0;
+        }
+        return degrees;
+    }
+}
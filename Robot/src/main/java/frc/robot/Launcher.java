@@ -1,14 +1,19 @@
 package frc.robot;
 
+import java.util.ArrayList;
+
 import com.ctre.phoenix.motorcontrol.ControlMode;
 import com.ctre.phoenix.motorcontrol.FollowerType;
 import com.ctre.phoenix.motorcontrol.SensorCollection;
-import com.ctre.phoenix.motorcontrol.StatusFrame;
 import com.ctre.phoenix.motorcontrol.TalonSRXFeedbackDevice;
 import com.ctre.phoenix.motorcontrol.can.BaseMotorController;
 import com.ctre.phoenix.motorcontrol.can.TalonSRX;
 import com.ctre.phoenix.motorcontrol.can.VictorSPX;
 
+import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.Timer;
+import frc.robot.MotorConfigurator.DeviceConfig;
+
 /**
  * A launcher that uses one or multiple motors to launch a projectile
  * <p>Utilizes a scrapped together proportionality controller to adjust speed for percent input,
@@ -34,6 +39,24 @@ public class Launcher {
     //the encoder plugged into the master Talon
     SensorCollection m_encoder;
 
+    //output caches for the launcher motors, so we don't resend identical output or follow() every call
+    private MotorOutputCache m_masterOutput;
+    private MotorOutputCache m_closeSlaveOutput;
+    private MotorOutputCache m_farSlaveOutput1;
+    private MotorOutputCache m_farSlaveOutput2;
+
+    //the table of launcher speeds for each distance to the target
+    private ShotTable m_shotTable;
+
+    //decides when our velocity has settled at the target, from the samples taken in setVelocity()
+    private FlywheelReadiness m_readiness;
+
+    //the velocity last passed to setVelocity() in sensor units per 100ms, or zero in percent output
+    private double m_targetVelocity = 0;
+
+    //the flywheel simulation our encoder and output read from in the desktop simulator, or null on the robot
+    private FlywheelSim m_simulation = null;
+
     /**
      * Constructor for Launcher objects
      * 
@@ -61,8 +84,19 @@ public class Launcher {
         //Instantiates the encoder as the encoder plugged into the master
         m_encoder = new SensorCollection(m_masterMotor);
 
-        //run the config methods to set up velocity control
-        configVelocityControl();
+        //wraps the motors in caches to skip repeated output
+        configOutputCaches();
+
+        //loads our tuned launcher speeds from the deploy directory
+        m_shotTable = ShotTable.loadFromDeploy(RobotMap.SHOT_TABLE_FILE);
+
+        //instantiates our readiness detector with the tolerances from the robot map
+        m_readiness = createReadiness();
+
+        //swaps our motors for a flywheel simulation when we aren't on the robot
+        configSimulation();
+
+        //velocity control is configured on robot startup by the MotorConfigurator, see getMotorConfigs()
     }
 
     /**
@@ -83,8 +117,50 @@ public class Launcher {
         //Instantiates the encoder as the encoder plugged into the master
         m_encoder = new SensorCollection(m_masterMotor);
 
-        //run the config methods to set up velocity control
-        configVelocityControl();
+        //wraps the motors in caches to skip repeated output
+        configOutputCaches();
+
+        //loads our tuned launcher speeds from the deploy directory
+        m_shotTable = ShotTable.loadFromDeploy(RobotMap.SHOT_TABLE_FILE);
+
+        //instantiates our readiness detector with the tolerances from the robot map
+        m_readiness = createReadiness();
+
+        //swaps our motors for a flywheel simulation when we aren't on the robot
+        configSimulation();
+
+        //velocity control is configured on robot startup by the MotorConfigurator, see getMotorConfigs()
+    }
+
+    /**
+     * Instantiates the output caches around our launcher motors
+     * <p>This should only be run in the constructor, after the motors are instantiated
+     */
+    private void configOutputCaches() {
+        m_masterOutput = new MotorOutputCache(m_masterMotor);
+        m_closeSlaveOutput = new MotorOutputCache(m_closeSlaveMotor);
+        m_farSlaveOutput1 = new MotorOutputCache(m_farSlaveMotor1);
+        m_farSlaveOutput2 = new MotorOutputCache(m_farSlaveMotor2);
+    }
+
+    /**
+     * Creates a flywheel simulation from the robot map model when running in the desktop simulator
+     * <p>This should only be run in the constructor
+     */
+    private void configSimulation() {
+        if (RobotBase.isSimulation()) {
+            m_simulation = new FlywheelSim(FlywheelModel.getDefault());
+            m_simulation.advanceTo(Timer.getFPGATimestamp());
+        }
+    }
+
+    /**
+     * Sets all slave motors to follow the master, which is only sent if they aren't following already
+     */
+    private void followMaster() {
+        m_closeSlaveOutput.follow(m_masterMotor, FollowerType.PercentOutput);
+        m_farSlaveOutput1.follow(m_masterMotor, FollowerType.PercentOutput);
+        m_farSlaveOutput2.follow(m_masterMotor, FollowerType.PercentOutput);
     }
 
     /**
@@ -92,13 +168,19 @@ public class Launcher {
      * @param speed A value between -1.0 and 1.0 where 1.0 is full speed forward
      */
     public void setMotor(double speed) {
+        //we are leaving velocity control, so we need to settle again before we are ready
+        m_readiness.reset();
+        m_targetVelocity = 0;
+
         //set the master motor directly
-        m_masterMotor.set(ControlMode.PercentOutput, speed);
+        m_masterOutput.set(ControlMode.PercentOutput, speed);
+        if (m_simulation != null) {
+            m_simulation.advanceTo(Timer.getFPGATimestamp());
+            m_simulation.setPercentOutput(speed);
+        }
 
         //set all other motors to follow
-        m_closeSlaveMotor.follow(m_masterMotor, FollowerType.PercentOutput);
-        m_farSlaveMotor1.follow(m_masterMotor, FollowerType.PercentOutput);
-        m_farSlaveMotor2.follow(m_masterMotor, FollowerType.PercentOutput);
+        followMaster();
     }
 
     /**
@@ -121,103 +203,182 @@ public class Launcher {
      */
     public void setVelocity(double velocity) {
         //set the velocity of the motors
-        m_masterMotor.set(ControlMode.Velocity, velocity);
+        m_masterOutput.set(ControlMode.Velocity, velocity);
+        m_targetVelocity = velocity;
+        if (m_simulation != null) {
+            m_simulation.advanceTo(Timer.getFPGATimestamp());
+            m_simulation.setVelocity(velocity);
+        }
         
         //set our slave motors to follow master
-        m_closeSlaveMotor.follow(m_masterMotor, FollowerType.PercentOutput);
-        m_farSlaveMotor1.follow(m_masterMotor, FollowerType.PercentOutput);
-        m_farSlaveMotor2.follow(m_masterMotor, FollowerType.PercentOutput);
+        followMaster();
+
+        //this is called every loop while we rev, so sample our velocity here for the readiness detector
+        m_readiness.addSample(Timer.getFPGATimestamp(), getVelocity() / RobotMap.RPM_TO_UNITS_PER_100MS,
+                              velocity / RobotMap.RPM_TO_UNITS_PER_100MS);
     }
 
     /**
-     * This revs our launcher to a target velocity as a function of distance
-     * <p>TODO: This equation needs to be tuned based on testing
-     * @param distance Horizontal distance to the target in inches, this should be a product of our limelight
+     * Checks whether the launcher has settled at the velocity last passed to setVelocity(),
+     * so every ball we launch leaves at the same speed
+     * <p>This requires our error and acceleration to stay small for several loops, so passing through the target doesn't count
+     * @return Whether the launcher is ready to launch
      */
-    public void revLauncher(double distance) {
-        //calculate what percent of our max distance we are from our target
-        double percentMaxDistance = (distance /  RobotMap.MAX_LAUNCHER_DISTANCE_IN);
+    public boolean isAtTargetVelocity() {
+        return m_readiness.isReady();
+    }
 
-        //if our distance is greater than our max distance, this caps the output at one
-        if (percentMaxDistance > 1.0) {
-            percentMaxDistance = 1.0;
-        }
-        //or, if we have negative distance, floor our distance at zero to prevent unexpected results
-        else if (percentMaxDistance < 0.0) {
-            percentMaxDistance = 0.0;
+    /**
+     * @return The velocity of the master motor's sensor in sensor units per 100ms, from the simulation if we have one
+     */
+    public int getVelocity() {
+        if (m_simulation != null) {
+            m_simulation.advanceTo(Timer.getFPGATimestamp());
+            return m_simulation.getMeasuredVelocity();
         }
-
-        //set our target velocity to that same percent of our max speed
-        double targetVelocity = (percentMaxDistance * RobotMap.LAUNCHER_FREESPIN_ANGULAR_VELOCITY);
-
-        //set our motor to the target velocity calculated
-        setVelocity(targetVelocity);
+        return m_masterMotor.getSelectedSensorVelocity();
     }
 
     /**
-     * This should only be run in the constructor for this object
-     * <p> This must be run before using any velocity control
+     * @return The output the master motor is applying from -1.0 to 1.0, from the simulation if we have one
      */
-    private void configVelocityControl() {
-        //config remote sensors
-        //sets the sensor to be a quad encoder, sets our feedback device to be that sensor
-        m_masterMotor.configSelectedFeedbackSensor(TalonSRXFeedbackDevice.CTRE_MagEncoder_Relative, RobotMap.PID_PRIMARY_SLOT, RobotMap.LAUNCHER_CONFIG_TIMEOUT_MS);
-
-        //zero the encoders on every init
-        zeroEncoder();
-
-        //sets whether our motor is inverted
-        //this is currently false but can be switched based on testing
-        m_masterMotor.setInverted(RobotMap.LAUNCHER_MASTER_INVERTED);
-        m_masterMotor.setSensorPhase(RobotMap.LAUNCHER_MASTER_INVERTED);
-
-        //this sets how often we pull data from our sensor
-        m_masterMotor.setStatusFramePeriod(StatusFrame.Status_2_Feedback0, RobotMap.LAUNCHER_FEEDBACK_PERIOD_MS, RobotMap.LAUNCHER_CONFIG_TIMEOUT_MS);
-
-        //this configs the deadband for the PID output. Any output with an absolute value less than this will be treated as zero
-        m_masterMotor.configNeutralDeadband(0, RobotMap.LAUNCHER_CONFIG_TIMEOUT_MS);
-
-        //this sets the peak output for our motor controller.
-        m_masterMotor.configPeakOutputForward(RobotMap.LAUNCHER_PID_PEAK_OUTPUT, RobotMap.LAUNCHER_CONFIG_TIMEOUT_MS);
-        //this does the same thing but for the reverse direction
-        m_masterMotor.configPeakOutputReverse(0, RobotMap.LAUNCHER_CONFIG_TIMEOUT_MS);
-        
-        //sets the period of the velocity sample
-        //effectively this defines the amount of time used to calculate the velocity
-        m_masterMotor.configVelocityMeasurementPeriod(RobotMap.VELOCITY_MEASUREMENT_PERIOD, RobotMap.LAUNCHER_CONFIG_TIMEOUT_MS);
-
-        //Sets the number of samples used in the rolling average for calculating velocity
-        m_masterMotor.configVelocityMeasurementWindow(RobotMap.LAUNCHER_VELOCITY_MEASUREMENT_WINDOW, RobotMap.LAUNCHER_CONFIG_TIMEOUT_MS);
-        
-        //set p, i, d, f values
-        //the zero is the PID slot, in this case it is zero for the primary PID
-        //the launcher has no auxillary or turning PID control
-        m_masterMotor.config_kP(RobotMap.PID_PRIMARY_SLOT, RobotMap.LAUNCHER_P);
-        m_masterMotor.config_kI(RobotMap.PID_PRIMARY_SLOT, RobotMap.LAUNCHER_I);
-        m_masterMotor.config_kD(RobotMap.PID_PRIMARY_SLOT, RobotMap.LAUNCHER_D);
-        m_masterMotor.config_kF(RobotMap.PID_PRIMARY_SLOT, RobotMap.LAUNCHER_F);
+    public double getMotorOutputPercent() {
+        if (m_simulation != null) {
+            m_simulation.advanceTo(Timer.getFPGATimestamp());
+            return m_simulation.getAppliedOutput();
+        }
+        return m_masterMotor.getMotorOutputPercent();
+    }
 
-        //this sets the acceptable amount of Integral error, where if the absolute accumulated error exceeds this ammount, it resets to zero
-        //this is designed to prevent the PID from going crazy if we move too far from our target
-        m_masterMotor.config_IntegralZone(RobotMap.PID_PRIMARY_SLOT, RobotMap.LAUNCHER_I_ZONE, RobotMap.LAUNCHER_CONFIG_TIMEOUT_MS);
+    /**
+     * @return the flywheel simulation, or null if we are on the robot
+     */
+    public FlywheelSim getSimulation() {
+        return m_simulation;
+    }
 
-        //sets the max output of the motor specifically within closed loop control
-        m_masterMotor.configClosedLoopPeakOutput(RobotMap.PID_PRIMARY_SLOT, RobotMap.LAUNCHER_PID_PEAK_OUTPUT, RobotMap.LAUNCHER_CONFIG_TIMEOUT_MS);
+    /**
+     * @return The velocity last passed to setVelocity() in sensor units per 100ms, or zero if we are in percent output
+     */
+    public double getTargetVelocity() {
+        return m_targetVelocity;
+    }
 
-        //this configures an allowable error in closed loop control
-        //any error less than this is treated as zero.
-        m_masterMotor.configAllowableClosedloopError(RobotMap.PID_PRIMARY_SLOT, RobotMap.LAUNCHER_ACCEPTABLE_ERROR, RobotMap.LAUNCHER_CONFIG_TIMEOUT_MS);
+    /**
+     * Builds a readiness detector with the tolerances from the robot map
+     * <p>This is shared with the log replay, so both decide readiness the same way
+     * @return A new readiness detector
+     */
+    public static FlywheelReadiness createReadiness() {
+        return new FlywheelReadiness(RobotMap.LAUNCHER_READY_WINDOW_SIZE, RobotMap.LAUNCHER_READY_ERROR_BAND_RPM,
+                                     RobotMap.LAUNCHER_READY_SLOPE_TOLERANCE_RPM_PER_S, RobotMap.LAUNCHER_READY_SAMPLES);
+    }
 
-        //configures the period for closed loop calculations in MS 
-        //should be increased if the can bus is haveing issues
-        m_masterMotor.configClosedLoopPeriod(RobotMap.PID_PRIMARY_SLOT, RobotMap.LAUNCHER_CLOSED_LOOP_PERIOD_MS, RobotMap.LAUNCHER_CONFIG_TIMEOUT_MS);
+    /**
+     * Looks up the launch speed for a distance from our shot table
+     * @param distance Horizontal distance to the target in inches, this should be a product of our limelight
+     * @return The launch speed in RPM
+     */
+    public double getTargetRpm(double distance) {
+        return m_shotTable.getRpm(distance);
+    }
 
-        //configures ramp speed
-        m_masterMotor.configOpenloopRamp(RobotMap.LAUNCHER_OPEN_LOOP_RAMP_TIME_S);
-        m_masterMotor.configClosedloopRamp(0);
+    /**
+     * This revs our launcher to a target velocity as a function of distance, using our shot table
+     * @param distance Horizontal distance to the target in inches, this should be a product of our limelight
+     */
+    public void revLauncher(double distance) {
+        //set our motor to the speed from the table, converted to sensor units
+        setVelocity(getTargetRpm(distance) * RobotMap.RPM_TO_UNITS_PER_100MS);
+    }
 
-        //sets our closed loop control to use our primary PID slot
-        m_masterMotor.selectProfileSlot(RobotMap.PID_PRIMARY_SLOT, 0);
+    /**
+     * Builds the velocity control configuration for the master motor, to be run by the MotorConfigurator on robot startup
+     * <p> This must be run before using any velocity control
+     * @return The config for the master motor, and for the slaves, which need no config beyond following the master
+     */
+    public ArrayList<DeviceConfig> getMotorConfigs() {
+        ArrayList<DeviceConfig> configs = new ArrayList<DeviceConfig>();
+
+        DeviceConfig master = new DeviceConfig("Launcher Master", m_masterMotor, RobotMap.LAUNCHER_CONFIG_TIMEOUT_MS)
+            //the motor may have been running before a reset, so make sure our next output is sent
+            .addSetting(m_masterOutput::invalidate)
+
+            //config remote sensors
+            //sets the sensor to be a quad encoder, sets our feedback device to be that sensor
+            .addConfig((timeoutMs) -> m_masterMotor.configSelectedFeedbackSensor(TalonSRXFeedbackDevice.CTRE_MagEncoder_Relative, RobotMap.PID_PRIMARY_SLOT, timeoutMs), TalonSRXFeedbackDevice.CTRE_MagEncoder_Relative, RobotMap.PID_PRIMARY_SLOT)
+
+            //zero the encoders on startup, but not behind the main loop after a reset
+            .addStartup((timeoutMs) -> m_masterMotor.setSelectedSensorPosition(0, RobotMap.PID_PRIMARY_SLOT, timeoutMs))
+
+            //sets whether our motor is inverted
+            //this is currently false but can be switched based on testing
+            .addSetting(() -> m_masterMotor.setInverted(RobotMap.LAUNCHER_MASTER_INVERTED))
+            .addSetting(() -> m_masterMotor.setSensorPhase(RobotMap.LAUNCHER_MASTER_INVERTED))
+
+            //this configs the deadband for the PID output. Any output with an absolute value less than this will be treated as zero
+            .addConfig((timeoutMs) -> m_masterMotor.configNeutralDeadband(0, timeoutMs), 0)
+
+            //this sets the peak output for our motor controller.
+            .addConfig((timeoutMs) -> m_masterMotor.configPeakOutputForward(RobotMap.LAUNCHER_PID_PEAK_OUTPUT, timeoutMs), RobotMap.LAUNCHER_PID_PEAK_OUTPUT)
+            //this does the same thing but for the reverse direction
+            .addConfig((timeoutMs) -> m_masterMotor.configPeakOutputReverse(0, timeoutMs), 0)
+
+            //sets the period of the velocity sample
+            //effectively this defines the amount of time used to calculate the velocity
+            .addConfig((timeoutMs) -> m_masterMotor.configVelocityMeasurementPeriod(RobotMap.VELOCITY_MEASUREMENT_PERIOD, timeoutMs), RobotMap.VELOCITY_MEASUREMENT_PERIOD)
+
+            //Sets the number of samples used in the rolling average for calculating velocity
+            .addConfig((timeoutMs) -> m_masterMotor.configVelocityMeasurementWindow(RobotMap.LAUNCHER_VELOCITY_MEASUREMENT_WINDOW, timeoutMs), RobotMap.LAUNCHER_VELOCITY_MEASUREMENT_WINDOW)
+
+            //set p, i, d, f values
+            //the zero is the PID slot, in this case it is zero for the primary PID
+            //the launcher has no auxillary or turning PID control
+            .addConfig((timeoutMs) -> m_masterMotor.config_kP(RobotMap.PID_PRIMARY_SLOT, RobotMap.LAUNCHER_P, timeoutMs), RobotMap.PID_PRIMARY_SLOT, RobotMap.LAUNCHER_P)
+            .addConfig((timeoutMs) -> m_masterMotor.config_kI(RobotMap.PID_PRIMARY_SLOT, RobotMap.LAUNCHER_I, timeoutMs), RobotMap.PID_PRIMARY_SLOT, RobotMap.LAUNCHER_I)
+            .addConfig((timeoutMs) -> m_masterMotor.config_kD(RobotMap.PID_PRIMARY_SLOT, RobotMap.LAUNCHER_D, timeoutMs), RobotMap.PID_PRIMARY_SLOT, RobotMap.LAUNCHER_D)
+            .addConfig((timeoutMs) -> m_masterMotor.config_kF(RobotMap.PID_PRIMARY_SLOT, RobotMap.LAUNCHER_F, timeoutMs), RobotMap.PID_PRIMARY_SLOT, RobotMap.LAUNCHER_F)
+
+            //this sets the acceptable amount of Integral error, where if the absolute accumulated error exceeds this ammount, it resets to zero
+            //this is designed to prevent the PID from going crazy if we move too far from our target
+            .addConfig((timeoutMs) -> m_masterMotor.config_IntegralZone(RobotMap.PID_PRIMARY_SLOT, RobotMap.LAUNCHER_I_ZONE, timeoutMs), RobotMap.PID_PRIMARY_SLOT, RobotMap.LAUNCHER_I_ZONE)
+
+            //sets the max output of the motor specifically within closed loop control
+            .addConfig((timeoutMs) -> m_masterMotor.configClosedLoopPeakOutput(RobotMap.PID_PRIMARY_SLOT, RobotMap.LAUNCHER_PID_PEAK_OUTPUT, timeoutMs), RobotMap.PID_PRIMARY_SLOT, RobotMap.LAUNCHER_PID_PEAK_OUTPUT)
+
+            //this configures an allowable error in closed loop control
+            //any error less than this is treated as zero.
+            .addConfig((timeoutMs) -> m_masterMotor.configAllowableClosedloopError(RobotMap.PID_PRIMARY_SLOT, RobotMap.LAUNCHER_ACCEPTABLE_ERROR, timeoutMs), RobotMap.PID_PRIMARY_SLOT, RobotMap.LAUNCHER_ACCEPTABLE_ERROR)
+
+            //configures the period for closed loop calculations in MS 
+            //should be increased if the can bus is haveing issues
+            .addConfig((timeoutMs) -> m_masterMotor.configClosedLoopPeriod(RobotMap.PID_PRIMARY_SLOT, RobotMap.LAUNCHER_CLOSED_LOOP_PERIOD_MS, timeoutMs), RobotMap.PID_PRIMARY_SLOT, RobotMap.LAUNCHER_CLOSED_LOOP_PERIOD_MS)
+
+            //configures ramp speed
+            .addConfig((timeoutMs) -> m_masterMotor.configOpenloopRamp(RobotMap.LAUNCHER_OPEN_LOOP_RAMP_TIME_S, timeoutMs), RobotMap.LAUNCHER_OPEN_LOOP_RAMP_TIME_S)
+            .addConfig((timeoutMs) -> m_masterMotor.configClosedloopRamp(0, timeoutMs), 0)
+
+            //sets our closed loop control to use our primary PID slot
+            .addSetting(() -> m_masterMotor.selectProfileSlot(RobotMap.PID_PRIMARY_SLOT, 0));
+        configs.add(master);
+
+        //the slaves only follow the master, but a slave that resets drops its follow and its inversion
+        //clearing its cache means the next followMaster() is sent rather than skipped as a repeat
+        DeviceConfig closeSlave = new DeviceConfig("Launcher Close Slave", m_closeSlaveMotor, RobotMap.LAUNCHER_CONFIG_TIMEOUT_MS)
+            .addSetting(m_closeSlaveOutput::invalidate);
+        configs.add(closeSlave);
+
+        DeviceConfig farSlave1 = new DeviceConfig("Launcher Far Slave 1", m_farSlaveMotor1, RobotMap.LAUNCHER_CONFIG_TIMEOUT_MS)
+            .addSetting(m_farSlaveOutput1::invalidate)
+            .addSetting(() -> m_farSlaveMotor1.setInverted(RobotMap.LAUNCHER_FAR_SLAVE1_INVERTED));
+        configs.add(farSlave1);
+
+        DeviceConfig farSlave2 = new DeviceConfig("Launcher Far Slave 2", m_farSlaveMotor2, RobotMap.LAUNCHER_CONFIG_TIMEOUT_MS)
+            .addSetting(m_farSlaveOutput2::invalidate)
+            .addSetting(() -> m_farSlaveMotor2.setInverted(RobotMap.LAUNCHER_FAR_SLAVE2_INVERTED));
+        configs.add(farSlave2);
+
+        return configs;
     }
     
     /**
@@ -229,6 +390,27 @@ public class Launcher {
         return m_masterMotor;
     }
 
+    /**
+     * @return the slave motor on the same side as the master
+     */
+    public BaseMotorController getCloseSlaveMotor() {
+        return m_closeSlaveMotor;
+    }
+
+    /**
+     * @return the first slave motor on the far side from the master
+     */
+    public BaseMotorController getFarSlaveMotor1() {
+        return m_farSlaveMotor1;
+    }
+
+    /**
+     * @return the second slave motor on the far side from the master
+     */
+    public BaseMotorController getFarSlaveMotor2() {
+        return m_farSlaveMotor2;
+    }
+
     /**
      * @return the current speed the motor controller is set to
      */
@@ -269,16 +451,21 @@ public class Launcher {
 
     /**
      * Sets PIDF values to based on passed in parameters
+     * <p>The gains are saved to the talon's flash, so this clears its config fingerprint and the RobotMap gains are sent on the next boot
      * @param p Proportionality Constant
      * @param i Integral Constant
      * @param d Derivative Constant
      * @param f Feed-Forward Constant
      */
     public void configPIDF(double p, double i, double d, double f) {
+        MotorConfigurator.clearFingerprint(m_masterMotor);
         m_masterMotor.config_kP(RobotMap.PID_PRIMARY_SLOT, p);
         m_masterMotor.config_kI(RobotMap.PID_PRIMARY_SLOT, i);
         m_masterMotor.config_kD(RobotMap.PID_PRIMARY_SLOT, d);
         m_masterMotor.config_kF(RobotMap.PID_PRIMARY_SLOT, f);
+        if (m_simulation != null) {
+            m_simulation.setGains(p, i, d, f);
+        }
     }
 
     /**
@@ -289,5 +476,8 @@ public class Launcher {
         m_masterMotor.config_kI(RobotMap.PID_PRIMARY_SLOT, RobotMap.LAUNCHER_I);
         m_masterMotor.config_kD(RobotMap.PID_PRIMARY_SLOT, RobotMap.LAUNCHER_D);
         m_masterMotor.config_kF(RobotMap.PID_PRIMARY_SLOT, RobotMap.LAUNCHER_F);
+        if (m_simulation != null) {
+            m_simulation.setGains(RobotMap.LAUNCHER_P, RobotMap.LAUNCHER_I, RobotMap.LAUNCHER_D, RobotMap.LAUNCHER_F);
+        }
     }
 }
\ No newline at end of file
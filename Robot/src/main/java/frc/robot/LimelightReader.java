@@ -1,7 +1,9 @@
 package frc.robot;
 
 import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableEntry;
 import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.Timer;
 
 /**
  * This class has methods to make reading information from the network table easier and more readable
@@ -27,18 +29,121 @@ public class LimelightReader {
         }
     }
 
+    /**
+     * A single frame of limelight data, read all at once so that every getter in a cycle agrees
+     * <p>One frame object is reused for the life of the reader to avoid allocating every loop
+     */
+    public static final class Frame {
+        /**Whether the limelight sees any valid targets (tv) */
+        public boolean hasTargets;
+        /**The horizontal offset from the crosshair to the target in degrees (tx) */
+        public double xDegrees;
+        /**The vertical offset from the crosshair to the target in degrees (ty) */
+        public double yDegrees;
+        /**The skew of the target in degrees (ts) */
+        public double skew;
+        /**The area of the target as a percent of the image (ta) */
+        public double area;
+        /**The pipeline latency in milliseconds (tl) */
+        public double latencyMs;
+        /**The FPGA timestamp in seconds when this frame was read off of the network table */
+        public double timestamp;
+        /**The network table change time of the latency entry, which changes once per camera frame */
+        public long lastChange;
+        /**Whether the camera published a new frame since the previous update */
+        public boolean isNew;
+
+        /**
+         * Estimates when the image behind this frame was captured
+         * <p>This is the time we read the frame minus the pipeline latency and the image capture latency
+         * @return The estimated FPGA timestamp of the image capture in seconds
+         */
+        public double getCaptureTimestamp() {
+            return timestamp - ((latencyMs + RobotMap.LIMELIGHT_CAPTURE_LATENCY_MS) / 1000.0);
+        }
+    }
+
     // declare object to store current pipeline
     public Pipeline m_pipeline;
 
     //declares the network table for limelight info so that we can access it
     private NetworkTable m_limelightTable;
 
+    //the entries we read every cycle, resolved once so we don't do a string lookup on every access
+    private NetworkTableEntry m_tvEntry;
+    private NetworkTableEntry m_txEntry;
+    private NetworkTableEntry m_tyEntry;
+    private NetworkTableEntry m_tsEntry;
+    private NetworkTableEntry m_taEntry;
+    private NetworkTableEntry m_tlEntry;
+    private NetworkTableEntry m_ledModeEntry;
+    private NetworkTableEntry m_pipelineEntry;
+
+    //the most recent frame read by update()
+    private final Frame m_frame = new Frame();
+
+    //when this is true, the getters serve the frame from the last update() rather than reading the table
+    private boolean m_snapshotMode = false;
+
     /**
      * Constructor for our limelight reader object
      */
     public LimelightReader() {
         //pull the network table that the limelight publishes data to to a specific variable
         m_limelightTable = NetworkTableInstance.getDefault().getTable("limelight");
+
+        //resolve all of our entries up front
+        m_tvEntry = m_limelightTable.getEntry("tv");
+        m_txEntry = m_limelightTable.getEntry("tx");
+        m_tyEntry = m_limelightTable.getEntry("ty");
+        m_tsEntry = m_limelightTable.getEntry("ts");
+        m_taEntry = m_limelightTable.getEntry("ta");
+        m_tlEntry = m_limelightTable.getEntry("tl");
+        m_ledModeEntry = m_limelightTable.getEntry("ledMode");
+        m_pipelineEntry = m_limelightTable.getEntry("pipeline");
+    }
+
+    /**
+     * Reads every value we use off of the limelight table into our frame
+     * <p>In snapshot mode, this should be called once at the start of every loop
+     */
+    public void update() {
+        m_frame.hasTargets = (m_tvEntry.getDouble(0) == 1d);
+        m_frame.xDegrees = m_txEntry.getDouble(0);
+        m_frame.yDegrees = m_tyEntry.getDouble(0);
+        m_frame.skew = m_tsEntry.getDouble(0);
+        m_frame.area = m_taEntry.getDouble(0);
+        m_frame.latencyMs = m_tlEntry.getDouble(0);
+        m_frame.timestamp = Timer.getFPGATimestamp();
+
+        //the latency entry is rewritten on every camera frame, so a new change time means a new frame
+        long lastChange = m_tlEntry.getLastChange();
+        m_frame.isNew = (lastChange != m_frame.lastChange);
+        m_frame.lastChange = lastChange;
+    }
+
+    /**
+     * Sets whether the getters read from the last frame captured by update() or straight off of the table
+     * @param snapshotMode True to serve every getter from the cached frame
+     */
+    public void setSnapshotMode(boolean snapshotMode) {
+        m_snapshotMode = snapshotMode;
+    }
+
+    /**
+     * @return Whether the getters are being served from the cached frame
+     */
+    public boolean isSnapshotMode() {
+        return m_snapshotMode;
+    }
+
+    /**
+     * Returns the frame read by the last call to update()
+     * <p>The returned object is reused, so its values change on the next update
+     * @return The most recent limelight frame
+     */
+    public Frame getFrame() {
+        return m_frame;
     }
 
     public NetworkTable getTable() {
@@ -49,28 +154,34 @@ public class LimelightReader {
      * Forces the LEDs to turn off on the limelight
      */
     public void disableLEDs() {
-        m_limelightTable.getEntry("ledMode").setDouble(1d);
+        m_ledModeEntry.setDouble(1d);
     }
 
     /**
      * Restores the LED to pipeline control
      */
     public void enableLEDs() {
-        m_limelightTable.getEntry("ledMode").setDouble(0d);
+        m_ledModeEntry.setDouble(0d);
     }
 
     /**
      * @return Whether or not the limelight sees any valid targets
      */
     public boolean hasTargets() {
-        return (m_limelightTable.getEntry("tv").getDouble(0) == 1d);
+        if (m_snapshotMode) {
+            return m_frame.hasTargets;
+        }
+        return (m_tvEntry.getDouble(0) == 1d);
     }
 
     /**
      * @return The unmodified degrees to target in the X direction
      */
     public double getRawDegreesToTarget() {
-        return m_limelightTable.getEntry("tx").getDouble(0);
+        if (m_snapshotMode) {
+            return m_frame.xDegrees;
+        }
+        return m_txEntry.getDouble(0);
     }
 
     /**TODO:Correct the inner target offset and the degrees to hit inner target
@@ -133,14 +244,40 @@ public class LimelightReader {
      *  -90 to -70 degrees is range the target is to the right of us
      */
     public double getSkew() {
-        return m_limelightTable.getEntry("ts").getDouble(0);
+        if (m_snapshotMode) {
+            return m_frame.skew;
+        }
+        return m_tsEntry.getDouble(0);
     }
 
     /**
      * @return The vertical offset in degrees from the center of the camera to the target
      */
     public double getYDegreesToTarget() {
-        return m_limelightTable.getEntry("ty").getDouble(0);
+        if (m_snapshotMode) {
+            return m_frame.yDegrees;
+        }
+        return m_tyEntry.getDouble(0);
+    }
+
+    /**
+     * @return The area of the target as a percent of the image
+     */
+    public double getArea() {
+        if (m_snapshotMode) {
+            return m_frame.area;
+        }
+        return m_taEntry.getDouble(0);
+    }
+
+    /**
+     * @return The pipeline's latency contribution in milliseconds
+     */
+    public double getLatencyMs() {
+        if (m_snapshotMode) {
+            return m_frame.latencyMs;
+        }
+        return m_tlEntry.getDouble(0);
     }
 
     /**
@@ -148,8 +285,17 @@ public class LimelightReader {
      * @return The horizontal distance from the robot to the target
      */
     public double getDistance(double cameraDegreesFromGround) {
+        return getDistance(cameraDegreesFromGround, getYDegreesToTarget());
+    }
+
+    /**
+     * @param cameraDegreesFromGround How far from horizontal the camera is mounted in degrees
+     * @param yDegrees The vertical offset from the center of the camera to the target in degrees, such as from a {@link Frame}
+     * @return The horizontal distance from the robot to the target in inches
+     */
+    public static double getDistance(double cameraDegreesFromGround, double yDegrees) {
         //The Pi/180 calc is a conversion from degrees to radians so that the Math.tan() method returns the correct value
-        double lengthToHeightRatio = Math.tan(RobotMap.DEG_TO_RAD_CONVERSION * (cameraDegreesFromGround + getYDegreesToTarget()));
+        double lengthToHeightRatio = Math.tan(RobotMap.DEG_TO_RAD_CONVERSION * (cameraDegreesFromGround + yDegrees));
         return (RobotMap.NET_HEIGHT_INCHES / lengthToHeightRatio);
     }
 
@@ -161,7 +307,7 @@ public class LimelightReader {
         m_pipeline = pipeline;
 
         //passes the ID of the desired pipeline to the network tables to set the limelight
-        m_limelightTable.getEntry("pipeline").setNumber(m_pipeline.getID());
+        m_pipelineEntry.setNumber(m_pipeline.getID());
     }
     
 }
\ No newline at end of file
@@ -3,10 +3,13 @@ package frc.robot;
 import java.util.Map;
 
 import edu.wpi.first.networktables.NetworkTableEntry;
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.controller.PIDController;
 import edu.wpi.first.wpilibj.shuffleboard.BuiltInWidgets;
 import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
 import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardTab;
+import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
 import edu.wpi.first.wpiutil.math.MathUtil;
 
 /**
@@ -17,11 +20,80 @@ import edu.wpi.first.wpiutil.math.MathUtil;
  * @version 2/1/2020
  */
 public class LimelightTargeting implements ShuffleboardEnabled {
+    /**
+     * This enum stores the ways we can turn onto the target
+     * <p>Possible values:
+     * <li>{@link #kRaw}</li>
+     * <li>{@link #kLatencyCompensated}</li>
+     * <li>{@link #kGyroLatched}</li>
+     */
+    public enum TargetingMode {
+        /**
+         * Feeds raw tx straight into the PID at the main loop rate
+         */
+        kRaw("Raw"),
+        /**
+         * Turns each frame into an absolute heading using the heading at capture time,
+         * then closes the PID on the gyro at the main loop rate
+         */
+        kLatencyCompensated("Latency Compensated"),
+        /**
+         * Turns each frame into an absolute heading like kLatencyCompensated,
+         * but closes the loop on the gyro in a separate high rate notifier
+         */
+        kGyroLatched("Gyro Latched");
+
+        private final String modeName;
+
+        /**
+         * @param modeName The name of the targeting mode
+         */
+        TargetingMode(String modeName) {
+            this.modeName = modeName;
+        }
+
+        /**
+         * Returns the targeting mode represented as a string
+         */
+        public String toString() {
+            return this.modeName;
+        }
+    }
+
     //Declare our drivetrain, limelight, and PID controller
     private Drivetrain m_drivetrain;
     private LimelightReader m_limelight;
     private PIDController m_targetController;
 
+    //the gyro on the drivetrain and a history of its headings, used to compensate for camera latency
+    private NavX m_gyro;
+    private HeadingHistory m_headingHistory;
+
+    //the way we are currently turning onto the target
+    private TargetingMode m_targetingMode;
+
+    //the absolute heading of the target in degrees, computed from the last new camera frame
+    private double m_targetHeading = 0;
+    private boolean m_hasTargetHeading = false;
+
+    //the high rate aim loop, which runs on its own thread in kGyroLatched mode
+    //it records the gyro into our heading history every period, and drives to our target heading while active
+    private Notifier m_aimNotifier;
+    private PIDController m_aimController;
+
+    //the lock shared between the aim loop and the main loop, so we never drive after being told to stop
+    private final Object m_aimLock = new Object();
+
+    //these are shared with the aim loop thread
+    private volatile boolean m_aimLoopRunning = false;
+    private volatile boolean m_aimLoopActive = false;
+    private volatile boolean m_aimOnTarget = false;
+    private volatile double m_aimSetpoint = 0;
+    private volatile double m_lastTargetCallTime = 0;
+
+    //the result of the last onTarget() call, for telemetry
+    private volatile boolean m_lastOnTarget = false;
+
     //declare private variables for creating a tab, and setting widgets
     private ShuffleboardTab m_targetingTab;
     /**Network table entry for reading desired P constant off of the shuffleboard */
@@ -31,6 +103,16 @@ public class LimelightTargeting implements ShuffleboardEnabled {
     /**Network table entry for reading desired D constant off of the shuffleboard */
     private NetworkTableEntry m_dEntry;
 
+    /**Network table entry for reading desired aim loop P constant off of the shuffleboard */
+    private NetworkTableEntry m_aimPEntry;
+    /**Network table entry for reading desired aim loop I constant off of the shuffleboard */
+    private NetworkTableEntry m_aimIEntry;
+    /**Network table entry for reading desired aim loop D constant off of the shuffleboard */
+    private NetworkTableEntry m_aimDEntry;
+
+    /**Chooser for picking our targeting mode off of the shuffleboard */
+    private SendableChooser<TargetingMode> m_targetingModeChooser;
+
     /**Network table entry to publish whether we are currently on target */
     private NetworkTableEntry m_onTargetEntry;
 
@@ -43,19 +125,24 @@ public class LimelightTargeting implements ShuffleboardEnabled {
         m_drivetrain = drivetrain;
         m_limelight = limelight;
 
+        m_gyro = m_drivetrain.getGyro();
+        m_headingHistory = new HeadingHistory(RobotMap.HEADING_HISTORY_SIZE);
+        m_targetingMode = RobotMap.DEFAULT_TARGETING_MODE;
+
         //Instatiate a new PID controller with PID values passed in from the robot map
-        m_targetController = new PIDController(RobotMap.TARGETING_P, RobotMap.TARGETING_I, RobotMap.TARGETING_D, RobotMap.TARGETING_PERIOD_S);
+        m_targetController = createController(RobotMap.TARGETING_P, RobotMap.TARGETING_I, RobotMap.TARGETING_D, RobotMap.TARGETING_PERIOD_S);
 
-        //This caps the value of our accumulated error so as not to allow our robot to spiral into increasing oscilaations
-        //the minimum is set to the negative maximum in order to give us the same cap on our negative error (overshoot)
-        m_targetController.setIntegratorRange(-RobotMap.TARGETING_MAX_ACCUMULATED_ERROR, RobotMap.TARGETING_MAX_ACCUMULATED_ERROR);
+        //the aim loop gets its own controller, since it runs at a different period on a different thread
+        m_aimController = createController(RobotMap.AIM_LOOP_GAINS.kP, RobotMap.AIM_LOOP_GAINS.kI, RobotMap.AIM_LOOP_GAINS.kD, RobotMap.AIM_LOOP_PERIOD_S);
+        m_aimNotifier = new Notifier(this::aimLoopPeriodic);
 
-        //Sets our tolearble error as defined in the robot map. This should be as minimal as possible
-        m_targetController.setTolerance(RobotMap.TARGETING_ERROR_TOLERANCE);
-        
-        //Sets the values of -180 and 180 degrees to be identical, and makes our input continous so that we dont have to use modulo
-        //This should not effect this class, however it is called for redundancy
-        m_targetController.enableContinuousInput(-180, 180);
+        //anything else that drives the drivetrain stops the aim loop first, so only one of us drives it at a time
+        m_drivetrain.setAimLoopTargeting(this);
+
+        //the aim loop also fills our heading history, so start it now if we are going to use it
+        if (m_targetingMode == TargetingMode.kGyroLatched) {
+            startAimNotifier();
+        }
 
         //sets up the shuffleboard input for targeting
         shuffleboardConfig();
@@ -68,6 +155,16 @@ public class LimelightTargeting implements ShuffleboardEnabled {
      * @return Whether we are currently within our acceptable error (on target)
      */
     public boolean target() {
+        //feed the aim loop's watchdog, and mark that we are targeting for telemetry
+        m_lastTargetCallTime = Timer.getFPGATimestamp();
+
+        if (m_targetingMode == TargetingMode.kGyroLatched) {
+            return targetGyroLatched();
+        }
+        else if (m_targetingMode == TargetingMode.kLatencyCompensated) {
+            return targetLatencyCompensated();
+        }
+
         //Only allows the drivetrain to rotate if it currently has any targets
         if (m_limelight.hasTargets()) {
             //Passes in a speed of zero to keep us from moving, and sets the turn speed to the calculated output of the PID
@@ -77,14 +174,8 @@ public class LimelightTargeting implements ShuffleboardEnabled {
             //read the degrees to target, inverted as to make it match what we expect
             double degToTarget = -m_limelight.getRawDegreesToTarget();
 
-            //clamp the turn, and sclae it back by 45 to match our max expected change
-            double turn = MathUtil.clamp((m_targetController.calculate(degToTarget, 0) /45), -1, 1);
-            
-            //add a floor to the turn to create a minimal adjustment
-            //this allows us to prevent i-induced oscillations while still having fine control at low degree turns
-            if (Math.abs(turn) > 0.01 && Math.abs(turn) < 0.05) {
-                turn = Math.copySign(0.05, turn);
-            }
+            //clamp and scale the PID output into a turn
+            double turn = scaleTurn(m_targetController.calculate(degToTarget, 0));
 
             //feed the turn into the arcade drive
             m_drivetrain.arcadeDrive(0, turn);
@@ -97,21 +188,269 @@ public class LimelightTargeting implements ShuffleboardEnabled {
         return false;
     }
 
+    /**
+     * Centers the robot on the target, correcting for the time it took the frame to reach us
+     * <p>The robot keeps rotating while the limelight processes a frame, so by the time we read tx it is stale.
+     * Instead, we look up our heading when the frame was captured and add tx to it, which gives us the target as an absolute heading.
+     * We then close the loop on the gyro, which is always current.
+     * <p>This requires {@link #recordHeading()} to be called every loop and the limelight frame to be updated every loop
+     * 
+     * @return Whether we are currently within our acceptable error (on target)
+     */
+    private boolean targetLatencyCompensated() {
+        LimelightReader.Frame frame = m_limelight.getFrame();
+
+        //always return false if we don't see a target, and forget our old heading so we don't turn to a stale one
+        if (!m_limelight.hasTargets()) {
+            m_hasTargetHeading = false;
+            return false;
+        }
+
+        //only move our setpoint when the camera gives us a new frame
+        updateTargetHeading(frame);
+
+        //the error is our target heading minus our current heading, which has the same sign as tx in the uncompensated mode
+        double turn = scaleTurn(m_targetController.calculate(m_gyro.getOffsetYaw(), m_targetHeading));
+
+        //feed the turn into the arcade drive
+        m_drivetrain.arcadeDrive(0, turn);
+
+        //returns whether the PID believes that we are on target
+        return onTarget();
+    }
+
+    /**
+     * Centers the robot on the target by latching each new frame into a heading setpoint for the high rate aim loop
+     * <p>The main loop only moves the setpoint. The aim loop closes on the gyro every AIM_LOOP_PERIOD_S,
+     * so the drivetrain is corrected several times between camera frames.
+     * <p>If we lose the target, the aim loop keeps holding the last heading we saw it at.
+     * If this method stops being called, the aim loop stops driving after AIM_LOOP_WATCHDOG_S
+     * 
+     * @return Whether we are currently within our acceptable error (on target)
+     */
+    private boolean targetGyroLatched() {
+        if (!m_limelight.hasTargets()) {
+            return false;
+        }
+
+        //only move our setpoint when the camera gives us a new frame
+        updateTargetHeading(m_limelight.getFrame());
+        m_aimSetpoint = m_targetHeading;
+
+        //start driving on the first call after we were stopped
+        if (!m_aimLoopActive) {
+            startAimNotifier();
+            synchronized (m_aimLock) {
+                m_aimController.reset();
+                m_aimOnTarget = false;
+                m_aimLoopActive = true;
+            }
+        }
+
+        return onTarget();
+    }
+
+    /**
+     * Runs every AIM_LOOP_PERIOD_S on the notifier thread
+     * <p>Records the gyro into the heading history, and while active, turns the drivetrain to our target heading
+     */
+    private void aimLoopPeriodic() {
+        double timestamp = Timer.getFPGATimestamp();
+        double heading = m_gyro.getOffsetYaw();
+        m_headingHistory.addSample(timestamp, heading);
+
+        synchronized (m_aimLock) {
+            if (!m_aimLoopActive) {
+                return;
+            }
+
+            //stop driving if the main loop stopped asking us to target
+            if (timestamp - m_lastTargetCallTime > RobotMap.AIM_LOOP_WATCHDOG_S) {
+                m_aimLoopActive = false;
+                m_drivetrain.aimLoopDrive(0);
+                return;
+            }
+
+            //the same output scaling and floor as the main loop targeting
+            double turn = scaleTurn(m_aimController.calculate(heading, m_aimSetpoint));
+
+            m_aimOnTarget = m_aimController.atSetpoint();
+            m_drivetrain.aimLoopDrive(turn);
+        }
+    }
+
+    /**
+     * Starts the aim loop notifier if it is not already running
+     */
+    private void startAimNotifier() {
+        if (!m_aimLoopRunning) {
+            m_aimNotifier.startPeriodic(RobotMap.AIM_LOOP_PERIOD_S);
+            m_aimLoopRunning = true;
+        }
+    }
+
+    /**
+     * Stops the aim loop from driving the drivetrain
+     * <p>The drivetrain calls this before every drive, so nothing else drives it at the same time as the aim loop.
+     * After this returns, the aim loop will not send any more output until target() is called again
+     */
+    public void stopTargeting() {
+        //only the main loop starts the aim loop, so if it isn't active it can't become active while we return
+        //this keeps every drive that isn't after targeting from taking the lock
+        if (!m_aimLoopActive) {
+            return;
+        }
+
+        synchronized (m_aimLock) {
+            m_aimLoopActive = false;
+        }
+    }
+
+    /**
+     * Moves our target heading to match the frame if it is new
+     * @param frame The most recent limelight frame
+     */
+    private void updateTargetHeading(LimelightReader.Frame frame) {
+        if (frame.isNew || !m_hasTargetHeading) {
+            //find where we were pointing when the frame was captured
+            double headingAtCapture = m_headingHistory.getHeadingAt(frame.getCaptureTimestamp());
+
+            m_targetHeading = computeTargetHeading(headingAtCapture, frame.xDegrees);
+            m_hasTargetHeading = true;
+        }
+    }
+
+    /**
+     * Builds a targeting PID controller with our integrator range, tolerance and continuous input
+     * <p>This is shared with the log replay, so both run the same controller
+     * @param p The proportional constant
+     * @param i The integral constant
+     * @param d The derivative constant
+     * @param period The period the controller is run at in seconds
+     * @return The configured controller
+     */
+    public static PIDController createController(double p, double i, double d, double period) {
+        PIDController controller = new PIDController(p, i, d, period);
+
+        //This caps the value of our accumulated error so as not to allow our robot to spiral into increasing oscilaations
+        //the minimum is set to the negative maximum in order to give us the same cap on our negative error (overshoot)
+        controller.setIntegratorRange(-RobotMap.TARGETING_MAX_ACCUMULATED_ERROR, RobotMap.TARGETING_MAX_ACCUMULATED_ERROR);
+
+        //Sets our tolearble error as defined in the robot map. This should be as minimal as possible
+        controller.setTolerance(RobotMap.TARGETING_ERROR_TOLERANCE);
+
+        //Sets the values of -180 and 180 degrees to be identical, and makes our input continous so that we dont have to use modulo
+        controller.enableContinuousInput(-180, 180);
+        return controller;
+    }
+
+    /**
+     * Turns a targeting PID output into a drivetrain turn
+     * <p>The output is scaled back by 45 to match our max expected change and clamped.
+     * Small turns are raised to a floor, which prevents i-induced oscillations while still having fine control at low degree turns
+     * @param pidOutput The output of a targeting PID controller
+     * @return The turn from -1.0 to 1.0
+     */
+    public static double scaleTurn(double pidOutput) {
+        double turn = MathUtil.clamp((pidOutput / 45), -1, 1);
+        if (Math.abs(turn) > 0.01 && Math.abs(turn) < 0.05) {
+            turn = Math.copySign(0.05, turn);
+        }
+        return turn;
+    }
+
+    /**
+     * Turns a camera frame into the absolute heading of the target
+     * @param headingAtCapture Our heading in degrees when the frame was captured
+     * @param xDegrees The tx of the frame in degrees
+     * @return The heading of the target in degrees from -180 to 180
+     */
+    public static double computeTargetHeading(double headingAtCapture, double xDegrees) {
+        //tx is positive to the right, matching the NavX, so adding it gives us the absolute heading of the target
+        return HeadingHistory.wrapDegrees(headingAtCapture + xDegrees);
+    }
+
+    /**
+     * Records the current gyro heading into our heading history
+     * <p>This should be called once every loop, including when we are not targeting, so the history is always filled.
+     * While the aim loop notifier is running it records at a higher rate, so this does nothing
+     */
+    public void recordHeading() {
+        if (m_aimLoopRunning) {
+            return;
+        }
+        m_headingHistory.addSample(Timer.getFPGATimestamp(), m_gyro.getOffsetYaw());
+    }
+
+    /**
+     * Sets the way we turn onto the target
+     * @param targetingMode The new targeting mode
+     */
+    public void setTargetingMode(TargetingMode targetingMode) {
+        stopTargeting();
+        m_targetingMode = targetingMode;
+        m_hasTargetHeading = false;
+
+        if (m_targetingMode == TargetingMode.kGyroLatched) {
+            startAimNotifier();
+        }
+    }
+
+    /**
+     * Sets the way we turn onto the target from the shuffleboard chooser
+     * <p>This should be called only while disabled, so we never switch modes in the middle of a match
+     */
+    public void setTargetingModeFromShuffleboard() {
+        TargetingMode selected = m_targetingModeChooser.getSelected();
+        if (selected != null && selected != m_targetingMode) {
+            setTargetingMode(selected);
+        }
+    }
+
+    /**
+     * @return The way we are currently turning onto the target
+     */
+    public TargetingMode getTargetingMode() {
+        return m_targetingMode;
+    }
+
+    /**
+     * @return The absolute heading of the target in degrees from the last new camera frame
+     */
+    public double getTargetHeading() {
+        return m_targetHeading;
+    }
+
     /**
      * Checks whether we are currently on target and sets the shuffleboard value
      * @return whether or not we are within our acceptable error
      */
     public boolean onTarget() {
-        //read whether we are on target once
-        boolean onTarget = m_targetController.atSetpoint();
+        //read whether we are on target once, from the aim loop if it is the one driving
+        boolean onTarget = m_aimLoopActive ? m_aimOnTarget : m_targetController.atSetpoint();
 
         //sets the entry to whether we are on target
         m_onTargetEntry.setBoolean(onTarget);
+        m_lastOnTarget = onTarget;
 
         //return whether we are currently on target
         return onTarget;
     }
 
+    /**
+     * @return The result of the last onTarget() call
+     */
+    public boolean wasLastOnTarget() {
+        return m_lastOnTarget;
+    }
+
+    /**
+     * @return Whether target() has been called within the last TARGETING_ACTIVE_WINDOW_S
+     */
+    public boolean isTargetingActive() {
+        return (Timer.getFPGATimestamp() - m_lastTargetCallTime) <= RobotMap.TARGETING_ACTIVE_WINDOW_S;
+    }
+
     /**
      * Sets the P, I, and D constants based on shuffleboard input
      * <p>-> THIS SHOULD ONLY BE CALLED IN TEST <-
@@ -119,6 +458,11 @@ public class LimelightTargeting implements ShuffleboardEnabled {
     public void setPID() {
         //passes in the values off of the shuffleboard Netwrok Table Entries
         m_targetController.setPID(m_pEntry.getDouble(RobotMap.TARGETING_P), m_iEntry.getDouble(RobotMap.TARGETING_I), m_dEntry.getDouble(RobotMap.TARGETING_D));
+
+        //the aim loop reads its controller on its own thread, so only change it under the lock
+        synchronized (m_aimLock) {
+            m_aimController.setPID(m_aimPEntry.getDouble(RobotMap.AIM_LOOP_GAINS.kP), m_aimIEntry.getDouble(RobotMap.AIM_LOOP_GAINS.kI), m_aimDEntry.getDouble(RobotMap.AIM_LOOP_GAINS.kD));
+        }
     }
 
     public void getPID_Values(){
@@ -133,10 +477,14 @@ public class LimelightTargeting implements ShuffleboardEnabled {
      */
     public void resetPID() {
         m_targetController.setPID(RobotMap.TARGETING_P, RobotMap.TARGETING_I, RobotMap.TARGETING_D);
+        synchronized (m_aimLock) {
+            m_aimController.setPID(RobotMap.AIM_LOOP_GAINS.kP, RobotMap.AIM_LOOP_GAINS.kI, RobotMap.AIM_LOOP_GAINS.kD);
+        }
     }
 
     public void resetError() {
         m_targetController.reset();
+        m_hasTargetHeading = false;
     }
 
     /**
@@ -164,6 +512,32 @@ public class LimelightTargeting implements ShuffleboardEnabled {
                                  .withProperties(Map.of("min", -1000, "max", 100.0))   //sets min and max values
                                  .getEntry();  
 
+        //creates persistent widgets as text for setting the aim loop's P, I, and D constants
+        //these only do anything in the gyro latched mode
+        m_aimPEntry = m_targetingTab.addPersistent("Aim P", RobotMap.AIM_LOOP_GAINS.kP)
+                                    .withWidget(BuiltInWidgets.kTextView)
+                                    .withProperties(Map.of("min", -1000, "max", 100.0))
+                                    .getEntry();
+        m_aimIEntry = m_targetingTab.addPersistent("Aim I", RobotMap.AIM_LOOP_GAINS.kI)
+                                    .withWidget(BuiltInWidgets.kTextView)
+                                    .withProperties(Map.of("min", -1000, "max", 100.0))
+                                    .getEntry();
+        m_aimDEntry = m_targetingTab.addPersistent("Aim D", RobotMap.AIM_LOOP_GAINS.kD)
+                                    .withWidget(BuiltInWidgets.kTextView)
+                                    .withProperties(Map.of("min", -1000, "max", 100.0))
+                                    .getEntry();
+
+        //create a chooser for our targeting mode, which starts on the robot map default
+        m_targetingModeChooser = new SendableChooser<>();
+        m_targetingModeChooser.setDefaultOption(RobotMap.DEFAULT_TARGETING_MODE.toString(), RobotMap.DEFAULT_TARGETING_MODE);
+        for (TargetingMode mode : TargetingMode.values()) {
+            if (mode != RobotMap.DEFAULT_TARGETING_MODE) {
+                m_targetingModeChooser.addOption(mode.toString(), mode);
+            }
+        }
+        m_targetingTab.add("Targeting Mode", m_targetingModeChooser)
+                      .withWidget(BuiltInWidgets.kComboBoxChooser);
+
         //create a widget to display whether we are currently on target
         m_onTargetEntry = m_targetingTab.add("On Target?", false)               //creates the widget that is false by default as by default we are not on target
                                         .withWidget(BuiltInWidgets.kBooleanBox) //set widget to a boolean box to easily display the value
@@ -0,0 +1,534 @@
+package frc.robot;
+
+import java.util.Arrays;
+
+import edu.wpi.first.networktables.NetworkTableEntry;
+import edu.wpi.first.wpilibj.shuffleboard.BuiltInWidgets;
+import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
+import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardTab;
+
+/**
+ * Times the periodic methods on the robot so we can find out what is eating our 20ms loop budget
+ * <p>Every call is dropped into a preallocated histogram, so recording a sample never allocates.
+ * A summary (p50, p99, max, and overrun count) is pushed to the shuffleboard at a low rate.
+ * <p>Each call also has the bytes it allocated measured with an {@link AllocationCounter}, since garbage on the hot path
+ * turns into GC pauses and overruns later. Any whole periodic call that allocates more than our allocation budget is counted,
+ * and reported in the console with the summary.
+ * <p>When the profiler is disabled, start() and stop() return immediately
+ */
+public class LoopProfiler implements ShuffleboardEnabled {
+    /**
+     * This enum stores each section of the loop that we time
+     * <p>Possible values:
+     * <li>{@link #kTeleopPeriodic}</li>
+     * <li>{@link #kAutonomousPeriodic}</li>
+     * <li>{@link #kDisabledPeriodic}</li>
+     * <li>{@link #kRobotPeriodic}</li>
+     * <li>{@link #kVisionUpdate}</li>
+     * <li>{@link #kPilotControl}</li>
+     * <li>{@link #kCopilotControl}</li>
+     * <li>{@link #kAutonLogic}</li>
+     */
+    public enum Section {
+        /**
+         * The whole teleopPeriodic call
+         */
+        kTeleopPeriodic("Teleop Periodic", true),
+        /**
+         * The whole autonomousPeriodic call
+         */
+        kAutonomousPeriodic("Auton Periodic", true),
+        /**
+         * The whole disabledPeriodic call
+         */
+        kDisabledPeriodic("Disabled Periodic", true),
+        /**
+         * The whole robotPeriodic call, which runs after the mode's periodic and logs telemetry
+         */
+        kRobotPeriodic("Robot Periodic", false),
+        /**
+         * LimelightReader.update(), LimelightTargeting.recordHeading(), and PoseEstimator.update()
+         */
+        kVisionUpdate("Vision Update", false),
+        /**
+         * PilotController.controlDriveTrainPeriodic()
+         */
+        kPilotControl("Pilot Control", false),
+        /**
+         * CopilotController.periodicCopilotControl()
+         */
+        kCopilotControl("Copilot Control", false),
+        /**
+         * Auton.periodic()
+         */
+        kAutonLogic("Auton Logic", false);
+
+        private String sectionName;
+        private boolean isPeriodic;
+
+        /**
+         * @param sectionName The name of the section as displayed on the shuffleboard
+         * @param isPeriodic Whether the section is a whole mode periodic call, which is what we hold to the allocation budget
+         */
+        Section(String sectionName, boolean isPeriodic) {
+            this.sectionName = sectionName;
+            this.isPeriodic = isPeriodic;
+        }
+
+        /**
+         * @return Whether the section is a whole mode periodic call
+         */
+        public boolean isPeriodic() {
+            return this.isPeriodic;
+        }
+
+        /**
+         * Returns the section represented as a string
+         */
+        public String toString() {
+            return this.sectionName;
+        }
+    }
+
+    //the sections are cached once, since values() copies the array every time it is called
+    private static final Section[] SECTIONS = Section.values();
+
+    //whether we are currently recording samples
+    private boolean m_enabled;
+
+    //one histogram per section, each bucket counts the calls that fell into that bucket's duration
+    //the final bucket in each row catches everything longer than our histogram covers
+    private final int[][] m_histograms;
+
+    //the longest call recorded for each section in nanoseconds
+    private final long[] m_maxNanos;
+
+    //the total calls recorded for each section
+    private final int[] m_sampleCounts;
+
+    //the number of calls for each section that took longer than our loop budget
+    private final int[] m_overrunCounts;
+
+    //counts cycles so that we only publish every PROFILER_PUBLISH_PERIOD_CYCLES
+    private int m_cycleCount = 0;
+
+    //reads the main loop thread's allocated bytes, or null if this JVM can't measure allocation
+    private final AllocationCounter m_allocationCounter;
+
+    //whether we emit a flight recorder event for every call, and the event for each section's current call
+    private final boolean m_jfrEnabled;
+    private final LoopSectionEvent[] m_events;
+
+    //the allocation counter reading at the start of each section's current call
+    private final long[] m_startBytes;
+
+    //the most bytes in one call, and the total bytes allocated by each section
+    private final long[] m_maxBytes;
+    private final long[] m_totalBytes;
+
+    //the number of calls for each periodic section that allocated more than our allocation budget
+    private final int[] m_allocationOverrunCounts;
+
+    //the bytes allocated by the last whole periodic call, whichever mode it was in
+    private long m_lastCycleBytes = 0;
+
+    //the periodic calls over the allocation budget since the last publish, and the most bytes any of them allocated
+    private int m_allocationOverrunsSincePublish = 0;
+    private long m_worstBytesSincePublish = 0;
+    private Section m_worstSectionSincePublish = null;
+
+    //declare private variables for creating a tab, and setting widgets
+    private ShuffleboardTab m_profilerTab;
+    /**Network table entry for toggling the profiler on and off */
+    private NetworkTableEntry m_enabledEntry;
+    /**Network table entries for publishing the summary of each section, indexed by section ordinal */
+    private NetworkTableEntry[] m_p50Entries;
+    private NetworkTableEntry[] m_p99Entries;
+    private NetworkTableEntry[] m_maxEntries;
+    private NetworkTableEntry[] m_overrunEntries;
+    private NetworkTableEntry[] m_averageBytesEntries;
+    private NetworkTableEntry[] m_maxBytesEntries;
+    /**Network table entry for publishing the bytes allocated by the last whole periodic call */
+    private NetworkTableEntry m_lastCycleBytesEntry;
+    /**Network table entry for publishing the number of periodic calls over the allocation budget */
+    private NetworkTableEntry m_allocationOverrunsEntry;
+    /**Network table entry for publishing the number of motor output writes skipped by MotorOutputCache */
+    private NetworkTableEntry m_skippedWritesEntry;
+
+    /**
+     * Constructor for LoopProfiler objects
+     * @param enabled Whether the profiler should start out recording samples
+     */
+    public LoopProfiler(boolean enabled) {
+        m_enabled = enabled;
+
+        //preallocate every array we record into so that the hot path never allocates
+        m_histograms = new int[SECTIONS.length][RobotMap.PROFILER_HISTOGRAM_BUCKETS + 1];
+        m_maxNanos = new long[SECTIONS.length];
+        m_sampleCounts = new int[SECTIONS.length];
+        m_overrunCounts = new int[SECTIONS.length];
+        m_startBytes = new long[SECTIONS.length];
+        m_maxBytes = new long[SECTIONS.length];
+        m_totalBytes = new long[SECTIONS.length];
+        m_allocationOverrunCounts = new int[SECTIONS.length];
+
+        //the allocation counter isn't in every JVM, so we time without it if we have to
+        m_allocationCounter = AllocationCounter.create();
+        if (m_allocationCounter == null) {
+            System.out.println("Allocation tracking is not supported by this JVM, the profiler will only time calls");
+        }
+
+        //flight recorder events are optional, and the flight recorder isn't in every JVM either
+        m_jfrEnabled = RobotMap.PROFILER_JFR_EVENTS_ENABLED && isJfrSupported();
+        m_events = m_jfrEnabled ? new LoopSectionEvent[SECTIONS.length] : null;
+
+        //sets up the shuffleboard output for the profiler
+        shuffleboardConfig();
+    }
+
+    /**
+     * Marks the start of a timed section
+     * <p>The returned value should be passed into {@link #stop(Section, long)}
+     * @param section The section that is starting
+     * @return The current time in nanoseconds, or zero if the profiler is disabled
+     */
+    public long start(Section section) {
+        if (!m_enabled) {
+            return 0;
+        }
+
+        //the event is created before we start measuring, so its allocation isn't counted against the section
+        if (m_jfrEnabled) {
+            LoopSectionEvent event = new LoopSectionEvent();
+            event.begin();
+            m_events[section.ordinal()] = event;
+        }
+
+        //read the allocation counter before the clock, so the read isn't part of the time
+        if (m_allocationCounter != null) {
+            m_startBytes[section.ordinal()] = m_allocationCounter.getAllocatedBytes();
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * Marks the end of a timed section and records its duration and allocation
+     * @param section The section that just finished
+     * @param startNanos The value returned by {@link #start(Section)} at the beginning of the section
+     */
+    public void stop(Section section, long startNanos) {
+        //a start time of zero means we were disabled when the section started
+        if (!m_enabled || startNanos == 0) {
+            return;
+        }
+
+        //stop the clock before reading the allocation counter, so the read isn't part of the time
+        record(section, System.nanoTime() - startNanos);
+        long bytes = 0;
+        if (m_allocationCounter != null) {
+            bytes = m_allocationCounter.getBytesSince(m_startBytes[section.ordinal()]);
+            recordAllocation(section, bytes);
+        }
+
+        if (m_jfrEnabled) {
+            LoopSectionEvent event = m_events[section.ordinal()];
+            m_events[section.ordinal()] = null;
+            if (event != null) {
+                event.end();
+                event.section = section.toString();
+                event.allocatedBytes = bytes;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * @return Whether this JVM has the flight recorder
+     */
+    private static boolean isJfrSupported() {
+        try {
+            Class.forName("jdk.jfr.Event");
+            return true;
+        }
+        catch (ClassNotFoundException | LinkageError e) {
+            System.out.println("The flight recorder is not supported by this JVM, loop section events are disabled");
+            return false;
+        }
+    }
+
+    /**
+     * Records a single duration into the histogram of a section
+     * @param section The section the duration belongs to
+     * @param durationNanos The duration of the call in nanoseconds
+     */
+    public void record(Section section, long durationNanos) {
+        int index = section.ordinal();
+
+        //find the bucket for this duration, clamping long calls into the overflow bucket
+        long bucket = durationNanos / RobotMap.PROFILER_BUCKET_WIDTH_NS;
+        if (bucket > RobotMap.PROFILER_HISTOGRAM_BUCKETS) {
+            bucket = RobotMap.PROFILER_HISTOGRAM_BUCKETS;
+        }
+        m_histograms[index][(int)bucket]++;
+        m_sampleCounts[index]++;
+
+        if (durationNanos > m_maxNanos[index]) {
+            m_maxNanos[index] = durationNanos;
+        }
+
+        if (durationNanos > RobotMap.PROFILER_LOOP_BUDGET_NS) {
+            m_overrunCounts[index]++;
+        }
+    }
+
+    /**
+     * Records the bytes a single call of a section allocated
+     * <p>Whole periodic calls are held to the allocation budget
+     * @param section The section the call belongs to
+     * @param bytes The bytes the call allocated
+     */
+    public void recordAllocation(Section section, long bytes) {
+        int index = section.ordinal();
+        m_totalBytes[index] += bytes;
+        if (bytes > m_maxBytes[index]) {
+            m_maxBytes[index] = bytes;
+        }
+
+        if (!section.isPeriodic()) {
+            return;
+        }
+        m_lastCycleBytes = bytes;
+
+        if (bytes > RobotMap.PROFILER_ALLOCATION_BUDGET_BYTES) {
+            m_allocationOverrunCounts[index]++;
+            m_allocationOverrunsSincePublish++;
+            if (bytes > m_worstBytesSincePublish) {
+                m_worstBytesSincePublish = bytes;
+                m_worstSectionSincePublish = section;
+            }
+        }
+    }
+
+    /**
+     * Should be called once at the end of every periodic loop
+     * <p>Publishes the summary to the shuffleboard every PROFILER_PUBLISH_PERIOD_CYCLES loops
+     */
+    public void endCycle() {
+        if (!m_enabled) {
+            return;
+        }
+
+        m_cycleCount++;
+        if (m_cycleCount >= RobotMap.PROFILER_PUBLISH_PERIOD_CYCLES) {
+            m_cycleCount = 0;
+            publish();
+        }
+    }
+
+    /**
+     * Pushes the p50, p99, max, and overrun count of every section to the shuffleboard, along with the average and max bytes allocated
+     * <p>All times are published in milliseconds. If any periodic call went over the allocation budget since the last publish,
+     * that is also printed to the console
+     */
+    public void publish() {
+        int totalAllocationOverruns = 0;
+        for (Section section : SECTIONS) {
+            int index = section.ordinal();
+            m_p50Entries[index].setDouble(nanosToMillis(getPercentileNanos(section, 0.50)));
+            m_p99Entries[index].setDouble(nanosToMillis(getPercentileNanos(section, 0.99)));
+            m_maxEntries[index].setDouble(nanosToMillis(m_maxNanos[index]));
+            m_overrunEntries[index].setDouble(m_overrunCounts[index]);
+            m_averageBytesEntries[index].setDouble(getAverageBytes(section));
+            m_maxBytesEntries[index].setDouble(m_maxBytes[index]);
+            totalAllocationOverruns += m_allocationOverrunCounts[index];
+        }
+        m_skippedWritesEntry.setDouble(MotorOutputCache.getTotalSkippedWrites());
+        m_lastCycleBytesEntry.setDouble(m_lastCycleBytes);
+        m_allocationOverrunsEntry.setDouble(totalAllocationOverruns);
+
+        //printing allocates too, so we only do it once a publish and only when there is something to flag
+        if (m_allocationOverrunsSincePublish > 0) {
+            System.out.println("Allocation budget of " + RobotMap.PROFILER_ALLOCATION_BUDGET_BYTES + " bytes exceeded in "
+                               + m_allocationOverrunsSincePublish + " of the last " + RobotMap.PROFILER_PUBLISH_PERIOD_CYCLES
+                               + " loops, worst was " + m_worstBytesSincePublish + " bytes in " + m_worstSectionSincePublish);
+            m_allocationOverrunsSincePublish = 0;
+            m_worstBytesSincePublish = 0;
+            m_worstSectionSincePublish = null;
+        }
+    }
+
+    /**
+     * Reads an approximate percentile off of the histogram of a section
+     * <p>The result is the upper edge of the bucket the percentile falls into
+     * @param section The section to read
+     * @param percentile The percentile to read, from 0.0 to 1.0
+     * @return The duration in nanoseconds, or zero if no samples have been recorded
+     */
+    public long getPercentileNanos(Section section, double percentile) {
+        int index = section.ordinal();
+        int samples = m_sampleCounts[index];
+        if (samples == 0) {
+            return 0;
+        }
+
+        //walk the buckets until we have passed the requested fraction of our samples
+        long target = (long)Math.ceil(samples * percentile);
+        long seen = 0;
+        int[] histogram = m_histograms[index];
+        for (int bucket = 0; bucket < histogram.length; bucket++) {
+            seen += histogram[bucket];
+            if (seen >= target) {
+                //the overflow bucket has no upper edge, so report the max instead
+                if (bucket == RobotMap.PROFILER_HISTOGRAM_BUCKETS) {
+                    return m_maxNanos[index];
+                }
+                return (bucket + 1) * RobotMap.PROFILER_BUCKET_WIDTH_NS;
+            }
+        }
+        return m_maxNanos[index];
+    }
+
+    /**
+     * @param section The section to read
+     * @return The longest recorded call for the section in nanoseconds
+     */
+    public long getMaxNanos(Section section) {
+        return m_maxNanos[section.ordinal()];
+    }
+
+    /**
+     * @param section The section to read
+     * @return The number of calls for the section that took longer than our loop budget
+     */
+    public int getOverrunCount(Section section) {
+        return m_overrunCounts[section.ordinal()];
+    }
+
+    /**
+     * @param section The section to read
+     * @return The average bytes allocated by each call of the section, or zero if no samples have been recorded
+     */
+    public double getAverageBytes(Section section) {
+        int index = section.ordinal();
+        if (m_sampleCounts[index] == 0) {
+            return 0;
+        }
+        return (double) m_totalBytes[index] / m_sampleCounts[index];
+    }
+
+    /**
+     * @param section The section to read
+     * @return The most bytes allocated by a single call of the section
+     */
+    public long getMaxBytes(Section section) {
+        return m_maxBytes[section.ordinal()];
+    }
+
+    /**
+     * @param section The section to read
+     * @return The number of calls for the section that allocated more than our allocation budget, which is only counted for periodic sections
+     */
+    public int getAllocationOverrunCount(Section section) {
+        return m_allocationOverrunCounts[section.ordinal()];
+    }
+
+    /**
+     * @return The bytes allocated by the last whole periodic call, or zero if the profiler is disabled or can't measure allocation
+     */
+    public long getLastCycleBytes() {
+        return m_lastCycleBytes;
+    }
+
+    /**
+     * @return Whether this JVM lets us measure allocation
+     */
+    public boolean isAllocationTrackingSupported() {
+        return (m_allocationCounter != null);
+    }
+
+    /**
+     * Clears every histogram, max, and counter
+     * <p>This should be called when entering a new mode so each mode is profiled on its own
+     */
+    public void reset() {
+        for (int index = 0; index < SECTIONS.length; index++) {
+            Arrays.fill(m_histograms[index], 0);
+            m_maxNanos[index] = 0;
+            m_sampleCounts[index] = 0;
+            m_overrunCounts[index] = 0;
+            m_maxBytes[index] = 0;
+            m_totalBytes[index] = 0;
+            m_allocationOverrunCounts[index] = 0;
+        }
+        m_cycleCount = 0;
+        m_lastCycleBytes = 0;
+        m_allocationOverrunsSincePublish = 0;
+        m_worstBytesSincePublish = 0;
+        m_worstSectionSincePublish = null;
+    }
+
+    /**
+     * Pulls whether the profiler is enabled off of the shuffleboard
+     * <p>This should be called only while disabled
+     */
+    public void setEnabledFromShuffleboard() {
+        m_enabled = m_enabledEntry.getBoolean(m_enabled);
+    }
+
+    /**
+     * @param enabled Whether the profiler should record samples
+     */
+    public void setEnabled(boolean enabled) {
+        m_enabled = enabled;
+    }
+
+    /**
+     * @return Whether the profiler is currently recording samples
+     */
+    public boolean isEnabled() {
+        return m_enabled;
+    }
+
+    /**
+     * @param nanos A duration in nanoseconds
+     * @return The same duration in milliseconds
+     */
+    private static double nanosToMillis(long nanos) {
+        return nanos / 1.0e6;
+    }
+
+    /**
+     * instantiates all of our network table entries and displays them under the profiler tab
+     */
+    public void shuffleboardConfig() {
+        //creates a tab on the shuffleboard for the loop timing summary
+        m_profilerTab = Shuffleboard.getTab("Profiler");
+
+        //creates a persistent toggle so the profiler can be turned on without a redeploy
+        m_enabledEntry = m_profilerTab.addPersistent("Profiling Enabled", m_enabled)
+                                      .withWidget(BuiltInWidgets.kToggleButton)
+                                      .getEntry();
+
+        m_p50Entries = new NetworkTableEntry[SECTIONS.length];
+        m_p99Entries = new NetworkTableEntry[SECTIONS.length];
+        m_maxEntries = new NetworkTableEntry[SECTIONS.length];
+        m_overrunEntries = new NetworkTableEntry[SECTIONS.length];
+        m_averageBytesEntries = new NetworkTableEntry[SECTIONS.length];
+        m_maxBytesEntries = new NetworkTableEntry[SECTIONS.length];
+
+        //creates a widget for each statistic of each section
+        for (Section section : SECTIONS) {
+            int index = section.ordinal();
+            m_p50Entries[index] = m_profilerTab.add(section + " p50 (ms)", 0.0).getEntry();
+            m_p99Entries[index] = m_profilerTab.add(section + " p99 (ms)", 0.0).getEntry();
+            m_maxEntries[index] = m_profilerTab.add(section + " max (ms)", 0.0).getEntry();
+            m_overrunEntries[index] = m_profilerTab.add(section + " overruns", 0.0).getEntry();
+            m_averageBytesEntries[index] = m_profilerTab.add(section + " avg alloc (B)", 0.0).getEntry();
+            m_maxBytesEntries[index] = m_profilerTab.add(section + " max alloc (B)", 0.0).getEntry();
+        }
+
+        m_skippedWritesEntry = m_profilerTab.add("Skipped Motor Writes", 0.0).getEntry();
+        m_lastCycleBytesEntry = m_profilerTab.add("Loop Alloc (B)", 0.0).getEntry();
+        m_allocationOverrunsEntry = m_profilerTab.add("Alloc Budget Overruns", 0.0).getEntry();
+    }
+}
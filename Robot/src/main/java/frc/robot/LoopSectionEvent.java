@@ -0,0 +1,25 @@
+package frc.robot;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Java Flight Recorder event covering one call of a {@link LoopProfiler} section
+ * <p>With a flight recording running, these show up on the same timeline as the JVM's own garbage collection and compilation events.
+ * They are only created when PROFILER_JFR_EVENTS_ENABLED is set, since each one is a new object.
+ */
+@Name("frc.robot.LoopSection")
+@Label("Loop Section")
+@Category("Robot")
+@Description("One call of a profiled section of the robot loop")
+public class LoopSectionEvent extends jdk.jfr.Event {
+    @Label("Section")
+    public String section;
+
+    @Label("Allocated")
+    @DataAmount
+    public long allocatedBytes;
+}
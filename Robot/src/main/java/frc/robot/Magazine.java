@@ -1,10 +1,13 @@
 package frc.robot;
 
+import java.util.ArrayList;
+
 import com.ctre.phoenix.motorcontrol.ControlMode;
 import com.ctre.phoenix.motorcontrol.can.BaseMotorController;
 import com.ctre.phoenix.motorcontrol.can.VictorSPX;
 
 import edu.wpi.first.wpilibj.DigitalInput;
+import frc.robot.MotorConfigurator.DeviceConfig;
 
 /**
  * The magazine for our launcher that keeps track of balls in the system and moves them towards the launcher
@@ -16,6 +19,9 @@ public class Magazine {
     //declare our motor controllers for our belts and the wheel
     private VictorSPX m_motor;
 
+    //the output cache for the belt motor, so we don't resend the same speed every loop
+    private MotorOutputCache m_motorOutput;
+
     /**The photoelectric sensors for indexing, which are normally true */
     private DigitalInput m_intakeSensor;
     private DigitalInput m_launchSensor;
@@ -35,6 +41,7 @@ public class Magazine {
      */
     public Magazine(VictorSPX motor, DigitalInput intakeSensor, DigitalInput launchSensor) {
         m_motor = motor;
+        m_motorOutput = new MotorOutputCache(m_motor);
 
         m_intakeSensor = intakeSensor;
         m_launchSensor = launchSensor;
@@ -45,6 +52,7 @@ public class Magazine {
      */
     public Magazine() {
         m_motor = new VictorSPX(RobotMap.MAGAZINE_MOTOR_PORT);
+        m_motorOutput = new MotorOutputCache(m_motor);
 
         m_intakeSensor = new DigitalInput(RobotMap.MAGAZINE_IN_SENSOR_PORT);
         m_launchSensor = new DigitalInput(RobotMap.MAGAZINE_OUT_SENSOR_PORT);
@@ -56,7 +64,7 @@ public class Magazine {
      */
     public void runBelt(double speed) {
         //sets percent output on both belts
-        m_motor.set(ControlMode.PercentOutput, speed);
+        m_motorOutput.set(ControlMode.PercentOutput, speed);
     }
 
     /**
@@ -137,6 +145,22 @@ public class Magazine {
         return m_motor;
     }
 
+    /**
+     * Builds the configuration for the belt motor, to be run by the MotorConfigurator on robot startup
+     * <p>The belt needs no config, but the configurator also watches it for resets.
+     * A reset motor stops, and clearing the cache means the next speed is sent even if it matches the last one
+     * @return The config for the belt motor
+     */
+    public ArrayList<DeviceConfig> getMotorConfigs() {
+        ArrayList<DeviceConfig> configs = new ArrayList<DeviceConfig>();
+
+        DeviceConfig belt = new DeviceConfig("Magazine Belt", m_motor, RobotMap.TIMEOUT_MS)
+            .addSetting(m_motorOutput::invalidate);
+        configs.add(belt);
+
+        return configs;
+    }
+
     /**
      * @return the object summarized as a string
      */
@@ -0,0 +1,395 @@
+package frc.robot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.ctre.phoenix.ErrorCode;
+import com.ctre.phoenix.motorcontrol.can.BaseMotorController;
+
+import edu.wpi.first.wpilibj.DriverStation;
+
+/**
+ * Runs the configuration of our CTRE motor controllers
+ * <p>Every config call blocks until the controller answers or times out, and we make dozens of them.
+ * Calls to different controllers don't depend on each other, so this runs each controller's config on its own thread.
+ * Every returned ErrorCode is checked, and failed calls are retried.
+ * <p>Config calls are saved to the controller's flash, so they survive a reboot. Each device's config values are hashed into a fingerprint
+ * that is stored in one of the controller's custom parameter slots once every call succeeds.
+ * When the stored fingerprint already matches, the config calls are skipped and only the settings that don't persist are sent.
+ * Anything that changes a persistent config at runtime, such as tuning gains from the dashboard, must call {@link #clearFingerprint}
+ * so the next boot doesn't keep the changed value
+ * <p>It also keeps track of every controller it has configured, so that a controller that resets (after a brownout)
+ * can be found and reconfigured in the background. The main loop is still driving the robot while that happens,
+ * so a reconfigure only sends the config and settings. Startup steps, which zero sensors or command an output, are only run on startup.
+ * A reset controller is already neutral, and its output cache is cleared so the main loop's next output is sent
+ */
+public class MotorConfigurator {
+    /**
+     * A single config call on a motor controller
+     */
+    @FunctionalInterface
+    public interface ConfigStep {
+        /**
+         * Runs the config call
+         * @param timeoutMs The timeout to pass to the config call
+         * @return The error code returned by the config call
+         */
+        public ErrorCode apply(int timeoutMs);
+    }
+
+    /**
+     * The full list of config calls for one motor controller, run in order
+     */
+    public static class DeviceConfig {
+        //the name we report the device under, and the device itself
+        private final String m_name;
+        private final BaseMotorController m_device;
+
+        //the timeout passed to each step
+        private final int m_timeoutMs;
+
+        //the config steps, in the order they are run
+        private final ArrayList<ConfigStep> m_steps = new ArrayList<ConfigStep>();
+        //parallel to the steps, whether each step is saved to flash and can be skipped when the fingerprint matches
+        private final ArrayList<Boolean> m_persistent = new ArrayList<Boolean>();
+        //parallel to the steps, whether each step is only run on startup and skipped when reconfiguring after a reset
+        private final ArrayList<Boolean> m_startupOnly = new ArrayList<Boolean>();
+
+        //the hash of every persistent step's values, which is never zero since zero is the factory default param
+        private int m_fingerprint;
+
+        //the results of the last time this config was run
+        private double m_lastConfigTimeMs = 0;
+        private int m_lastFailedSteps = 0;
+        private int m_lastRetries = 0;
+        private boolean m_lastSkipped = false;
+
+        /**
+         * Constructor for DeviceConfig objects
+         * @param name The name of the device for reporting
+         * @param device The motor controller being configured
+         * @param timeoutMs The timeout for each config call in milliseconds
+         */
+        public DeviceConfig(String name, BaseMotorController device, int timeoutMs) {
+            m_name = name;
+            m_device = device;
+            m_timeoutMs = timeoutMs;
+
+            //start the fingerprint from the version and name, so bumping the version forces every device to reconfigure
+            m_fingerprint = 31 * RobotMap.CONFIG_FINGERPRINT_VERSION + name.hashCode();
+        }
+
+        /**
+         * Adds a config call that is saved to the controller's flash (any of the config methods)
+         * <p>Its error code is checked and retried, and it is skipped if the device's stored fingerprint matches
+         * @param step The config call
+         * @param values Every value passed to the config call, which are hashed into the fingerprint
+         * @return This object, so calls can be chained
+         */
+        public DeviceConfig addConfig(ConfigStep step, Object... values) {
+            m_steps.add(step);
+            m_persistent.add(true);
+            m_startupOnly.add(false);
+
+            //hash the position of the step along with its values, so moving a value to another step changes the fingerprint
+            //values are hashed through their strings since enum hash codes change every time the program runs
+            m_fingerprint = 31 * m_fingerprint + m_steps.size();
+            for (Object value : values) {
+                m_fingerprint = 31 * m_fingerprint + String.valueOf(value).hashCode();
+            }
+            return this;
+        }
+
+        /**
+         * Adds a call that isn't saved to the controller's flash, but still returns an error code (such as zeroing a sensor)
+         * <p>Its error code is checked and retried, and it is run even if the device's stored fingerprint matches
+         * @param step The call
+         * @return This object, so calls can be chained
+         */
+        public DeviceConfig add(ConfigStep step) {
+            m_steps.add(step);
+            m_persistent.add(false);
+            m_startupOnly.add(false);
+            return this;
+        }
+
+        /**
+         * Adds a call that is only run on startup, such as zeroing a sensor
+         * <p>Its error code is checked and retried. It is skipped when reconfiguring after a reset, since the main loop is
+         * reading the device by then and a sensor jumping to zero under it would be read as travel
+         * @param step The call
+         * @return This object, so calls can be chained
+         */
+        public DeviceConfig addStartup(ConfigStep step) {
+            add(step);
+            m_startupOnly.set(m_startupOnly.size() - 1, true);
+            return this;
+        }
+
+        /**
+         * Adds a setting that doesn't return an error code (such as setInverted or setNeutralMode)
+         * <p>These are sent without waiting for the device, so they always count as successful.
+         * They aren't saved to the controller's flash, so they are run even if the device's stored fingerprint matches
+         * @param setting The setting call
+         * @return This object, so calls can be chained
+         */
+        public DeviceConfig addSetting(Runnable setting) {
+            m_steps.add((timeoutMs) -> {
+                setting.run();
+                return ErrorCode.OK;
+            });
+            m_persistent.add(false);
+            m_startupOnly.add(false);
+            return this;
+        }
+
+        /**
+         * Adds a setting that is only run on startup, such as commanding an output
+         * <p>It is skipped when reconfiguring after a reset, since the main loop owns the output by then,
+         * and a reconfigure runs on a background thread
+         * @param setting The setting call
+         * @return This object, so calls can be chained
+         */
+        public DeviceConfig addStartupSetting(Runnable setting) {
+            addSetting(setting);
+            m_startupOnly.set(m_startupOnly.size() - 1, true);
+            return this;
+        }
+
+        /**
+         * Runs every step in order on the calling thread, retrying failed steps
+         * <p>If the fingerprint stored on the device matches ours, the persistent config calls are skipped
+         * @param reconfigure Whether this is a reconfigure after a reset, which skips the startup steps
+         * @return Whether every step succeeded
+         */
+        public boolean run(boolean reconfigure) {
+            long startNanos = System.nanoTime();
+            int failedSteps = 0;
+            int retries = 0;
+
+            //a factory reset device or one configured with different values won't match, and gets every step
+            boolean skipPersistent = RobotMap.CONFIG_SKIP_MATCHING_FINGERPRINTS && storedFingerprintMatches();
+
+            for (int index = 0; index < m_steps.size(); index++) {
+                if ((skipPersistent && m_persistent.get(index)) || (reconfigure && m_startupOnly.get(index))) {
+                    continue;
+                }
+
+                ErrorCode error = m_steps.get(index).apply(m_timeoutMs);
+
+                //retry the step until it succeeds or we run out of attempts
+                for (int attempt = 0; attempt < RobotMap.CONFIG_MAX_RETRIES && error != ErrorCode.OK; attempt++) {
+                    retries++;
+                    error = m_steps.get(index).apply(m_timeoutMs);
+                }
+
+                if (error != ErrorCode.OK) {
+                    failedSteps++;
+                }
+            }
+
+            //only store the fingerprint once every step has gone through, so a partial config is redone on the next boot
+            if (!skipPersistent && failedSteps == 0) {
+                ErrorCode error = m_device.configSetCustomParam(m_fingerprint, RobotMap.CONFIG_FINGERPRINT_PARAM_INDEX, m_timeoutMs);
+                for (int attempt = 0; attempt < RobotMap.CONFIG_MAX_RETRIES && error != ErrorCode.OK; attempt++) {
+                    retries++;
+                    error = m_device.configSetCustomParam(m_fingerprint, RobotMap.CONFIG_FINGERPRINT_PARAM_INDEX, m_timeoutMs);
+                }
+
+                if (error != ErrorCode.OK) {
+                    failedSteps++;
+                }
+            }
+
+            m_lastConfigTimeMs = (System.nanoTime() - startNanos) / 1.0e6;
+            m_lastFailedSteps = failedSteps;
+            m_lastRetries = retries;
+            m_lastSkipped = skipPersistent;
+
+            //clear the reset flag, so we only reconfigure again if the device resets again
+            m_device.hasResetOccurred();
+
+            return (failedSteps == 0);
+        }
+
+        /**
+         * Reads the fingerprint stored on the device and compares it to ours
+         * @return Whether the device already has this config, false if the read fails
+         */
+        private boolean storedFingerprintMatches() {
+            int storedFingerprint = m_device.configGetCustomParam(RobotMap.CONFIG_FINGERPRINT_PARAM_INDEX, m_timeoutMs);
+            return (m_device.getLastError() == ErrorCode.OK) && (storedFingerprint == getFingerprint());
+        }
+
+        /**
+         * @return The name of the device
+         */
+        public String getName() {
+            return m_name;
+        }
+
+        /**
+         * @return The motor controller being configured
+         */
+        public BaseMotorController getDevice() {
+            return m_device;
+        }
+
+        /**
+         * @return How long the last run took in milliseconds
+         */
+        public double getLastConfigTimeMs() {
+            return m_lastConfigTimeMs;
+        }
+
+        /**
+         * @return The hash of every persistent step's values, which is never zero
+         */
+        public int getFingerprint() {
+            //zero is the factory default of the custom params, so it can never count as a match
+            return (m_fingerprint == 0) ? 1 : m_fingerprint;
+        }
+
+        /**
+         * @return Whether the persistent config calls were skipped on the last run because the fingerprint matched
+         */
+        public boolean wasLastSkipped() {
+            return m_lastSkipped;
+        }
+
+        /**
+         * @return The number of steps that still failed after retrying on the last run
+         */
+        public int getLastFailedSteps() {
+            return m_lastFailedSteps;
+        }
+
+        /**
+         * @return the device config summarized as a string
+         */
+        public String toString() {
+            return m_name + " (ID " + m_device.getDeviceID() + "): " + m_steps.size() + " steps in " + Math.round(m_lastConfigTimeMs)
+                   + "ms | Retries: " + m_lastRetries + " | Failed: " + m_lastFailedSteps + (m_lastSkipped ? " | Fingerprint matched" : "");
+        }
+    }
+
+    //every device config that has been run, so we can reconfigure devices that reset
+    private ArrayList<DeviceConfig> m_configs = new ArrayList<DeviceConfig>();
+
+    //the background thread used for reconfiguring devices that reset mid match
+    private ExecutorService m_reconfigExecutor;
+
+    /**
+     * Constructor for MotorConfigurator objects
+     */
+    public MotorConfigurator() {
+        m_reconfigExecutor = Executors.newSingleThreadExecutor((runnable) -> {
+            Thread thread = new Thread(runnable, "MotorReconfigure");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Clears the fingerprint stored on a device, so its whole config is sent again on the next boot
+     * <p>This must be called whenever a persistent config is changed outside of the device's config, since that changes the
+     * device's flash without changing its stored fingerprint. This doesn't wait for the device, so it can be called from a periodic method
+     * @param device The motor controller whose config was changed
+     */
+    public static void clearFingerprint(BaseMotorController device) {
+        //zero is the factory default, which no fingerprint ever matches
+        device.configSetCustomParam(0, RobotMap.CONFIG_FINGERPRINT_PARAM_INDEX);
+    }
+
+    /**
+     * Runs every config at once, one thread per device, and waits for them all to finish
+     * <p>Each device's time and any failures are printed once they are all done
+     * @param configs The device configs to run
+     * @return Whether every device configured without any failed steps
+     */
+    public boolean configureAll(List<DeviceConfig> configs) {
+        m_configs.addAll(configs);
+
+        long startNanos = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, configs.size()));
+        ArrayList<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+        for (DeviceConfig config : configs) {
+            results.add(executor.submit(() -> config.run(false)));
+        }
+
+        //wait for every device, recording any that failed
+        boolean allSucceeded = true;
+        for (int index = 0; index < configs.size(); index++) {
+            boolean succeeded;
+            try {
+                succeeded = results.get(index).get();
+            }
+            catch (InterruptedException | ExecutionException e) {
+                succeeded = false;
+            }
+
+            if (!succeeded) {
+                allSucceeded = false;
+            }
+        }
+        executor.shutdown();
+
+        report(configs, (System.nanoTime() - startNanos) / 1.0e6);
+        return allSucceeded;
+    }
+
+    /**
+     * Checks every configured device for a reset, and reconfigures any that have reset on a background thread
+     * <p>This doesn't wait for the reconfigure, so it is safe to call from a periodic method.
+     * The startup steps aren't run again, so the reconfigure never zeroes a sensor or commands an output behind the main loop
+     * @return Whether any device had reset
+     */
+    public boolean checkForResets() {
+        boolean anyReset = false;
+        for (DeviceConfig config : m_configs) {
+            if (config.getDevice().hasResetOccurred()) {
+                anyReset = true;
+                DriverStation.reportWarning(config.getName() + " reset, reconfiguring", false);
+                m_reconfigExecutor.submit(() -> {
+                    config.run(true);
+                    System.out.println("Reconfigured " + config);
+                });
+            }
+        }
+        return anyReset;
+    }
+
+    /**
+     * Prints the time and result for each device, and reports any failed device to the driver station
+     * @param configs The configs that were just run
+     * @param totalTimeMs The wall clock time for the whole run
+     */
+    private void report(List<DeviceConfig> configs, double totalTimeMs) {
+        int skipped = 0;
+        for (DeviceConfig config : configs) {
+            if (config.wasLastSkipped()) {
+                skipped++;
+            }
+        }
+
+        System.out.println("Configured " + configs.size() + " motor controllers in " + Math.round(totalTimeMs) + "ms ("
+                           + skipped + " already matched their fingerprint)");
+        for (DeviceConfig config : configs) {
+            System.out.println("  " + config);
+            if (config.getLastFailedSteps() > 0) {
+                DriverStation.reportError("Motor controller did not configure: " + config, false);
+            }
+        }
+    }
+
+    /**
+     * @return Every device config that has been run
+     */
+    public List<DeviceConfig> getConfigs() {
+        return m_configs;
+    }
+}
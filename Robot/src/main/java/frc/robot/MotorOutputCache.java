@@ -0,0 +1,150 @@
+package frc.robot;
+
+import com.ctre.phoenix.motorcontrol.ControlMode;
+import com.ctre.phoenix.motorcontrol.DemandType;
+import com.ctre.phoenix.motorcontrol.FollowerType;
+import com.ctre.phoenix.motorcontrol.IMotorController;
+import com.ctre.phoenix.motorcontrol.can.BaseMotorController;
+
+/**
+ * Wraps a CTRE motor controller and skips any output call that matches the last one sent
+ * <p>Our periodic code sets every motor and re-issues follow() on every slave every loop, even when nothing changed.
+ * Each of those calls is a JNI call and a control frame update, so skipping the repeats saves CAN traffic and loop time.
+ * <p>All output to the wrapped controller should go through this object, otherwise the cache falls out of sync.
+ * If something else does write to the controller, call {@link #invalidate()}
+ */
+public class MotorOutputCache {
+    /**The total number of writes skipped across every cache, for reading off of the dashboard */
+    private static long skipped_writes = 0;
+
+    //the motor controller we send our output to
+    private final BaseMotorController m_controller;
+
+    //the last output we sent, a null mode means we haven't sent anything yet
+    private ControlMode m_lastMode = null;
+    private double m_lastDemand0 = 0;
+    private DemandType m_lastDemandType = DemandType.Neutral;
+    private double m_lastDemand1 = 0;
+
+    //the master we were last told to follow, which is null unless our last output was follow()
+    private IMotorController m_lastMaster = null;
+    private FollowerType m_lastFollowerType = null;
+
+    //the number of writes this cache has skipped
+    private long m_skippedWrites = 0;
+
+    /**
+     * Constructor for MotorOutputCache objects
+     * @param controller The motor controller to send output to
+     */
+    public MotorOutputCache(BaseMotorController controller) {
+        m_controller = controller;
+    }
+
+    /**
+     * Sets the output of the controller if it differs from the last output
+     * @param mode The control mode
+     * @param demand The demand for the control mode
+     */
+    public synchronized void set(ControlMode mode, double demand) {
+        set(mode, demand, DemandType.Neutral, 0);
+    }
+
+    /**
+     * Sets the output of the controller with a second demand if it differs from the last output
+     * @param mode The control mode
+     * @param demand0 The demand for the control mode
+     * @param demandType The type of the second demand
+     * @param demand1 The second demand
+     */
+    public synchronized void set(ControlMode mode, double demand0, DemandType demandType, double demand1) {
+        if (m_lastMaster == null && mode == m_lastMode && demand0 == m_lastDemand0
+            && demandType == m_lastDemandType && demand1 == m_lastDemand1) {
+            skipWrite();
+            return;
+        }
+
+        //a neutral second demand is the same as calling the two parameter set
+        if (demandType == DemandType.Neutral) {
+            m_controller.set(mode, demand0);
+        }
+        else {
+            m_controller.set(mode, demand0, demandType, demand1);
+        }
+
+        m_lastMode = mode;
+        m_lastDemand0 = demand0;
+        m_lastDemandType = demandType;
+        m_lastDemand1 = demand1;
+        m_lastMaster = null;
+        m_lastFollowerType = null;
+    }
+
+    /**
+     * Sets the controller to follow a master, unless it is already following that master
+     * @param master The controller to follow
+     */
+    public synchronized void follow(IMotorController master) {
+        follow(master, FollowerType.PercentOutput);
+    }
+
+    /**
+     * Sets the controller to follow a master, unless it is already following that master the same way
+     * @param master The controller to follow
+     * @param followerType How to follow the master
+     */
+    public synchronized void follow(IMotorController master, FollowerType followerType) {
+        if (master == m_lastMaster && followerType == m_lastFollowerType) {
+            skipWrite();
+            return;
+        }
+
+        m_controller.follow(master, followerType);
+
+        m_lastMaster = master;
+        m_lastFollowerType = followerType;
+        m_lastMode = null;
+    }
+
+    /**
+     * Forgets the last output, so the next call is always sent
+     * <p>This should be called after anything writes to the controller without going through this cache,
+     * or after the controller resets
+     */
+    public synchronized void invalidate() {
+        m_lastMode = null;
+        m_lastMaster = null;
+        m_lastFollowerType = null;
+    }
+
+    /**
+     * Counts a skipped write on this cache and on the total
+     */
+    private void skipWrite() {
+        m_skippedWrites++;
+        synchronized (MotorOutputCache.class) {
+            skipped_writes++;
+        }
+    }
+
+    /**
+     * @return The motor controller this cache writes to
+     */
+    public BaseMotorController getController() {
+        return m_controller;
+    }
+
+    /**
+     * @return The number of writes this cache has skipped
+     */
+    public synchronized long getSkippedWrites() {
+        return m_skippedWrites;
+    }
+
+    /**
+     * @return The number of writes skipped across every cache
+     */
+    public static synchronized long getTotalSkippedWrites() {
+        return skipped_writes;
+    }
+}
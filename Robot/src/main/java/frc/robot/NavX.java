@@ -16,6 +16,9 @@ public class NavX extends AHRS {
     // Boolean to keep track of status of offset application
     private boolean m_offsetApplied;
 
+    // The drivetrain simulation our heading comes from in the simulator, or null on the robot
+    private DrivetrainSim m_simulation = null;
+
 
     /**
      * Constructor for NavX with SPI port parameter
@@ -44,6 +47,50 @@ public class NavX extends AHRS {
         m_offsetApplied = false;
     }
 
+    /**
+     * Reads our heading from a drivetrain simulation instead of the sensor, for the desktop simulator
+     * @param simulation The drivetrain simulation
+     */
+    public void attachSimulation(DrivetrainSim simulation) {
+        m_simulation = simulation;
+    }
+
+    /**
+     * Returns the yaw from -180 to 180 degrees, from the simulation if one is attached
+     * @return The yaw reading from the NavX
+     */
+    @Override
+    public float getYaw() {
+        if (m_simulation != null) {
+            return m_simulation.getYaw();
+        }
+        return super.getYaw();
+    }
+
+    /**
+     * Returns the total angle turned in degrees without wrapping, from the simulation if one is attached
+     * @return The angle reading from the NavX
+     */
+    @Override
+    public double getAngle() {
+        if (m_simulation != null) {
+            return m_simulation.getAngle();
+        }
+        return super.getAngle();
+    }
+
+    /**
+     * Zeros the yaw at the current heading, in the simulation if one is attached
+     */
+    @Override
+    public void zeroYaw() {
+        if (m_simulation != null) {
+            m_simulation.zeroYaw();
+            return;
+        }
+        super.zeroYaw();
+    }
+
     /**
      * Returns the current Yaw reading from the NavX, with offset applied if enabled
      * @return The yaw reading form the NavX
@@ -0,0 +1,274 @@
+package frc.robot;
+
+import edu.wpi.first.networktables.NetworkTableEntry;
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
+import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardTab;
+import frc.robot.Drivetrain.Gear;
+
+/**
+ * Tracks where the robot is on the field from the drive encoders and the NavX
+ * <p>The encoders give how far each side has travelled, and the NavX gives our heading, which is far better than
+ * working the heading out from the difference between the sides, since the wheels scrub when we turn.
+ * Each update moves our pose by the average travel of the two sides, along the heading halfway through the update.
+ * <p>The integrated sensors count motor rotations, so the distance each tick covers depends on the gear we are in.
+ * We convert each update's change in ticks with the gear we are in at the time, so shifting mid-match doesn't throw off our position.
+ * <p>Updates run on their own notifier at the rate the drive masters send their encoders, rather than once a main loop,
+ * so a fast turn doesn't smear our position. Everything the notifier writes is guarded by this object's lock
+ */
+public class Odometry implements ShuffleboardEnabled {
+    private Drivetrain m_drivetrain;
+    private NavX m_gyro;
+
+    //runs our updates at a high rate on its own thread
+    private Notifier m_notifier;
+    private boolean m_running = false;
+
+    //our pose, with the heading kept unwrapped so the halfway heading is right across the -pi to pi seam
+    private double m_x = 0;
+    private double m_y = 0;
+    private double m_heading = 0;
+
+    //the heading we add to the NavX angle, in radians counterclockwise, set when we reset our pose
+    private double m_headingOffset = 0;
+
+    //the encoder positions and time of the last update, which each update measures its travel from
+    private int m_lastLeftPosition;
+    private int m_lastRightPosition;
+    private double m_lastUpdateTime;
+    private boolean m_hasLastUpdate = false;
+
+    //the number of updates, the updates skipped because an encoder was zeroed, and the longest time between updates
+    private int m_updateCount = 0;
+    private int m_sensorResetCount = 0;
+    private double m_maxUpdatePeriod = 0;
+
+    //reused so publishing doesn't allocate
+    private final FieldPose m_publishPose = new FieldPose();
+
+    //counts loops so that we only publish every ODOMETRY_PUBLISH_PERIOD_CYCLES
+    private int m_publishCycles = 0;
+
+    /**Network table entries for publishing our pose and update health */
+    private ShuffleboardTab m_odometryTab;
+    private NetworkTableEntry m_xEntry;
+    private NetworkTableEntry m_yEntry;
+    private NetworkTableEntry m_headingEntry;
+    private NetworkTableEntry m_updateCountEntry;
+    private NetworkTableEntry m_sensorResetEntry;
+    private NetworkTableEntry m_maxPeriodEntry;
+
+    /**
+     * Constructor for Odometry objects
+     * <p>The notifier isn't started until {@link #start()} is called
+     * @param drivetrain The drivetrain we read the encoders, gear, and gyro from
+     */
+    public Odometry(Drivetrain drivetrain) {
+        m_drivetrain = drivetrain;
+        m_gyro = drivetrain.getGyro();
+        m_notifier = new Notifier(this::update);
+
+        shuffleboardConfig();
+    }
+
+    /**
+     * Starts updating our pose on the notifier, if we aren't already
+     */
+    public void start() {
+        if (!m_running) {
+            m_notifier.startPeriodic(RobotMap.ODOMETRY_PERIOD_S);
+            m_running = true;
+        }
+    }
+
+    /**
+     * Stops updating our pose. The pose is kept, but anything we move while stopped is lost
+     */
+    public void stop() {
+        m_notifier.stop();
+        m_running = false;
+        synchronized (this) {
+            m_hasLastUpdate = false;
+        }
+    }
+
+    /**
+     * Returns the distance each encoder tick covers in a gear
+     * @param gear The gear, where kUnknown is treated as {@link RobotMap#ODOMETRY_UNKNOWN_GEAR}
+     * @return The distance in meters
+     */
+    public static double getMetersPerTick(Gear gear) {
+        if (gear == Gear.kUnknown) {
+            gear = RobotMap.ODOMETRY_UNKNOWN_GEAR;
+        }
+        double reduction = (gear == Gear.kLowGear) ? RobotMap.DRIVE_LOW_GEAR_REDUCTION : RobotMap.DRIVE_HIGH_GEAR_REDUCTION;
+        return RobotMap.DRIVE_WHEEL_DIAMETER_INCHES * Math.PI * RobotMap.METERS_PER_INCH
+               / (RobotMap.DRIVE_TICS_PER_MOTOR_ROTATION * reduction);
+    }
+
+    /**
+     * Moves our pose by the travel since the last update
+     * <p>This runs on the notifier thread. The sensors are read before taking the lock, so a slow read doesn't hold up the main loop
+     */
+    private void update() {
+        double now = Timer.getFPGATimestamp();
+        int leftPosition = m_drivetrain.getLeftDriveEncoderPosition();
+        int rightPosition = m_drivetrain.getRightDriveEncoderPosition();
+        double heading = -Math.toRadians(m_gyro.getAngle());
+        Gear gear = m_drivetrain.getGear();
+
+        synchronized (this) {
+            heading += m_headingOffset;
+
+            //the first update after starting or a reset only records where we are measuring from
+            if (!m_hasLastUpdate) {
+                recordLastUpdate(now, leftPosition, rightPosition);
+                m_heading = heading;
+                m_hasLastUpdate = true;
+                return;
+            }
+
+            double period = now - m_lastUpdateTime;
+            m_maxUpdatePeriod = Math.max(m_maxUpdatePeriod, period);
+
+            int leftTicks = leftPosition - m_lastLeftPosition;
+            int rightTicks = rightPosition - m_lastRightPosition;
+            recordLastUpdate(now, leftPosition, rightPosition);
+
+            //a change no motor could make in the time since the last update means an encoder was zeroed, so measure from the new position
+            double maxTicks = RobotMap.DRIVE_MOTOR_FREE_SPEED_RPS * RobotMap.DRIVE_TICS_PER_MOTOR_ROTATION
+                              * Math.max(period, RobotMap.ODOMETRY_PERIOD_S) * RobotMap.ODOMETRY_SENSOR_RESET_MARGIN;
+            if (Math.abs(leftTicks) > maxTicks || Math.abs(rightTicks) > maxTicks) {
+                m_sensorResetCount++;
+                m_heading = heading;
+                return;
+            }
+
+            //move along the heading halfway through the update, which follows an arc much closer than the heading at either end
+            double distance = (leftTicks + rightTicks) / 2.0 * getMetersPerTick(gear);
+            double midHeading = (m_heading + heading) / 2;
+            m_x += distance * Math.cos(midHeading);
+            m_y += distance * Math.sin(midHeading);
+            m_heading = heading;
+            m_updateCount++;
+        }
+    }
+
+    /**
+     * Records the time and encoder positions the next update measures from
+     * @param time The FPGA time in seconds
+     * @param leftPosition The left encoder position in ticks
+     * @param rightPosition The right encoder position in ticks
+     */
+    private void recordLastUpdate(double time, int leftPosition, int rightPosition) {
+        m_lastUpdateTime = time;
+        m_lastLeftPosition = leftPosition;
+        m_lastRightPosition = rightPosition;
+    }
+
+    /**
+     * Sets where we are on the field, such as our starting spot in auton
+     * <p>The heading is held by offsetting the NavX, so the gyro itself isn't zeroed and the aim loop isn't disturbed.
+     * The next update measures from wherever the encoders are then, so this can be called right after zeroing them
+     * @param x The distance along the field in meters
+     * @param y The distance across the field in meters
+     * @param heading The heading in radians counterclockwise from the x axis
+     */
+    public void resetPose(double x, double y, double heading) {
+        double gyroHeading = -Math.toRadians(m_gyro.getAngle());
+        synchronized (this) {
+            m_x = x;
+            m_y = y;
+            m_heading = heading;
+            m_headingOffset = heading - gyroHeading;
+            m_hasLastUpdate = false;
+        }
+    }
+
+    /**
+     * Copies our current pose
+     * @param pose The pose to fill in, so reading our pose doesn't allocate
+     */
+    public synchronized void getPose(FieldPose pose) {
+        pose.set(m_x, m_y, m_heading);
+    }
+
+    /**
+     * @return Our distance along the field in meters
+     */
+    public synchronized double getX() {
+        return m_x;
+    }
+
+    /**
+     * @return Our distance across the field in meters
+     */
+    public synchronized double getY() {
+        return m_y;
+    }
+
+    /**
+     * @return Our heading in radians counterclockwise from the x axis, from -pi to pi
+     */
+    public synchronized double getHeading() {
+        return Math.IEEEremainder(m_heading, 2 * Math.PI);
+    }
+
+    /**
+     * @return The number of updates that have moved our pose
+     */
+    public synchronized int getUpdateCount() {
+        return m_updateCount;
+    }
+
+    /**
+     * @return The number of updates skipped because an encoder was zeroed
+     */
+    public synchronized int getSensorResetCount() {
+        return m_sensorResetCount;
+    }
+
+    /**
+     * @return The longest time between two updates in seconds, which shows how late the notifier has run
+     */
+    public synchronized double getMaxUpdatePeriod() {
+        return m_maxUpdatePeriod;
+    }
+
+    /**
+     * Pushes our pose to the shuffleboard every ODOMETRY_PUBLISH_PERIOD_CYCLES calls
+     * <p>To be run once a main loop
+     */
+    public void periodicPublish() {
+        m_publishCycles++;
+        if (m_publishCycles >= RobotMap.ODOMETRY_PUBLISH_PERIOD_CYCLES) {
+            m_publishCycles = 0;
+            publish();
+        }
+    }
+
+    /**
+     * Pushes our pose and update health to the shuffleboard
+     */
+    public void publish() {
+        getPose(m_publishPose);
+        m_xEntry.setDouble(m_publishPose.getX());
+        m_yEntry.setDouble(m_publishPose.getY());
+        m_headingEntry.setDouble(Math.toDegrees(m_publishPose.getHeading()));
+        m_updateCountEntry.setDouble(getUpdateCount());
+        m_sensorResetEntry.setDouble(getSensorResetCount());
+        m_maxPeriodEntry.setDouble(getMaxUpdatePeriod() * 1000);
+    }
+
+    @Override
+    public void shuffleboardConfig() {
+        m_odometryTab = Shuffleboard.getTab("Odometry");
+        m_xEntry = m_odometryTab.add("X (m)", 0.0).getEntry();
+        m_yEntry = m_odometryTab.add("Y (m)", 0.0).getEntry();
+        m_headingEntry = m_odometryTab.add("Heading (deg)", 0.0).getEntry();
+        m_updateCountEntry = m_odometryTab.add("Updates", 0.0).getEntry();
+        m_sensorResetEntry = m_odometryTab.add("Encoder Resets", 0.0).getEntry();
+        m_maxPeriodEntry = m_odometryTab.add("Max Update Period (ms)", 0.0).getEntry();
+    }
+}
@@ -0,0 +1,164 @@
+package frc.robot;
+
+import edu.wpi.first.wpilibj.Timer;
+import frc.robot.Drivetrain.Gear;
+
+/**
+ * Drives the drivetrain along a {@link Trajectory}
+ * <p>Every loop, we sample where the trajectory says we should be, and a {@link RamseteController} works out the velocity
+ * and turn rate that steer us there from our estimated pose. Those are split into a velocity for each side,
+ * and each side is driven with the talons' velocity control on top of a feedforward from our drive characterization.
+ * <p>The characterization is in motor rotations, so it is scaled to the gear we are in, as is the distance each motor rotation covers.
+ * <p>Everything is preallocated, so following a path never allocates
+ */
+public class PathFollower {
+    private Drivetrain m_drivetrain;
+    private PoseEstimator m_poseEstimator;
+    private RamseteController m_controller;
+
+    //the characterization scaled to each gear, made once up front
+    private final DriveCharacterization m_lowGearCharacterization;
+    private final DriveCharacterization m_highGearCharacterization;
+
+    //the trajectory we are following, or null if we aren't, and the FPGA time we started it
+    private Trajectory m_trajectory = null;
+    private double m_startTime = 0;
+
+    //the side velocities we last sent in motor rotations per second, and when, for the feedforward's acceleration
+    private double m_lastLeftVelocity = 0;
+    private double m_lastRightVelocity = 0;
+    private double m_lastTime = Double.NaN;
+
+    //whether we have printed how the current trajectory went
+    private boolean m_reported = false;
+
+    //the largest distance we have been from the trajectory since starting it, in meters
+    private double m_maxError = 0;
+
+    //reused every loop so following doesn't allocate
+    private final TrajectoryPoint m_reference = new TrajectoryPoint();
+    private final FieldPose m_pose = new FieldPose();
+
+    /**
+     * Constructor for PathFollower objects
+     * @param drivetrain The drivetrain to drive
+     * @param poseEstimator The pose estimator we steer from
+     * @param characterization Our drive characterization, in the gear in {@link RobotMap#DRIVE_CHARACTERIZED_GEAR}
+     */
+    public PathFollower(Drivetrain drivetrain, PoseEstimator poseEstimator, DriveCharacterization characterization) {
+        m_drivetrain = drivetrain;
+        m_poseEstimator = poseEstimator;
+        m_controller = new RamseteController();
+
+        double characterizedReduction = getReduction(RobotMap.DRIVE_CHARACTERIZED_GEAR);
+        m_lowGearCharacterization = characterization.forGear(RobotMap.DRIVE_LOW_GEAR_REDUCTION / characterizedReduction);
+        m_highGearCharacterization = characterization.forGear(RobotMap.DRIVE_HIGH_GEAR_REDUCTION / characterizedReduction);
+    }
+
+    /**
+     * @param gear A gear, where kUnknown is treated as {@link RobotMap#ODOMETRY_UNKNOWN_GEAR}
+     * @return The reduction of that gear from motor to wheels
+     */
+    private static double getReduction(Gear gear) {
+        if (gear == Gear.kUnknown) {
+            gear = RobotMap.ODOMETRY_UNKNOWN_GEAR;
+        }
+        return (gear == Gear.kLowGear) ? RobotMap.DRIVE_LOW_GEAR_REDUCTION : RobotMap.DRIVE_HIGH_GEAR_REDUCTION;
+    }
+
+    /**
+     * Starts following a trajectory from its beginning
+     * <p>The trajectory is in field coordinates, so our pose should already be reset to where it starts
+     * @param trajectory The trajectory to follow
+     */
+    public void start(Trajectory trajectory) {
+        m_trajectory = trajectory;
+        m_startTime = Timer.getFPGATimestamp();
+        m_lastLeftVelocity = 0;
+        m_lastRightVelocity = 0;
+        m_lastTime = Double.NaN;
+        m_maxError = 0;
+        m_reported = false;
+    }
+
+    /**
+     * Drives toward where the trajectory says we should be now
+     * <p>To be run once a loop. After the trajectory ends, this keeps correcting toward its last point
+     * @return Whether the trajectory has ended, or true if we aren't following one
+     */
+    public boolean follow() {
+        if (m_trajectory == null) {
+            return true;
+        }
+
+        double now = Timer.getFPGATimestamp();
+        double elapsed = now - m_startTime;
+        m_trajectory.sample(elapsed, m_reference);
+        m_poseEstimator.getPose(m_pose);
+        m_controller.calculate(m_pose, m_reference);
+        m_maxError = Math.max(m_maxError, Math.hypot(m_reference.x - m_pose.getX(), m_reference.y - m_pose.getY()));
+
+        //convert the velocity and turn rate into motor rotations per second for each side in the gear we are in
+        Gear gear = m_drivetrain.getGear();
+        DriveCharacterization characterization = (getReduction(gear) == RobotMap.DRIVE_LOW_GEAR_REDUCTION)
+                                                 ? m_lowGearCharacterization : m_highGearCharacterization;
+        double metersPerRotation = Odometry.getMetersPerTick(gear) * RobotMap.DRIVE_TICS_PER_MOTOR_ROTATION;
+        double forward = m_controller.getVelocity() / metersPerRotation;
+        double turn = m_controller.getAngularVelocity() * characterization.getTrackWidthRotations() / 2;
+        double leftVelocity = forward - turn;
+        double rightVelocity = forward + turn;
+
+        //the feedforward needs each side's acceleration, which we take from the change since the last loop
+        double leftAcceleration = 0;
+        double rightAcceleration = 0;
+        if (!Double.isNaN(m_lastTime) && now > m_lastTime) {
+            leftAcceleration = (leftVelocity - m_lastLeftVelocity) / (now - m_lastTime);
+            rightAcceleration = (rightVelocity - m_lastRightVelocity) / (now - m_lastTime);
+        }
+        m_lastLeftVelocity = leftVelocity;
+        m_lastRightVelocity = rightVelocity;
+        m_lastTime = now;
+
+        Feedforward feedforward = characterization.getFeedforward();
+        m_drivetrain.tankDriveVelocity(leftVelocity, rightVelocity,
+                                       feedforward.calculate(leftVelocity, leftAcceleration),
+                                       feedforward.calculate(rightVelocity, rightAcceleration));
+
+        boolean finished = elapsed >= m_trajectory.getTotalTime();
+        if (finished && !m_reported) {
+            m_reported = true;
+            System.out.printf("Followed %s, ending %.3fm from its end with at most %.3fm of error%n",
+                              m_trajectory, Math.hypot(m_reference.x - m_pose.getX(), m_reference.y - m_pose.getY()), m_maxError);
+        }
+        return finished;
+    }
+
+    /**
+     * Stops following our trajectory and stops the drivetrain
+     */
+    public void stop() {
+        m_trajectory = null;
+        m_drivetrain.arcadeDrive(0, 0);
+    }
+
+    /**
+     * @return Whether we are following a trajectory
+     */
+    public boolean isFollowing() {
+        return m_trajectory != null;
+    }
+
+    /**
+     * @return The largest distance we have been from the trajectory since starting it, in meters
+     */
+    public double getMaxError() {
+        return m_maxError;
+    }
+
+    /**
+     * @return The ramsete controller, which has the error from the last loop
+     */
+    public RamseteController getController() {
+        return m_controller;
+    }
+}
@@ -7,9 +7,11 @@ import edu.wpi.first.wpilibj.shuffleboard.BuiltInWidgets;
 import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
 import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardTab;
 import frc.robot.Drivetrain.Gear;
+import frc.robot.LimelightReader.Pipeline;
 
 /**
  * A class to control the drivetrain with the pilot controller
+ * <p>The A button drives to our shot pose with a {@link ShotPathPlanner}, and the B button or any drive input takes back control
  * @author Josh Overbeek
  * @version 1/25/2020
  */
@@ -58,6 +60,9 @@ public class PilotController implements ShuffleboardEnabled {
     //declare the drive control type
     private final DriveType m_driveType;
 
+    //drives us to our shot pose on the A button, or null if we don't have one
+    private ShotPathPlanner m_shotPathPlanner = null;
+
     //scalars and network table entries to scale our input on our drivetrain
     //this is to reduce our speed for driver testing and potentially for comp
     private double m_highGearVelocityScalar = RobotMap.DRIVE_DEFAULT_INPUT_SCALAR;
@@ -196,24 +201,88 @@ public class PilotController implements ShuffleboardEnabled {
      * Controls all pilot controlled systems
      */
     public void controlDriveTrainPeriodic() {
+        //the button presses latch until they are read, so read them every loop, even while the copilot is targeting
+        //otherwise a press from a loop where it did nothing would act in a later loop
+        boolean shotPathRequested = m_controller.getAButtonPressed();
+        boolean shotPathCancelled = m_controller.getBButtonPressed();
+
         //prevents the PilotController from targeting while the copilot is targeting
         if (is_currently_targeting) {
+            //the copilot's targeting takes the drivetrain, so stop driving to our shot pose
+            if (m_shotPathPlanner != null && m_shotPathPlanner.isActive()) {
+                m_shotPathPlanner.cancel();
+            }
             return;
         }
 
-        m_limelight.getTable().getEntry("pipeline").setDouble(3);
-        //runs our drivetrain based on control scheme passed in
-        if (m_driveType == DriveType.kArcade) {
-            arcadeDrive();
-        }
-        else if (m_driveType == DriveType.kTank) {
-            tankDrive();
+        m_limelight.setPipeline(Pipeline.kDriver);
+        //drives to our shot pose instead of the pilot, unless the pilot takes over
+        //otherwise runs our drivetrain based on control scheme passed in
+        if (!controlShotPath(shotPathRequested, shotPathCancelled)) {
+            if (m_driveType == DriveType.kArcade) {
+                arcadeDrive();
+            }
+            else if (m_driveType == DriveType.kTank) {
+                tankDrive();
+            }
         }
 
         //Controls shifting the gears off of the x and y buttons
         controlGear();
     }
 
+    /**
+     * Starts driving to our shot pose on the A button, and cancels it on the B button or any drive input
+     * <p>The path is cancelled in the same loop the pilot moves a stick, so the pilot's input drives the drivetrain straight away
+     * @param requested Whether the A button was pressed this loop
+     * @param cancelled Whether the B button was pressed this loop
+     * @return Whether the path drove the drivetrain this loop, in which case the pilot shouldn't
+     */
+    private boolean controlShotPath(boolean requested, boolean cancelled) {
+        if (m_shotPathPlanner == null) {
+            return false;
+        }
+
+        if (requested) {
+            m_shotPathPlanner.request();
+        }
+
+        if (m_shotPathPlanner.isActive() && (cancelled || hasDriveInput())) {
+            m_shotPathPlanner.cancel();
+            return false;
+        }
+
+        return m_shotPathPlanner.periodic();
+    }
+
+    /**
+     * @return Whether the pilot is giving any drive input outside the deadband for our control scheme
+     */
+    private boolean hasDriveInput() {
+        if (m_driveType == DriveType.kArcade) {
+            double velocityInput = (m_controller.getTriggerAxis(Hand.kRight) - m_controller.getTriggerAxis(Hand.kLeft));
+            return adjustForDeadband(velocityInput) != 0 || adjustForDeadband(m_controller.getX(Hand.kLeft)) != 0;
+        }
+        else {
+            return adjustForDeadband(m_controller.getY(Hand.kLeft)) != 0 || adjustForDeadband(m_controller.getY(Hand.kRight)) != 0;
+        }
+    }
+
+    /**
+     * Gives the pilot a planner to drive to our shot pose with, which is made after us since it needs our drivetrain
+     * @param shotPathPlanner The planner to run on the A button
+     */
+    public void setShotPathPlanner(ShotPathPlanner shotPathPlanner) {
+        m_shotPathPlanner = shotPathPlanner;
+    }
+
+    /**
+     * @return The planner that drives to our shot pose, or null if we don't have one
+     */
+    public ShotPathPlanner getShotPathPlanner() {
+        return m_shotPathPlanner;
+    }
+
     /**
      * @return The drivetrain that the pilot controller controls
      */
@@ -0,0 +1,546 @@
+package frc.robot;
+
+import java.util.Arrays;
+
+import edu.wpi.first.networktables.NetworkTableEntry;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
+import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardTab;
+import frc.robot.LimelightReader.Frame;
+
+/**
+ * Estimates where we are on the field by fusing odometry with the limelight's range and bearing to the power port
+ * <p>This is an extended Kalman filter on our pose (x, y, heading) and its covariance.
+ * Every loop, the odometry's travel since the last loop moves our estimate and grows its covariance, since odometry drifts.
+ * Every new limelight frame with a target measures our range and bearing to the port, whose position on the field we know,
+ * and pulls our estimate toward what the camera saw by how much we trust each.
+ * <p>A camera frame is already old by the time we read it. We keep a short history of our estimate for each loop,
+ * so a frame is applied at the loop it was captured in, and the odometry travel since then is replayed on top of it.
+ * <p>Frames that disagree with our estimate by far more than our uncertainty allows, such as a light reflecting off the field,
+ * are rejected as outliers. Until we have a fix on our position, the first frame with a target sets it outright.
+ * If ESTIMATOR_REFIX_REJECTIONS frames in a row are rejected, it is our estimate that has diverged, so the next frame sets it outright too.
+ * <p>Our distance to the port keeps coming from odometry when the target drops out, with an uncertainty that grows as we drive,
+ * so shot selection can use it until the target is back, as long as that uncertainty stays small.
+ * <p>This runs in the main loop, and the history and matrices are preallocated so an update doesn't allocate
+ */
+public class PoseEstimator implements ShuffleboardEnabled {
+    //the size of our state, which is x, y, and heading
+    private static final int STATE_SIZE = 3;
+
+    private Odometry m_odometry;
+    private LimelightReader m_limelightReader;
+
+    //parallel ring buffers with the time, odometry pose, estimate, and covariance of each loop
+    //the covariance is a row-major 3 by 3 matrix for each loop
+    private final double[] m_times;
+    private final double[] m_odometryX;
+    private final double[] m_odometryY;
+    private final double[] m_odometryHeading;
+    private final double[] m_x;
+    private final double[] m_y;
+    private final double[] m_heading;
+    private final double[][] m_covariance;
+
+    //the index of our newest loop in the history, and the number of loops stored
+    private int m_newest = -1;
+    private int m_size = 0;
+
+    //whether we know where we are, from a reset or a limelight frame, rather than just where odometry has taken us
+    private boolean m_hasFix = false;
+
+    //the pose our history starts from after a reset
+    private double m_startX = 0;
+    private double m_startY = 0;
+    private double m_startHeading = 0;
+
+    //the network table change time of the last limelight frame we used, so we never use a frame twice
+    private long m_lastFrameChange = 0;
+
+    //the vision frames we used, rejected as outliers, and rejected for being older than our history
+    private int m_acceptedCount = 0;
+    private int m_rejectedCount = 0;
+    private int m_lateCount = 0;
+
+    //the outliers we have rejected in a row, and the number of times that made us take our position from vision again
+    private int m_consecutiveRejections = 0;
+    private int m_refixCount = 0;
+
+    //reused for reading odometry and publishing, and for the intermediate products of a correction
+    private final FieldPose m_odometryPose = new FieldPose();
+    private final FieldPose m_publishPose = new FieldPose();
+    private final double[] m_covarianceTimesRange = new double[STATE_SIZE];
+    private final double[] m_covarianceTimesBearing = new double[STATE_SIZE];
+    private final double[] m_propagated = new double[STATE_SIZE * STATE_SIZE];
+    private final double[] m_gainRange = new double[STATE_SIZE];
+    private final double[] m_gainBearing = new double[STATE_SIZE];
+
+    //counts loops so that we only publish every ODOMETRY_PUBLISH_PERIOD_CYCLES
+    private int m_publishCycles = 0;
+
+    /**Network table entries for publishing our estimate and how vision is being used */
+    private ShuffleboardTab m_estimatorTab;
+    private NetworkTableEntry m_xEntry;
+    private NetworkTableEntry m_yEntry;
+    private NetworkTableEntry m_headingEntry;
+    private NetworkTableEntry m_distanceEntry;
+    private NetworkTableEntry m_distanceStdEntry;
+    private NetworkTableEntry m_hasFixEntry;
+    private NetworkTableEntry m_acceptedEntry;
+    private NetworkTableEntry m_rejectedEntry;
+    private NetworkTableEntry m_lateEntry;
+    private NetworkTableEntry m_refixEntry;
+
+    /**
+     * Constructor for PoseEstimator objects
+     * <p>We start without a fix, so the first limelight frame with a target sets our position
+     * @param odometry The odometry whose travel moves our estimate between frames
+     * @param limelightReader The limelight reader whose frames we measure the port with
+     */
+    public PoseEstimator(Odometry odometry, LimelightReader limelightReader) {
+        m_odometry = odometry;
+        m_limelightReader = limelightReader;
+
+        int size = RobotMap.ESTIMATOR_HISTORY_SIZE;
+        m_times = new double[size];
+        m_odometryX = new double[size];
+        m_odometryY = new double[size];
+        m_odometryHeading = new double[size];
+        m_x = new double[size];
+        m_y = new double[size];
+        m_heading = new double[size];
+        m_covariance = new double[size][STATE_SIZE * STATE_SIZE];
+
+        shuffleboardConfig();
+    }
+
+    /**
+     * Sets where we are on the field, such as our starting spot in auton, and clears our history
+     * <p>Call this after resetting the odometry, so the next update measures travel from the odometry's new pose
+     * @param x The distance along the field in meters
+     * @param y The distance across the field in meters
+     * @param heading The heading in radians counterclockwise from the x axis
+     */
+    public void resetPose(double x, double y, double heading) {
+        m_startX = x;
+        m_startY = y;
+        m_startHeading = heading;
+        m_hasFix = true;
+        m_consecutiveRejections = 0;
+        m_size = 0;
+        m_newest = -1;
+    }
+
+    /**
+     * Moves our estimate by the odometry's travel since the last loop, then applies the limelight frame if it is new
+     * <p>To be run once a main loop, after LimelightReader.update()
+     */
+    public void update() {
+        m_odometry.getPose(m_odometryPose);
+        addOdometry(Timer.getFPGATimestamp(), m_odometryPose);
+
+        //use each limelight frame once, and only if it sees the target
+        Frame frame = m_limelightReader.getFrame();
+        if (frame.lastChange != m_lastFrameChange) {
+            m_lastFrameChange = frame.lastChange;
+            if (frame.hasTargets) {
+                double range = LimelightReader.getDistance(RobotMap.CAMERA_DEGREES_FROM_GROUND, frame.yDegrees) * RobotMap.METERS_PER_INCH;
+
+                //tx is positive to the right, and our bearing is counterclockwise
+                addVisionMeasurement(frame.getCaptureTimestamp(), range, -Math.toRadians(frame.xDegrees));
+            }
+        }
+
+        m_publishCycles++;
+        if (m_publishCycles >= RobotMap.ODOMETRY_PUBLISH_PERIOD_CYCLES) {
+            m_publishCycles = 0;
+            publish();
+        }
+    }
+
+    /**
+     * Records a loop in our history, and moves our estimate by the odometry's travel since the last one
+     * <p>This is split out of {@link #update()} so the estimator can be run on poses that didn't come from our odometry, such as in the tests
+     * @param now The FPGA time of the loop in seconds
+     * @param odometryPose The odometry's pose this loop, which isn't kept
+     */
+    void addOdometry(double now, FieldPose odometryPose) {
+        //record this loop in our history
+        int previous = m_newest;
+        m_newest = (m_newest + 1) % m_times.length;
+        m_times[m_newest] = now;
+        m_odometryX[m_newest] = odometryPose.getX();
+        m_odometryY[m_newest] = odometryPose.getY();
+        m_odometryHeading[m_newest] = odometryPose.getHeading();
+
+        if (m_size == 0) {
+            //the first loop after a reset starts from the reset pose, or from odometry if we have no fix
+            if (m_hasFix) {
+                m_x[m_newest] = m_startX;
+                m_y[m_newest] = m_startY;
+                m_heading[m_newest] = m_startHeading;
+            }
+            else {
+                m_x[m_newest] = odometryPose.getX();
+                m_y[m_newest] = odometryPose.getY();
+                m_heading[m_newest] = odometryPose.getHeading();
+            }
+            setStartCovariance(m_covariance[m_newest]);
+        }
+        else {
+            predict(previous, m_newest);
+        }
+        m_size = Math.min(m_size + 1, m_times.length);
+    }
+
+    /**
+     * Fills in the covariance we start from after a reset
+     * @param covariance The row-major covariance to fill in
+     */
+    private void setStartCovariance(double[] covariance) {
+        double positionVariance = RobotMap.ESTIMATOR_START_POSITION_STD_M * RobotMap.ESTIMATOR_START_POSITION_STD_M;
+        Arrays.fill(covariance, 0);
+        covariance[0] = positionVariance;
+        covariance[4] = positionVariance;
+        covariance[8] = RobotMap.ESTIMATOR_START_HEADING_STD_RAD * RobotMap.ESTIMATOR_START_HEADING_STD_RAD;
+    }
+
+    /**
+     * Moves the estimate of one loop to the next by the odometry's travel between them, and grows its covariance
+     * <p>The travel is taken relative to the odometry's heading and applied relative to our estimated heading,
+     * so a heading correction from vision turns the odometry's travel with it
+     * @param from The index of the earlier loop in our history
+     * @param to The index of the later loop, whose estimate and covariance are written
+     */
+    private void predict(int from, int to) {
+        //the odometry's travel, turned into the robot's frame at the start of the loop
+        double fieldDeltaX = m_odometryX[to] - m_odometryX[from];
+        double fieldDeltaY = m_odometryY[to] - m_odometryY[from];
+        double odometryCos = Math.cos(m_odometryHeading[from]);
+        double odometrySin = Math.sin(m_odometryHeading[from]);
+        double forward = (odometryCos * fieldDeltaX) + (odometrySin * fieldDeltaY);
+        double left = (-odometrySin * fieldDeltaX) + (odometryCos * fieldDeltaY);
+        double turn = Math.IEEEremainder(m_odometryHeading[to] - m_odometryHeading[from], 2 * Math.PI);
+
+        //the same travel, from our estimated heading
+        double cos = Math.cos(m_heading[from]);
+        double sin = Math.sin(m_heading[from]);
+        double moveX = (cos * forward) - (sin * left);
+        double moveY = (sin * forward) + (cos * left);
+        m_x[to] = m_x[from] + moveX;
+        m_y[to] = m_y[from] + moveY;
+        m_heading[to] = Math.IEEEremainder(m_heading[from] + turn, 2 * Math.PI);
+
+        //an error in our heading becomes an error in our position as we drive, which is the last column of the jacobian
+        //P' = F P F^T, where F is the identity with -moveY and moveX down the heading column
+        double[] covariance = m_covariance[from];
+        double[] next = m_covariance[to];
+        double headingToX = -moveY;
+        double headingToY = moveX;
+        for (int column = 0; column < STATE_SIZE; column++) {
+            m_propagated[column] = covariance[column] + (headingToX * covariance[6 + column]);
+            m_propagated[3 + column] = covariance[3 + column] + (headingToY * covariance[6 + column]);
+            m_propagated[6 + column] = covariance[6 + column];
+        }
+        for (int row = 0; row < STATE_SIZE; row++) {
+            double headingTerm = m_propagated[(row * 3) + 2];
+            next[row * 3] = m_propagated[row * 3] + (headingTerm * headingToX);
+            next[(row * 3) + 1] = m_propagated[(row * 3) + 1] + (headingTerm * headingToY);
+            next[(row * 3) + 2] = headingTerm;
+        }
+
+        //odometry drifts more the further we drive and turn
+        double positionNoise = RobotMap.ESTIMATOR_POSITION_VARIANCE_PER_M * Math.hypot(forward, left);
+        next[0] += positionNoise;
+        next[4] += positionNoise;
+        next[8] += RobotMap.ESTIMATOR_HEADING_VARIANCE_PER_RAD * Math.abs(turn);
+    }
+
+    /**
+     * Applies a range and bearing to the power port measured at a past time
+     * <p>The measurement is applied to our estimate at the loop it was captured in, then the odometry since is replayed on top
+     * @param captureTimestamp The FPGA time the measurement was captured at in seconds
+     * @param range The horizontal distance to the port in meters
+     * @param bearing The angle to the port from our heading in radians, counterclockwise
+     * @return Whether the measurement was used
+     */
+    public boolean addVisionMeasurement(double captureTimestamp, double range, double bearing) {
+        if (m_size == 0) {
+            return false;
+        }
+
+        //a bad ty can give a negative or huge range
+        if (!(range >= RobotMap.ESTIMATOR_MIN_RANGE_M && range <= RobotMap.ESTIMATOR_MAX_RANGE_M)) {
+            m_rejectedCount++;
+            return false;
+        }
+
+        //walk back to the newest loop at or before the capture
+        int index = m_newest;
+        int stepsBack = 0;
+        while (m_times[index] > captureTimestamp) {
+            stepsBack++;
+            if (stepsBack >= m_size) {
+                m_lateCount++;
+                return false;
+            }
+            index = (index - 1 + m_times.length) % m_times.length;
+        }
+
+        if (m_hasFix && !correct(index, range, bearing)) {
+            //one outlier is a bad frame, but vision disagreeing with us frame after frame means our estimate has diverged,
+            //which the gate would otherwise keep us from ever correcting, so drop our fix and take our position from this frame
+            m_consecutiveRejections++;
+            if (m_consecutiveRejections < RobotMap.ESTIMATOR_REFIX_REJECTIONS) {
+                m_rejectedCount++;
+                return false;
+            }
+            m_refixCount++;
+            m_hasFix = false;
+        }
+
+        if (!m_hasFix) {
+            //with no fix, the camera tells us where we are from where the port is, along our heading
+            double angle = m_heading[index] + bearing;
+            m_x[index] = RobotMap.FIELD_TARGET_X_M - (range * Math.cos(angle));
+            m_y[index] = RobotMap.FIELD_TARGET_Y_M - (range * Math.sin(angle));
+
+            double rangeStd = RobotMap.ESTIMATOR_RANGE_STD_FRACTION * range;
+            double bearingStd = RobotMap.ESTIMATOR_BEARING_STD_RAD * range;
+            double positionVariance = (rangeStd * rangeStd) + (bearingStd * bearingStd);
+            double[] covariance = m_covariance[index];
+            double headingVariance = covariance[8];
+            Arrays.fill(covariance, 0);
+            covariance[0] = positionVariance;
+            covariance[4] = positionVariance;
+            covariance[8] = headingVariance;
+            m_hasFix = true;
+        }
+        m_consecutiveRejections = 0;
+        m_acceptedCount++;
+
+        //replay the odometry from the capture up to now on top of the corrected estimate
+        while (index != m_newest) {
+            int next = (index + 1) % m_times.length;
+            predict(index, next);
+            index = next;
+        }
+        return true;
+    }
+
+    /**
+     * Corrects the estimate of one loop with a range and bearing to the power port, unless it is an outlier
+     * @param index The index of the loop in our history
+     * @param range The horizontal distance to the port in meters
+     * @param bearing The angle to the port from our heading in radians, counterclockwise
+     * @return Whether the measurement was close enough to our estimate to use
+     */
+    private boolean correct(int index, double range, double bearing) {
+        double[] covariance = m_covariance[index];
+        double deltaX = RobotMap.FIELD_TARGET_X_M - m_x[index];
+        double deltaY = RobotMap.FIELD_TARGET_Y_M - m_y[index];
+        double distanceSquared = (deltaX * deltaX) + (deltaY * deltaY);
+        double distance = Math.sqrt(distanceSquared);
+        if (distance < RobotMap.ESTIMATOR_MIN_RANGE_M) {
+            return false;
+        }
+
+        //the range and bearing we expect from our estimate, and the jacobian of each with respect to x, y, and heading
+        double expectedBearing = Math.atan2(deltaY, deltaX) - m_heading[index];
+        double rangeX = -deltaX / distance;
+        double rangeY = -deltaY / distance;
+        double bearingX = deltaY / distanceSquared;
+        double bearingY = -deltaX / distanceSquared;
+        double bearingHeading = -1;
+
+        //P H^T, one column for range and one for bearing
+        for (int row = 0; row < STATE_SIZE; row++) {
+            double covarianceX = covariance[row * 3];
+            double covarianceY = covariance[(row * 3) + 1];
+            double covarianceHeading = covariance[(row * 3) + 2];
+            m_covarianceTimesRange[row] = (covarianceX * rangeX) + (covarianceY * rangeY);
+            m_covarianceTimesBearing[row] = (covarianceX * bearingX) + (covarianceY * bearingY) + (covarianceHeading * bearingHeading);
+        }
+
+        //the innovation covariance S = H P H^T + R
+        double rangeStd = RobotMap.ESTIMATOR_RANGE_STD_FRACTION * range;
+        double s00 = (rangeX * m_covarianceTimesRange[0]) + (rangeY * m_covarianceTimesRange[1]) + (rangeStd * rangeStd);
+        double s01 = (rangeX * m_covarianceTimesBearing[0]) + (rangeY * m_covarianceTimesBearing[1]);
+        double s11 = (bearingX * m_covarianceTimesBearing[0]) + (bearingY * m_covarianceTimesBearing[1])
+                     + (bearingHeading * m_covarianceTimesBearing[2])
+                     + (RobotMap.ESTIMATOR_BEARING_STD_RAD * RobotMap.ESTIMATOR_BEARING_STD_RAD);
+        double determinant = (s00 * s11) - (s01 * s01);
+        if (determinant <= 0) {
+            return false;
+        }
+        double inverse00 = s11 / determinant;
+        double inverse01 = -s01 / determinant;
+        double inverse11 = s00 / determinant;
+
+        //how far the measurement is from what we expected, in standard deviations squared
+        double rangeError = range - distance;
+        double bearingError = Math.IEEEremainder(bearing - expectedBearing, 2 * Math.PI);
+        double mahalanobis = (rangeError * ((inverse00 * rangeError) + (inverse01 * bearingError)))
+                             + (bearingError * ((inverse01 * rangeError) + (inverse11 * bearingError)));
+        if (mahalanobis > RobotMap.ESTIMATOR_OUTLIER_GATE) {
+            return false;
+        }
+
+        //the gain K = P H^T S^-1, applied to our estimate, and P' = P - K H P
+        for (int row = 0; row < STATE_SIZE; row++) {
+            m_gainRange[row] = (m_covarianceTimesRange[row] * inverse00) + (m_covarianceTimesBearing[row] * inverse01);
+            m_gainBearing[row] = (m_covarianceTimesRange[row] * inverse01) + (m_covarianceTimesBearing[row] * inverse11);
+        }
+        m_x[index] += (m_gainRange[0] * rangeError) + (m_gainBearing[0] * bearingError);
+        m_y[index] += (m_gainRange[1] * rangeError) + (m_gainBearing[1] * bearingError);
+        m_heading[index] = Math.IEEEremainder(m_heading[index] + (m_gainRange[2] * rangeError) + (m_gainBearing[2] * bearingError), 2 * Math.PI);
+
+        for (int row = 0; row < STATE_SIZE; row++) {
+            for (int column = 0; column < STATE_SIZE; column++) {
+                covariance[(row * 3) + column] -= (m_gainRange[row] * m_covarianceTimesRange[column])
+                                                  + (m_gainBearing[row] * m_covarianceTimesBearing[column]);
+            }
+        }
+
+        //keep the covariance symmetric against rounding
+        for (int row = 0; row < STATE_SIZE; row++) {
+            for (int column = row + 1; column < STATE_SIZE; column++) {
+                double average = (covariance[(row * 3) + column] + covariance[(column * 3) + row]) / 2;
+                covariance[(row * 3) + column] = average;
+                covariance[(column * 3) + row] = average;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Copies our current estimate
+     * @param pose The pose to fill in, so reading our estimate doesn't allocate
+     */
+    public void getPose(FieldPose pose) {
+        if (m_size == 0) {
+            pose.set(m_startX, m_startY, m_startHeading);
+            return;
+        }
+        pose.set(m_x[m_newest], m_y[m_newest], m_heading[m_newest]);
+    }
+
+    /**
+     * Returns one entry of the covariance of our current estimate, where the state is (x, y, heading)
+     * @param row The row, 0 for x, 1 for y, or 2 for heading
+     * @param column The column, 0 for x, 1 for y, or 2 for heading
+     * @return The covariance in meters and radians squared, or zero before the first update
+     */
+    public double getCovariance(int row, int column) {
+        if (m_size == 0) {
+            return 0;
+        }
+        return m_covariance[m_newest][(row * 3) + column];
+    }
+
+    /**
+     * @return Whether we know where we are from a reset or the limelight, rather than only where odometry has taken us
+     */
+    public boolean hasFix() {
+        return m_hasFix;
+    }
+
+    /**
+     * @return Our estimated horizontal distance to the power port in inches
+     */
+    public double getDistanceToTarget() {
+        if (m_size == 0) {
+            return Math.hypot(RobotMap.FIELD_TARGET_X_M - m_startX, RobotMap.FIELD_TARGET_Y_M - m_startY) / RobotMap.METERS_PER_INCH;
+        }
+        return Math.hypot(RobotMap.FIELD_TARGET_X_M - m_x[m_newest], RobotMap.FIELD_TARGET_Y_M - m_y[m_newest]) / RobotMap.METERS_PER_INCH;
+    }
+
+    /**
+     * @return The standard deviation of our distance to the power port in inches, from our position's covariance
+     */
+    public double getDistanceStd() {
+        if (m_size == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        //the distance changes with x and y along the direction to the port
+        double deltaX = RobotMap.FIELD_TARGET_X_M - m_x[m_newest];
+        double deltaY = RobotMap.FIELD_TARGET_Y_M - m_y[m_newest];
+        double distance = Math.hypot(deltaX, deltaY);
+        if (distance == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double directionX = deltaX / distance;
+        double directionY = deltaY / distance;
+        double[] covariance = m_covariance[m_newest];
+        double variance = (directionX * directionX * covariance[0]) + (2 * directionX * directionY * covariance[1])
+                          + (directionY * directionY * covariance[4]);
+        return Math.sqrt(Math.max(0, variance)) / RobotMap.METERS_PER_INCH;
+    }
+
+    /**
+     * @return Whether our distance to the power port is certain enough to pick a shot from
+     */
+    public boolean hasConfidentDistance() {
+        return m_hasFix && getDistanceStd() < RobotMap.ESTIMATOR_MAX_SHOT_DISTANCE_STD_IN;
+    }
+
+    /**
+     * @return The number of limelight frames that corrected our estimate
+     */
+    public int getAcceptedCount() {
+        return m_acceptedCount;
+    }
+
+    /**
+     * @return The number of limelight frames rejected as outliers or for an impossible range
+     */
+    public int getRejectedCount() {
+        return m_rejectedCount;
+    }
+
+    /**
+     * @return The number of times vision rejected our estimate for long enough that we took our position from it again
+     */
+    public int getRefixCount() {
+        return m_refixCount;
+    }
+
+    /**
+     * @return The number of limelight frames captured before the start of our history
+     */
+    public int getLateCount() {
+        return m_lateCount;
+    }
+
+    /**
+     * Pushes our estimate and how vision is being used to the shuffleboard
+     */
+    public void publish() {
+        getPose(m_publishPose);
+        m_xEntry.setDouble(m_publishPose.getX());
+        m_yEntry.setDouble(m_publishPose.getY());
+        m_headingEntry.setDouble(Math.toDegrees(m_publishPose.getHeading()));
+        m_distanceEntry.setDouble(getDistanceToTarget());
+        m_distanceStdEntry.setDouble(getDistanceStd());
+        m_hasFixEntry.setBoolean(m_hasFix);
+        m_acceptedEntry.setDouble(m_acceptedCount);
+        m_rejectedEntry.setDouble(m_rejectedCount);
+        m_lateEntry.setDouble(m_lateCount);
+        m_refixEntry.setDouble(m_refixCount);
+    }
+
+    @Override
+    public void shuffleboardConfig() {
+        m_estimatorTab = Shuffleboard.getTab("Odometry");
+        m_xEntry = m_estimatorTab.add("Estimated X (m)", 0.0).getEntry();
+        m_yEntry = m_estimatorTab.add("Estimated Y (m)", 0.0).getEntry();
+        m_headingEntry = m_estimatorTab.add("Estimated Heading (deg)", 0.0).getEntry();
+        m_distanceEntry = m_estimatorTab.add("Target Distance (in)", 0.0).getEntry();
+        m_distanceStdEntry = m_estimatorTab.add("Target Distance Std (in)", 0.0).getEntry();
+        m_hasFixEntry = m_estimatorTab.add("Has Fix", false).getEntry();
+        m_acceptedEntry = m_estimatorTab.add("Vision Accepted", 0.0).getEntry();
+        m_rejectedEntry = m_estimatorTab.add("Vision Rejected", 0.0).getEntry();
+        m_lateEntry = m_estimatorTab.add("Vision Late", 0.0).getEntry();
+        m_refixEntry = m_estimatorTab.add("Vision Refixes", 0.0).getEntry();
+    }
+}
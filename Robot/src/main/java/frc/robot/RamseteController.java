@@ -0,0 +1,113 @@
+package frc.robot;
+
+/**
+ * A nonlinear controller that keeps a differential drive on a trajectory
+ * <p>Given where we are and where the trajectory says we should be, this adjusts the trajectory's velocity and turn rate
+ * to steer back onto it. The error is taken in the robot's frame, so being behind speeds us up,
+ * being off to one side turns us toward the path, and pointing the wrong way turns us back.
+ * <p>The gains are b, which is like a proportional gain, and zeta, which is like a damping ratio.
+ * The outputs are kept in fields rather than returned as an object, so running the controller never allocates
+ */
+public class RamseteController {
+    private final double m_b;
+    private final double m_zeta;
+
+    //the velocity in meters per second and turn rate in radians per second from the last calculate()
+    private double m_velocity = 0;
+    private double m_angularVelocity = 0;
+
+    //the error from the last calculate(), in the robot's frame
+    private double m_forwardError = 0;
+    private double m_sideError = 0;
+    private double m_headingError = 0;
+
+    /**
+     * Constructor for RamseteController objects with our gains from RobotMap
+     */
+    public RamseteController() {
+        this(RobotMap.RAMSETE_B, RobotMap.RAMSETE_ZETA);
+    }
+
+    /**
+     * Constructor for RamseteController objects
+     * @param b How hard to correct, greater than zero
+     * @param zeta How much to damp the correction, from 0 to 1
+     */
+    public RamseteController(double b, double zeta) {
+        m_b = b;
+        m_zeta = zeta;
+    }
+
+    /**
+     * Works out the velocity and turn rate that steer us onto the trajectory, which are read with the getters
+     * @param pose Where we are
+     * @param reference Where the trajectory says we should be
+     */
+    public void calculate(FieldPose pose, TrajectoryPoint reference) {
+        //the error, turned into the robot's frame
+        double cos = Math.cos(pose.getHeading());
+        double sin = Math.sin(pose.getHeading());
+        double fieldErrorX = reference.x - pose.getX();
+        double fieldErrorY = reference.y - pose.getY();
+        m_forwardError = (cos * fieldErrorX) + (sin * fieldErrorY);
+        m_sideError = (-sin * fieldErrorX) + (cos * fieldErrorY);
+        m_headingError = Math.IEEEremainder(reference.heading - pose.getHeading(), 2 * Math.PI);
+
+        double referenceVelocity = reference.velocity;
+        double referenceAngularVelocity = reference.getAngularVelocity();
+
+        //the gain grows with speed, since we can correct faster the faster we are moving
+        double gain = 2 * m_zeta * Math.sqrt((referenceAngularVelocity * referenceAngularVelocity)
+                                             + (m_b * referenceVelocity * referenceVelocity));
+
+        m_velocity = (referenceVelocity * Math.cos(m_headingError)) + (gain * m_forwardError);
+        m_angularVelocity = referenceAngularVelocity + (gain * m_headingError)
+                            + (m_b * referenceVelocity * sinc(m_headingError) * m_sideError);
+    }
+
+    /**
+     * @param value An angle in radians
+     * @return sin(value) / value, which is 1 at zero
+     */
+    private static double sinc(double value) {
+        if (Math.abs(value) < 1e-9) {
+            return 1.0 - (value * value / 6.0);
+        }
+        return Math.sin(value) / value;
+    }
+
+    /**
+     * @return The velocity from the last calculate() in meters per second
+     */
+    public double getVelocity() {
+        return m_velocity;
+    }
+
+    /**
+     * @return The turn rate from the last calculate() in radians per second, counterclockwise
+     */
+    public double getAngularVelocity() {
+        return m_angularVelocity;
+    }
+
+    /**
+     * @return How far ahead of us the trajectory was at the last calculate() in meters
+     */
+    public double getForwardError() {
+        return m_forwardError;
+    }
+
+    /**
+     * @return How far to our left the trajectory was at the last calculate() in meters
+     */
+    public double getSideError() {
+        return m_sideError;
+    }
+
+    /**
+     * @return How far counterclockwise the trajectory's heading was from ours at the last calculate() in radians
+     */
+    public double getHeadingError() {
+        return m_headingError;
+    }
+}
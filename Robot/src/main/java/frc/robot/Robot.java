@@ -7,6 +7,7 @@
 
 package frc.robot;
 
+import java.util.ArrayList;
 import java.util.Map;
 
 import com.ctre.phoenix.motorcontrol.NeutralMode;
@@ -17,6 +18,10 @@ import edu.wpi.first.wpilibj.shuffleboard.BuiltInWidgets;
 import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
 import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardTab;
 import frc.robot.LimelightReader.Pipeline;
+import frc.robot.LoopProfiler.Section;
+import frc.robot.MotorConfigurator.DeviceConfig;
+import frc.robot.StatusFrameManager.DeviceRole;
+import frc.robot.StatusFrameManager.RobotMode;
 import frc.robot.PilotController.DriveType;
 
 
@@ -41,6 +46,33 @@ public class Robot extends TimedRobot {
     /** The auton class that runs our auton */
     private Auton m_auton;
 
+    /** Tracks where we are on the field from the drive encoders and gyro */
+    private Odometry m_odometry;
+
+    /** Fuses our odometry with the limelight into our pose and distance to the target */
+    private PoseEstimator m_poseEstimator;
+
+    /** Drives the pilot to our shot pose along a path made on a background thread */
+    private ShotPathPlanner m_shotPathPlanner;
+
+    /** Times each periodic call so we can find what is overrunning our loop */
+    private LoopProfiler m_profiler;
+
+    //matches GC pauses against our loops, so we can tell JVM jitter from our own
+    private GcMonitor m_gcMonitor;
+
+    /** Sets the status frame periods of every motor controller for each mode */
+    private StatusFrameManager m_statusFrameManager;
+
+    /** Configures every motor controller in parallel, and reconfigures any that reset */
+    private MotorConfigurator m_motorConfigurator;
+
+    /** Records the robot's state every loop so we can look back at a match */
+    private TelemetryLogger m_telemetryLogger;
+
+    //counts loops so we only check the motor controllers for resets every RESET_CHECK_PERIOD_CYCLES
+    private int m_resetCheckCycles = 0;
+
     //toggle for the limelight
     //control for toggling the limelight should be moved to either limelight reader or pilot controller
     boolean m_isDriverCamera;
@@ -60,16 +92,45 @@ public class Robot extends TimedRobot {
 
         m_limelightReader = new LimelightReader();
 
+        //read the limelight once per loop so every getter in a cycle sees the same frame
+        m_limelightReader.setSnapshotMode(true);
+
         //intantiates our PilotController, which controls all systems on the drivetrain
         m_pilotController = new PilotController(DriveType.kArcade, m_limelightReader);
     
         //sets our default state to the vision pipeline
         m_isDriverCamera = false;
 
-        m_copilotController = new CopilotController(m_limelightReader, m_pilotController.getTargeting(), m_pilotController.getDrivetrain());
+        //tracks our position on the field, which starts updating in robotInit
+        m_odometry = new Odometry(m_pilotController.getDrivetrain());
+
+        //corrects our odometry with the limelight, and gives the copilot our distance to the target
+        m_poseEstimator = new PoseEstimator(m_odometry, m_limelightReader);
+
+        //lets the pilot drive to our shot pose, which needs our pose so it is made after the pilot controller
+        m_shotPathPlanner = new ShotPathPlanner(m_pilotController.getDrivetrain(), m_poseEstimator);
+        m_pilotController.setShotPathPlanner(m_shotPathPlanner);
+
+        m_copilotController = new CopilotController(m_limelightReader, m_pilotController.getTargeting(), m_pilotController.getDrivetrain(), m_poseEstimator);
 
         m_auton = new Auton(m_pilotController.getTargeting(), m_copilotController.getMagazine(), 
-                            m_copilotController.getLauncher(), m_pilotController.getDrivetrain());
+                            m_copilotController.getLauncher(), m_pilotController.getDrivetrain(), m_poseEstimator);
+
+        //instantiates our loop profiler, which is off unless enabled from the shuffleboard
+        m_profiler = new LoopProfiler(RobotMap.PROFILER_ENABLED_BY_DEFAULT);
+
+        //subscribes to garbage collection notifications, which is always on since it costs almost nothing per loop
+        m_gcMonitor = new GcMonitor();
+
+        //configures every motor controller at the same time
+        configMotorControllers();
+
+        //registers every motor controller and applies the disabled status frame profile until we enable
+        configStatusFrames();
+
+        //opens our telemetry log, which records every loop from here on
+        m_telemetryLogger = new TelemetryLogger(m_pilotController.getDrivetrain(), m_copilotController, m_limelightReader,
+                                                m_pilotController.getTargeting(), m_auton, m_profiler, m_gcMonitor);
 
         //sets up our camera testing tab
         shuffleboardConfig();
@@ -81,29 +142,98 @@ public class Robot extends TimedRobot {
      */
     @Override
     public void robotInit() {
+        //odometry runs through every mode, so a robot pushed while disabled is still tracked
+        m_odometry.start();
+    }
+
+    @Override
+    public void robotPeriodic() {
+        long loopStart = m_profiler.start(Section.kRobotPeriodic);
+
+        //a motor controller that browns out comes back with factory settings, so check for resets every so often
+        m_resetCheckCycles++;
+        if (m_resetCheckCycles >= RobotMap.RESET_CHECK_PERIOD_CYCLES) {
+            m_resetCheckCycles = 0;
+            if (m_motorConfigurator.checkForResets()) {
+                //a reset controller also loses its status frame periods, so send the current profile again
+                RobotMode currentMode = m_statusFrameManager.getCurrentMode();
+                m_statusFrameManager.invalidate();
+                if (currentMode != null) {
+                    m_statusFrameManager.applyProfile(currentMode, RobotMap.STATUS_FRAME_MODE_SWITCH_TIMEOUT_MS);
+                }
+            }
+        }
+
+        m_odometry.periodicPublish();
+
+        //robot periodic runs after the mode's periodic, so this records the state every subsystem was left in this loop
+        m_gcMonitor.endLoop();
+        m_telemetryLogger.log(m_statusFrameManager.getCurrentMode());
+
+        m_profiler.stop(Section.kRobotPeriodic, loopStart);
     }
 
     @Override
     public void autonomousInit() {
+        m_statusFrameManager.applyProfile(RobotMode.kAuton, RobotMap.STATUS_FRAME_MODE_SWITCH_TIMEOUT_MS);
+        m_profiler.reset();
+        //a match starts with auton, so the JVM summary covers one match
+        m_gcMonitor.reset();
         m_auton.init();
+        //auton starts from a known spot, and zeroing the encoders above doesn't move our pose
+        m_odometry.resetPose(RobotMap.ODOMETRY_START_X_M, RobotMap.ODOMETRY_START_Y_M, RobotMap.ODOMETRY_START_HEADING_RAD);
+        m_poseEstimator.resetPose(RobotMap.ODOMETRY_START_X_M, RobotMap.ODOMETRY_START_Y_M, RobotMap.ODOMETRY_START_HEADING_RAD);
         //force limelight into targeting mode pre-auton
         m_limelightReader.setPipeline(Pipeline.kStandard);
     }
     
     @Override
     public void autonomousPeriodic() {
+        m_gcMonitor.startLoop();
+        long loopStart = m_profiler.start(Section.kAutonomousPeriodic);
+
+        long sectionStart = m_profiler.start(Section.kVisionUpdate);
+        m_limelightReader.update();
+        m_pilotController.getTargeting().recordHeading();
+        m_poseEstimator.update();
+        m_profiler.stop(Section.kVisionUpdate, sectionStart);
+
+        sectionStart = m_profiler.start(Section.kAutonLogic);
         m_auton.periodic();
+        m_profiler.stop(Section.kAutonLogic, sectionStart);
+
+        m_profiler.stop(Section.kAutonomousPeriodic, loopStart);
+        m_profiler.endCycle();
     }
 
     @Override
     public void teleopInit() {
+        m_statusFrameManager.applyProfile(RobotMode.kTeleop, RobotMap.STATUS_FRAME_MODE_SWITCH_TIMEOUT_MS);
+        m_profiler.reset();
         m_pilotController.getDrivetrain().setNeutralMode(NeutralMode.Brake);
     }
         
     @Override
     public void teleopPeriodic() {
+        m_gcMonitor.startLoop();
+        long loopStart = m_profiler.start(Section.kTeleopPeriodic);
+
+        long sectionStart = m_profiler.start(Section.kVisionUpdate);
+        m_limelightReader.update();
+        m_pilotController.getTargeting().recordHeading();
+        m_poseEstimator.update();
+        m_profiler.stop(Section.kVisionUpdate, sectionStart);
+
+        sectionStart = m_profiler.start(Section.kPilotControl);
         m_pilotController.controlDriveTrainPeriodic();
+        m_profiler.stop(Section.kPilotControl, sectionStart);
+
+        sectionStart = m_profiler.start(Section.kCopilotControl);
         m_copilotController.periodicCopilotControl();
+        m_profiler.stop(Section.kCopilotControl, sectionStart);
+
+        m_profiler.stop(Section.kTeleopPeriodic, loopStart);
+        m_profiler.endCycle();
     }
 
     @Override
@@ -135,18 +265,88 @@ public class Robot extends TimedRobot {
 
     @Override
     public void disabledInit() {
+        m_statusFrameManager.applyProfile(RobotMode.kDisabled, RobotMap.STATUS_FRAME_MODE_SWITCH_TIMEOUT_MS);
+        m_pilotController.getTargeting().stopTargeting();
+        //a path we were driving in teleop would pick up from the wrong time when we enable again
+        m_shotPathPlanner.cancel();
         m_pilotController.getTargeting().getPID_Values();
         m_pilotController.getDrivetrain().setNeutralMode(NeutralMode.Coast);
+
+        //we just left a match or a test, so make sure its telemetry is on disk
+        m_telemetryLogger.flush();
+
+        //and report how much of its loop jitter came from the JVM
+        m_gcMonitor.printSummary();
     }
 
     @Override
     public void disabledPeriodic() {
+        m_gcMonitor.startLoop();
+        long loopStart = m_profiler.start(Section.kDisabledPeriodic);
+
         //this method pulls our input scalars off of the driver tab on shuffleboard
         //and sets them on our drivetrain class. Our driver input is multiplied by our scalar values
         //in order to scale back drivetrain speed.
         m_pilotController.setInputScalar();
         m_pilotController.getTargeting().setPID();
+        //and our targeting mode, which only changes while disabled so we never switch mid match
+        m_pilotController.getTargeting().setTargetingModeFromShuffleboard();
         m_pilotController.getDrivetrain().setNeutralMode(NeutralMode.Coast);
+
+        //keep our estimate following odometry, so a robot pushed while disabled is still tracked
+        //the limelight isn't read while disabled, so this only predicts
+        m_poseEstimator.update();
+
+        //pulls whether we want loop profiling for the next enable off of the shuffleboard
+        m_profiler.setEnabledFromShuffleboard();
+
+        m_profiler.stop(Section.kDisabledPeriodic, loopStart);
+        m_profiler.endCycle();
+    }
+
+    /**
+     * Collects the config for every CTRE motor controller on the robot and runs them all in parallel
+     * <p>This should be run once in the constructor after every subsystem is instantiated
+     */
+    private void configMotorControllers() {
+        m_motorConfigurator = new MotorConfigurator();
+
+        ArrayList<DeviceConfig> configs = new ArrayList<DeviceConfig>();
+        configs.addAll(m_pilotController.getDrivetrain().getMotorConfigs());
+        configs.addAll(m_copilotController.getLauncher().getMotorConfigs());
+        configs.addAll(m_copilotController.getClimber().getMotorConfigs());
+        configs.addAll(m_copilotController.getMagazine().getMotorConfigs());
+
+        m_motorConfigurator.configureAll(configs);
+    }
+
+    /**
+     * Registers every CTRE motor controller on the robot with the status frame manager,
+     * then applies the disabled profile
+     * <p>This should be run once in the constructor after every subsystem is instantiated
+     */
+    private void configStatusFrames() {
+        m_statusFrameManager = new StatusFrameManager();
+
+        Drivetrain drivetrain = m_pilotController.getDrivetrain();
+        m_statusFrameManager.register(drivetrain.getMasterLeftMotor(), DeviceRole.kDriveMaster);
+        m_statusFrameManager.register(drivetrain.getMasterRightMotor(), DeviceRole.kDriveMaster);
+        m_statusFrameManager.register(drivetrain.getSlaveLeftMotor(), DeviceRole.kDriveSlave);
+        m_statusFrameManager.register(drivetrain.getSlaveRightMotor(), DeviceRole.kDriveSlave);
+
+        Launcher launcher = m_copilotController.getLauncher();
+        m_statusFrameManager.register(launcher.getMasterMotor(), DeviceRole.kLauncherMaster);
+        m_statusFrameManager.register(launcher.getCloseSlaveMotor(), DeviceRole.kLauncherSlave);
+        m_statusFrameManager.register(launcher.getFarSlaveMotor1(), DeviceRole.kLauncherSlave);
+        m_statusFrameManager.register(launcher.getFarSlaveMotor2(), DeviceRole.kLauncherSlave);
+
+        m_statusFrameManager.register(m_copilotController.getClimber().getExtensionMotor(), DeviceRole.kClimber);
+        m_statusFrameManager.register(m_copilotController.getMagazine().getMotor(), DeviceRole.kMagazine);
+
+        m_statusFrameManager.verifyRegistration();
+
+        //we're not in the match yet, so we can afford to wait on each config call
+        m_statusFrameManager.applyProfile(RobotMode.kDisabled, RobotMap.TIMEOUT_MS);
     }
 
     /**
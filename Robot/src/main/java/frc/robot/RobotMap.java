@@ -2,6 +2,9 @@ package frc.robot;
 
 import com.ctre.phoenix.motorcontrol.VelocityMeasPeriod;
 
+import frc.robot.Drivetrain.Gear;
+import frc.robot.LimelightTargeting.TargetingMode;
+
 /**
  * A collection of constants for our robot
  * @version 1/25/2019
@@ -107,8 +110,18 @@ public class RobotMap {
     //the time it takes the drive train to ramp to full speed in open loop control in seconds
     public static final double DRIVE_RAMP_TIME = 1.0;
 
+    /**The diameter of the drive wheels in inches */
+    public static final double DRIVE_WHEEL_DIAMETER_INCHES = 6.25;
+
     //TODO:Does not account for gearing
-    public static final double DRIVE_TICS_PER_INCH = (2048 / (6.25*Math.PI));
+    public static final double DRIVE_TICS_PER_INCH = (2048 / (DRIVE_WHEEL_DIAMETER_INCHES*Math.PI));
+
+    /**The integrated sensor counts for each rotation of a drive motor */
+    public static final double DRIVE_TICS_PER_MOTOR_ROTATION = 2048;
+
+    //the reduction from the motors to the wheels in each gear----TODO: Confirm these against the gearbox
+    public static final double DRIVE_LOW_GEAR_REDUCTION = 15.0;
+    public static final double DRIVE_HIGH_GEAR_REDUCTION = 7.0;
 
     //the total number of encoder ticks in a rotate----TODO: Check to see if this is the correct number
     public static final double STARTING_TICK_VALUE = 1440;
@@ -125,6 +138,176 @@ public class RobotMap {
     public static final int RIGHT_SOLENOID_FORWARD_PORT = 2;
     public static final int RIGHT_SOLENOID_REVERSE_PORT = 1;
 
+    //****************************************
+    //*                                      *
+    //*          ODOMETRY CONSTANTS          *
+    //*                                      *
+    //****************************************
+    /**
+     * The period of the odometry notifier in seconds. This matches the drive masters' fast feedback frame,
+     * since updating faster than the encoders are sent would only read the same positions again
+     */
+    public static final double ODOMETRY_PERIOD_S = RobotMap.STATUS_FRAME_FAST_MS / 1000.0;
+
+    /**The meters in an inch, since our odometry is in meters */
+    public static final double METERS_PER_INCH = 0.0254;
+
+    /**The free speed of a falcon in motor rotations per second, which no drive motor can beat between two odometry updates */
+    public static final double DRIVE_MOTOR_FREE_SPEED_RPS = 6380.0 / 60.0;
+
+    /**
+     * How many times the free speed an encoder change can be before we treat it as the encoder being zeroed rather than travel.
+     * This leaves room for an odometry update that runs late
+     */
+    public static final double ODOMETRY_SENSOR_RESET_MARGIN = 2.0;
+
+    /**
+     * The gear we assume before the drivetrain first shifts, since the pistons haven't been set yet
+     * TODO: Confirm which gear the gearbox rests in with no air
+     */
+    public static final Gear ODOMETRY_UNKNOWN_GEAR = Gear.kLowGear;
+
+    /**The number of loops between each push of our pose to the shuffleboard (5 loops is ten times a second) */
+    public static final int ODOMETRY_PUBLISH_PERIOD_CYCLES = 5;
+
+    /**The pose our odometry starts auton from, in meters and radians counterclockwise. TODO: Measure our starting spot on the field */
+    public static final double ODOMETRY_START_X_M = 0;
+    public static final double ODOMETRY_START_Y_M = 0;
+    public static final double ODOMETRY_START_HEADING_RAD = 0;
+
+    //****************************************
+    //*                                      *
+    //*       POSE ESTIMATOR CONSTANTS       *
+    //*                                      *
+    //****************************************
+    /**
+     * Where the power port is on the field, in the same frame as our odometry starting pose, in meters.
+     * We start auton on the initiation line facing the port, which is 120 inches from the port's wall
+     * TODO: Measure this from our starting spot
+     */
+    public static final double FIELD_TARGET_X_M = 120 * METERS_PER_INCH;
+    public static final double FIELD_TARGET_Y_M = 0;
+
+    /**The standard deviation of our starting pose in auton, in meters and radians */
+    public static final double ESTIMATOR_START_POSITION_STD_M = 0.1;
+    public static final double ESTIMATOR_START_HEADING_STD_RAD = Math.toRadians(2);
+
+    /**How much odometry's position and heading variance grows for each meter we drive and each radian we turn */
+    public static final double ESTIMATOR_POSITION_VARIANCE_PER_M = 0.02 * 0.02;
+    public static final double ESTIMATOR_HEADING_VARIANCE_PER_RAD = Math.toRadians(1) * Math.toRadians(1);
+
+    /**
+     * The standard deviation of a limelight range as a fraction of the range, and of a limelight bearing in radians.
+     * Range comes from ty, whose error grows with distance as the target gets shallower
+     */
+    public static final double ESTIMATOR_RANGE_STD_FRACTION = 0.05;
+    public static final double ESTIMATOR_BEARING_STD_RAD = Math.toRadians(1.5);
+
+    /**
+     * Vision measurements further than this from our estimate, in squared standard deviations, are rejected as outliers.
+     * 9.21 keeps 99% of good measurements for our two values of range and bearing
+     */
+    public static final double ESTIMATOR_OUTLIER_GATE = 9.21;
+
+    /**
+     * After this many limelight frames in a row are rejected as outliers, we decide our estimate is what is wrong, such as
+     * after starting somewhere other than our reset pose, and take our position from the next frame. About half a second of frames
+     */
+    public static final int ESTIMATOR_REFIX_REJECTIONS = 15;
+
+    /**Limelight ranges outside of this in meters are rejected, since they come from a bad ty rather than a real target */
+    public static final double ESTIMATOR_MIN_RANGE_M = 0.5;
+    public static final double ESTIMATOR_MAX_RANGE_M = 15;
+
+    /**
+     * The number of main loops of pose history we keep, so a late vision frame applies at its capture time.
+     * 25 loops is half a second, which is far longer than the limelight's latency
+     */
+    public static final int ESTIMATOR_HISTORY_SIZE = 25;
+
+    /**We trust our estimated distance for shot selection while its standard deviation is under this in inches */
+    public static final double ESTIMATOR_MAX_SHOT_DISTANCE_STD_IN = 6;
+
+    //****************************************
+    //*                                      *
+    //*      PATH FOLLOWING CONSTANTS        *
+    //*                                      *
+    //****************************************
+    /**The fastest our paths drive in meters per second, which leaves headroom under the low gear free speed of about 3.5 */
+    public static final double PATH_MAX_VELOCITY_MPS = 2.0;
+
+    /**The fastest our paths speed up or slow down in meters per second squared */
+    public static final double PATH_MAX_ACCELERATION_MPSS = 1.5;
+
+    /**The most sideways acceleration our paths turn with in meters per second squared, which slows us down through tight turns */
+    public static final double PATH_MAX_CENTRIPETAL_MPSS = 1.5;
+
+    /**How long the tangent at each waypoint is, as a fraction of the distance to the next waypoint. Longer tangents give wider turns */
+    public static final double PATH_TANGENT_SCALE = 1.2;
+
+    /**The number of points each spline between two waypoints is sampled at */
+    public static final int PATH_SAMPLES_PER_SEGMENT = 100;
+
+    /**
+     * The ramsete controller's gains. B is like a proportional gain, with larger values correcting harder,
+     * and zeta is like a damping ratio, from 0 to 1. These are the usual starting values for meters and radians
+     */
+    public static final double RAMSETE_B = 2.0;
+    public static final double RAMSETE_ZETA = 0.7;
+
+    /**
+     * The drive characterization the path follower's feedforward comes from, fit from SIM_CHARACTERIZATION_FILE.
+     * The robot uses these directly, and the simulator fits the data file again when it can find it.
+     * These are in volts per motor rotation per second (squared), and the track width is in motor rotations per radian
+     * TODO: Characterize the competition robot
+     */
+    public static final double DRIVE_KS = 0.2532;
+    public static final double DRIVE_KV = 0.1115;
+    public static final double DRIVE_KA = 0.0186;
+    public static final double DRIVE_TRACK_WIDTH_ROTATIONS = 10.931;
+
+    /**
+     * The gear the characterization data was taken in. The characterization project doesn't shift,
+     * but its track width of about 11 motor rotations per radian only makes sense with the high gear reduction
+     */
+    public static final Gear DRIVE_CHARACTERIZED_GEAR = Gear.kHighGear;
+
+    /**
+     * Whether auton follows a path to back up, rather than backing up open loop to an encoder count.
+     * This is off until the gear reductions, GAINS_VELOCITY, and the drive characterization above are measured on the robot,
+     * since the path's meters are only turned into the right number of ticks once they are
+     */
+    public static final boolean AUTON_FOLLOW_PATH = false;
+
+    /**How far the back up path drives backwards in meters, which is about AUTON_REVERSE_TARGET in low gear */
+    public static final double AUTON_BACK_UP_DISTANCE_M = 0.5;
+
+    //the file in the deploy directory with our auton paths, which the generateTrajectories gradle task writes before every deploy
+    //the name is repeated in build.gradle, so change both together. See TrajectoryFile
+    public static final String TRAJECTORY_FILE = "trajectories.bin";
+
+    //drive to shot constants, see ShotPathPlanner
+    /**The pose the pilot can drive to on the A button, facing the target from SHOT_POSE_DISTANCE_IN away, which is on our shot table */
+    public static final double SHOT_POSE_DISTANCE_IN = 180;
+    public static final double SHOT_POSE_X_M = FIELD_TARGET_X_M - (SHOT_POSE_DISTANCE_IN * METERS_PER_INCH);
+    public static final double SHOT_POSE_Y_M = FIELD_TARGET_Y_M;
+    public static final double SHOT_POSE_HEADING_RAD = 0;
+
+    /**
+     * The longest we wait for a path to the shot pose before giving up, in seconds. Generating one takes a few milliseconds,
+     * so this only runs out if the background thread is starved, and the pilot keeps driving until then
+     */
+    public static final double SHOT_PATH_GENERATION_TIMEOUT_S = 0.1;
+
+    /**How close to the shot pose we have to be in meters before there is no point driving a path to it */
+    public static final double SHOT_PATH_MIN_DISTANCE_M = 0.1;
+
+    /**
+     * We only drive to the shot pose while the standard deviation of our estimated position is under this in meters,
+     * since the shot pose is on the field and a path from a pose we aren't sure of goes somewhere we aren't sure of either
+     */
+    public static final double SHOT_PATH_MAX_POSITION_STD_M = 0.15;
+
 
     //****************************************
     //*                                      *
@@ -143,10 +326,22 @@ public class RobotMap {
     //Calculated free spin angular velocity of our shooter based on specs (-10%) divided by three for gear reduction
     //measured in rev/100ms, specs found at https://www.vexrobotics.com/775pro.html#Other_Info
     public static final double LAUNCHER_FREESPIN_ANGULAR_VELOCITY = 9.356;
-    
-    //The maximum distance that the launcher can be shot from and still make the target (given max power)
-    //this number is currently arbitrary (25 feet)
-    public static final double MAX_LAUNCHER_DISTANCE_IN = 300;
+
+    //the file in the deploy directory with our (distance, rpm) shot table, see ShotTable
+    public static final String SHOT_TABLE_FILE = "shot_table.csv";
+
+    //the launch speed we use when we don't have a target to measure distance from, which was found from testing
+    //this is also used at every distance if the shot table can't be loaded
+    public static final double SHOT_TABLE_DEFAULT_RPM = 4800;
+
+    //readiness detector constants, see FlywheelReadiness
+    //the launcher is ready once it has been within the error band with a slope under the tolerance for LAUNCHER_READY_SAMPLES loops
+    //the slope is fit over the last LAUNCHER_READY_WINDOW_SIZE samples, which is 100ms at our loop time
+    //TODO: tune the band and slope tolerance against shot consistency
+    public static final int LAUNCHER_READY_WINDOW_SIZE = 5;
+    public static final double LAUNCHER_READY_ERROR_BAND_RPM = 75;
+    public static final double LAUNCHER_READY_SLOPE_TOLERANCE_RPM_PER_S = 500;
+    public static final int LAUNCHER_READY_SAMPLES = 3;
 
     //CAN IDs for the launcher motors
     public static final int MASTER_LAUNCHER_ID = 21;
@@ -167,6 +362,8 @@ public class RobotMap {
     public static final double LAUNCHER_ADJUSTMENT_VALUE = 0.5;
     
     public static final double LAUNCHER_HOLDING_SPEED = 0.5;
+    //how far under the holding speed our output can be while still counting as at holding speed
+    public static final double LAUNCHER_HOLDING_TOLERANCE = 0.03;
     
     //the measurement period for calculating velocity off of the encoder
 	public static final VelocityMeasPeriod VELOCITY_MEASUREMENT_PERIOD = VelocityMeasPeriod.Period_10Ms;
@@ -327,6 +524,32 @@ public class RobotMap {
     //the acceptable error for our vision targeting in degrees
     public static final double TARGETING_ERROR_TOLERANCE = 1.0;
 
+    /**The image capture latency of the limelight in milliseconds, which is added on top of the reported pipeline latency (tl) */
+    public static final double LIMELIGHT_CAPTURE_LATENCY_MS = 11;
+
+    /**
+     * The way we turn onto the target. See LimelightTargeting.TargetingMode for the options
+     * <p>This stays on the tuned kRaw loop until AIM_LOOP_GAINS are tuned. While disabled, the mode can be picked
+     * and the aim loop gains tuned from the Targeting tab. Switch to kGyroLatched here once they are
+     */
+    public static final TargetingMode DEFAULT_TARGETING_MODE = TargetingMode.kRaw;
+
+    /**The period of the high rate aim loop in seconds, which closes on the gyro between camera frames */
+    public static final double AIM_LOOP_PERIOD_S = 0.005;
+
+    /**If target() is not called for this long in seconds, the aim loop stops driving */
+    public static final double AIM_LOOP_WATCHDOG_S = 0.1;
+
+    /**The gains for the high rate aim loop. This runs on gyro error in degrees and is scaled back by 45 like our targeting PID
+     * <p>TODO: These are a starting point and need to be tuned */
+    public static final Gains AIM_LOOP_GAINS = new Gains(0.55, 0.0, 0.01, 0.0, 0, 1.0);
+
+    /**target() counts as active for telemetry if it was called within this many seconds, which is a little over one loop */
+    public static final double TARGETING_ACTIVE_WINDOW_S = 0.03;
+
+    /**The number of gyro samples kept for latency compensation. At the 200 samples a second of the aim loop this covers 0.64 seconds */
+    public static final int HEADING_HISTORY_SIZE = 128;
+
     //****************************************
     //*                                      *
     //*          MAGAZINE CONSTANTS          *
@@ -345,6 +568,202 @@ public class RobotMap {
     public static final double MAGAZINE_LAUNCH_SPEED = 0.65;
     public static final double MAGAZINE_DUMP_SPEED = -0.45;
 
+    //****************************************
+    //*                                      *
+    //*         CAN BUS CONSTANTS            *
+    //*                                      *
+    //****************************************
+    /**Every motor controller CAN ID on the robot, used to check that each one has a status frame profile */
+    public static final int[] CAN_MOTOR_CONTROLLER_IDS = {
+        MASTER_LEFT_FALCON_ID, MASTER_RIGHT_FALCON_ID, SLAVE_LEFT_FALCON_ID, SLAVE_RIGHT_FALCON_ID,
+        MASTER_LAUNCHER_ID, CLOSE_LAUNCHER_SLAVE_ID, FAR_LAUNCHER_SLAVE1_ID, FAR_LAUNCHER_SLAVE2_ID,
+        EXTENSION_MOTOR_ID, MAGAZINE_MOTOR_PORT
+    };
+
+    //the status frame periods used by the status frame profiles, in milliseconds
+    //255 is the slowest period the motor controllers accept
+    public static final int STATUS_FRAME_FAST_MS = 10;
+    public static final int STATUS_FRAME_DEFAULT_MS = 20;
+    public static final int STATUS_FRAME_SLOW_MS = 100;
+    public static final int STATUS_FRAME_SLOWEST_MS = 255;
+
+    /**The period of the control frame the roboRIO sends each motor controller in milliseconds */
+    public static final int CAN_CONTROL_FRAME_PERIOD_MS = 10;
+
+    /**An estimate of the frames per second each motor controller sends in the status frames we leave at factory default */
+    public static final double CAN_UNMANAGED_FRAMES_PER_SECOND = 40;
+
+    /**An estimate of the frames per second sent by the PDP and PCM */
+    public static final double CAN_OTHER_DEVICE_FRAMES_PER_SECOND = 200;
+
+    /**The worst case size of an extended CAN frame with 8 data bytes, including bit stuffing */
+    public static final double CAN_BITS_PER_FRAME = 160;
+
+    /**The bit rate of the CAN bus */
+    public static final double CAN_BUS_BITS_PER_SECOND = 1000000;
+
+    /**The fraction of the CAN bus we want to stay under. We warn if our estimate goes over this */
+    public static final double CAN_BUS_LOAD_BUDGET = 0.7;
+
+    /**The config timeout for status frame changes when switching modes. Zero sends them without blocking the loop */
+    public static final int STATUS_FRAME_MODE_SWITCH_TIMEOUT_MS = 0;
+
+    /**The number of times a failed motor controller config call is retried before we report it */
+    public static final int CONFIG_MAX_RETRIES = 2;
+
+    /**Whether to skip the config calls on motor controllers whose stored config fingerprint already matches. Set to false to force a full config */
+    public static final boolean CONFIG_SKIP_MATCHING_FINGERPRINTS = true;
+
+    /**The custom parameter slot (0 or 1) the config fingerprint is stored in */
+    public static final int CONFIG_FINGERPRINT_PARAM_INDEX = 0;
+
+    /**Hashed into every config fingerprint. Bump this after changing which config calls are made, so every device gets reconfigured */
+    public static final int CONFIG_FINGERPRINT_VERSION = 1;
+
+    /**The number of loops between each check for motor controllers that have reset (25 loops is twice a second) */
+    public static final int RESET_CHECK_PERIOD_CYCLES = 25;
+
+    //****************************************
+    //*                                      *
+    //*            AUTON CONSTANTS           *
+    //*                                      *
+    //****************************************
+    /**The percent speed we back away from the starting line at */
+    public static final double AUTON_REVERSE_SPEED = -0.15;
+
+    /**How far we back away from the starting line in encoder ticks */
+    public static final double AUTON_REVERSE_TARGET = -30000;
+
+    /**How long we run the magazine to launch our balls in seconds */
+    public static final double AUTON_LAUNCH_TIME_S = 3;
+
+    /**How long we try to back away before targeting anyway, in seconds */
+    public static final double AUTON_REVERSE_TIMEOUT_S = 4;
+
+    /**How long we try to lock on to the target and reach holding speed before revving anyway, in seconds */
+    public static final double AUTON_TARGET_TIMEOUT_S = 3;
+
+    /**How long we wait for the launcher to settle at launch speed before launching anyway, in seconds */
+    public static final double AUTON_REV_TIMEOUT_S = 2;
+
+    /**The launch speed in auton in RPM */
+    public static final double AUTON_LAUNCH_RPM = 4800;
+
+    /**
+     * Whether auton spins the launcher up while backing up and targeting, rather than one step after another
+     * <p>This stays off until the parallel routine has been run on the robot. It revs to full launch speed while the drivetrain
+     * is still reversing, skipping the holding speed the sequential routine uses to avoid brownouts
+     */
+    public static final boolean AUTON_PARALLEL = false;
+
+    //****************************************
+    //*                                      *
+    //*          PROFILER CONSTANTS          *
+    //*                                      *
+    //****************************************
+    /**Whether the loop profiler records samples on startup. This can be toggled from the shuffleboard while disabled */
+    public static final boolean PROFILER_ENABLED_BY_DEFAULT = false;
+
+    /**The width of each histogram bucket in nanoseconds (0.1ms) */
+    public static final long PROFILER_BUCKET_WIDTH_NS = 100000;
+
+    /**The number of histogram buckets, which at 0.1ms each covers 0 to 25ms. Longer calls land in an overflow bucket */
+    public static final int PROFILER_HISTOGRAM_BUCKETS = 250;
+
+    /**The loop budget in nanoseconds. Any call longer than this is counted as an overrun */
+    public static final long PROFILER_LOOP_BUDGET_NS = 20000000;
+
+    /**The number of loops between each summary pushed to the shuffleboard (50 loops is once a second) */
+    public static final int PROFILER_PUBLISH_PERIOD_CYCLES = 50;
+
+    /**The most bytes a whole periodic call should allocate. Any call that allocates more is counted and reported in the console */
+    public static final long PROFILER_ALLOCATION_BUDGET_BYTES = 4096;
+
+    /**Whether the profiler emits a flight recorder event for every section call. Each event is a new object, so this adds garbage */
+    public static final boolean PROFILER_JFR_EVENTS_ENABLED = false;
+
+    /**The number of GC pauses the notification thread can hand to the main loop before it drains them */
+    public static final int GC_PAUSE_RING_SIZE = 32;
+
+    /**The collectors that mostly run alongside our code, whose notifications are whole cycles rather than pauses */
+    public static final String[] GC_CONCURRENT_COLLECTORS = {"ConcurrentMarkSweep", "G1 Concurrent GC", "ZGC", "Shenandoah Cycles"};
+
+    //****************************************
+    //*                                      *
+    //*          TELEMETRY CONSTANTS         *
+    //*                                      *
+    //****************************************
+    /**The file our per loop telemetry is logged to on the roboRIO */
+    public static final String TELEMETRY_FILE_PATH = "/home/lvuser/telemetry.bin";
+
+    /**Added to the file path to name the copy of the log kept from the last boot */
+    public static final String TELEMETRY_PREVIOUS_SUFFIX = ".prev";
+
+    /**The number of records kept before the oldest is overwritten (30000 loops is 10 minutes, or about 2MB) */
+    public static final int TELEMETRY_CAPACITY_RECORDS = 30000;
+
+    /**The number of snapshots that can wait for the writer thread before new ones are dropped (256 loops is about 5 seconds) */
+    public static final int TELEMETRY_RING_SIZE = 256;
+
+    /**How long the writer thread sleeps when it has nothing to write */
+    public static final long TELEMETRY_WRITER_IDLE_MS = 5;
+
+    /**The number of records between each publish to the shuffleboard (10 records is 5 times a second) */
+    public static final int TELEMETRY_PUBLISH_PERIOD_RECORDS = 10;
+
+    //****************************************
+    //*                                      *
+    //*         SIMULATION CONSTANTS         *
+    //*                                      *
+    //****************************************
+    /**The drive characterization data, relative to the directory the simulator is launched from (the Robot folder) */
+    public static final String SIM_CHARACTERIZATION_FILE = "../CharacterizationFilesTest1/characterization-data20200216-1427.json";
+
+    /**Characterization rows slower than this in motor rotations per second are skipped, as the robot hadn't started moving */
+    public static final double SIM_CHARACTERIZATION_MIN_VELOCITY = 0.1;
+
+    /**The battery voltage the simulated motors are driven from */
+    public static final double SIM_BATTERY_VOLTAGE = 12.0;
+
+    /**The longest step the drivetrain simulation integrates over at once, in seconds */
+    public static final double SIM_STEP_S = 0.001;
+
+    /**The period of the simulated main loop in the launcher benchmark */
+    public static final double SIM_LOOP_PERIOD_S = 0.02;
+
+    /**
+     * The launcher model used when no log is given to fit one from, in volts per sensor unit per 100ms (per second).
+     * kV is from the free spin estimate in the launcher constants with the mag encoder's 4096 counts per revolution,
+     * kA assumes a 0.5 second time constant, and kS is a guess. Fit these from a log with the launcher benchmark
+     */
+    public static final double SIM_LAUNCHER_KS = 0.4;
+    public static final double SIM_LAUNCHER_KV = 12.0 / 38322;
+    public static final double SIM_LAUNCHER_KA = 0.5 * SIM_LAUNCHER_KV;
+
+    /**The fraction of the launcher's speed lost to each ball, and the time between balls with the magazine running, used when no log is given */
+    public static final double SIM_LAUNCHER_BALL_SPEED_DROP = 0.1;
+    public static final double SIM_LAUNCHER_BALL_INTERVAL_S = 0.25;
+
+    /**Logged launcher samples slower than this in sensor units per 100ms, or further apart than the gap, are left out of the fit */
+    public static final double SIM_LAUNCHER_FIT_MIN_VELOCITY = 100;
+    public static final double SIM_LAUNCHER_FIT_MAX_GAP_S = 0.1;
+
+    /**The fewest samples a log needs for the launcher to be fit from it */
+    public static final int SIM_LAUNCHER_FIT_MIN_SAMPLES = 50;
+
+    /**A loop to loop drop in launcher speed bigger than this fraction, with the magazine running, is counted as a ball leaving */
+    public static final double SIM_LAUNCHER_BALL_DETECT_DROP = 0.03;
+
+    /**Balls further apart than this are counted as separate bursts rather than for the ball interval */
+    public static final double SIM_LAUNCHER_MAX_BALL_INTERVAL_S = 1.0;
+
+    /**The balls launched by each benchmark sequence, which are our preload in auton and a full magazine in teleop */
+    public static final int SIM_AUTON_BALLS = 3;
+    public static final int SIM_TELEOP_BALLS = 5;
+
+    /**How long a benchmark stage can take before it's counted as never finishing */
+    public static final double SIM_BENCHMARK_TIMEOUT_S = 10;
+
     //****************************************
     //*                                      *
     //*           GENERAL CONSTANTS          *
@@ -0,0 +1,317 @@
+package frc.robot;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import edu.wpi.first.networktables.NetworkTableEntry;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
+import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardTab;
+
+/**
+ * Drives the robot in teleop from wherever it is to our shot pose, along a path generated on the fly
+ * <p>Generating a path allocates and takes a few milliseconds, so it is done on a background thread. A request copies our
+ * estimated pose and hands it to the thread, and every loop after that we check whether the path is ready without waiting on it.
+ * Once it is, a {@link PathFollower} drives it. The pilot keeps driving while the path is generated,
+ * and the {@link PilotController} cancels the path the moment the pilot touches the sticks.
+ * <p>Every request has an id, and a path is only used if it was made for the latest request, so a path that finishes
+ * after it was cancelled or given up on is thrown away. The time from each request until its path reaches the main loop
+ * is measured, and we give up after SHOT_PATH_GENERATION_TIMEOUT_S rather than drive a path from a pose we have long since left
+ */
+public class ShotPathPlanner implements ShuffleboardEnabled {
+    /**
+     * Enum for what the planner is doing
+     * <p>Possible values:
+     * <li>{@link #kIdle}</li>
+     * <li>{@link #kGenerating}</li>
+     * <li>{@link #kFollowing}</li>
+     */
+    public enum PlannerState {
+        /**The pilot is driving */
+        kIdle("Idle"),
+
+        /**The background thread is making our path, and the pilot is still driving */
+        kGenerating("Generating"),
+
+        /**We are driving our path */
+        kFollowing("Following");
+
+        private final String stateName;
+
+        PlannerState(String stateName) {
+            this.stateName = stateName;
+        }
+
+        public String toString() {
+            return this.stateName;
+        }
+    }
+
+    /**
+     * A path made by the background thread, which is handed to the main loop whole so it never sees half a result
+     */
+    private static class GeneratedPath {
+        //the request the path was made for
+        private final int requestId;
+        //the path, or null if it couldn't be made
+        private final Trajectory trajectory;
+        //why the path couldn't be made, or null if it was
+        private final String error;
+        //how long generating took on the background thread in milliseconds
+        private final double generationMs;
+
+        private GeneratedPath(int requestId, Trajectory trajectory, String error, double generationMs) {
+            this.requestId = requestId;
+            this.trajectory = trajectory;
+            this.error = error;
+            this.generationMs = generationMs;
+        }
+    }
+
+    private PoseEstimator m_poseEstimator;
+    private PathFollower m_pathFollower;
+
+    //where we drive to, which is never changed so the background thread can read it
+    private final FieldPose m_shotPose = new FieldPose(RobotMap.SHOT_POSE_X_M, RobotMap.SHOT_POSE_Y_M, RobotMap.SHOT_POSE_HEADING_RAD);
+
+    //generates our paths at a low priority, so it only uses time the main loop isn't
+    private final ExecutorService m_executor;
+
+    //the latest path from the background thread, which the main loop takes without blocking
+    private final AtomicReference<GeneratedPath> m_generatedPath = new AtomicReference<GeneratedPath>();
+
+    //everything below is only used from the main loop
+    private PlannerState m_state = PlannerState.kIdle;
+
+    //the id of the latest request, which is bumped to throw away a path we no longer want, and when it was made
+    private int m_requestId = 0;
+    private long m_requestNanos = 0;
+
+    //how long the last path took to generate, and to reach the main loop from its request, in milliseconds
+    private double m_lastGenerationMs = 0;
+    private double m_lastLatencyMs = 0;
+    private double m_maxLatencyMs = 0;
+
+    //the number of requests we gave up on after SHOT_PATH_GENERATION_TIMEOUT_S
+    private int m_timeouts = 0;
+
+    //reused for reading our pose so requesting doesn't allocate a pose
+    private final FieldPose m_pose = new FieldPose();
+
+    private ShuffleboardTab m_plannerTab;
+    private NetworkTableEntry m_stateEntry;
+    private NetworkTableEntry m_generationEntry;
+    private NetworkTableEntry m_latencyEntry;
+    private NetworkTableEntry m_maxLatencyEntry;
+    private NetworkTableEntry m_timeoutsEntry;
+
+    /**
+     * Constructor for ShotPathPlanner objects
+     * @param drivetrain The drivetrain to drive
+     * @param poseEstimator The pose estimator we plan and steer from
+     */
+    public ShotPathPlanner(Drivetrain drivetrain, PoseEstimator poseEstimator) {
+        m_poseEstimator = poseEstimator;
+        m_pathFollower = new PathFollower(drivetrain, poseEstimator, DriveCharacterization.create());
+
+        m_executor = Executors.newSingleThreadExecutor((runnable) -> {
+            Thread thread = new Thread(runnable, "ShotPathPlanner");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+
+        shuffleboardConfig();
+    }
+
+    /**
+     * Starts generating a path from our estimated pose to the shot pose, replacing any path we are generating or following
+     * <p>This only hands the request to the background thread, so it returns straight away
+     * <p>Without a fix our pose is just where odometry has taken us since the robot booted, rather than where we are on the field,
+     * so we refuse to drive anywhere until a reset or the limelight has told us where we are, and while we are confident of it
+     * @return Whether a path was requested, which is false if we don't know where we are or are already at the shot pose
+     */
+    public boolean request() {
+        cancel();
+
+        if (!m_poseEstimator.hasFix()) {
+            DriverStation.reportWarning("Not driving to the shot pose, we don't know where we are on the field. Point the limelight at the target", false);
+            return false;
+        }
+        double positionStd = Math.sqrt(Math.max(m_poseEstimator.getCovariance(0, 0), m_poseEstimator.getCovariance(1, 1)));
+        if (positionStd > RobotMap.SHOT_PATH_MAX_POSITION_STD_M) {
+            DriverStation.reportWarning(String.format("Not driving to the shot pose, our position is only known to %.2fm", positionStd), false);
+            return false;
+        }
+
+        m_poseEstimator.getPose(m_pose);
+        double distance = m_pose.getDistance(m_shotPose);
+        if (distance < RobotMap.SHOT_PATH_MIN_DISTANCE_M) {
+            System.out.printf("Already %.2fm from the shot pose, not driving to it%n", distance);
+            return false;
+        }
+
+        //drive backwards if the shot pose is behind us, rather than turning around to drive to it forwards
+        double towardX = m_shotPose.getX() - m_pose.getX();
+        double towardY = m_shotPose.getY() - m_pose.getY();
+        boolean reversed = ((towardX * Math.cos(m_pose.getHeading())) + (towardY * Math.sin(m_pose.getHeading()))) < 0;
+
+        //the background thread gets its own copy of our pose, since m_pose is reused
+        int requestId = m_requestId;
+        double startX = m_pose.getX();
+        double startY = m_pose.getY();
+        double startHeading = m_pose.getHeading();
+        m_requestNanos = System.nanoTime();
+        m_executor.submit(() -> generate(requestId, startX, startY, startHeading, reversed));
+        setState(PlannerState.kGenerating);
+        return true;
+    }
+
+    /**
+     * Generates a path on the background thread and hands it to the main loop
+     * @param requestId The request the path is for
+     * @param startX Our x when the path was requested in meters
+     * @param startY Our y when the path was requested in meters
+     * @param startHeading Our heading when the path was requested in radians counterclockwise
+     * @param reversed Whether to drive the path backwards
+     */
+    private void generate(int requestId, double startX, double startY, double startHeading, boolean reversed) {
+        long startNanos = System.nanoTime();
+        Trajectory trajectory = null;
+        String error = null;
+        try {
+            FieldPose start = new FieldPose(startX, startY, startHeading);
+            trajectory = TrajectoryGenerator.generate("Shot", new FieldPose[] {start, m_shotPose}, reversed);
+        }
+        catch (IllegalArgumentException e) {
+            error = e.getMessage();
+        }
+        m_generatedPath.set(new GeneratedPath(requestId, trajectory, error, (System.nanoTime() - startNanos) / 1.0e6));
+    }
+
+    /**
+     * Drives our path once it is ready, to be run once a loop in teleop
+     * @return Whether we drove the drivetrain this loop, in which case the pilot shouldn't
+     */
+    public boolean periodic() {
+        if (m_state == PlannerState.kGenerating) {
+            return checkGenerated();
+        }
+        else if (m_state == PlannerState.kFollowing) {
+            //once we arrive, stop and leave the drivetrain to the pilot from the next loop
+            if (m_pathFollower.follow()) {
+                m_pathFollower.stop();
+                setState(PlannerState.kIdle);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether the background thread has made the path for our latest request, and starts following it if it has
+     * @return Whether we drove the drivetrain this loop
+     */
+    private boolean checkGenerated() {
+        double latencyMs = (System.nanoTime() - m_requestNanos) / 1.0e6;
+        GeneratedPath generated = m_generatedPath.getAndSet(null);
+
+        //a path for an older request is thrown away, and we keep waiting for ours
+        if (generated == null || generated.requestId != m_requestId) {
+            if (latencyMs > RobotMap.SHOT_PATH_GENERATION_TIMEOUT_S * 1000) {
+                m_timeouts++;
+                m_timeoutsEntry.setDouble(m_timeouts);
+                DriverStation.reportWarning(String.format("Gave up on the path to the shot pose after %.0fms", latencyMs), false);
+                cancel();
+            }
+            return false;
+        }
+
+        m_lastGenerationMs = generated.generationMs;
+        m_lastLatencyMs = latencyMs;
+        m_maxLatencyMs = Math.max(m_maxLatencyMs, latencyMs);
+        m_generationEntry.setDouble(m_lastGenerationMs);
+        m_latencyEntry.setDouble(m_lastLatencyMs);
+        m_maxLatencyEntry.setDouble(m_maxLatencyMs);
+
+        if (generated.trajectory == null) {
+            DriverStation.reportError("Could not make a path to the shot pose: " + generated.error, false);
+            cancel();
+            return false;
+        }
+
+        System.out.printf("Generated %s in %.1fms, %.1fms after it was requested%n", generated.trajectory, m_lastGenerationMs, m_lastLatencyMs);
+        m_pathFollower.start(generated.trajectory);
+        setState(PlannerState.kFollowing);
+        m_pathFollower.follow();
+        return true;
+    }
+
+    /**
+     * Stops generating or following our path straight away, stopping the drivetrain if we were driving it
+     * <p>Any path still being generated is thrown away when it finishes
+     */
+    public void cancel() {
+        if (m_state == PlannerState.kFollowing) {
+            m_pathFollower.stop();
+        }
+        m_requestId++;
+        setState(PlannerState.kIdle);
+    }
+
+    /**
+     * @param state The state we are now in, which is also published
+     */
+    private void setState(PlannerState state) {
+        if (state != m_state) {
+            m_state = state;
+            m_stateEntry.setString(state.toString());
+        }
+    }
+
+    /**
+     * @return Whether we are generating or following a path, so the pilot isn't driving
+     */
+    public boolean isActive() {
+        return m_state != PlannerState.kIdle;
+    }
+
+    /**
+     * @return What the planner is doing
+     */
+    public PlannerState getState() {
+        return m_state;
+    }
+
+    /**
+     * @return How long the last path took to reach the main loop from its request, in milliseconds
+     */
+    public double getLastLatencyMs() {
+        return m_lastLatencyMs;
+    }
+
+    /**
+     * @return The longest any path has taken to reach the main loop from its request, in milliseconds
+     */
+    public double getMaxLatencyMs() {
+        return m_maxLatencyMs;
+    }
+
+    /**
+     * @return The number of requests we gave up on after SHOT_PATH_GENERATION_TIMEOUT_S
+     */
+    public int getTimeouts() {
+        return m_timeouts;
+    }
+
+    @Override
+    public void shuffleboardConfig() {
+        m_plannerTab = Shuffleboard.getTab("Odometry");
+        m_stateEntry = m_plannerTab.add("Shot Path", m_state.toString()).getEntry();
+        m_generationEntry = m_plannerTab.add("Shot Path Generation (ms)", 0.0).getEntry();
+        m_latencyEntry = m_plannerTab.add("Shot Path Latency (ms)", 0.0).getEntry();
+        m_maxLatencyEntry = m_plannerTab.add("Shot Path Max Latency (ms)", 0.0).getEntry();
+        m_timeoutsEntry = m_plannerTab.add("Shot Path Timeouts", 0.0).getEntry();
+    }
+}
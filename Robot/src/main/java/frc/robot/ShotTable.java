@@ -0,0 +1,141 @@
+package frc.robot;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Filesystem;
+
+/**
+ * A lookup table of launcher speeds for distances to the target
+ * <p>The table is a list of (distance, RPM) points tuned by shooting from each distance.
+ * Distances between two points are linearly interpolated, and distances past either end use the end point.
+ * <p>The points are stored in two sorted primitive arrays, so a lookup is a binary search with no allocation
+ */
+public class ShotTable {
+    //parallel arrays of our points, sorted by increasing distance
+    private final double[] m_distances;
+    private final double[] m_rpms;
+
+    /**
+     * Constructor for ShotTable objects
+     * @param distances The distance of each point in inches, in increasing order
+     * @param rpms The launcher speed of each point in RPM
+     * @throws IllegalArgumentException If the arrays are empty, different lengths, or the distances aren't increasing
+     */
+    public ShotTable(double[] distances, double[] rpms) {
+        if (distances.length == 0 || distances.length != rpms.length) {
+            throw new IllegalArgumentException("Shot table needs the same number of distances and speeds, and at least one point");
+        }
+        for (int index = 1; index < distances.length; index++) {
+            if (distances[index] <= distances[index - 1]) {
+                throw new IllegalArgumentException("Shot table distances must be increasing, " + distances[index] + " follows " + distances[index - 1]);
+            }
+        }
+
+        //copy the arrays so the table can't be changed from outside
+        m_distances = distances.clone();
+        m_rpms = rpms.clone();
+    }
+
+    /**
+     * Looks up the launcher speed for a distance
+     * @param distance The horizontal distance to the target in inches
+     * @return The launcher speed in RPM
+     */
+    public double getRpm(double distance) {
+        int last = m_distances.length - 1;
+
+        //clamp to the end points, since we haven't tested anything past them
+        if (distance <= m_distances[0]) {
+            return m_rpms[0];
+        }
+        if (distance >= m_distances[last]) {
+            return m_rpms[last];
+        }
+
+        //binary search for the first point further than our distance
+        //the loop keeps m_distances[low] <= distance < m_distances[high]
+        int low = 0;
+        int high = last;
+        while (high - low > 1) {
+            int middle = (low + high) >>> 1;
+            if (m_distances[middle] <= distance) {
+                low = middle;
+            }
+            else {
+                high = middle;
+            }
+        }
+
+        //interpolate between the two points around our distance
+        double fraction = (distance - m_distances[low]) / (m_distances[high] - m_distances[low]);
+        return m_rpms[low] + (fraction * (m_rpms[high] - m_rpms[low]));
+    }
+
+    /**
+     * @param index The index of a point
+     * @return The distance of the point in inches
+     */
+    public double getDistance(int index) {
+        return m_distances[index];
+    }
+
+    /**
+     * @return The number of points in the table
+     */
+    public int size() {
+        return m_distances.length;
+    }
+
+    /**
+     * Loads a table from a file in the deploy directory
+     * <p>Each line is a point written as "distance, rpm". Blank lines and lines starting with # are ignored.
+     * If the file can't be read or is invalid, the error is reported and SHOT_TABLE_DEFAULT_RPM is used at every distance instead
+     * @param fileName The name of the file within the deploy directory
+     * @return The loaded table, or a table of SHOT_TABLE_DEFAULT_RPM if loading failed
+     */
+    public static ShotTable loadFromDeploy(String fileName) {
+        File file = new File(Filesystem.getDeployDirectory(), fileName);
+        try {
+            List<String> lines = Files.readAllLines(file.toPath());
+
+            //parse into arrays as large as the file, then trim them down to the points we found
+            double[] distances = new double[lines.size()];
+            double[] rpms = new double[lines.size()];
+            int points = 0;
+            for (String line : lines) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+
+                String[] values = line.split(",");
+                if (values.length != 2) {
+                    throw new IllegalArgumentException("Shot table line \"" + line + "\" is not \"distance, rpm\"");
+                }
+                distances[points] = Double.parseDouble(values[0].trim());
+                rpms[points] = Double.parseDouble(values[1].trim());
+                points++;
+            }
+
+            double[] trimmedDistances = new double[points];
+            double[] trimmedRpms = new double[points];
+            System.arraycopy(distances, 0, trimmedDistances, 0, points);
+            System.arraycopy(rpms, 0, trimmedRpms, 0, points);
+
+            ShotTable table = new ShotTable(trimmedDistances, trimmedRpms);
+            System.out.println("Loaded " + points + " point shot table from " + file);
+            return table;
+        }
+        //NumberFormatException is an IllegalArgumentException, so this also catches bad numbers
+        catch (IOException | IllegalArgumentException e) {
+            DriverStation.reportError("Could not load shot table " + file + ", using " + RobotMap.SHOT_TABLE_DEFAULT_RPM + " RPM: " + e.getMessage(), false);
+
+            //a single point is used at every distance, so its distance doesn't matter
+            return new ShotTable(new double[] {0}, new double[] {RobotMap.SHOT_TABLE_DEFAULT_RPM});
+        }
+    }
+}
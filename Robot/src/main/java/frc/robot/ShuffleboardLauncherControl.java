@@ -121,7 +121,7 @@ public class ShuffleboardLauncherControl {
      * <p> This currently holds velocity in RPM, but we can put anything we want here
      */
     public void publishData() {
-        m_currentVel.setDouble(m_launcher.getMasterMotor().getSelectedSensorVelocity(0) / RobotMap.RPM_TO_UNITS_PER_100MS);
+        m_currentVel.setDouble(m_launcher.getVelocity() / RobotMap.RPM_TO_UNITS_PER_100MS);
     }
 
     /**
@@ -0,0 +1,114 @@
+package frc.robot;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * A lock free ring of preallocated objects for handing data from one thread to one other thread
+ * <p>The producer claims the next free slot, fills it in, and publishes it. The consumer polls the oldest published slot,
+ * reads it, and releases it back to the producer. Slots are reused, so nothing is allocated after construction.
+ * <p>If the consumer falls behind and the ring is full, the producer's claim fails and the drop is counted,
+ * rather than the producer waiting for space
+ * <p>Exactly one thread may produce and exactly one thread may consume
+ * @param <T> The type of object stored in each slot
+ */
+public class SnapshotRing<T> {
+    //the preallocated slots, and the mask used to wrap a sequence number into an index
+    private final Object[] m_slots;
+    private final int m_mask;
+
+    //the number of slots ever published, which only the producer writes
+    private final AtomicLong m_published = new AtomicLong(0);
+    //the number of slots ever released, which only the consumer writes
+    private final AtomicLong m_released = new AtomicLong(0);
+
+    //the number of claims that failed because the ring was full, which only the producer writes
+    private volatile long m_dropped = 0;
+
+    /**
+     * Constructor for SnapshotRing objects
+     * @param capacity The number of slots, which is rounded up to a power of two
+     * @param factory Creates each slot's object
+     */
+    public SnapshotRing(int capacity, Supplier<T> factory) {
+        //round up to a power of two, so wrapping an index is a mask instead of a division
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        m_slots = new Object[size];
+        m_mask = size - 1;
+        for (int index = 0; index < size; index++) {
+            m_slots[index] = factory.get();
+        }
+    }
+
+    /**
+     * Producer only. Gets the next free slot to fill in
+     * <p>The slot must be published with {@link #publish()} before claiming again
+     * @return The slot, or null if the ring is full and this write was dropped
+     */
+    public T claim() {
+        long published = m_published.get();
+        if (published - m_released.get() >= m_slots.length) {
+            m_dropped++;
+            return null;
+        }
+        return slot(published);
+    }
+
+    /**
+     * Producer only. Hands the slot from the last successful claim to the consumer
+     */
+    public void publish() {
+        //lazySet makes our writes to the slot visible before the new count, without a full fence
+        m_published.lazySet(m_published.get() + 1);
+    }
+
+    /**
+     * Consumer only. Gets the oldest published slot
+     * <p>The slot must be released with {@link #release()} once it has been read
+     * @return The slot, or null if nothing has been published
+     */
+    public T poll() {
+        long released = m_released.get();
+        if (released == m_published.get()) {
+            return null;
+        }
+        return slot(released);
+    }
+
+    /**
+     * Consumer only. Hands the slot from the last successful poll back to the producer
+     */
+    public void release() {
+        m_released.lazySet(m_released.get() + 1);
+    }
+
+    /**
+     * @return The number of published slots waiting for the consumer
+     */
+    public int size() {
+        return (int) (m_published.get() - m_released.get());
+    }
+
+    /**
+     * @return The number of slots in the ring
+     */
+    public int capacity() {
+        return m_slots.length;
+    }
+
+    /**
+     * @return The number of claims that were dropped because the consumer was behind
+     */
+    public long getDropped() {
+        return m_dropped;
+    }
+
+    /**
+     * @param sequence The count of a slot since the ring was created
+     * @return The slot at that count
+     */
+    @SuppressWarnings("unchecked")
+    private T slot(long sequence) {
+        return (T) m_slots[(int) (sequence & m_mask)];
+    }
+}
@@ -0,0 +1,511 @@
+package frc.robot;
+
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+
+import edu.wpi.first.networktables.NetworkTableEntry;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
+import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardTab;
+
+/**
+ * Runs a state machine from a table indexed by an enum of its states
+ * <p>Each state has an action, which is run once a loop and returns whether the state is finished, the state to go to when it finishes,
+ * and optionally a timeout and the state to go to when the timeout runs out. A state with no next state is the final state,
+ * and its action keeps running every loop once we reach it.
+ * <p>A parallel state runs several {@link Branch}es every loop instead of one action, and finishes when its {@link Join} is met.
+ * Each branch keeps running until we leave the state, so a branch that has finished keeps holding its result,
+ * such as staying on target while the launcher finishes revving.
+ * <p>The time we enter and leave each state is recorded, so we can see exactly where our time goes.
+ * The time spent in each state is pushed to the shuffleboard on every transition, and printed when we reach the final state.
+ * For a parallel state, we also record when each branch first finished, and how much time we saved over running the branches
+ * one after another.
+ * <p>The table is filled in once with {@link #addState} and {@link #addParallelState}, so running the machine never allocates
+ * <p>The machine normally runs on the FPGA clock, but {@link #start(Enum, double)} and {@link #periodic(double)} take the time
+ * from the caller instead, so the log replay can run the same table on logged timestamps
+ * @param <S> The enum of states
+ */
+public class StateMachine<S extends Enum<S>> implements ShuffleboardEnabled {
+    /**
+     * This enum stores the ways a parallel state can decide it is finished
+     * <p>Possible values:
+     * <li>{@link #kAll}</li>
+     * <li>{@link #kAny}</li>
+     * <li>{@link #kDeadline}</li>
+     */
+    public enum Join {
+        /**
+         * Finished when every branch returns that it is finished in the same loop
+         */
+        kAll("All"),
+        /**
+         * Finished when any branch returns that it is finished
+         */
+        kAny("Any"),
+        /**
+         * Finished when the first branch returns that it is finished, no matter what the others return
+         */
+        kDeadline("Deadline");
+
+        private String joinName;
+
+        /**
+         * @param joinName The name of the join
+         */
+        Join(String joinName) {
+            this.joinName = joinName;
+        }
+
+        /**
+         * Returns the join represented as a string
+         */
+        public String toString() {
+            return this.joinName;
+        }
+    }
+
+    /**
+     * One branch of a parallel state, with the time it first finished
+     */
+    public static class Branch {
+        private final String m_name;
+        private final BooleanSupplier m_action;
+
+        //the FPGA time the branch first finished since we entered its state, or NaN if it hasn't
+        private double m_finishTime = Double.NaN;
+
+        /**
+         * Constructor for Branch objects
+         * @param name The name of the branch for printouts
+         * @param action Run once a loop while in the branch's state, and returns whether the branch is finished
+         */
+        public Branch(String name, BooleanSupplier action) {
+            m_name = name;
+            m_action = action;
+        }
+
+        /**
+         * @return The name of the branch
+         */
+        public String getName() {
+            return m_name;
+        }
+
+        /**
+         * @return The FPGA time the branch first finished since we last entered its state, or NaN if it hasn't
+         */
+        public double getFinishTime() {
+            return m_finishTime;
+        }
+    }
+
+    //no next state, or no timeout state
+    private static final int NONE = -1;
+
+    //the name of the machine, which is also its shuffleboard tab
+    private final String m_name;
+
+    //every state, indexed by ordinal
+    private final S[] m_states;
+
+    //the table, indexed by the ordinal of each state
+    private final BooleanSupplier[] m_actions;
+    private final int[] m_next;
+    private final double[] m_timeoutS;
+    private final int[] m_timeoutNext;
+
+    //the branches and join of each parallel state, which are null for states with a single action
+    private final Branch[][] m_branches;
+    private final Join[] m_joins;
+
+    //the state we are in, or NONE before we start
+    private int m_current = NONE;
+
+    //when we entered and left each state, and whether each state was left by its timeout
+    //the times are NaN for states we haven't entered or left since we started
+    private final double[] m_entryTimes;
+    private final double[] m_exitTimes;
+    private final boolean[] m_timedOut;
+
+    //when we started, the time of our last loop, and whether we have printed our timings since we reached the final state
+    private double m_startTime = Double.NaN;
+    private double m_now = Double.NaN;
+    private boolean m_reportedFinish = false;
+
+    //whether we publish to the shuffleboard and print our timings, which a replayed machine doesn't
+    private final boolean m_report;
+
+    //declare private variables for creating a tab, and setting widgets
+    private ShuffleboardTab m_tab;
+    /**Network table entries for publishing the time spent in each state, indexed by state ordinal */
+    private NetworkTableEntry[] m_timeEntries;
+    /**Network table entry for publishing the current state */
+    private NetworkTableEntry m_stateEntry;
+    /**Network table entries for publishing the time each parallel state saved, indexed by state ordinal and null for other states */
+    private NetworkTableEntry[] m_savedEntries;
+
+    /**
+     * Constructor for StateMachine objects
+     * @param name The name of the machine, which is used for its shuffleboard tab and printouts
+     * @param states Every state of the enum, as returned by values()
+     */
+    public StateMachine(String name, S[] states) {
+        this(name, states, true);
+    }
+
+    /**
+     * Constructor for StateMachine objects
+     * @param name The name of the machine, which is used for its shuffleboard tab and printouts
+     * @param states Every state of the enum, as returned by values()
+     * @param report Whether to publish to the shuffleboard and print our timings. A replay runs many machines with the same name,
+     *               which can't share a tab
+     */
+    public StateMachine(String name, S[] states, boolean report) {
+        m_name = name;
+        m_states = states;
+        m_report = report;
+
+        m_actions = new BooleanSupplier[states.length];
+        m_next = new int[states.length];
+        m_timeoutS = new double[states.length];
+        m_timeoutNext = new int[states.length];
+        Arrays.fill(m_next, NONE);
+        Arrays.fill(m_timeoutNext, NONE);
+        m_branches = new Branch[states.length][];
+        m_joins = new Join[states.length];
+
+        m_entryTimes = new double[states.length];
+        m_exitTimes = new double[states.length];
+        m_timedOut = new boolean[states.length];
+
+        if (m_report) {
+            shuffleboardConfig();
+        }
+    }
+
+    /**
+     * Adds a state with no timeout to the table
+     * @param state The state
+     * @param action Run once a loop while in the state, and returns whether the state is finished
+     * @param next The state to go to when the action finishes, or null if this is the final state
+     */
+    public void addState(S state, BooleanSupplier action, S next) {
+        addState(state, action, next, 0, null);
+    }
+
+    /**
+     * Adds a state to the table
+     * @param state The state
+     * @param action Run once a loop while in the state, and returns whether the state is finished
+     * @param next The state to go to when the action finishes, or null if this is the final state
+     * @param timeoutS How long we can stay in the state in seconds, or zero for no timeout
+     * @param timeoutNext The state to go to when the timeout runs out
+     */
+    public void addState(S state, BooleanSupplier action, S next, double timeoutS, S timeoutNext) {
+        int index = state.ordinal();
+        m_actions[index] = action;
+        m_next[index] = (next == null) ? NONE : next.ordinal();
+        m_timeoutS[index] = timeoutS;
+        m_timeoutNext[index] = (timeoutNext == null) ? NONE : timeoutNext.ordinal();
+    }
+
+    /**
+     * Adds a state that runs several branches in parallel to the table
+     * @param state The state
+     * @param join How the state decides it is finished from its branches
+     * @param next The state to go to when the join is met, or null if this is the final state
+     * @param timeoutS How long we can stay in the state in seconds, or zero for no timeout
+     * @param timeoutNext The state to go to when the timeout runs out
+     * @param branches The branches, which are run in this order every loop. For {@link Join#kDeadline}, the first branch decides
+     * @throws IllegalArgumentException If a branch already belongs to another state
+     */
+    public void addParallelState(S state, Join join, S next, double timeoutS, S timeoutNext, Branch... branches) {
+        //a branch records its finish time for one state, so sharing one would let the next state erase the last one's timing
+        //states that run the same action each need their own branch
+        for (Branch branch : branches) {
+            for (int other = 0; other < m_branches.length; other++) {
+                if (m_branches[other] != null && other != state.ordinal() && Arrays.asList(m_branches[other]).contains(branch)) {
+                    throw new IllegalArgumentException("Branch " + branch.getName() + " of " + state + " already belongs to " + m_states[other]);
+                }
+            }
+        }
+
+        addState(state, null, next, timeoutS, timeoutNext);
+        int index = state.ordinal();
+        m_branches[index] = branches;
+        m_joins[index] = join;
+
+        if (m_report) {
+            m_savedEntries[index] = m_tab.add(state + " saved (s)", 0.0).getEntry();
+        }
+    }
+
+    /**
+     * Clears the timings and enters the initial state
+     * @param initial The state to start in
+     */
+    public void start(S initial) {
+        start(initial, Timer.getFPGATimestamp());
+    }
+
+    /**
+     * Clears the timings and enters the initial state at a given time
+     * @param initial The state to start in
+     * @param now The current time in seconds
+     */
+    public void start(S initial, double now) {
+        Arrays.fill(m_entryTimes, Double.NaN);
+        Arrays.fill(m_exitTimes, Double.NaN);
+        Arrays.fill(m_timedOut, false);
+        m_reportedFinish = false;
+
+        m_startTime = now;
+        m_now = now;
+        m_current = NONE;
+        enter(initial.ordinal(), m_startTime);
+    }
+
+    /**
+     * Runs the current state's action, and moves to the next state if it finished or timed out
+     * <p>This should be called once a loop. We move at most one state a loop, so the next state's action first runs next loop
+     */
+    public void periodic() {
+        periodic(Timer.getFPGATimestamp());
+    }
+
+    /**
+     * Runs the current state's action at a given time, and moves to the next state if it finished or timed out
+     * <p>This should be called once a loop, with a time that never goes backwards
+     * @param now The current time in seconds
+     */
+    public void periodic(double now) {
+        if (m_current == NONE) {
+            return;
+        }
+
+        m_now = now;
+
+        boolean finished;
+        if (m_branches[m_current] != null) {
+            finished = runBranches(m_current, now);
+        }
+        else {
+            BooleanSupplier action = m_actions[m_current];
+            finished = (action == null) || action.getAsBoolean();
+        }
+
+        //the final state runs every loop and never leaves
+        if (m_next[m_current] == NONE) {
+            return;
+        }
+
+        if (finished) {
+            enter(m_next[m_current], now);
+        }
+        else if (m_timeoutS[m_current] > 0 && now - m_entryTimes[m_current] >= m_timeoutS[m_current]) {
+            m_timedOut[m_current] = true;
+            enter(m_timeoutNext[m_current], now);
+        }
+    }
+
+    /**
+     * Runs every branch of a parallel state, and records when each first finishes
+     * @param index The ordinal of the state
+     * @param now The current time in seconds
+     * @return Whether the state's join is met
+     */
+    private boolean runBranches(int index, double now) {
+        Branch[] branches = m_branches[index];
+        boolean all = true;
+        boolean any = false;
+        boolean first = false;
+        for (int branchIndex = 0; branchIndex < branches.length; branchIndex++) {
+            Branch branch = branches[branchIndex];
+            boolean finished = branch.m_action.getAsBoolean();
+            if (finished && Double.isNaN(branch.m_finishTime)) {
+                branch.m_finishTime = now;
+            }
+
+            all &= finished;
+            any |= finished;
+            if (branchIndex == 0) {
+                first = finished;
+            }
+        }
+
+        if (m_joins[index] == Join.kAny) {
+            return any;
+        }
+        else if (m_joins[index] == Join.kDeadline) {
+            return first;
+        }
+        return all;
+    }
+
+    /**
+     * Leaves the current state and enters another
+     * @param next The ordinal of the state to enter
+     * @param now The current time in seconds
+     */
+    private void enter(int next, double now) {
+        if (m_current != NONE) {
+            m_exitTimes[m_current] = now;
+        }
+        m_current = next;
+        m_entryTimes[next] = now;
+        if (m_branches[next] != null) {
+            for (Branch branch : m_branches[next]) {
+                branch.m_finishTime = Double.NaN;
+            }
+        }
+        if (m_report) {
+            publish();
+        }
+
+        //we won't leave the final state, so this is where we report how long everything took
+        if (m_report && m_next[next] == NONE && !m_reportedFinish) {
+            m_reportedFinish = true;
+            printTimings();
+        }
+    }
+
+    /**
+     * @return The state we are in, or null before we start
+     */
+    public S getState() {
+        return (m_current == NONE) ? null : m_states[m_current];
+    }
+
+    /**
+     * @param state A state
+     * @return The FPGA time we entered the state in seconds, or NaN if we haven't since we started
+     */
+    public double getEntryTime(S state) {
+        return m_entryTimes[state.ordinal()];
+    }
+
+    /**
+     * @param state A state
+     * @return The FPGA time we left the state in seconds, or NaN if we haven't since we started
+     */
+    public double getExitTime(S state) {
+        return m_exitTimes[state.ordinal()];
+    }
+
+    /**
+     * @param state A state
+     * @return The seconds we spent in the state, up to our last loop if we are still in it, or zero if we haven't entered it
+     */
+    public double getTimeInState(S state) {
+        int index = state.ordinal();
+        if (Double.isNaN(m_entryTimes[index])) {
+            return 0;
+        }
+        double end = (index == m_current) ? m_now : m_exitTimes[index];
+        return end - m_entryTimes[index];
+    }
+
+    /**
+     * @param state A state
+     * @return Whether we left the state because its timeout ran out
+     */
+    public boolean hasTimedOut(S state) {
+        return m_timedOut[state.ordinal()];
+    }
+
+    /**
+     * Estimates how much time a parallel state saved over running its branches one after another
+     * <p>Each branch is counted from when we entered the state to when it first finished, or to when we left if it never did.
+     * The estimate is the sum of those times, less the time we actually spent in the state.
+     * @param state A state
+     * @return The seconds saved, or zero if the state isn't parallel or we haven't entered it
+     */
+    public double getSavedTime(S state) {
+        int index = state.ordinal();
+        if (m_branches[index] == null || Double.isNaN(m_entryTimes[index])) {
+            return 0;
+        }
+
+        double timeInState = getTimeInState(state);
+        double sequentialTime = 0;
+        for (Branch branch : m_branches[index]) {
+            sequentialTime += Double.isNaN(branch.m_finishTime) ? timeInState : branch.m_finishTime - m_entryTimes[index];
+        }
+        return sequentialTime - timeInState;
+    }
+
+    /**
+     * @return The seconds from when we started to our last loop, or zero if we haven't started
+     */
+    public double getElapsedTime() {
+        return Double.isNaN(m_startTime) ? 0 : m_now - m_startTime;
+    }
+
+    /**
+     * Pushes the current state and the time spent in each state to the shuffleboard
+     */
+    public void publish() {
+        for (S state : m_states) {
+            m_timeEntries[state.ordinal()].setDouble(getTimeInState(state));
+            if (m_savedEntries[state.ordinal()] != null) {
+                m_savedEntries[state.ordinal()].setDouble(getSavedTime(state));
+            }
+        }
+        m_stateEntry.setString((m_current == NONE) ? "" : m_states[m_current].toString());
+    }
+
+    /**
+     * Prints when we entered each state and how long we spent in it, in the order we entered them
+     * <p>This allocates, so it is only run once we reach the final state
+     */
+    public void printTimings() {
+        System.out.printf("%s timings, %.2fs since start:%n", m_name, getElapsedTime());
+
+        //sort the states we entered by entry time with a simple selection, since there are only a few
+        boolean[] printed = new boolean[m_states.length];
+        for (int count = 0; count < m_states.length; count++) {
+            int earliest = NONE;
+            for (int index = 0; index < m_states.length; index++) {
+                if (!printed[index] && !Double.isNaN(m_entryTimes[index])
+                    && (earliest == NONE || m_entryTimes[index] < m_entryTimes[earliest])) {
+                    earliest = index;
+                }
+            }
+            if (earliest == NONE) {
+                break;
+            }
+            printed[earliest] = true;
+
+            S state = m_states[earliest];
+            System.out.printf("  %-20s entered %6.2fs  spent %6.2fs%s%n", state, m_entryTimes[earliest] - m_startTime,
+                              getTimeInState(state), m_timedOut[earliest] ? "  (timed out)" : "");
+
+            //show when each branch of a parallel state finished, and what running them together saved
+            if (m_branches[earliest] != null) {
+                for (Branch branch : m_branches[earliest]) {
+                    if (Double.isNaN(branch.m_finishTime)) {
+                        System.out.printf("    %-18s did not finish%n", branch.m_name);
+                    }
+                    else {
+                        System.out.printf("    %-18s finished after %5.2fs%n", branch.m_name, branch.m_finishTime - m_entryTimes[earliest]);
+                    }
+                }
+                System.out.printf("    %s join saved %.2fs over running in sequence%n", m_joins[earliest], getSavedTime(state));
+            }
+        }
+    }
+
+    /**
+     * instantiates all of our network table entries and displays them under the machine's tab
+     */
+    public void shuffleboardConfig() {
+        m_tab = Shuffleboard.getTab(m_name);
+        m_stateEntry = m_tab.add(m_name + " State", "").getEntry();
+
+        m_savedEntries = new NetworkTableEntry[m_states.length];
+        m_timeEntries = new NetworkTableEntry[m_states.length];
+        for (S state : m_states) {
+            m_timeEntries[state.ordinal()] = m_tab.add(state + " (s)", 0.0).getEntry();
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package frc.robot;
+
+import java.util.ArrayList;
+
+import com.ctre.phoenix.motorcontrol.StatusFrame;
+import com.ctre.phoenix.motorcontrol.can.BaseMotorController;
+
+import edu.wpi.first.networktables.NetworkTableEntry;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
+import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardTab;
+
+/**
+ * Sets the status frame periods of every CTRE motor controller on the robot from one place
+ * <p>Each controller is registered with a role, and each role has a period for its general (Status 1)
+ * and feedback (Status 2) frames in every robot mode. Frames we never read, such as slave feedback, are slowed way down.
+ * <p>This also estimates how much of the CAN bus our motor controllers use, so we can stay under saturation
+ */
+public class StatusFrameManager implements ShuffleboardEnabled {
+    /**
+     * This enum stores the modes we have a status frame profile for
+     * <p>Possible values:
+     * <li>{@link #kAuton}</li>
+     * <li>{@link #kTeleop}</li>
+     * <li>{@link #kDisabled}</li>
+     */
+    public enum RobotMode {
+        kAuton("Auton"),
+        kTeleop("Teleop"),
+        kDisabled("Disabled");
+
+        private String modeName;
+
+        /**
+         * @param modeName The name of the mode
+         */
+        RobotMode(String modeName) {
+            this.modeName = modeName;
+        }
+
+        /**
+         * Returns the mode represented as a string
+         */
+        public String toString() {
+            return this.modeName;
+        }
+    }
+
+    /**
+     * This enum stores what each motor controller does, and the frame periods it needs in each mode
+     * <p>Periods are listed in RobotMode order (auton, teleop, disabled)
+     * <p>Possible values:
+     * <li>{@link #kDriveMaster}</li>
+     * <li>{@link #kDriveSlave}</li>
+     * <li>{@link #kLauncherMaster}</li>
+     * <li>{@link #kLauncherSlave}</li>
+     * <li>{@link #kClimber}</li>
+     * <li>{@link #kMagazine}</li>
+     */
+    public enum DeviceRole {
+        /**
+         * A drivetrain master, whose encoder we read for auton moves and odometry
+         * <p>Odometry keeps tracking a robot pushed while disabled, so the encoder stays at the odometry rate in every mode
+         */
+        kDriveMaster(new int[] {RobotMap.STATUS_FRAME_FAST_MS, RobotMap.STATUS_FRAME_FAST_MS, RobotMap.STATUS_FRAME_SLOW_MS},
+                     new int[] {RobotMap.STATUS_FRAME_FAST_MS, RobotMap.STATUS_FRAME_FAST_MS, RobotMap.STATUS_FRAME_FAST_MS}),
+        /**
+         * A drivetrain slave, which we never read
+         */
+        kDriveSlave(new int[] {RobotMap.STATUS_FRAME_SLOW_MS, RobotMap.STATUS_FRAME_SLOW_MS, RobotMap.STATUS_FRAME_SLOW_MS},
+                    new int[] {RobotMap.STATUS_FRAME_SLOWEST_MS, RobotMap.STATUS_FRAME_SLOWEST_MS, RobotMap.STATUS_FRAME_SLOWEST_MS}),
+        /**
+         * The launcher master, whose velocity we read to decide when to launch
+         */
+        kLauncherMaster(new int[] {RobotMap.STATUS_FRAME_DEFAULT_MS, RobotMap.STATUS_FRAME_DEFAULT_MS, RobotMap.STATUS_FRAME_SLOW_MS},
+                        new int[] {RobotMap.LAUNCHER_FEEDBACK_PERIOD_MS, RobotMap.LAUNCHER_FEEDBACK_PERIOD_MS, RobotMap.STATUS_FRAME_SLOW_MS}),
+        /**
+         * A launcher slave, which we never read
+         */
+        kLauncherSlave(new int[] {RobotMap.STATUS_FRAME_SLOW_MS, RobotMap.STATUS_FRAME_SLOW_MS, RobotMap.STATUS_FRAME_SLOW_MS},
+                       new int[] {RobotMap.STATUS_FRAME_SLOWEST_MS, RobotMap.STATUS_FRAME_SLOWEST_MS, RobotMap.STATUS_FRAME_SLOWEST_MS}),
+        /**
+         * The climber extension motor, whose position we only need in teleop
+         */
+        kClimber(new int[] {RobotMap.STATUS_FRAME_SLOW_MS, RobotMap.STATUS_FRAME_DEFAULT_MS, RobotMap.STATUS_FRAME_SLOW_MS},
+                 new int[] {RobotMap.STATUS_FRAME_SLOW_MS, RobotMap.CLIMBER_FEEDBACK_PERIOD_MS, RobotMap.STATUS_FRAME_SLOW_MS}),
+        /**
+         * The magazine belt motor, which we never read
+         */
+        kMagazine(new int[] {RobotMap.STATUS_FRAME_SLOW_MS, RobotMap.STATUS_FRAME_SLOW_MS, RobotMap.STATUS_FRAME_SLOW_MS},
+                  new int[] {RobotMap.STATUS_FRAME_SLOWEST_MS, RobotMap.STATUS_FRAME_SLOWEST_MS, RobotMap.STATUS_FRAME_SLOWEST_MS});
+
+        private final int[] generalPeriodsMs;
+        private final int[] feedbackPeriodsMs;
+
+        /**
+         * @param generalPeriodsMs The Status 1 period in each mode
+         * @param feedbackPeriodsMs The Status 2 period in each mode
+         */
+        DeviceRole(int[] generalPeriodsMs, int[] feedbackPeriodsMs) {
+            this.generalPeriodsMs = generalPeriodsMs;
+            this.feedbackPeriodsMs = feedbackPeriodsMs;
+        }
+
+        /**
+         * @param mode The robot mode
+         * @return The general (Status 1) frame period in milliseconds for that mode
+         */
+        public int getGeneralPeriodMs(RobotMode mode) {
+            return generalPeriodsMs[mode.ordinal()];
+        }
+
+        /**
+         * @param mode The robot mode
+         * @return The feedback (Status 2) frame period in milliseconds for that mode
+         */
+        public int getFeedbackPeriodMs(RobotMode mode) {
+            return feedbackPeriodsMs[mode.ordinal()];
+        }
+    }
+
+    //parallel lists of every registered controller and its role
+    private ArrayList<BaseMotorController> m_devices = new ArrayList<BaseMotorController>();
+    private ArrayList<DeviceRole> m_roles = new ArrayList<DeviceRole>();
+
+    //the mode whose profile was applied last, null until the first apply
+    private RobotMode m_currentMode = null;
+
+    //declare private variables for creating a tab, and setting widgets
+    private ShuffleboardTab m_canTab;
+    /**Network table entry to publish our estimated bus utilization */
+    private NetworkTableEntry m_busLoadEntry;
+    /**Network table entry to publish the mode whose profile is applied */
+    private NetworkTableEntry m_modeEntry;
+
+    /**
+     * Constructor for StatusFrameManager objects
+     * <p>Every motor controller should be registered before the first profile is applied
+     */
+    public StatusFrameManager() {
+        shuffleboardConfig();
+    }
+
+    /**
+     * Adds a motor controller to the set we manage
+     * @param device The motor controller
+     * @param role What the motor controller does, which determines its frame periods
+     */
+    public void register(BaseMotorController device, DeviceRole role) {
+        m_devices.add(device);
+        m_roles.add(role);
+    }
+
+    /**
+     * Checks that every motor controller CAN ID in the RobotMap has been registered, and warns about any that haven't
+     * @return Whether every ID was registered
+     */
+    public boolean verifyRegistration() {
+        boolean allRegistered = true;
+        for (int id : RobotMap.CAN_MOTOR_CONTROLLER_IDS) {
+            boolean found = false;
+            for (BaseMotorController device : m_devices) {
+                if (device.getDeviceID() == id) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                DriverStation.reportWarning("CAN device " + id + " has no status frame profile", false);
+                allRegistered = false;
+            }
+        }
+        return allRegistered;
+    }
+
+    /**
+     * Sets the status frame periods of every registered motor controller to the profile for a mode
+     * <p>Does nothing if the profile for that mode is already applied
+     * @param mode The mode we are entering
+     * @param timeoutMs The config timeout. Zero sends the frames without waiting, which should be used mid match
+     */
+    public void applyProfile(RobotMode mode, int timeoutMs) {
+        if (mode == m_currentMode) {
+            return;
+        }
+        m_currentMode = mode;
+
+        for (int index = 0; index < m_devices.size(); index++) {
+            BaseMotorController device = m_devices.get(index);
+            DeviceRole role = m_roles.get(index);
+
+            device.setStatusFramePeriod(StatusFrame.Status_1_General, role.getGeneralPeriodMs(mode), timeoutMs);
+            device.setStatusFramePeriod(StatusFrame.Status_2_Feedback0, role.getFeedbackPeriodMs(mode), timeoutMs);
+        }
+
+        //report our new estimated bus load, and warn if it is over our budget
+        double busLoad = estimateBusLoad(mode);
+        m_busLoadEntry.setDouble(busLoad * 100);
+        m_modeEntry.setString(mode.toString());
+        if (busLoad > RobotMap.CAN_BUS_LOAD_BUDGET) {
+            DriverStation.reportWarning("Estimated CAN bus load of " + Math.round(busLoad * 100) + "% in " + mode + " is over budget", false);
+        }
+    }
+
+    /**
+     * Forgets the applied profile, so the next applyProfile() resends every frame period
+     * <p>This should be called after a motor controller resets, since it goes back to factory frame periods
+     */
+    public void invalidate() {
+        m_currentMode = null;
+    }
+
+    /**
+     * Estimates the fraction of the CAN bus used by our motor controllers in a mode
+     * <p>This counts the managed status frames, the control frame each controller receives,
+     * a fixed rate for the status frames we leave at default, and a fixed rate for the PDP and PCM
+     * @param mode The mode to estimate for
+     * @return The estimated bus utilization from 0.0 to 1.0
+     */
+    public double estimateBusLoad(RobotMode mode) {
+        double framesPerSecond = RobotMap.CAN_OTHER_DEVICE_FRAMES_PER_SECOND;
+
+        for (DeviceRole role : m_roles) {
+            framesPerSecond += 1000.0 / role.getGeneralPeriodMs(mode);
+            framesPerSecond += 1000.0 / role.getFeedbackPeriodMs(mode);
+            framesPerSecond += 1000.0 / RobotMap.CAN_CONTROL_FRAME_PERIOD_MS;
+            framesPerSecond += RobotMap.CAN_UNMANAGED_FRAMES_PER_SECOND;
+        }
+
+        return (framesPerSecond * RobotMap.CAN_BITS_PER_FRAME) / RobotMap.CAN_BUS_BITS_PER_SECOND;
+    }
+
+    /**
+     * @return The mode whose profile is currently applied, or null if none has been applied
+     */
+    public RobotMode getCurrentMode() {
+        return m_currentMode;
+    }
+
+    /**
+     * instantiates all of our network table entries and displays them under the CAN tab
+     */
+    public void shuffleboardConfig() {
+        m_canTab = Shuffleboard.getTab("CAN");
+        m_busLoadEntry = m_canTab.add("Estimated Bus Load (%)", 0.0).getEntry();
+        m_modeEntry = m_canTab.add("Status Frame Profile", "None").getEntry();
+    }
+}
@@ -0,0 +1,118 @@
+package frc.robot;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+
+import frc.robot.Auton.AutonState;
+import frc.robot.CopilotController.TargetingStage;
+import frc.robot.Drivetrain.Gear;
+import frc.robot.LimelightTargeting.TargetingMode;
+import frc.robot.StatusFrameManager.RobotMode;
+
+/**
+ * Reads a log file written by the {@link TelemetryLogger} back into snapshots
+ * <p>This is meant to be run off of the robot, such as by the {@link ReplayEngine}
+ */
+public class TelemetryLogReader {
+    /**
+     * This class only has static methods
+     */
+    private TelemetryLogReader() {
+    }
+
+    /**
+     * Reads every record in a log file, oldest first
+     * <p>If the ring in the file wrapped, reading starts from the oldest record that wasn't overwritten
+     * @param file The log file
+     * @return One snapshot per record, in the order they were logged
+     * @throws IOException If the file can't be read, or isn't a log file with our current layout
+     */
+    public static TelemetrySnapshot[] read(File file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+
+        if (buffer.capacity() < TelemetryLogger.HEADER_SIZE || buffer.getInt(TelemetryLogger.HEADER_MAGIC) != TelemetryLogger.MAGIC) {
+            throw new IOException(file + " is not a telemetry log");
+        }
+        int version = buffer.getInt(TelemetryLogger.HEADER_VERSION);
+        int recordSize = buffer.getInt(TelemetryLogger.HEADER_RECORD_SIZE);
+        if (version != TelemetryLogger.VERSION || recordSize != TelemetryLogger.RECORD_SIZE) {
+            throw new IOException(file + " has layout version " + version + ", but we read version " + TelemetryLogger.VERSION);
+        }
+
+        int capacity = buffer.getInt(TelemetryLogger.HEADER_CAPACITY);
+        long recordsWritten = buffer.getLong(TelemetryLogger.HEADER_RECORDS_WRITTEN);
+
+        //once the ring has wrapped, the oldest record is the one that would be overwritten next
+        int count = (int) Math.min(recordsWritten, capacity);
+        long first = recordsWritten - count;
+
+        TelemetrySnapshot[] snapshots = new TelemetrySnapshot[count];
+        for (int index = 0; index < count; index++) {
+            int offset = TelemetryLogger.HEADER_SIZE + (int) ((first + index) % capacity) * recordSize;
+            snapshots[index] = new TelemetrySnapshot();
+            readRecord(buffer, offset, snapshots[index]);
+        }
+        return snapshots;
+    }
+
+    /**
+     * Fills a snapshot from one record
+     * @param buffer The whole log file
+     * @param offset The start of the record in bytes
+     * @param snapshot The snapshot to fill
+     */
+    private static void readRecord(ByteBuffer buffer, int offset, TelemetrySnapshot snapshot) {
+        snapshot.timestamp = buffer.getDouble(offset + TelemetryLogger.RECORD_TIMESTAMP);
+
+        snapshot.leftPosition = buffer.getInt(offset + TelemetryLogger.RECORD_LEFT_POSITION);
+        snapshot.rightPosition = buffer.getInt(offset + TelemetryLogger.RECORD_RIGHT_POSITION);
+        snapshot.leftVelocity = buffer.getInt(offset + TelemetryLogger.RECORD_LEFT_VELOCITY);
+        snapshot.rightVelocity = buffer.getInt(offset + TelemetryLogger.RECORD_RIGHT_VELOCITY);
+        snapshot.yaw = buffer.getFloat(offset + TelemetryLogger.RECORD_YAW);
+        snapshot.driveForward = buffer.getFloat(offset + TelemetryLogger.RECORD_DRIVE_FORWARD);
+        snapshot.driveTurn = buffer.getFloat(offset + TelemetryLogger.RECORD_DRIVE_TURN);
+
+        snapshot.xDegrees = buffer.getFloat(offset + TelemetryLogger.RECORD_TX);
+        snapshot.yDegrees = buffer.getFloat(offset + TelemetryLogger.RECORD_TY);
+        snapshot.skew = buffer.getFloat(offset + TelemetryLogger.RECORD_TS);
+        snapshot.latencyMs = buffer.getFloat(offset + TelemetryLogger.RECORD_LATENCY);
+        snapshot.hasTargets = (buffer.get(offset + TelemetryLogger.RECORD_TV) != 0);
+        snapshot.frameNew = (buffer.get(offset + TelemetryLogger.RECORD_FRAME_NEW) != 0);
+        snapshot.targetingActive = (buffer.get(offset + TelemetryLogger.RECORD_TARGETING_ACTIVE) != 0);
+        snapshot.onTarget = (buffer.get(offset + TelemetryLogger.RECORD_ON_TARGET) != 0);
+
+        snapshot.launcherVelocity = buffer.getInt(offset + TelemetryLogger.RECORD_LAUNCHER_VELOCITY);
+        snapshot.launcherOutput = buffer.getFloat(offset + TelemetryLogger.RECORD_LAUNCHER_OUTPUT);
+        snapshot.launcherTargetVelocity = buffer.getFloat(offset + TelemetryLogger.RECORD_LAUNCHER_TARGET_VELOCITY);
+        snapshot.launcherReady = (buffer.get(offset + TelemetryLogger.RECORD_LAUNCHER_READY) != 0);
+        snapshot.batteryVoltage = buffer.getFloat(offset + TelemetryLogger.RECORD_BATTERY_VOLTAGE);
+
+        snapshot.intakeSensor = (buffer.get(offset + TelemetryLogger.RECORD_INTAKE_SENSOR) != 0);
+        snapshot.launchSensor = (buffer.get(offset + TelemetryLogger.RECORD_LAUNCH_SENSOR) != 0);
+        snapshot.storedBalls = buffer.get(offset + TelemetryLogger.RECORD_STORED_BALLS);
+        snapshot.magazineOutput = buffer.getFloat(offset + TelemetryLogger.RECORD_MAGAZINE_OUTPUT);
+
+        snapshot.climberPosition = buffer.getInt(offset + TelemetryLogger.RECORD_CLIMBER_POSITION);
+
+        snapshot.robotMode = fromOrdinal(RobotMode.values(), buffer.get(offset + TelemetryLogger.RECORD_ROBOT_MODE));
+        snapshot.autonState = fromOrdinal(AutonState.values(), buffer.get(offset + TelemetryLogger.RECORD_AUTON_STATE));
+        snapshot.targetingStage = fromOrdinal(TargetingStage.values(), buffer.get(offset + TelemetryLogger.RECORD_TARGETING_STAGE));
+        snapshot.gear = fromOrdinal(Gear.values(), buffer.get(offset + TelemetryLogger.RECORD_GEAR));
+        snapshot.targetingMode = fromOrdinal(TargetingMode.values(), buffer.get(offset + TelemetryLogger.RECORD_TARGETING_MODE));
+
+        snapshot.loopAllocatedBytes = buffer.getInt(offset + TelemetryLogger.RECORD_LOOP_ALLOCATED_BYTES);
+        snapshot.loopMs = buffer.getFloat(offset + TelemetryLogger.RECORD_LOOP_MS);
+        snapshot.gcPauseMs = buffer.getFloat(offset + TelemetryLogger.RECORD_GC_PAUSE_MS);
+    }
+
+    /**
+     * @param values Every value of an enum, in order
+     * @param ordinal A logged ordinal
+     * @return The value with that ordinal, or null if it was logged as null or is out of range
+     */
+    private static <E extends Enum<E>> E fromOrdinal(E[] values, byte ordinal) {
+        return (ordinal >= 0 && ordinal < values.length) ? values[ordinal] : null;
+    }
+}
@@ -0,0 +1,387 @@
+package frc.robot;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import edu.wpi.first.networktables.NetworkTableEntry;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
+import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardTab;
+import frc.robot.StatusFrameManager.RobotMode;
+
+/**
+ * Records one fixed-size binary record of the robot's state every loop, so we can look back at a match afterwards
+ * <p>The main loop only fills in a preallocated {@link TelemetrySnapshot} and hands it to a low priority writer thread
+ * through a lock free {@link SnapshotRing}. The writer copies each snapshot into a file that is memory mapped,
+ * and the operating system writes the pages out to disk on its own. It also publishes a few values to the shuffleboard.
+ * If the writer falls behind, snapshots are dropped and counted rather than making the main loop wait.
+ * <p>The file is a header followed by a ring of records, and the oldest record is overwritten once the ring is full.
+ * The file from the last boot is kept alongside the new one. Every value is big endian.
+ * <p>Header layout:
+ * <li>0: int magic number</li>
+ * <li>4: int layout version</li>
+ * <li>8: int record size in bytes</li>
+ * <li>12: int capacity in records</li>
+ * <li>16: long total records written, so the newest record is at (total - 1) % capacity</li>
+ * <p>Record layout, see the RECORD_ offsets
+ */
+public class TelemetryLogger implements ShuffleboardEnabled {
+    /**The magic number at the start of the file, "5567" in ASCII */
+    public static final int MAGIC = 0x35353637;
+    /**The layout version, which should be bumped whenever the header or record layout changes */
+    public static final int VERSION = 5;
+
+    /**The size of the header in bytes */
+    public static final int HEADER_SIZE = 32;
+    //header offsets
+    public static final int HEADER_MAGIC = 0;
+    public static final int HEADER_VERSION = 4;
+    public static final int HEADER_RECORD_SIZE = 8;
+    public static final int HEADER_CAPACITY = 12;
+    public static final int HEADER_RECORDS_WRITTEN = 16;
+
+    /**The size of each record in bytes */
+    public static final int RECORD_SIZE = 104;
+    //record offsets, each is the start of the value in bytes from the start of the record
+    /**double, FPGA timestamp in seconds */
+    public static final int RECORD_TIMESTAMP = 0;
+    /**int, left and right drive encoder positions and velocities in sensor units */
+    public static final int RECORD_LEFT_POSITION = 8;
+    public static final int RECORD_RIGHT_POSITION = 12;
+    public static final int RECORD_LEFT_VELOCITY = 16;
+    public static final int RECORD_RIGHT_VELOCITY = 20;
+    /**float, offset NavX yaw in degrees */
+    public static final int RECORD_YAW = 24;
+    /**float, limelight tx, ty and ts in degrees */
+    public static final int RECORD_TX = 28;
+    public static final int RECORD_TY = 32;
+    public static final int RECORD_TS = 36;
+    /**int, launcher velocity in sensor units per 100ms */
+    public static final int RECORD_LAUNCHER_VELOCITY = 40;
+    /**float, launcher motor output from -1.0 to 1.0 */
+    public static final int RECORD_LAUNCHER_OUTPUT = 44;
+    /**float, battery voltage */
+    public static final int RECORD_BATTERY_VOLTAGE = 48;
+    /**byte, 1 if the limelight has a target (tv) */
+    public static final int RECORD_TV = 52;
+    /**byte, 1 if the magazine intake and launch sensors are tripped */
+    public static final int RECORD_INTAKE_SENSOR = 53;
+    public static final int RECORD_LAUNCH_SENSOR = 54;
+    /**byte, the number of balls stored in the magazine */
+    public static final int RECORD_STORED_BALLS = 55;
+    /**byte, the ordinal of each state enum, or -1 if it is null */
+    public static final int RECORD_ROBOT_MODE = 56;
+    public static final int RECORD_AUTON_STATE = 57;
+    public static final int RECORD_TARGETING_STAGE = 58;
+    public static final int RECORD_GEAR = 59;
+    public static final int RECORD_TARGETING_MODE = 60;
+    /**int, climber extension position in sensor units */
+    public static final int RECORD_CLIMBER_POSITION = 64;
+    /**float, magazine belt output from -1.0 to 1.0 */
+    public static final int RECORD_MAGAZINE_OUTPUT = 68;
+    /**float, forward and turn last sent to the drivetrain from -1.0 to 1.0 */
+    public static final int RECORD_DRIVE_FORWARD = 72;
+    public static final int RECORD_DRIVE_TURN = 76;
+    /**float, launcher velocity setpoint in sensor units per 100ms, zero in percent output */
+    public static final int RECORD_LAUNCHER_TARGET_VELOCITY = 80;
+    /**float, limelight pipeline latency (tl) in milliseconds */
+    public static final int RECORD_LATENCY = 84;
+    /**byte, 1 if target() was called this loop, if we were on target, if the launcher was ready, and if the limelight frame was new */
+    public static final int RECORD_TARGETING_ACTIVE = 88;
+    public static final int RECORD_ON_TARGET = 89;
+    public static final int RECORD_LAUNCHER_READY = 90;
+    public static final int RECORD_FRAME_NEW = 91;
+    /**int, bytes allocated by the last whole periodic call, or zero if the profiler is off */
+    public static final int RECORD_LOOP_ALLOCATED_BYTES = 92;
+    /**float, length of the last loop and the GC pause time inside it in milliseconds, see {@link GcMonitor} */
+    public static final int RECORD_LOOP_MS = 96;
+    public static final int RECORD_GC_PAUSE_MS = 100;
+
+    //the subsystems we read from
+    private final Drivetrain m_drivetrain;
+    private final CopilotController m_copilotController;
+    private final LimelightReader m_limelightReader;
+    private final LimelightTargeting m_targeting;
+    private final Auton m_auton;
+    private final LoopProfiler m_profiler;
+    private final GcMonitor m_gcMonitor;
+
+    //the ring the main loop hands snapshots to the writer through
+    private final SnapshotRing<TelemetrySnapshot> m_ring;
+
+    //the background thread that drains the ring
+    private final Thread m_writerThread;
+
+    //the mapped file, which is null if the file couldn't be opened. Only the writer thread touches it after construction
+    private MappedByteBuffer m_buffer = null;
+
+    //the number of records that fit in the file, and the total the writer has written
+    private int m_capacity;
+    private volatile long m_recordsWritten = 0;
+
+    //set by the main loop to have the writer force the file out to disk
+    private volatile boolean m_flushRequested = false;
+
+    //counts records so the writer only publishes to the shuffleboard every TELEMETRY_PUBLISH_PERIOD_RECORDS
+    private int m_recordsSincePublish = 0;
+
+    //declare private variables for creating a tab, and setting widgets
+    private ShuffleboardTab m_telemetryTab;
+    /**Network table entry to publish the number of snapshots dropped because the writer was behind */
+    private NetworkTableEntry m_droppedEntry;
+    /**Network table entry to publish the number of records written */
+    private NetworkTableEntry m_recordsEntry;
+    /**Network table entries to publish a few values from the latest record */
+    private NetworkTableEntry m_batteryVoltageEntry;
+    private NetworkTableEntry m_launcherRpmEntry;
+    private NetworkTableEntry m_storedBallsEntry;
+
+    /**
+     * Constructor for TelemetryLogger objects
+     * <p>This opens and maps the file and starts the writer thread, so it should be run on startup.
+     * If the file can't be opened, a warning is reported and the writer only publishes to the shuffleboard
+     * @param drivetrain The drivetrain, which also supplies the gyro
+     * @param copilotController The copilot controller, which supplies the launcher, magazine and climber
+     * @param limelightReader The limelight reader, which should be in snapshot mode
+     * @param targeting The targeting object
+     * @param auton The auton
+     * @param profiler The loop profiler, which supplies the bytes each loop allocated
+     * @param gcMonitor The GC monitor, which supplies the length of each loop and the GC pause time inside it
+     */
+    public TelemetryLogger(Drivetrain drivetrain, CopilotController copilotController, LimelightReader limelightReader,
+                           LimelightTargeting targeting, Auton auton, LoopProfiler profiler, GcMonitor gcMonitor) {
+        m_drivetrain = drivetrain;
+        m_copilotController = copilotController;
+        m_limelightReader = limelightReader;
+        m_targeting = targeting;
+        m_auton = auton;
+        m_profiler = profiler;
+        m_gcMonitor = gcMonitor;
+        m_capacity = RobotMap.TELEMETRY_CAPACITY_RECORDS;
+
+        m_ring = new SnapshotRing<TelemetrySnapshot>(RobotMap.TELEMETRY_RING_SIZE, TelemetrySnapshot::new);
+
+        openFile(new File(RobotMap.TELEMETRY_FILE_PATH));
+        shuffleboardConfig();
+
+        //the writer runs below the main loop's priority, so it only uses time the main loop doesn't need
+        m_writerThread = new Thread(this::writerLoop, "TelemetryWriter");
+        m_writerThread.setDaemon(true);
+        m_writerThread.setPriority(Thread.MIN_PRIORITY);
+        m_writerThread.start();
+    }
+
+    /**
+     * Keeps the last boot's file, then creates and maps a new one
+     * @param file The file to log to
+     */
+    private void openFile(File file) {
+        try {
+            //move last boot's log aside so we don't overwrite the match we want to look at
+            if (file.exists()) {
+                Files.move(file.toPath(), new File(file.getPath() + RobotMap.TELEMETRY_PREVIOUS_SUFFIX).toPath(),
+                           StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            //the mapping stays valid after the file and channel are closed
+            try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+                 FileChannel channel = randomAccessFile.getChannel()) {
+                long size = HEADER_SIZE + ((long) m_capacity * RECORD_SIZE);
+                m_buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            }
+
+            m_buffer.putInt(HEADER_MAGIC, MAGIC);
+            m_buffer.putInt(HEADER_VERSION, VERSION);
+            m_buffer.putInt(HEADER_RECORD_SIZE, RECORD_SIZE);
+            m_buffer.putInt(HEADER_CAPACITY, m_capacity);
+            m_buffer.putLong(HEADER_RECORDS_WRITTEN, 0);
+        }
+        catch (IOException e) {
+            DriverStation.reportWarning("Could not open telemetry log " + file + ", logging is disabled: " + e.getMessage(), false);
+            m_buffer = null;
+        }
+    }
+
+    /**
+     * Captures the current robot state and hands it to the writer thread
+     * <p>This should be called once per loop, after every subsystem has run. It never waits on the writer
+     * @param mode The mode the robot is in, or null if unknown
+     */
+    public void log(RobotMode mode) {
+        TelemetrySnapshot snapshot = m_ring.claim();
+
+        //the writer is behind and the ring is full, the ring has counted the drop
+        if (snapshot == null) {
+            return;
+        }
+
+        snapshot.capture(mode, m_drivetrain, m_copilotController, m_limelightReader, m_targeting, m_auton, m_profiler, m_gcMonitor);
+        m_ring.publish();
+    }
+
+    /**
+     * Asks the writer thread to force the mapped file out to disk, without waiting for it
+     */
+    public void flush() {
+        m_flushRequested = true;
+    }
+
+    /**
+     * Runs on the writer thread, draining the ring until the robot program exits
+     */
+    private void writerLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            TelemetrySnapshot snapshot = m_ring.poll();
+
+            //nothing to write, so handle any flush request and sleep until the main loop has produced more
+            if (snapshot == null) {
+                if (m_flushRequested) {
+                    m_flushRequested = false;
+                    if (m_buffer != null) {
+                        m_buffer.force();
+                    }
+                }
+
+                try {
+                    Thread.sleep(RobotMap.TELEMETRY_WRITER_IDLE_MS);
+                }
+                catch (InterruptedException e) {
+                    return;
+                }
+                continue;
+            }
+
+            //the snapshot must be fully used before it is released, since the main loop reuses it right away
+            if (m_buffer != null) {
+                writeRecord(snapshot);
+            }
+            m_recordsSincePublish++;
+            if (m_recordsSincePublish >= RobotMap.TELEMETRY_PUBLISH_PERIOD_RECORDS) {
+                m_recordsSincePublish = 0;
+                publish(snapshot);
+            }
+            m_ring.release();
+        }
+    }
+
+    /**
+     * Copies a snapshot into the next record in the file
+     * @param snapshot The snapshot to write
+     */
+    private void writeRecord(TelemetrySnapshot snapshot) {
+        //find where this record goes in the ring
+        int offset = HEADER_SIZE + (int) (m_recordsWritten % m_capacity) * RECORD_SIZE;
+
+        m_buffer.putDouble(offset + RECORD_TIMESTAMP, snapshot.timestamp);
+
+        m_buffer.putInt(offset + RECORD_LEFT_POSITION, snapshot.leftPosition);
+        m_buffer.putInt(offset + RECORD_RIGHT_POSITION, snapshot.rightPosition);
+        m_buffer.putInt(offset + RECORD_LEFT_VELOCITY, snapshot.leftVelocity);
+        m_buffer.putInt(offset + RECORD_RIGHT_VELOCITY, snapshot.rightVelocity);
+        m_buffer.putFloat(offset + RECORD_YAW, (float) snapshot.yaw);
+
+        m_buffer.putFloat(offset + RECORD_TX, (float) snapshot.xDegrees);
+        m_buffer.putFloat(offset + RECORD_TY, (float) snapshot.yDegrees);
+        m_buffer.putFloat(offset + RECORD_TS, (float) snapshot.skew);
+        m_buffer.put(offset + RECORD_TV, toByte(snapshot.hasTargets));
+
+        m_buffer.putInt(offset + RECORD_LAUNCHER_VELOCITY, snapshot.launcherVelocity);
+        m_buffer.putFloat(offset + RECORD_LAUNCHER_OUTPUT, (float) snapshot.launcherOutput);
+        m_buffer.putFloat(offset + RECORD_BATTERY_VOLTAGE, (float) snapshot.batteryVoltage);
+
+        m_buffer.put(offset + RECORD_INTAKE_SENSOR, toByte(snapshot.intakeSensor));
+        m_buffer.put(offset + RECORD_LAUNCH_SENSOR, toByte(snapshot.launchSensor));
+        m_buffer.put(offset + RECORD_STORED_BALLS, (byte) snapshot.storedBalls);
+
+        m_buffer.put(offset + RECORD_ROBOT_MODE, toByte(snapshot.robotMode));
+        m_buffer.put(offset + RECORD_AUTON_STATE, toByte(snapshot.autonState));
+        m_buffer.put(offset + RECORD_TARGETING_STAGE, toByte(snapshot.targetingStage));
+        m_buffer.put(offset + RECORD_GEAR, toByte(snapshot.gear));
+        m_buffer.put(offset + RECORD_TARGETING_MODE, toByte(snapshot.targetingMode));
+
+        m_buffer.putInt(offset + RECORD_CLIMBER_POSITION, snapshot.climberPosition);
+        m_buffer.putFloat(offset + RECORD_MAGAZINE_OUTPUT, (float) snapshot.magazineOutput);
+
+        m_buffer.putFloat(offset + RECORD_DRIVE_FORWARD, (float) snapshot.driveForward);
+        m_buffer.putFloat(offset + RECORD_DRIVE_TURN, (float) snapshot.driveTurn);
+        m_buffer.putFloat(offset + RECORD_LAUNCHER_TARGET_VELOCITY, (float) snapshot.launcherTargetVelocity);
+        m_buffer.putFloat(offset + RECORD_LATENCY, (float) snapshot.latencyMs);
+        m_buffer.put(offset + RECORD_TARGETING_ACTIVE, toByte(snapshot.targetingActive));
+        m_buffer.put(offset + RECORD_ON_TARGET, toByte(snapshot.onTarget));
+        m_buffer.put(offset + RECORD_LAUNCHER_READY, toByte(snapshot.launcherReady));
+        m_buffer.put(offset + RECORD_FRAME_NEW, toByte(snapshot.frameNew));
+        m_buffer.putInt(offset + RECORD_LOOP_ALLOCATED_BYTES, snapshot.loopAllocatedBytes);
+        m_buffer.putFloat(offset + RECORD_LOOP_MS, (float) snapshot.loopMs);
+        m_buffer.putFloat(offset + RECORD_GC_PAUSE_MS, (float) snapshot.gcPauseMs);
+
+        //update the count last, so a reader never sees a half written record as the newest
+        m_recordsWritten++;
+        m_buffer.putLong(HEADER_RECORDS_WRITTEN, m_recordsWritten);
+    }
+
+    /**
+     * Publishes our counters and a few values from a snapshot to the shuffleboard
+     * @param snapshot The latest snapshot
+     */
+    private void publish(TelemetrySnapshot snapshot) {
+        m_droppedEntry.setDouble(m_ring.getDropped());
+        m_recordsEntry.setDouble(m_recordsWritten);
+        m_batteryVoltageEntry.setDouble(snapshot.batteryVoltage);
+        m_launcherRpmEntry.setDouble(snapshot.launcherVelocity / RobotMap.RPM_TO_UNITS_PER_100MS);
+        m_storedBallsEntry.setDouble(snapshot.storedBalls);
+    }
+
+    /**
+     * instantiates all of our network table entries and displays them under the telemetry tab
+     */
+    public void shuffleboardConfig() {
+        m_telemetryTab = Shuffleboard.getTab("Telemetry");
+        m_droppedEntry = m_telemetryTab.add("Dropped Records", 0.0).getEntry();
+        m_recordsEntry = m_telemetryTab.add("Records Written", 0.0).getEntry();
+        m_batteryVoltageEntry = m_telemetryTab.add("Battery Voltage", 0.0).getEntry();
+        m_launcherRpmEntry = m_telemetryTab.add("Launcher RPM", 0.0).getEntry();
+        m_storedBallsEntry = m_telemetryTab.add("Stored Balls", 0.0).getEntry();
+    }
+
+    /**
+     * @return Whether the log file is open
+     */
+    public boolean isEnabled() {
+        return (m_buffer != null);
+    }
+
+    /**
+     * @return The total number of records written since startup
+     */
+    public long getRecordsWritten() {
+        return m_recordsWritten;
+    }
+
+    /**
+     * @return The number of snapshots dropped because the writer was behind
+     */
+    public long getDroppedRecords() {
+        return m_ring.getDropped();
+    }
+
+    /**
+     * @param value A boolean
+     * @return 1 for true, 0 for false
+     */
+    private static byte toByte(boolean value) {
+        return (byte) (value ? 1 : 0);
+    }
+
+    /**
+     * @param value Any enum value
+     * @return The ordinal of the value, or -1 if it is null
+     */
+    private static byte toByte(Enum<?> value) {
+        return (byte) ((value == null) ? -1 : value.ordinal());
+    }
+}
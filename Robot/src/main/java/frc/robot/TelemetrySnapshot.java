@@ -0,0 +1,137 @@
+package frc.robot;
+
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.Timer;
+import frc.robot.Auton.AutonState;
+import frc.robot.CopilotController.TargetingStage;
+import frc.robot.Drivetrain.Gear;
+import frc.robot.LimelightReader.Frame;
+import frc.robot.LimelightTargeting.TargetingMode;
+import frc.robot.StatusFrameManager.RobotMode;
+
+/**
+ * The state of the robot's subsystems in a single loop
+ * <p>These are preallocated in a {@link SnapshotRing} and reused, so they are filled in place rather than created each loop
+ */
+public class TelemetrySnapshot {
+    /**The FPGA timestamp in seconds */
+    public double timestamp;
+    /**The battery voltage */
+    public double batteryVoltage;
+
+    /**The drive encoder positions and velocities in sensor units */
+    public int leftPosition;
+    public int rightPosition;
+    public int leftVelocity;
+    public int rightVelocity;
+    /**The offset NavX yaw in degrees */
+    public double yaw;
+    /**The forward and turn last sent to the drivetrain, from -1.0 to 1.0 */
+    public double driveForward;
+    public double driveTurn;
+
+    /**The limelight values from this loop's frame */
+    public boolean hasTargets;
+    public double xDegrees;
+    public double yDegrees;
+    public double skew;
+    public double latencyMs;
+    /**Whether this loop's limelight frame is new */
+    public boolean frameNew;
+
+    /**Whether target() was called this loop, and whether we were on target */
+    public boolean targetingActive;
+    public boolean onTarget;
+
+    /**The launcher velocity in sensor units per 100ms and its output from -1.0 to 1.0 */
+    public int launcherVelocity;
+    public double launcherOutput;
+    /**The launcher velocity setpoint in sensor units per 100ms, or zero in percent output, and whether we have settled at it */
+    public double launcherTargetVelocity;
+    public boolean launcherReady;
+
+    /**The magazine sensors, stored balls, and belt output from -1.0 to 1.0 */
+    public boolean intakeSensor;
+    public boolean launchSensor;
+    public int storedBalls;
+    public double magazineOutput;
+
+    /**The climber extension position in sensor units */
+    public int climberPosition;
+
+    /**The state of each state machine, any of which can be null */
+    public RobotMode robotMode;
+    public AutonState autonState;
+    public TargetingStage targetingStage;
+    public Gear gear;
+    public TargetingMode targetingMode;
+
+    /**The bytes allocated by the last whole periodic call, or zero if the profiler is off */
+    public int loopAllocatedBytes;
+    /**The length of the last loop and the GC pause time inside it, in milliseconds */
+    public double loopMs;
+    public double gcPauseMs;
+
+    /**
+     * Fills in this snapshot from the current state of every subsystem
+     * <p>This reads sensors, so it should be run on the main loop thread
+     * @param mode The mode the robot is in, or null if unknown
+     * @param drivetrain The drivetrain, which also supplies the gyro
+     * @param copilotController The copilot controller, which supplies the launcher, magazine and climber
+     * @param limelightReader The limelight reader, which should be in snapshot mode
+     * @param targeting The targeting object
+     * @param auton The auton
+     * @param profiler The loop profiler
+     * @param gcMonitor The GC monitor, which should have ended this loop already
+     */
+    public void capture(RobotMode mode, Drivetrain drivetrain, CopilotController copilotController, LimelightReader limelightReader,
+                        LimelightTargeting targeting, Auton auton, LoopProfiler profiler, GcMonitor gcMonitor) {
+        timestamp = Timer.getFPGATimestamp();
+        batteryVoltage = RobotController.getBatteryVoltage();
+
+        leftPosition = drivetrain.getLeftDriveEncoderPosition();
+        rightPosition = drivetrain.getRightDriveEncoderPosition();
+        leftVelocity = drivetrain.getLeftDriveEncoderVelocity();
+        rightVelocity = drivetrain.getRightDriveEncoderVelocity();
+        yaw = drivetrain.getGyro().getOffsetYaw();
+        driveForward = drivetrain.getLastForward();
+        driveTurn = drivetrain.getLastTurn();
+
+        //read the limelight from its frame, so this snapshot matches what the rest of the loop saw
+        Frame frame = limelightReader.getFrame();
+        hasTargets = frame.hasTargets;
+        xDegrees = frame.xDegrees;
+        yDegrees = frame.yDegrees;
+        skew = frame.skew;
+        latencyMs = frame.latencyMs;
+        frameNew = frame.isNew;
+
+        targetingActive = targeting.isTargetingActive();
+        onTarget = targeting.wasLastOnTarget();
+
+        Launcher launcher = copilotController.getLauncher();
+        launcherVelocity = launcher.getVelocity();
+        launcherOutput = launcher.getMotorOutputPercent();
+        launcherTargetVelocity = launcher.getTargetVelocity();
+        launcherReady = launcher.isAtTargetVelocity();
+
+        Magazine magazine = copilotController.getMagazine();
+        intakeSensor = magazine.getIntakeSensor().get();
+        launchSensor = magazine.getLaunchSensor().get();
+        storedBalls = magazine.getStoredBalls();
+        magazineOutput = magazine.getMotor().getMotorOutputPercent();
+
+        climberPosition = copilotController.getClimber().getExtensionMotor().getSelectedSensorPosition();
+
+        robotMode = mode;
+        autonState = auton.getState();
+        targetingStage = copilotController.getTargetingStage();
+        gear = drivetrain.getGear();
+        targetingMode = targeting.getTargetingMode();
+
+        //the periodic call that just ran has already been measured, since robot periodic runs after it
+        loopAllocatedBytes = (int) Math.min(Integer.MAX_VALUE, profiler.getLastCycleBytes());
+        loopMs = gcMonitor.getLastLoopNanos() / 1.0e6;
+        gcPauseMs = gcMonitor.getLastLoopPauseNanos() / 1.0e6;
+    }
+}
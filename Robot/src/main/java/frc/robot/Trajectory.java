@@ -0,0 +1,222 @@
+package frc.robot;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A path for the drivetrain to follow, timed so that it can be driven within our velocity and acceleration limits
+ * <p>The trajectory is a list of points, packed into a buffer as fixed size records, so sampling it is a binary search with no allocation.
+ * The buffer is either on the heap, for a trajectory made by the {@link TrajectoryGenerator}, or memory mapped from the
+ * trajectory file that is generated at build time, see {@link TrajectoryFile}.
+ * Times between two points are linearly interpolated, and times past either end return the end point.
+ * <p>Record layout, see the RECORD_ offsets. Every value is a double, and the records are sorted by increasing time
+ */
+public class Trajectory {
+    /**The size of each record in bytes */
+    public static final int RECORD_SIZE = 56;
+    //record offsets, each is the start of the value in bytes from the start of the record
+    /**double, the time of the point in seconds, starting at zero */
+    public static final int RECORD_TIME = 0;
+    /**double, the field position of the point in meters */
+    public static final int RECORD_X = 8;
+    public static final int RECORD_Y = 16;
+    /**double, the heading of the point in radians counterclockwise */
+    public static final int RECORD_HEADING = 24;
+    /**double, the velocity in meters per second and acceleration in meters per second squared */
+    public static final int RECORD_VELOCITY = 32;
+    public static final int RECORD_ACCELERATION = 40;
+    /**double, the curvature of the point in radians per meter */
+    public static final int RECORD_CURVATURE = 48;
+
+    //the name of the trajectory for printouts
+    private final String m_name;
+
+    //our points, RECORD_SIZE bytes each, which are only read with absolute gets so the buffer can be shared between threads
+    private final ByteBuffer m_records;
+    private final int m_length;
+
+    /**
+     * Constructor for Trajectory objects, which packs the points into a buffer on the heap
+     * @param name The name of the trajectory for printouts
+     * @param times The time of each point in seconds, in increasing order starting at zero
+     * @param x The x of each point in meters
+     * @param y The y of each point in meters
+     * @param headings The heading of each point in radians counterclockwise
+     * @param velocities The velocity of each point in meters per second
+     * @param accelerations The acceleration of each point in meters per second squared
+     * @param curvatures The curvature of each point in radians per meter
+     * @throws IllegalArgumentException If the arrays are empty or different lengths
+     */
+    public Trajectory(String name, double[] times, double[] x, double[] y, double[] headings,
+                      double[] velocities, double[] accelerations, double[] curvatures) {
+        int length = times.length;
+        if (length == 0 || x.length != length || y.length != length || headings.length != length
+            || velocities.length != length || accelerations.length != length || curvatures.length != length) {
+            throw new IllegalArgumentException("Trajectory " + name + " needs the same number of every value, and at least one point");
+        }
+
+        ByteBuffer records = ByteBuffer.allocate(length * RECORD_SIZE);
+        for (int index = 0; index < length; index++) {
+            int offset = index * RECORD_SIZE;
+            records.putDouble(offset + RECORD_TIME, times[index]);
+            records.putDouble(offset + RECORD_X, x[index]);
+            records.putDouble(offset + RECORD_Y, y[index]);
+            records.putDouble(offset + RECORD_HEADING, headings[index]);
+            records.putDouble(offset + RECORD_VELOCITY, velocities[index]);
+            records.putDouble(offset + RECORD_ACCELERATION, accelerations[index]);
+            records.putDouble(offset + RECORD_CURVATURE, curvatures[index]);
+        }
+
+        m_name = name;
+        m_records = records;
+        m_length = length;
+    }
+
+    /**
+     * Constructor for Trajectory objects, which reads the points from records that are already packed, such as a
+     * slice of the memory mapped trajectory file
+     * <p>The buffer is kept rather than copied, so it must not be changed after this
+     * @param name The name of the trajectory for printouts
+     * @param records The records, starting at index 0 of the buffer and filling it
+     * @throws IllegalArgumentException If the buffer is empty or not a whole number of records
+     */
+    public Trajectory(String name, ByteBuffer records) {
+        if (records.capacity() == 0 || records.capacity() % RECORD_SIZE != 0) {
+            throw new IllegalArgumentException("Trajectory " + name + " needs a whole number of " + RECORD_SIZE
+                                               + " byte records, and at least one point, but has " + records.capacity() + " bytes");
+        }
+
+        m_name = name;
+        m_records = records;
+        m_length = records.capacity() / RECORD_SIZE;
+    }
+
+    /**
+     * Finds where the robot should be at a time
+     * @param time The time since the start of the trajectory in seconds
+     * @param point The point to fill in, so sampling doesn't allocate
+     */
+    public void sample(double time, TrajectoryPoint point) {
+        int last = m_length - 1;
+
+        //clamp to the end points
+        if (time <= getTime(0)) {
+            fill(0, 0, 0, point);
+            point.time = time;
+            return;
+        }
+        if (time >= getTime(last)) {
+            fill(last, last, 0, point);
+            point.time = time;
+            return;
+        }
+
+        //binary search for the first point after our time
+        //the loop keeps getTime(low) <= time < getTime(high)
+        int low = 0;
+        int high = last;
+        while (high - low > 1) {
+            int middle = (low + high) >>> 1;
+            if (getTime(middle) <= time) {
+                low = middle;
+            }
+            else {
+                high = middle;
+            }
+        }
+
+        double lowTime = getTime(low);
+        fill(low, high, (time - lowTime) / (getTime(high) - lowTime), point);
+        point.time = time;
+    }
+
+    /**
+     * @param index The index of a point
+     * @return The time of the point in seconds
+     */
+    private double getTime(int index) {
+        return m_records.getDouble((index * RECORD_SIZE) + RECORD_TIME);
+    }
+
+    /**
+     * Fills in a point between two of our points
+     * @param low The index of the earlier point
+     * @param high The index of the later point
+     * @param fraction How far between the two points to go, from 0 to 1
+     * @param point The point to fill in
+     */
+    private void fill(int low, int high, double fraction, TrajectoryPoint point) {
+        int lowOffset = low * RECORD_SIZE;
+        int highOffset = high * RECORD_SIZE;
+        point.x = interpolate(lowOffset, highOffset, RECORD_X, fraction);
+        point.y = interpolate(lowOffset, highOffset, RECORD_Y, fraction);
+        point.velocity = interpolate(lowOffset, highOffset, RECORD_VELOCITY, fraction);
+        point.acceleration = m_records.getDouble(lowOffset + RECORD_ACCELERATION);
+        point.curvature = interpolate(lowOffset, highOffset, RECORD_CURVATURE, fraction);
+
+        //interpolate the heading the short way around
+        double lowHeading = m_records.getDouble(lowOffset + RECORD_HEADING);
+        double turn = Math.IEEEremainder(m_records.getDouble(highOffset + RECORD_HEADING) - lowHeading, 2 * Math.PI);
+        point.heading = Math.IEEEremainder(lowHeading + (fraction * turn), 2 * Math.PI);
+    }
+
+    /**
+     * @param lowOffset The offset of the earlier record in bytes
+     * @param highOffset The offset of the later record in bytes
+     * @param value The offset of the value within a record, one of the RECORD_ offsets
+     * @param fraction How far between the two values to go, from 0 to 1
+     * @return The linearly interpolated value
+     */
+    private double interpolate(int lowOffset, int highOffset, int value, double fraction) {
+        double low = m_records.getDouble(lowOffset + value);
+        return low + (fraction * (m_records.getDouble(highOffset + value) - low));
+    }
+
+    /**
+     * Fills in one of our points exactly
+     * @param index The index of the point
+     * @param point The point to fill in
+     */
+    public void getPoint(int index, TrajectoryPoint point) {
+        fill(index, index, 0, point);
+        point.time = getTime(index);
+    }
+
+    /**
+     * @return The number of points in the trajectory
+     */
+    public int getLength() {
+        return m_length;
+    }
+
+    /**
+     * @return The time it takes to drive the trajectory in seconds
+     */
+    public double getTotalTime() {
+        return getTime(m_length - 1);
+    }
+
+    /**
+     * Copies our records into a buffer, for writing them to the trajectory file
+     * @param buffer The buffer to copy into, at its position, which is moved past the records
+     */
+    public void copyRecords(ByteBuffer buffer) {
+        //a duplicate has its own position, so copying doesn't disturb anyone sampling us
+        ByteBuffer records = m_records.duplicate();
+        records.clear();
+        buffer.put(records);
+    }
+
+    /**
+     * @return The name of the trajectory
+     */
+    public String getName() {
+        return m_name;
+    }
+
+    /**
+     * Returns the trajectory represented as a string
+     */
+    public String toString() {
+        return String.format("%s (%d points, %.2fs)", m_name, m_length, getTotalTime());
+    }
+}
@@ -0,0 +1,233 @@
+package frc.robot;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Filesystem;
+
+/**
+ * A binary file of precomputed trajectories, which is written at build time and memory mapped on the robot
+ * <p>Generating a path takes a while and allocates a lot, so the generateTrajectories gradle task runs {@link #main(String...)}
+ * on the computer we deploy from, and the robot only has to map the file when it boots.
+ * Each trajectory samples straight out of the mapped file, so following a path from it doesn't allocate either.
+ * <p>Header layout:
+ * <li>0: int magic number</li>
+ * <li>4: int layout version</li>
+ * <li>8: int record size in bytes</li>
+ * <li>12: int number of trajectories</li>
+ * <p>Then one directory entry per trajectory, see the ENTRY_ offsets, followed by the records of every trajectory.
+ * Record layout, see the {@link Trajectory} RECORD_ offsets. Everything is big endian, the java default
+ */
+public class TrajectoryFile {
+    /**The magic number at the start of the file, "55TR" in ASCII */
+    public static final int MAGIC = 0x35355452;
+    /**The layout version, which should be bumped whenever the header, directory or record layout changes */
+    public static final int VERSION = 1;
+
+    /**The size of the header in bytes */
+    public static final int HEADER_SIZE = 16;
+    //header offsets
+    public static final int HEADER_MAGIC = 0;
+    public static final int HEADER_VERSION = 4;
+    public static final int HEADER_RECORD_SIZE = 8;
+    public static final int HEADER_COUNT = 12;
+
+    /**The size of each directory entry in bytes, which keeps the records after the directory 8 byte aligned */
+    public static final int ENTRY_SIZE = 40;
+    //directory entry offsets
+    /**ascii, the name of the trajectory padded with zeros to ENTRY_NAME_SIZE bytes */
+    public static final int ENTRY_NAME = 0;
+    public static final int ENTRY_NAME_SIZE = 32;
+    /**int, the start of the trajectory's first record in bytes from the start of the file */
+    public static final int ENTRY_OFFSET = 32;
+    /**int, the number of records in the trajectory */
+    public static final int ENTRY_POINTS = 36;
+
+    //the trajectories in the file, in the order they were written
+    private final Trajectory[] m_trajectories;
+
+    /**
+     * Constructor for TrajectoryFile objects
+     * @param trajectories The trajectories in the file
+     */
+    private TrajectoryFile(Trajectory[] trajectories) {
+        m_trajectories = trajectories;
+    }
+
+    /**
+     * Finds a trajectory by name
+     * <p>This is a linear search meant for when the robot boots, so hold on to the trajectory rather than calling this every loop
+     * @param name The name of the trajectory
+     * @return The trajectory, or null if the file doesn't have one with that name
+     */
+    public Trajectory get(String name) {
+        for (Trajectory trajectory : m_trajectories) {
+            if (trajectory.getName().equals(name)) {
+                return trajectory;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return The number of trajectories in the file
+     */
+    public int getCount() {
+        return m_trajectories.length;
+    }
+
+    /**
+     * Memory maps a trajectory file
+     * <p>The whole file is paged in now, so the first loop that samples a trajectory doesn't wait on the disk
+     * @param file The trajectory file
+     * @return The trajectories in the file, which sample from the mapped file
+     * @throws IOException If the file can't be read, or isn't a trajectory file with our current layout
+     */
+    public static TrajectoryFile load(File file) throws IOException {
+        MappedByteBuffer buffer;
+        //the mapping stays valid after the channel is closed
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+        }
+        buffer.load();
+
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(HEADER_MAGIC) != MAGIC) {
+            throw new IOException(file + " is not a trajectory file");
+        }
+        int version = buffer.getInt(HEADER_VERSION);
+        int recordSize = buffer.getInt(HEADER_RECORD_SIZE);
+        if (version != VERSION || recordSize != Trajectory.RECORD_SIZE) {
+            throw new IOException(file + " has layout version " + version + ", but we read version " + VERSION);
+        }
+
+        int count = buffer.getInt(HEADER_COUNT);
+        if (count < 0 || HEADER_SIZE + ((long) count * ENTRY_SIZE) > buffer.capacity()) {
+            throw new IOException(file + " is too short for its " + count + " trajectories");
+        }
+
+        Trajectory[] trajectories = new Trajectory[count];
+        byte[] nameBytes = new byte[ENTRY_NAME_SIZE];
+        for (int index = 0; index < count; index++) {
+            int entry = HEADER_SIZE + (index * ENTRY_SIZE);
+
+            //the name runs up to the first zero of its padding
+            ByteBuffer name = buffer.duplicate();
+            name.position(entry + ENTRY_NAME);
+            name.get(nameBytes);
+            int nameLength = 0;
+            while (nameLength < ENTRY_NAME_SIZE && nameBytes[nameLength] != 0) {
+                nameLength++;
+            }
+            String trajectoryName = new String(nameBytes, 0, nameLength, StandardCharsets.US_ASCII);
+
+            int offset = buffer.getInt(entry + ENTRY_OFFSET);
+            int points = buffer.getInt(entry + ENTRY_POINTS);
+            long end = offset + ((long) points * Trajectory.RECORD_SIZE);
+            if (offset < HEADER_SIZE || points <= 0 || end > buffer.capacity()) {
+                throw new IOException(file + " has trajectory " + trajectoryName + " with " + points
+                                      + " points at " + offset + ", which is outside the file");
+            }
+
+            //each trajectory gets a slice of the mapped file holding exactly its records
+            ByteBuffer records = buffer.duplicate();
+            records.position(offset);
+            records.limit((int) end);
+            trajectories[index] = new Trajectory(trajectoryName, records.slice());
+        }
+        return new TrajectoryFile(trajectories);
+    }
+
+    /**
+     * Memory maps a trajectory file in the deploy directory
+     * <p>If the file can't be read or is invalid, the error is reported and an empty file is returned,
+     * so the caller can generate the trajectories it is missing instead
+     * @param fileName The name of the file within the deploy directory
+     * @return The loaded file, or a file with no trajectories if loading failed
+     */
+    public static TrajectoryFile loadFromDeploy(String fileName) {
+        File file = new File(Filesystem.getDeployDirectory(), fileName);
+        try {
+            TrajectoryFile trajectoryFile = load(file);
+            System.out.println("Loaded " + trajectoryFile.getCount() + " trajectories from " + file);
+            return trajectoryFile;
+        }
+        catch (IOException | IllegalArgumentException e) {
+            DriverStation.reportError("Could not load trajectory file " + file + ": " + e.getMessage(), false);
+            return new TrajectoryFile(new Trajectory[0]);
+        }
+    }
+
+    /**
+     * Writes trajectories to a file
+     * @param file The file to write, which is replaced if it exists
+     * @param trajectories The trajectories to write
+     * @throws IOException If the file can't be written
+     * @throws IllegalArgumentException If a name doesn't fit in ENTRY_NAME_SIZE ascii characters
+     */
+    public static void write(File file, Trajectory... trajectories) throws IOException {
+        int size = HEADER_SIZE + (trajectories.length * ENTRY_SIZE);
+        for (Trajectory trajectory : trajectories) {
+            size += trajectory.getLength() * Trajectory.RECORD_SIZE;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(HEADER_MAGIC, MAGIC);
+        buffer.putInt(HEADER_VERSION, VERSION);
+        buffer.putInt(HEADER_RECORD_SIZE, Trajectory.RECORD_SIZE);
+        buffer.putInt(HEADER_COUNT, trajectories.length);
+
+        //the records are written one trajectory after another, right after the directory
+        buffer.position(HEADER_SIZE + (trajectories.length * ENTRY_SIZE));
+        for (int index = 0; index < trajectories.length; index++) {
+            Trajectory trajectory = trajectories[index];
+            int entry = HEADER_SIZE + (index * ENTRY_SIZE);
+
+            byte[] name = trajectory.getName().getBytes(StandardCharsets.US_ASCII);
+            if (name.length > ENTRY_NAME_SIZE) {
+                throw new IllegalArgumentException("Trajectory name " + trajectory.getName() + " is longer than " + ENTRY_NAME_SIZE + " characters");
+            }
+            //the rest of the name is already zero padding, since the buffer starts out zeroed
+            for (int character = 0; character < name.length; character++) {
+                buffer.put(entry + ENTRY_NAME + character, name[character]);
+            }
+            buffer.putInt(entry + ENTRY_OFFSET, buffer.position());
+            buffer.putInt(entry + ENTRY_POINTS, trajectory.getLength());
+
+            trajectory.copyRecords(buffer);
+        }
+
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            Files.createDirectories(parent.toPath());
+        }
+        Files.write(file.toPath(), buffer.array());
+    }
+
+    /**
+     * Generates every auton path and writes them to a trajectory file, which is run by the generateTrajectories gradle task
+     * @param args The file to write
+     * @throws IOException If the file can't be written, which fails the build
+     */
+    public static void main(String... args) throws IOException {
+        if (args.length != 1) {
+            throw new IllegalArgumentException("Pass the trajectory file to write");
+        }
+
+        File file = new File(args[0]);
+        Trajectory[] trajectories = Auton.createPaths();
+        write(file, trajectories);
+
+        for (Trajectory trajectory : trajectories) {
+            System.out.println("Generated " + trajectory);
+        }
+        System.out.println("Wrote " + trajectories.length + " trajectories to " + file + " (" + file.length() + " bytes)");
+    }
+}
@@ -0,0 +1,148 @@
+package frc.robot;
+
+/**
+ * Makes {@link Trajectory}s through a list of waypoints
+ * <p>Each pair of waypoints is joined by a cubic Hermite spline, which leaves the first waypoint along its heading
+ * and arrives at the second along its heading. The splines are sampled into points along the path,
+ * and each point is given the fastest velocity that keeps within our velocity, acceleration,
+ * and sideways acceleration limits while starting and ending stopped.
+ * <p>This allocates its arrays once for each trajectory, so it should be run ahead of time rather than in a loop
+ */
+public class TrajectoryGenerator {
+    /**
+     * Makes a trajectory with our usual limits from RobotMap
+     * @param name The name of the trajectory for printouts
+     * @param waypoints The poses to drive through, in meters and radians counterclockwise. There must be at least two
+     * @param reversed Whether the robot drives the path backwards, in which case the headings are the way the robot faces
+     * @return The trajectory
+     */
+    public static Trajectory generate(String name, FieldPose[] waypoints, boolean reversed) {
+        return generate(name, waypoints, reversed,
+                        RobotMap.PATH_MAX_VELOCITY_MPS, RobotMap.PATH_MAX_ACCELERATION_MPSS, RobotMap.PATH_MAX_CENTRIPETAL_MPSS);
+    }
+
+    /**
+     * Makes a trajectory
+     * @param name The name of the trajectory for printouts
+     * @param waypoints The poses to drive through, in meters and radians counterclockwise. There must be at least two
+     * @param reversed Whether the robot drives the path backwards, in which case the headings are the way the robot faces
+     * @param maxVelocity The fastest we drive in meters per second
+     * @param maxAcceleration The fastest we speed up or slow down in meters per second squared
+     * @param maxCentripetal The most sideways acceleration we turn with in meters per second squared
+     * @return The trajectory
+     * @throws IllegalArgumentException If there are fewer than two waypoints or two waypoints are in the same place
+     */
+    public static Trajectory generate(String name, FieldPose[] waypoints, boolean reversed,
+                                      double maxVelocity, double maxAcceleration, double maxCentripetal) {
+        if (waypoints.length < 2) {
+            throw new IllegalArgumentException("Trajectory " + name + " needs at least two waypoints");
+        }
+
+        //a robot driving backwards travels opposite the way it faces
+        double headingFlip = reversed ? Math.PI : 0;
+
+        int segments = waypoints.length - 1;
+        int length = (segments * RobotMap.PATH_SAMPLES_PER_SEGMENT) + 1;
+        double[] x = new double[length];
+        double[] y = new double[length];
+        double[] headings = new double[length];
+        double[] curvatures = new double[length];
+        double[] distances = new double[length];
+
+        //sample each spline, sharing the point where two splines meet
+        int index = 0;
+        for (int segment = 0; segment < segments; segment++) {
+            FieldPose start = waypoints[segment];
+            FieldPose end = waypoints[segment + 1];
+            double chord = start.getDistance(end);
+            if (chord == 0) {
+                throw new IllegalArgumentException("Trajectory " + name + " has two waypoints in the same place at " + start);
+            }
+
+            //the tangents point the way we travel, and are scaled by the distance between the waypoints
+            double tangentLength = chord * RobotMap.PATH_TANGENT_SCALE;
+            double startTangentX = tangentLength * Math.cos(start.getHeading() + headingFlip);
+            double startTangentY = tangentLength * Math.sin(start.getHeading() + headingFlip);
+            double endTangentX = tangentLength * Math.cos(end.getHeading() + headingFlip);
+            double endTangentY = tangentLength * Math.sin(end.getHeading() + headingFlip);
+
+            for (int sample = (segment == 0) ? 0 : 1; sample <= RobotMap.PATH_SAMPLES_PER_SEGMENT; sample++) {
+                double u = (double) sample / RobotMap.PATH_SAMPLES_PER_SEGMENT;
+                double u2 = u * u;
+                double u3 = u2 * u;
+
+                //the Hermite basis functions and their first and second derivatives
+                double h00 = (2 * u3) - (3 * u2) + 1;
+                double h10 = u3 - (2 * u2) + u;
+                double h01 = (-2 * u3) + (3 * u2);
+                double h11 = u3 - u2;
+                double d00 = (6 * u2) - (6 * u);
+                double d10 = (3 * u2) - (4 * u) + 1;
+                double d01 = (-6 * u2) + (6 * u);
+                double d11 = (3 * u2) - (2 * u);
+                double dd00 = (12 * u) - 6;
+                double dd10 = (6 * u) - 4;
+                double dd01 = (-12 * u) + 6;
+                double dd11 = (6 * u) - 2;
+
+                x[index] = (h00 * start.getX()) + (h10 * startTangentX) + (h01 * end.getX()) + (h11 * endTangentX);
+                y[index] = (h00 * start.getY()) + (h10 * startTangentY) + (h01 * end.getY()) + (h11 * endTangentY);
+                double dx = (d00 * start.getX()) + (d10 * startTangentX) + (d01 * end.getX()) + (d11 * endTangentX);
+                double dy = (d00 * start.getY()) + (d10 * startTangentY) + (d01 * end.getY()) + (d11 * endTangentY);
+                double ddx = (dd00 * start.getX()) + (dd10 * startTangentX) + (dd01 * end.getX()) + (dd11 * endTangentX);
+                double ddy = (dd00 * start.getY()) + (dd10 * startTangentY) + (dd01 * end.getY()) + (dd11 * endTangentY);
+
+                //the curvature of the path the way we travel. Backwards, turning the same way is the opposite curvature for the robot
+                double pathCurvature = ((dx * ddy) - (dy * ddx)) / Math.pow((dx * dx) + (dy * dy), 1.5);
+                headings[index] = Math.IEEEremainder(Math.atan2(dy, dx) - headingFlip, 2 * Math.PI);
+                curvatures[index] = reversed ? -pathCurvature : pathCurvature;
+
+                if (index > 0) {
+                    distances[index] = distances[index - 1] + Math.hypot(x[index] - x[index - 1], y[index] - y[index - 1]);
+                }
+                index++;
+            }
+        }
+
+        //the fastest we can take each point, from our velocity limit and how hard we can turn through it
+        double[] speeds = new double[length];
+        for (int point = 0; point < length; point++) {
+            double curvature = Math.abs(curvatures[point]);
+            speeds[point] = (curvature > 0) ? Math.min(maxVelocity, Math.sqrt(maxCentripetal / curvature)) : maxVelocity;
+        }
+
+        //start and end stopped, then keep every point within reach of its neighbours
+        //the forward pass limits how fast we can speed up, and the backward pass limits how late we can slow down
+        speeds[0] = 0;
+        speeds[length - 1] = 0;
+        for (int point = 1; point < length; point++) {
+            double step = distances[point] - distances[point - 1];
+            speeds[point] = Math.min(speeds[point], Math.sqrt((speeds[point - 1] * speeds[point - 1]) + (2 * maxAcceleration * step)));
+        }
+        for (int point = length - 2; point >= 0; point--) {
+            double step = distances[point + 1] - distances[point];
+            speeds[point] = Math.min(speeds[point], Math.sqrt((speeds[point + 1] * speeds[point + 1]) + (2 * maxAcceleration * step)));
+        }
+
+        //time each step at its average speed, with the constant acceleration that gets from one speed to the next
+        double[] times = new double[length];
+        double[] velocities = new double[length];
+        double[] accelerations = new double[length];
+        double direction = reversed ? -1 : 1;
+        for (int point = 0; point < length; point++) {
+            velocities[point] = direction * speeds[point];
+            if (point == length - 1) {
+                break;
+            }
+
+            double step = distances[point + 1] - distances[point];
+            double averageSpeed = (speeds[point] + speeds[point + 1]) / 2;
+            times[point + 1] = times[point] + ((averageSpeed > 0) ? step / averageSpeed : 0);
+            accelerations[point] = (step > 0)
+                                   ? direction * ((speeds[point + 1] * speeds[point + 1]) - (speeds[point] * speeds[point])) / (2 * step)
+                                   : 0;
+        }
+
+        return new Trajectory(name, times, x, y, headings, velocities, accelerations, curvatures);
+    }
+}
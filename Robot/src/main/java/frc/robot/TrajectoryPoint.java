@@ -0,0 +1,26 @@
+package frc.robot;
+
+/**
+ * One point along a {@link Trajectory}, where the robot should be and how it should be moving at a time
+ * <p>Points are filled in place when sampling a trajectory, so following a path never allocates
+ */
+public class TrajectoryPoint {
+    /**The time since the start of the trajectory in seconds */
+    public double time;
+    /**Where the robot should be, in meters, and its heading in radians counterclockwise */
+    public double x;
+    public double y;
+    public double heading;
+    /**The robot's velocity in meters per second, which is negative when driving backwards, and its acceleration in meters per second squared */
+    public double velocity;
+    public double acceleration;
+    /**The curvature of the path in radians per meter, so the robot turns at velocity times curvature */
+    public double curvature;
+
+    /**
+     * @return The rate the robot should be turning at in radians per second, counterclockwise
+     */
+    public double getAngularVelocity() {
+        return velocity * curvature;
+    }
+}
@@ -0,0 +1,107 @@
+package frc.robot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link FlywheelReadiness}, fed samples at our 20ms loop time
+ */
+public class FlywheelReadinessTest {
+    //the loop time in seconds, and a timestamp far from zero like the FPGA's
+    private static final double PERIOD = 0.02;
+    private static final double START_TIME = 1000;
+
+    private static final double TARGET = 4800;
+    private static final int WINDOW = 5;
+    private static final int REQUIRED = 3;
+
+    private final FlywheelReadiness m_readiness = new FlywheelReadiness(WINDOW, 75, 500, REQUIRED);
+
+    //the number of samples we have fed in, which sets the next timestamp
+    private int m_samples = 0;
+
+    /**
+     * Feeds in the next loop's sample
+     * @param velocity The measured velocity in RPM
+     * @param target The target velocity in RPM
+     */
+    private void addSample(double velocity, double target) {
+        m_readiness.addSample(START_TIME + (m_samples * PERIOD), velocity, target);
+        m_samples++;
+    }
+
+    @Test
+    public void readyOnceSteadyForEnoughSamples() {
+        //the slope isn't trusted until the window is full, and then it takes REQUIRED steady samples
+        for (int sample = 0; sample < WINDOW + REQUIRED - 1; sample++) {
+            addSample(TARGET, TARGET);
+            assertEquals("Ready after " + (sample + 1) + " samples", sample + 1 >= WINDOW + REQUIRED - 1, m_readiness.isReady());
+        }
+    }
+
+    @Test
+    public void slopeOfALineIsExact() {
+        for (int sample = 0; sample < WINDOW; sample++) {
+            addSample(4000 + (sample * 20), TARGET);
+        }
+        //20 RPM every 20ms is 1000 RPM a second
+        assertEquals(1000, m_readiness.getSlope(), 1e-6);
+    }
+
+    @Test
+    public void notReadyWhileOvershootingThroughTheTarget() {
+        //ramping 50 RPM a loop passes through the band, but at 2500 RPM a second it is far too steep to be steady
+        for (int sample = 0; sample < 20; sample++) {
+            addSample(TARGET - 300 + (sample * 50), TARGET);
+            assertFalse(m_readiness.isReady());
+        }
+    }
+
+    @Test
+    public void readyWhenSettledJustUnderTheTarget() {
+        for (int sample = 0; sample < 10; sample++) {
+            addSample(TARGET - 60, TARGET);
+        }
+        assertTrue(m_readiness.isReady());
+    }
+
+    @Test
+    public void notReadyOutsideTheBand() {
+        for (int sample = 0; sample < 10; sample++) {
+            addSample(TARGET - 100, TARGET);
+        }
+        assertFalse(m_readiness.isReady());
+        assertEquals(0, m_readiness.getSteadySamples());
+    }
+
+    @Test
+    public void changingTheTargetStartsOver() {
+        for (int sample = 0; sample < 10; sample++) {
+            addSample(TARGET, TARGET);
+        }
+        assertTrue(m_readiness.isReady());
+
+        addSample(TARGET, TARGET + 50);
+        assertFalse(m_readiness.isReady());
+        assertEquals(1, m_readiness.getSteadySamples());
+    }
+
+    @Test
+    public void resetClearsTheWindow() {
+        for (int sample = 0; sample < 10; sample++) {
+            addSample(TARGET, TARGET);
+        }
+        m_readiness.reset();
+        assertFalse(m_readiness.isReady());
+        assertEquals(0, m_readiness.getSlope(), 0);
+
+        //the window has to fill again before any sample counts as steady
+        for (int sample = 0; sample < WINDOW - 1; sample++) {
+            addSample(TARGET, TARGET);
+            assertEquals(0, m_readiness.getSteadySamples());
+        }
+    }
+}
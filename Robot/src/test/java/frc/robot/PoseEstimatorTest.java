@@ -0,0 +1,193 @@
+package frc.robot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Tests for {@link PoseEstimator}, fed odometry poses and vision measurements directly rather than through the hardware
+ * <p>The estimator adds itself to the shuffleboard, which only allows each title once, so one estimator is shared
+ * and reset before each test. Its counts are never reset, so the tests check how much they change
+ */
+public class PoseEstimatorTest {
+    //the loop time in seconds, and a timestamp far from zero like the FPGA's
+    private static final double PERIOD = 0.02;
+    private static final double START_TIME = 1000;
+
+    private static PoseEstimator estimator;
+
+    //the number of loops since the reset, which sets the next timestamp
+    private int m_loops = 0;
+
+    private final FieldPose m_odometryPose = new FieldPose();
+    private final FieldPose m_estimate = new FieldPose();
+
+    @BeforeClass
+    public static void createEstimator() {
+        //nothing here reads the odometry or the limelight, since the tests feed the estimator themselves
+        estimator = new PoseEstimator(null, null);
+    }
+
+    @Before
+    public void resetEstimator() {
+        estimator.resetPose(0, 0, 0);
+    }
+
+    /**
+     * Runs a loop with the odometry at a pose
+     * @param x The odometry's x in meters
+     * @param y The odometry's y in meters
+     * @param heading The odometry's heading in radians
+     * @return The time of the loop
+     */
+    private double addOdometry(double x, double y, double heading) {
+        double now = START_TIME + (m_loops * PERIOD);
+        m_odometryPose.set(x, y, heading);
+        estimator.addOdometry(now, m_odometryPose);
+        m_loops++;
+        return now;
+    }
+
+    /**
+     * Measures the port from a pose, as a perfect camera would
+     * @param time When the measurement was captured
+     * @param x Our x in meters
+     * @param y Our y in meters
+     * @param heading Our heading in radians
+     * @param rangeScale How much to scale the range by, to make a bad measurement
+     * @return Whether the estimator used the measurement
+     */
+    private static boolean measure(double time, double x, double y, double heading, double rangeScale) {
+        double deltaX = RobotMap.FIELD_TARGET_X_M - x;
+        double deltaY = RobotMap.FIELD_TARGET_Y_M - y;
+        return estimator.addVisionMeasurement(time, Math.hypot(deltaX, deltaY) * rangeScale, Math.atan2(deltaY, deltaX) - heading);
+    }
+
+    /**
+     * @return Our estimated pose
+     */
+    private FieldPose getEstimate() {
+        estimator.getPose(m_estimate);
+        return m_estimate;
+    }
+
+    @Test
+    public void followsOdometryFromTheResetPose() {
+        estimator.resetPose(1, 0.5, 0);
+        addOdometry(3, 3, 0);
+        addOdometry(3.2, 3, 0);
+        addOdometry(3.5, 3, 0);
+
+        //only the odometry's travel is used, from where we were reset to
+        assertEquals(1.5, getEstimate().getX(), 1e-9);
+        assertEquals(0.5, getEstimate().getY(), 1e-9);
+        assertTrue(estimator.hasFix());
+    }
+
+    @Test
+    public void visionPullsTheEstimateTowardTheTruth() {
+        //we were reset 10cm closer to the port than we really are. This is along the range, since with one target
+        //a sideways error looks the same as a heading error, and is shared between them
+        estimator.resetPose(0.1, 0, 0);
+        int accepted = estimator.getAcceptedCount();
+        double error = 0.1;
+        for (int loop = 0; loop < 10; loop++) {
+            double now = addOdometry(0, 0, 0);
+            assertTrue(measure(now, 0, 0, 0, 1));
+
+            double newError = Math.hypot(getEstimate().getX(), getEstimate().getY());
+            assertTrue("Error grew from " + error + " to " + newError, newError <= error);
+            error = newError;
+        }
+        assertEquals(accepted + 10, estimator.getAcceptedCount());
+        assertTrue("Still " + error + "m off", error < 0.03);
+    }
+
+    @Test
+    public void measurementIsAppliedWhenItWasCaptured() {
+        //drive forward a meter, with a camera frame captured halfway that says we started 10cm to the left
+        double captureTime = 0;
+        for (int loop = 0; loop <= 10; loop++) {
+            double now = addOdometry(loop * 0.1, 0, 0);
+            if (loop == 5) {
+                captureTime = now;
+            }
+        }
+        measure(captureTime, 0.5, 0.1, 0, 1);
+
+        //the correction happened halfway, and the travel since is replayed on top of it
+        assertTrue(getEstimate().getY() > 0.01);
+        assertEquals(1.0, getEstimate().getX(), 0.05);
+    }
+
+    @Test
+    public void outlierIsRejected() {
+        addOdometry(0, 0, 0);
+        double now = addOdometry(0, 0, 0);
+        int rejected = estimator.getRejectedCount();
+
+        //a reflection that puts the port 60% further away than it is
+        assertFalse(measure(now, 0, 0, 0, 1.6));
+        assertEquals(rejected + 1, estimator.getRejectedCount());
+        assertEquals(0, getEstimate().getX(), 1e-9);
+        assertEquals(0, getEstimate().getY(), 1e-9);
+    }
+
+    @Test
+    public void impossibleRangeIsRejected() {
+        double now = addOdometry(0, 0, 0);
+        int rejected = estimator.getRejectedCount();
+        assertFalse(estimator.addVisionMeasurement(now, RobotMap.ESTIMATOR_MAX_RANGE_M * 2, 0));
+        assertFalse(estimator.addVisionMeasurement(now, -1, 0));
+        assertEquals(rejected + 2, estimator.getRejectedCount());
+    }
+
+    @Test
+    public void measurementOlderThanOurHistoryIsLate() {
+        for (int loop = 0; loop < RobotMap.ESTIMATOR_HISTORY_SIZE * 2; loop++) {
+            addOdometry(0, 0, 0);
+        }
+        int late = estimator.getLateCount();
+        assertFalse(measure(START_TIME, 0, 0, 0, 1));
+        assertEquals(late + 1, estimator.getLateCount());
+    }
+
+    @Test
+    public void divergedEstimateIsRefixedFromVision() {
+        //we were reset a meter and a half from where we really are, so every frame is gated out as an outlier at first
+        estimator.resetPose(-1.5, 0, 0);
+        int refixes = estimator.getRefixCount();
+        for (int loop = 0; loop < RobotMap.ESTIMATOR_REFIX_REJECTIONS - 1; loop++) {
+            double now = addOdometry(0, 0, 0);
+            assertFalse(measure(now, 0, 0, 0, 1));
+        }
+        assertEquals(refixes, estimator.getRefixCount());
+        assertEquals(-1.5, getEstimate().getX(), 1e-9);
+
+        //vision disagreeing for long enough means it is us who are wrong, so we take our position from the frame
+        double now = addOdometry(0, 0, 0);
+        assertTrue(measure(now, 0, 0, 0, 1));
+        assertEquals(refixes + 1, estimator.getRefixCount());
+        assertEquals(0, getEstimate().getX(), 0.01);
+        assertEquals(0, getEstimate().getY(), 0.01);
+        assertTrue(estimator.hasFix());
+    }
+
+    @Test
+    public void oneGoodFrameClearsTheRejectionsInARow() {
+        estimator.resetPose(0, 0, 0);
+        int refixes = estimator.getRefixCount();
+        for (int loop = 0; loop < RobotMap.ESTIMATOR_REFIX_REJECTIONS * 2; loop++) {
+            double now = addOdometry(0, 0, 0);
+
+            //every other frame is a reflection, which never adds up to a refix
+            measure(now, 0, 0, 0, (loop % 2 == 0) ? 1.6 : 1);
+        }
+        assertEquals(refixes, estimator.getRefixCount());
+        assertEquals(0, getEstimate().getX(), 0.01);
+    }
+}
@@ -0,0 +1,81 @@
+package frc.robot;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link ShotTable}
+ */
+public class ShotTableTest {
+    //how close two speeds in RPM have to be to count as the same
+    private static final double DELTA = 1e-9;
+
+    private final ShotTable m_table = new ShotTable(new double[] {60, 120, 180, 240}, new double[] {4000, 4400, 4800, 5400});
+
+    @Test
+    public void pointsReturnTheirOwnSpeed() {
+        assertEquals(4000, m_table.getRpm(60), DELTA);
+        assertEquals(4400, m_table.getRpm(120), DELTA);
+        assertEquals(4800, m_table.getRpm(180), DELTA);
+        assertEquals(5400, m_table.getRpm(240), DELTA);
+    }
+
+    @Test
+    public void interpolatesBetweenPoints() {
+        assertEquals(4200, m_table.getRpm(90), DELTA);
+        assertEquals(4500, m_table.getRpm(135), DELTA);
+        assertEquals(5250, m_table.getRpm(225), DELTA);
+    }
+
+    @Test
+    public void clampsPastTheEnds() {
+        assertEquals(4000, m_table.getRpm(0), DELTA);
+        assertEquals(4000, m_table.getRpm(-50), DELTA);
+        assertEquals(5400, m_table.getRpm(1000), DELTA);
+    }
+
+    @Test
+    public void singlePointTableIsConstant() {
+        ShotTable table = new ShotTable(new double[] {100}, new double[] {4500});
+        assertEquals(4500, table.getRpm(0), DELTA);
+        assertEquals(4500, table.getRpm(100), DELTA);
+        assertEquals(4500, table.getRpm(500), DELTA);
+    }
+
+    @Test
+    public void copiesItsArrays() {
+        double[] distances = {60, 120};
+        double[] rpms = {4000, 4400};
+        ShotTable table = new ShotTable(distances, rpms);
+        rpms[0] = 0;
+        assertEquals(4000, table.getRpm(60), DELTA);
+    }
+
+    @Test
+    public void distancesAreInOrder() {
+        assertEquals(4, m_table.size());
+        assertEquals(60, m_table.getDistance(0), DELTA);
+        assertEquals(240, m_table.getDistance(3), DELTA);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsEmptyTable() {
+        new ShotTable(new double[0], new double[0]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsMismatchedArrays() {
+        new ShotTable(new double[] {60, 120}, new double[] {4000});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsDistancesOutOfOrder() {
+        new ShotTable(new double[] {60, 180, 120}, new double[] {4000, 4800, 4400});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsRepeatedDistances() {
+        new ShotTable(new double[] {60, 60}, new double[] {4000, 4400});
+    }
+}
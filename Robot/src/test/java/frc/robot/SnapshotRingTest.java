@@ -0,0 +1,137 @@
+package frc.robot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link SnapshotRing}, run from one thread acting as both the producer and the consumer
+ */
+public class SnapshotRingTest {
+    /**
+     * A slot holding one number, so we can tell which write we are reading
+     */
+    private static class Slot {
+        private long value;
+    }
+
+    /**
+     * Claims, fills in and publishes a slot
+     * @param ring The ring to write to
+     * @param value The value to write
+     * @return Whether the write was taken, rather than dropped
+     */
+    private static boolean write(SnapshotRing<Slot> ring, long value) {
+        Slot slot = ring.claim();
+        if (slot == null) {
+            return false;
+        }
+        slot.value = value;
+        ring.publish();
+        return true;
+    }
+
+    /**
+     * Polls, reads and releases a slot
+     * @param ring The ring to read from
+     * @return The value read
+     */
+    private static long read(SnapshotRing<Slot> ring) {
+        Slot slot = ring.poll();
+        assertNotNull("Expected a published slot", slot);
+        long value = slot.value;
+        ring.release();
+        return value;
+    }
+
+    @Test
+    public void capacityIsRoundedUpToAPowerOfTwo() {
+        assertEquals(8, new SnapshotRing<Slot>(5, Slot::new).capacity());
+        assertEquals(8, new SnapshotRing<Slot>(8, Slot::new).capacity());
+        assertEquals(2, new SnapshotRing<Slot>(1, Slot::new).capacity());
+    }
+
+    @Test
+    public void emptyRingPollsNull() {
+        SnapshotRing<Slot> ring = new SnapshotRing<Slot>(4, Slot::new);
+        assertNull(ring.poll());
+        assertEquals(0, ring.size());
+    }
+
+    @Test
+    public void readsInTheOrderWritten() {
+        SnapshotRing<Slot> ring = new SnapshotRing<Slot>(4, Slot::new);
+        for (long value = 1; value <= 3; value++) {
+            write(ring, value);
+        }
+        assertEquals(3, ring.size());
+        for (long value = 1; value <= 3; value++) {
+            assertEquals(value, read(ring));
+        }
+        assertNull(ring.poll());
+    }
+
+    @Test
+    public void wrapsAroundAndReusesSlots() {
+        SnapshotRing<Slot> ring = new SnapshotRing<Slot>(4, Slot::new);
+
+        //remember the slot objects from the first trip around the ring
+        Slot[] firstLap = new Slot[ring.capacity()];
+        for (int index = 0; index < ring.capacity(); index++) {
+            firstLap[index] = ring.claim();
+            firstLap[index].value = index;
+            ring.publish();
+            read(ring);
+        }
+
+        //every later trip hands out the same objects in the same order, with the values written on that trip
+        for (long value = ring.capacity(); value < ring.capacity() * 10; value++) {
+            Slot slot = ring.claim();
+            assertSame(firstLap[(int) (value % ring.capacity())], slot);
+            slot.value = value;
+            ring.publish();
+            assertEquals(value, read(ring));
+        }
+        assertEquals(0, ring.size());
+        assertEquals(0, ring.getDropped());
+    }
+
+    @Test
+    public void fullRingDropsAndCountsWrites() {
+        SnapshotRing<Slot> ring = new SnapshotRing<Slot>(4, Slot::new);
+        for (long value = 0; value < ring.capacity(); value++) {
+            assertTrue(write(ring, value));
+        }
+
+        //the consumer is behind, so these are dropped rather than overwriting what it hasn't read
+        assertFalse(write(ring, 100));
+        assertFalse(write(ring, 101));
+        assertEquals(2, ring.getDropped());
+        assertEquals(ring.capacity(), ring.size());
+        assertEquals(0, read(ring));
+    }
+
+    @Test
+    public void releasingFreesSlotsForTheProducer() {
+        SnapshotRing<Slot> ring = new SnapshotRing<Slot>(2, Slot::new);
+        write(ring, 1);
+        write(ring, 2);
+
+        //polling without releasing keeps the slot, so the ring is still full
+        ring.poll();
+        assertNull(ring.claim());
+        assertEquals(1, ring.getDropped());
+
+        //releasing hands back only the oldest slot, and the newer one is still there to read
+        ring.release();
+        assertTrue(write(ring, 3));
+        assertEquals(2, read(ring));
+        assertEquals(3, read(ring));
+        assertNull(ring.poll());
+    }
+}
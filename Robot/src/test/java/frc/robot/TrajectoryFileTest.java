@@ -0,0 +1,116 @@
+package frc.robot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link TrajectoryFile}, which write a file and load it back
+ * <p>A loaded file stays memory mapped, so the files are only deleted when the tests exit
+ */
+public class TrajectoryFileTest {
+    private File m_file;
+
+    @Before
+    public void createFile() throws IOException {
+        m_file = File.createTempFile("trajectories", ".bin");
+        m_file.deleteOnExit();
+    }
+
+    /**
+     * Checks that two trajectories have exactly the same points
+     * @param expected The trajectory that was written
+     * @param actual The trajectory that was loaded
+     */
+    private static void assertSamePoints(Trajectory expected, Trajectory actual) {
+        assertEquals(expected.getName(), actual.getName());
+        assertEquals(expected.getLength(), actual.getLength());
+
+        TrajectoryPoint expectedPoint = new TrajectoryPoint();
+        TrajectoryPoint actualPoint = new TrajectoryPoint();
+        for (int index = 0; index < expected.getLength(); index++) {
+            expected.getPoint(index, expectedPoint);
+            actual.getPoint(index, actualPoint);
+            assertEquals(expectedPoint.time, actualPoint.time, 0);
+            assertEquals(expectedPoint.x, actualPoint.x, 0);
+            assertEquals(expectedPoint.y, actualPoint.y, 0);
+            assertEquals(expectedPoint.heading, actualPoint.heading, 0);
+            assertEquals(expectedPoint.velocity, actualPoint.velocity, 0);
+            assertEquals(expectedPoint.acceleration, actualPoint.acceleration, 0);
+            assertEquals(expectedPoint.curvature, actualPoint.curvature, 0);
+        }
+    }
+
+    @Test
+    public void roundTripKeepsEveryPoint() throws IOException {
+        Trajectory line = new Trajectory("Line", new double[] {0, 0.5, 1}, new double[] {0, 0.25, 1}, new double[] {0, 0, 0},
+                                         new double[] {0, 0, 0}, new double[] {0, 1, 0}, new double[] {2, 0, -2}, new double[] {0, 0, 0});
+        Trajectory backUp = Auton.createBackUpPath();
+        TrajectoryFile.write(m_file, line, backUp);
+
+        TrajectoryFile loaded = TrajectoryFile.load(m_file);
+        assertEquals(2, loaded.getCount());
+        assertSamePoints(line, loaded.get("Line"));
+        assertSamePoints(backUp, loaded.get(Auton.BACK_UP_PATH_NAME));
+    }
+
+    @Test
+    public void loadedTrajectorySamplesLikeTheOriginal() throws IOException {
+        Trajectory backUp = Auton.createBackUpPath();
+        TrajectoryFile.write(m_file, backUp);
+        Trajectory loaded = TrajectoryFile.load(m_file).get(Auton.BACK_UP_PATH_NAME);
+        assertNotNull(loaded);
+        assertEquals(backUp.getTotalTime(), loaded.getTotalTime(), 0);
+
+        TrajectoryPoint expected = new TrajectoryPoint();
+        TrajectoryPoint actual = new TrajectoryPoint();
+        for (double time = -0.1; time < backUp.getTotalTime() + 0.1; time += 0.013) {
+            backUp.sample(time, expected);
+            loaded.sample(time, actual);
+            assertEquals(expected.x, actual.x, 0);
+            assertEquals(expected.velocity, actual.velocity, 0);
+        }
+    }
+
+    @Test
+    public void missingNameIsNull() throws IOException {
+        TrajectoryFile.write(m_file, Auton.createBackUpPath());
+        assertNull(TrajectoryFile.load(m_file).get("Not A Path"));
+    }
+
+    @Test
+    public void emptyFileHasNoTrajectories() throws IOException {
+        TrajectoryFile.write(m_file);
+        assertEquals(0, TrajectoryFile.load(m_file).getCount());
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsAFileThatIsNotATrajectoryFile() throws IOException {
+        Files.write(m_file.toPath(), "distance, rpm\n60, 4000\n".getBytes());
+        TrajectoryFile.load(m_file);
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsATruncatedFile() throws IOException {
+        TrajectoryFile.write(m_file, Auton.createBackUpPath());
+        byte[] bytes = Files.readAllBytes(m_file.toPath());
+        byte[] truncated = new byte[bytes.length - Trajectory.RECORD_SIZE];
+        System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+        Files.write(m_file.toPath(), truncated);
+        TrajectoryFile.load(m_file);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsANameThatDoesNotFit() throws IOException {
+        String name = "A name one character too long to fit".substring(0, TrajectoryFile.ENTRY_NAME_SIZE + 1);
+        double[] zero = {0};
+        TrajectoryFile.write(m_file, new Trajectory(name, zero, zero, zero, zero, zero, zero, zero));
+    }
+}
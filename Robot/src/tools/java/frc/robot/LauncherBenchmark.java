@@ -0,0 +1,297 @@
+package frc.robot;
+
+import java.util.ArrayList;
+
+import edu.wpi.first.hal.HAL;
+
+/**
+ * Benchmarks how long the launcher takes to get to speed and recover between balls, using a {@link FlywheelSim}
+ * <p>Each sequence runs the launcher commands of the auton kTarget, kRevToVelocity and kRunBalls states,
+ * or the copilot's kRevAndTarget, kRevToVelocity and kRunMagazine stages, one simulated loop at a time:
+ * <ol>
+ * <li>Spin up to holding speed in percent output until our output is at holding speed.
+ *     This assumes we are already on target, see the {@link DrivetrainSim} for the time targeting takes</li>
+ * <li>Switch to velocity control at the launch speed until the {@link FlywheelReadiness} detector says we are ready</li>
+ * <li>Run the magazine, launching a ball each ball interval, while the launcher holds its speed</li>
+ * </ol>
+ * <p>For each sequence this reports the time to holding speed, the time to ready, the overshoot,
+ * and for each ball the speed error when it left, the dip it caused, and the time until we were ready again.
+ * Everything runs in simulated time, so the numbers are the same every run.
+ * <p>This is a desktop tool in the tools source set, so it isn't part of the robot jar.
+ * To run it, run ./gradlew launcherBenchmark, with -Plog=&lt;telemetry log&gt; to fit the flywheel from a log rather than use the robot map model.
+ * -Pgains (or LAUNCHER_BENCHMARK_GAINS) can be set to a list of talon gain sets like "1.0,0,0.1,0.27;0.5,0,0,0.03" to benchmark once per set.
+ */
+public class LauncherBenchmark {
+    /**The environment variable holding the log to fit the flywheel from, used when the log isn't passed as an argument */
+    public static final String BENCHMARK_ENVIRONMENT_VARIABLE = "LAUNCHER_BENCHMARK";
+    /**The environment variable holding the talon gain sets to benchmark */
+    public static final String GAINS_ENVIRONMENT_VARIABLE = "LAUNCHER_BENCHMARK_GAINS";
+
+    /**
+     * The timing of one benchmarked sequence
+     */
+    public static class Result {
+        //the name of the sequence and its launch speed in RPM
+        private final String m_name;
+        private final double m_targetRpm;
+
+        //the time to holding speed and from then to ready, or NaN if they never happened
+        private double m_holdingTime = Double.NaN;
+        private double m_timeToReady = Double.NaN;
+
+        //the most we went over the target in RPM after switching to velocity control
+        private double m_overshootRpm = 0;
+
+        //for each ball, the speed error as it left and the dip it caused in RPM, and the time to be ready again or NaN if we never were
+        private final ArrayList<double[]> m_balls = new ArrayList<double[]>();
+
+        //the time from the start of the sequence until we were ready after the last ball, or NaN if we never were
+        private double m_cycleTime = Double.NaN;
+
+        /**
+         * @param name The name of the sequence
+         * @param targetRpm The launch speed in RPM
+         */
+        private Result(String name, double targetRpm) {
+            m_name = name;
+            m_targetRpm = targetRpm;
+        }
+
+        /**
+         * @return The time from switching to velocity control until we were ready, or NaN if we never were
+         */
+        public double getTimeToReady() {
+            return m_timeToReady;
+        }
+
+        /**
+         * @return The time from the start of the sequence until we were ready after the last ball, or NaN if we never were
+         */
+        public double getCycleTime() {
+            return m_cycleTime;
+        }
+
+        /**
+         * @return the result summarized as a string
+         */
+        public String toString() {
+            StringBuilder builder = new StringBuilder();
+            builder.append(m_name).append(" at ").append(Math.round(m_targetRpm)).append(" RPM")
+                   .append("\n  Holding speed in ").append(format(m_holdingTime))
+                   .append(" | Ready in ").append(format(m_timeToReady))
+                   .append(" | Overshoot ").append(Math.round(m_overshootRpm)).append(" RPM");
+            for (int ball = 0; ball < m_balls.size(); ball++) {
+                double[] values = m_balls.get(ball);
+                builder.append("\n  Ball ").append(ball + 1)
+                       .append(": Left at ").append(Math.round(values[0])).append(" RPM error")
+                       .append(" | Dip ").append(Math.round(values[1])).append(" RPM")
+                       .append(" | Recovered in ").append(format(values[2]));
+            }
+            builder.append("\n  Cycle ").append(format(m_cycleTime));
+            return builder.toString();
+        }
+
+        /**
+         * @param seconds A time, or NaN if it never happened
+         * @return The time in milliseconds, or "never"
+         */
+        private static String format(double seconds) {
+            return Double.isNaN(seconds) ? "never" : Math.round(seconds * 1000) + "ms";
+        }
+    }
+
+    private final FlywheelModel m_model;
+
+    //the talon PIDF gains to benchmark, or null for the robot map gains
+    private final double[] m_gains;
+
+    /**
+     * Constructor for LauncherBenchmark objects
+     * @param model The flywheel model to benchmark against
+     * @param gains The talon P, I, D and F to benchmark, or null for the robot map gains
+     */
+    public LauncherBenchmark(FlywheelModel model, double[] gains) {
+        m_model = model;
+        m_gains = gains;
+    }
+
+    /**
+     * Finds the talon F gain that holds a velocity with no error, according to our model
+     * @param targetRpm The velocity in RPM
+     * @return The F gain, where 1023 is full output
+     */
+    public double getModelF(double targetRpm) {
+        double velocity = targetRpm * RobotMap.RPM_TO_UNITS_PER_100MS;
+        return 1023 * m_model.getFeedforward().calculate(velocity, 0) / (RobotMap.SIM_BATTERY_VOLTAGE * velocity);
+    }
+
+    /**
+     * Runs one launch sequence from a stopped launcher
+     * @param name The name of the sequence
+     * @param targetRpm The launch speed in RPM
+     * @param balls The number of balls in the magazine
+     * @param launchTimeS How long the magazine runs, like auton's kRunBalls, or NaN to run until we recover from the last ball
+     * @return The timing of the sequence
+     */
+    public Result run(String name, double targetRpm, int balls, double launchTimeS) {
+        Result result = new Result(name, targetRpm);
+        FlywheelSim flywheel = new FlywheelSim(m_model);
+        if (m_gains != null) {
+            flywheel.setGains(m_gains[0], m_gains[1], m_gains[2], m_gains[3]);
+        }
+        FlywheelReadiness readiness = Launcher.createReadiness();
+        double targetVelocity = targetRpm * RobotMap.RPM_TO_UNITS_PER_100MS;
+        double time = 0;
+
+        //kTarget and kRevAndTarget hold the launcher at holding speed until its output gets there
+        while (flywheel.getAppliedOutput() <= RobotMap.LAUNCHER_HOLDING_SPEED - RobotMap.LAUNCHER_HOLDING_TOLERANCE) {
+            if (time > RobotMap.SIM_BENCHMARK_TIMEOUT_S) {
+                return result;
+            }
+            flywheel.setPercentOutput(RobotMap.LAUNCHER_HOLDING_SPEED);
+            flywheel.step(RobotMap.SIM_LOOP_PERIOD_S);
+            time += RobotMap.SIM_LOOP_PERIOD_S;
+        }
+        result.m_holdingTime = time;
+
+        //kRevToVelocity sets the velocity and samples readiness each loop until we are ready
+        double revStart = time;
+        while (true) {
+            flywheel.setVelocity(targetVelocity);
+            double rpm = flywheel.getMeasuredVelocity() / RobotMap.RPM_TO_UNITS_PER_100MS;
+            readiness.addSample(time, rpm, targetRpm);
+            result.m_overshootRpm = Math.max(result.m_overshootRpm, rpm - targetRpm);
+            if (readiness.isReady()) {
+                break;
+            }
+            if (time - revStart > RobotMap.SIM_BENCHMARK_TIMEOUT_S) {
+                return result;
+            }
+            flywheel.step(RobotMap.SIM_LOOP_PERIOD_S);
+            time += RobotMap.SIM_LOOP_PERIOD_S;
+        }
+        result.m_timeToReady = time - revStart;
+
+        //kRunBalls and kRunMagazine run the magazine, and the talon holds our velocity
+        //we keep sampling readiness here to see how each ball disturbs us, although the robot doesn't
+        double runStart = time;
+        double nextBallTime = runStart + m_model.getBallIntervalS();
+        double[] ball = null;
+        double ballTime = 0;
+        int launched = 0;
+        while (true) {
+            double rpm = flywheel.getMeasuredVelocity() / RobotMap.RPM_TO_UNITS_PER_100MS;
+            readiness.addSample(time, rpm, targetRpm);
+            result.m_overshootRpm = Math.max(result.m_overshootRpm, rpm - targetRpm);
+
+            //track the last ball's dip until we are ready again
+            if (ball != null) {
+                ball[1] = Math.max(ball[1], targetRpm - rpm);
+                if (Double.isNaN(ball[2]) && readiness.isReady()) {
+                    ball[2] = time - ballTime;
+                }
+            }
+
+            boolean magazineRunning = Double.isNaN(launchTimeS) || (time - runStart < launchTimeS);
+            if (magazineRunning && launched < balls && time >= nextBallTime) {
+                //the ball leaves at the speed we are at now
+                ball = new double[] {rpm - targetRpm, 0, Double.NaN};
+                result.m_balls.add(ball);
+                ballTime = time;
+                flywheel.launchBall();
+                launched++;
+                nextBallTime += m_model.getBallIntervalS();
+            }
+            else if (launched == balls && ball != null && !Double.isNaN(ball[2])) {
+                result.m_cycleTime = time;
+                break;
+            }
+            else if (!magazineRunning || time - runStart > RobotMap.SIM_BENCHMARK_TIMEOUT_S) {
+                break;
+            }
+
+            flywheel.step(RobotMap.SIM_LOOP_PERIOD_S);
+            time += RobotMap.SIM_LOOP_PERIOD_S;
+        }
+
+        return result;
+    }
+
+    /**
+     * Runs the auton sequence and a teleop sequence at each distance in our shot table
+     * @param shotTable Our shot table
+     * @return The results, auton first
+     */
+    public ArrayList<Result> runAll(ShotTable shotTable) {
+        ArrayList<Result> results = new ArrayList<Result>();
+        results.add(run("Auton", RobotMap.AUTON_LAUNCH_RPM, RobotMap.SIM_AUTON_BALLS, RobotMap.AUTON_LAUNCH_TIME_S));
+        for (int index = 0; index < shotTable.size(); index++) {
+            double distance = shotTable.getDistance(index);
+            results.add(run("Teleop from " + Math.round(distance) + "in", shotTable.getRpm(distance), RobotMap.SIM_TELEOP_BALLS, Double.NaN));
+        }
+        return results;
+    }
+
+    /**
+     * Parses gain sets written as "p,i,d,f;p,i,d,f"
+     * @param gainSets The gain sets, or null
+     * @return One array of P, I, D and F per set, or a single null set for the robot map gains
+     */
+    private static double[][] parseGains(String gainSets) {
+        if (gainSets == null || gainSets.trim().isEmpty()) {
+            return new double[][] {null};
+        }
+
+        String[] sets = gainSets.split(";");
+        double[][] gains = new double[sets.length][];
+        for (int index = 0; index < sets.length; index++) {
+            String[] values = sets[index].split(",");
+            if (values.length != 4) {
+                throw new IllegalArgumentException("Gain set \"" + sets[index] + "\" is not \"p,i,d,f\"");
+            }
+            gains[index] = new double[4];
+            for (int value = 0; value < 4; value++) {
+                gains[index][value] = Double.parseDouble(values[value].trim());
+            }
+        }
+        return gains;
+    }
+
+    /**
+     * Benchmarks every sequence once for each gain set in LAUNCHER_BENCHMARK_GAINS, and prints each result
+     * @param args An optional log to fit the flywheel from, which overrides LAUNCHER_BENCHMARK
+     */
+    public static void main(String... args) {
+        //the deploy directory lookup asks the HAL whether we are on the robot, so it has to be running
+        HAL.initialize(500, 0);
+
+        String logPath = (args.length > 0) ? args[0] : System.getenv(BENCHMARK_ENVIRONMENT_VARIABLE);
+        FlywheelModel model = FlywheelModel.loadOrDefault(logPath);
+        System.out.println("Launcher model: " + model);
+        ShotTable shotTable = ShotTable.loadFromDeploy(RobotMap.SHOT_TABLE_FILE);
+
+        for (double[] gains : parseGains(System.getenv(GAINS_ENVIRONMENT_VARIABLE))) {
+            LauncherBenchmark benchmark = new LauncherBenchmark(model, gains);
+            System.out.println(((gains == null) ? "RobotMap gains" : ("P " + gains[0] + " I " + gains[1] + " D " + gains[2] + " F " + gains[3]))
+                               + " | The model holds " + Math.round(RobotMap.AUTON_LAUNCH_RPM) + " RPM with F "
+                               + String.format("%.4f", benchmark.getModelF(RobotMap.AUTON_LAUNCH_RPM)));
+
+            //the mean times give one number to compare tuning changes by
+            double readySum = 0;
+            double cycleSum = 0;
+            int finished = 0;
+            ArrayList<Result> results = benchmark.runAll(shotTable);
+            for (Result result : results) {
+                System.out.println(result);
+                if (!Double.isNaN(result.getTimeToReady()) && !Double.isNaN(result.getCycleTime())) {
+                    readySum += result.getTimeToReady();
+                    cycleSum += result.getCycleTime();
+                    finished++;
+                }
+            }
+            System.out.println(finished + " of " + results.size() + " sequences finished"
+                               + ((finished == 0) ? "" : " | Mean time to ready " + Math.round(readySum / finished * 1000) + "ms"
+                                                         + " | Mean cycle " + Math.round(cycleSum / finished * 1000) + "ms"));
+        }
+    }
+}
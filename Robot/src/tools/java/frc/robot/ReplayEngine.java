@@ -0,0 +1,359 @@
+package frc.robot;
+
+import java.io.File;
+import java.io.IOException;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.controller.PIDController;
+import frc.robot.Auton.AutonState;
+import frc.robot.LimelightTargeting.TargetingMode;
+import frc.robot.StatusFrameManager.RobotMode;
+
+/**
+ * Replays a telemetry log through our targeting, launcher readiness and auton logic off of the robot
+ * <p>Each logged loop's sensor values are fed into the same controllers and decision methods the robot uses
+ * ({@link LimelightTargeting#createController}, {@link LimelightTargeting#scaleTurn}, {@link HeadingHistory},
+ * {@link Launcher#createReadiness()} and {@link Auton#hasReversed}), and auton runs the robot's own table from
+ * {@link Auton#createStateMachine} on the logged timestamps. The outputs they would have commanded are diffed
+ * against the logged outputs. Nothing waits on the clock, so a whole match replays in well under a second,
+ * and the replay can be repeated with different targeting gains to compare them.
+ * <p>This is a desktop tool in the tools source set, so it isn't part of the robot jar.
+ * To run it, run ./gradlew replay -Plog=&lt;log file&gt;, which loads the WPILib desktop natives the controllers need.
+ * -Pgains (or REPLAY_GAINS) can be set to a list of gain sets like "0.55,0.002,0.75;0.6,0,0.5" to replay once per set.
+ * <p>The replay can't be closed loop, since the logged headings came from what the robot actually did.
+ * kGyroLatched loops are replayed at the logged loop rate instead of the aim loop rate, so expect their turns to differ slightly
+ */
+public class ReplayEngine {
+    /**The environment variable holding the log file to replay, used when the log isn't passed as an argument */
+    public static final String LOG_ENVIRONMENT_VARIABLE = "REPLAY_LOG";
+    /**The environment variable holding the targeting gain sets to replay with */
+    public static final String GAINS_ENVIRONMENT_VARIABLE = "REPLAY_GAINS";
+
+    /**
+     * The comparison between the replayed and logged outputs for one replay
+     */
+    public static class Result {
+        //the gains this replay was run with, or null for the robot map gains
+        private final double[] m_gains;
+
+        //the number of records, the logged time they cover, and how long the replay took
+        private int m_records = 0;
+        private double m_loggedSeconds = 0;
+        private double m_replaySeconds = 0;
+
+        //the targeting turn, compared on loops where we were targeting and saw a target
+        private int m_turnSamples = 0;
+        private double m_turnSquaredError = 0;
+        private double m_turnMaxError = 0;
+        private int m_onTargetMismatches = 0;
+
+        //the launcher readiness, compared on loops in velocity control
+        private int m_readySamples = 0;
+        private int m_readyMismatches = 0;
+
+        //the auton state, compared on every auton loop
+        private int m_autonSamples = 0;
+        private int m_autonMismatches = 0;
+        private double m_firstAutonMismatchTime = Double.NaN;
+
+        /**
+         * @param gains The gains this replay was run with, or null for the robot map gains
+         */
+        private Result(double[] gains) {
+            m_gains = gains;
+        }
+
+        /**
+         * @return The root mean squared difference between the replayed and logged turns
+         */
+        public double getTurnRmsError() {
+            return (m_turnSamples == 0) ? 0 : Math.sqrt(m_turnSquaredError / m_turnSamples);
+        }
+
+        /**
+         * @return The largest difference between the replayed and logged turns
+         */
+        public double getTurnMaxError() {
+            return m_turnMaxError;
+        }
+
+        /**
+         * @return The number of auton loops where the replayed state didn't match the logged state
+         */
+        public int getAutonMismatches() {
+            return m_autonMismatches;
+        }
+
+        /**
+         * @return the replay summarized as a string
+         */
+        public String toString() {
+            String gains = (m_gains == null) ? "RobotMap gains" : ("P " + m_gains[0] + " I " + m_gains[1] + " D " + m_gains[2]);
+            return gains + ": " + m_records + " records (" + Math.round(m_loggedSeconds) + "s logged) replayed in "
+                   + Math.round(m_replaySeconds * 1000) + "ms"
+                   + "\n  Turn: " + m_turnSamples + " loops | RMS error " + String.format("%.4f", getTurnRmsError())
+                   + " | Max error " + String.format("%.4f", m_turnMaxError) + " | On target mismatches " + m_onTargetMismatches
+                   + "\n  Launcher ready: " + m_readySamples + " loops | Mismatches " + m_readyMismatches
+                   + "\n  Auton state: " + m_autonSamples + " loops | Mismatches " + m_autonMismatches
+                   + (Double.isNaN(m_firstAutonMismatchTime) ? "" : " | First at " + String.format("%.3f", m_firstAutonMismatchTime) + "s");
+        }
+    }
+
+    /**
+     * Answers auton's actions from the current record and the replayed targeting and readiness, rather than driving anything
+     */
+    private static class ReplayActions implements AutonActions {
+        //the machine running these actions, which times the back up path
+        private StateMachine<AutonState> m_stateMachine;
+
+        //how long the back up path takes to drive, when we follow it
+        private final double m_backUpPathTime;
+
+        //the record being replayed, and what the replayed targeting and readiness made of it
+        private TelemetrySnapshot m_record;
+        private boolean m_onTarget;
+        private boolean m_ready;
+
+        /**
+         * Constructor for ReplayActions objects
+         */
+        private ReplayActions() {
+            //the back up path finishes on time rather than at an encoder count
+            m_backUpPathTime = RobotMap.AUTON_FOLLOW_PATH ? Auton.createBackUpPath().getTotalTime() : Double.NaN;
+        }
+
+        /**
+         * Sets what the actions are answered from this loop
+         * @param record The record being replayed
+         * @param onTarget Whether the replayed targeting was on target
+         * @param ready Whether the replayed launcher readiness was ready
+         */
+        private void update(TelemetrySnapshot record, boolean onTarget, boolean ready) {
+            m_record = record;
+            m_onTarget = onTarget;
+            m_ready = ready;
+        }
+
+        @Override
+        public boolean backUp() {
+            if (RobotMap.AUTON_FOLLOW_PATH) {
+                return m_stateMachine.getTimeInState(AutonState.kInitialReverse) >= m_backUpPathTime;
+            }
+            return Auton.hasReversed(m_record.leftPosition, m_record.rightPosition, RobotMap.AUTON_REVERSE_TARGET);
+        }
+
+        @Override
+        public boolean spinUp() {
+            return m_ready;
+        }
+
+        @Override
+        public boolean target() {
+            return m_onTarget;
+        }
+
+        @Override
+        public boolean targetAndHold() {
+            return m_onTarget && (m_record.launcherOutput > RobotMap.LAUNCHER_HOLDING_SPEED - RobotMap.LAUNCHER_HOLDING_TOLERANCE);
+        }
+
+        @Override
+        public boolean targetAndRev() {
+            return m_ready;
+        }
+
+        @Override
+        public boolean runBalls() {
+            return false;
+        }
+
+        @Override
+        public boolean end() {
+            return true;
+        }
+    }
+
+    //the targeting gains to replay with, or null to use the robot map gains for each mode
+    private final double[] m_gains;
+
+    /**
+     * Constructor for ReplayEngine objects
+     * @param gains The P, I and D to use for the targeting controller of every logged targeting mode, or null to use the robot map gains
+     */
+    public ReplayEngine(double[] gains) {
+        m_gains = gains;
+    }
+
+    /**
+     * Replays every record through our logic and compares the outputs
+     * @param records The logged records, oldest first
+     * @return The comparison between the replayed and logged outputs
+     */
+    public Result run(TelemetrySnapshot[] records) {
+        Result result = new Result(m_gains);
+        long startNanos = System.nanoTime();
+
+        //the same controllers the robot builds, with our gains swapped in if we have them
+        PIDController targetController = (m_gains == null)
+            ? LimelightTargeting.createController(RobotMap.TARGETING_P, RobotMap.TARGETING_I, RobotMap.TARGETING_D, RobotMap.TARGETING_PERIOD_S)
+            : LimelightTargeting.createController(m_gains[0], m_gains[1], m_gains[2], RobotMap.TARGETING_PERIOD_S);
+        PIDController aimController = (m_gains == null)
+            ? LimelightTargeting.createController(RobotMap.AIM_LOOP_GAINS.kP, RobotMap.AIM_LOOP_GAINS.kI, RobotMap.AIM_LOOP_GAINS.kD, RobotMap.AIM_LOOP_PERIOD_S)
+            : LimelightTargeting.createController(m_gains[0], m_gains[1], m_gains[2], RobotMap.AIM_LOOP_PERIOD_S);
+        HeadingHistory headingHistory = new HeadingHistory(RobotMap.HEADING_HISTORY_SIZE);
+        FlywheelReadiness readiness = Launcher.createReadiness();
+
+        //the replayed state carried between loops
+        boolean wasTargeting = false;
+        boolean hasTargetHeading = false;
+        double targetHeading = 0;
+
+        //auton's own table, answered from the log, which is made fresh each time auton starts
+        ReplayActions autonActions = new ReplayActions();
+        StateMachine<AutonState> autonStateMachine = null;
+
+        for (TelemetrySnapshot record : records) {
+            headingHistory.addSample(record.timestamp, record.yaw);
+
+            //replay targeting, starting fresh each time we start targeting like resetError() does
+            boolean onTarget = false;
+            if (record.targetingActive) {
+                if (!wasTargeting) {
+                    targetController.reset();
+                    aimController.reset();
+                    hasTargetHeading = false;
+                }
+
+                if (record.hasTargets) {
+                    double turn;
+                    if (record.targetingMode == TargetingMode.kRaw) {
+                        turn = LimelightTargeting.scaleTurn(targetController.calculate(-record.xDegrees, 0));
+                        onTarget = targetController.atSetpoint();
+                    }
+                    else {
+                        //latch a new target heading from each new frame, looked up at the time the frame was captured
+                        if (record.frameNew || !hasTargetHeading) {
+                            double captureTime = record.timestamp - ((record.latencyMs + RobotMap.LIMELIGHT_CAPTURE_LATENCY_MS) / 1000);
+                            targetHeading = LimelightTargeting.computeTargetHeading(headingHistory.getHeadingAt(captureTime), record.xDegrees);
+                            hasTargetHeading = true;
+                        }
+
+                        PIDController controller = (record.targetingMode == TargetingMode.kGyroLatched) ? aimController : targetController;
+                        turn = LimelightTargeting.scaleTurn(controller.calculate(record.yaw, targetHeading));
+                        onTarget = controller.atSetpoint();
+                    }
+
+                    double error = Math.abs(turn - record.driveTurn);
+                    result.m_turnSamples++;
+                    result.m_turnSquaredError += error * error;
+                    result.m_turnMaxError = Math.max(result.m_turnMaxError, error);
+                    if (onTarget != record.onTarget) {
+                        result.m_onTargetMismatches++;
+                    }
+                }
+                //latency compensated targeting forgets its heading when it loses the target
+                else if (record.targetingMode == TargetingMode.kLatencyCompensated) {
+                    hasTargetHeading = false;
+                }
+            }
+            wasTargeting = record.targetingActive;
+
+            //replay launcher readiness while the launcher is in velocity control
+            boolean ready = false;
+            if (record.launcherTargetVelocity != 0) {
+                readiness.addSample(record.timestamp, record.launcherVelocity / RobotMap.RPM_TO_UNITS_PER_100MS,
+                                    record.launcherTargetVelocity / RobotMap.RPM_TO_UNITS_PER_100MS);
+                ready = readiness.isReady();
+
+                result.m_readySamples++;
+                if (ready != record.launcherReady) {
+                    result.m_readyMismatches++;
+                }
+            }
+            else {
+                readiness.reset();
+            }
+
+            //replay auton's table with the replayed targeting and readiness, on the logged timestamps
+            if (record.robotMode == RobotMode.kAuton) {
+                autonActions.update(record, onTarget, ready);
+                if (autonStateMachine == null) {
+                    autonStateMachine = Auton.createStateMachine(autonActions, false);
+                    autonActions.m_stateMachine = autonStateMachine;
+                    autonStateMachine.start(AutonState.kInitialReverse, record.timestamp);
+                }
+                autonStateMachine.periodic(record.timestamp);
+                AutonState autonState = autonStateMachine.getState();
+
+                result.m_autonSamples++;
+                if (autonState != record.autonState) {
+                    result.m_autonMismatches++;
+                    if (Double.isNaN(result.m_firstAutonMismatchTime)) {
+                        result.m_firstAutonMismatchTime = record.timestamp - records[0].timestamp;
+                    }
+                }
+            }
+            else {
+                autonStateMachine = null;
+            }
+        }
+
+        result.m_records = records.length;
+        if (records.length > 0) {
+            result.m_loggedSeconds = records[records.length - 1].timestamp - records[0].timestamp;
+        }
+        result.m_replaySeconds = (System.nanoTime() - startNanos) / 1.0e9;
+        return result;
+    }
+
+    /**
+     * Parses gain sets written as "p,i,d;p,i,d"
+     * @param gainSets The gain sets, or null
+     * @return One array of P, I and D per set, or a single null set for the robot map gains
+     */
+    private static double[][] parseGains(String gainSets) {
+        if (gainSets == null || gainSets.trim().isEmpty()) {
+            return new double[][] {null};
+        }
+
+        String[] sets = gainSets.split(";");
+        double[][] gains = new double[sets.length][];
+        for (int index = 0; index < sets.length; index++) {
+            String[] values = sets[index].split(",");
+            if (values.length != 3) {
+                throw new IllegalArgumentException("Gain set \"" + sets[index] + "\" is not \"p,i,d\"");
+            }
+            gains[index] = new double[] {Double.parseDouble(values[0].trim()), Double.parseDouble(values[1].trim()),
+                                         Double.parseDouble(values[2].trim())};
+        }
+        return gains;
+    }
+
+    /**
+     * Replays the log in REPLAY_LOG (or the first argument) once for each gain set in REPLAY_GAINS, and prints each result
+     * @param args An optional log file, which overrides REPLAY_LOG
+     */
+    public static void main(String... args) {
+        String logPath = (args.length > 0) ? args[0] : System.getenv(LOG_ENVIRONMENT_VARIABLE);
+        if (logPath == null) {
+            System.out.println("Set " + LOG_ENVIRONMENT_VARIABLE + " to the telemetry log to replay");
+            return;
+        }
+
+        //the PID controllers report themselves to the HAL, so it has to be running even though there is no hardware
+        HAL.initialize(500, 0);
+
+        TelemetrySnapshot[] records;
+        try {
+            records = TelemetryLogReader.read(new File(logPath));
+        }
+        catch (IOException e) {
+            System.out.println("Could not read " + logPath + ": " + e.getMessage());
+            return;
+        }
+
+        for (double[] gains : parseGains(System.getenv(GAINS_ENVIRONMENT_VARIABLE))) {
+            System.out.println(new ReplayEngine(gains).run(records));
+        }
+    }
+}